@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.analytics.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches responses of remote analytics server. Response is fresh during {@code ttl} milliseconds after it is loaded. After that it is
+ * stale during {@code staleTtl} milliseconds: stale response is returned immediately and reloaded in background. Concurrent requests with
+ * the same key share one request to remote server.
+ */
+public class MetricResponseCache {
+    private static final Logger LOG = LoggerFactory.getLogger(MetricResponseCache.class);
+
+    /** Statistic of cache usage. */
+    public static class Stats {
+        private final long hits;
+        private final long staleHits;
+        private final long misses;
+        private final long coalesced;
+        private final long loadFailures;
+        private final long size;
+
+        Stats(long hits, long staleHits, long misses, long coalesced, long loadFailures, long size) {
+            this.hits = hits;
+            this.staleHits = staleHits;
+            this.misses = misses;
+            this.coalesced = coalesced;
+            this.loadFailures = loadFailures;
+            this.size = size;
+        }
+
+        /** Get number of requests served with fresh response. */
+        public long getHits() {
+            return hits;
+        }
+
+        /** Get number of requests served with stale response. */
+        public long getStaleHits() {
+            return staleHits;
+        }
+
+        /** Get number of requests which didn't find response in cache. */
+        public long getMisses() {
+            return misses;
+        }
+
+        /** Get number of missed requests which waited for request of other thread instead of sending own request. */
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        public long getLoadFailures() {
+            return loadFailures;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{" +
+                   "hits=" + hits +
+                   ", staleHits=" + staleHits +
+                   ", misses=" + misses +
+                   ", coalesced=" + coalesced +
+                   ", loadFailures=" + loadFailures +
+                   ", size=" + size +
+                   '}';
+        }
+    }
+
+    private static class Response {
+        final String json;
+        final long   loadTime;
+
+        Response(String json, long loadTime) {
+            this.json = json;
+            this.loadTime = loadTime;
+        }
+    }
+
+    private final long                                         ttl;
+    private final Cache<String, Response>                      responses;
+    private final ConcurrentMap<String, SettableFuture<String>> loading;
+    private final ThreadPoolExecutor                           refresher;
+    private final AtomicLong                                   hits;
+    private final AtomicLong                                   staleHits;
+    private final AtomicLong                                   misses;
+    private final AtomicLong                                   coalesced;
+    private final AtomicLong                                   loadFailures;
+
+    /**
+     * @param ttl
+     *         time in milliseconds during that response is fresh
+     * @param staleTtl
+     *         time in milliseconds during that expired response may be returned while it is reloaded
+     * @param maxSize
+     *         max number of cached responses
+     */
+    public MetricResponseCache(long ttl, long staleTtl, int maxSize) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("Time to live must be greater than zero. ");
+        }
+        this.ttl = ttl;
+        responses = CacheBuilder.newBuilder()
+                                .maximumSize(maxSize)
+                                .expireAfterWrite(ttl + Math.max(0, staleTtl), TimeUnit.MILLISECONDS)
+                                .build();
+        loading = new ConcurrentHashMap<>();
+        refresher = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(1000),
+                                           new ThreadFactoryBuilder().setNameFormat("MetricResponseCache-%d").setDaemon(true).build());
+        refresher.allowCoreThreadTimeOut(true);
+        hits = new AtomicLong();
+        staleHits = new AtomicLong();
+        misses = new AtomicLong();
+        coalesced = new AtomicLong();
+        loadFailures = new AtomicLong();
+    }
+
+    /**
+     * Get cached response or load it with {@code loader}.
+     *
+     * @param key
+     *         key of response, must include everything that may change response
+     * @param loader
+     *         loads response from remote server
+     * @return JSON response
+     * @throws Exception
+     *         if response isn't cached and {@code loader} failed
+     */
+    public String get(String key, Callable<String> loader) throws Exception {
+        final Response response = responses.getIfPresent(key);
+        if (response != null) {
+            if (System.currentTimeMillis() - response.loadTime < ttl) {
+                hits.incrementAndGet();
+            } else {
+                staleHits.incrementAndGet();
+                refresh(key, loader);
+            }
+            return response.json;
+        }
+        misses.incrementAndGet();
+        try {
+            return load(key, loader).get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception)cause;
+            }
+            throw e;
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.get(), staleHits.get(), misses.get(), coalesced.get(), loadFailures.get(), responses.size());
+    }
+
+    public void invalidateAll() {
+        responses.invalidateAll();
+    }
+
+    /** Stops background reloading of stale responses. */
+    public void stop() {
+        refresher.shutdownNow();
+    }
+
+    private SettableFuture<String> load(String key, Callable<String> loader) {
+        final SettableFuture<String> future = SettableFuture.create();
+        final SettableFuture<String> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing;
+        }
+        try {
+            final String json = loader.call();
+            responses.put(key, new Response(json, System.currentTimeMillis()));
+            future.set(json);
+        } catch (Exception e) {
+            loadFailures.incrementAndGet();
+            future.setException(e);
+        } finally {
+            loading.remove(key, future);
+        }
+        return future;
+    }
+
+    private void refresh(final String key, final Callable<String> loader) {
+        if (loading.containsKey(key)) {
+            return;
+        }
+        try {
+            refresher.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        load(key, loader).get();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (ExecutionException e) {
+                        // Stale response is kept until it expires.
+                        LOG.warn("Unable reload response {}: {}", key, e.getCause().getMessage());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Too many responses are reloaded or cache is stopped, try on next request.
+        }
+    }
+}
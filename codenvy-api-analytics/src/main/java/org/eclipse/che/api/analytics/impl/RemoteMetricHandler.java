@@ -38,9 +38,14 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation provides means to perform remote REST requests to receive analytics data from remote rest service.
+ * <p/>
+ * Responses are cached with {@link MetricResponseCache} per user, requested metric and parameters, see {@link #CACHE_TTL}. Caching is
+ * disabled if TTL is set to {@code 0}.
  *
  * @author Dmitry Kuleshov
  * @author Anatoliy Bazko
@@ -49,13 +54,39 @@ public class RemoteMetricHandler implements MetricHandler {
 
     private static final String PROXY_URL = "analytics.api.proxy_url";
 
+    /** Time in seconds during that response of remote server is fresh. */
+    public static final String CACHE_TTL       = "analytics.api.cache.ttl";
+    /** Time in seconds during that expired response may be returned while it is reloaded in background. */
+    public static final String CACHE_STALE_TTL = "analytics.api.cache.stale_ttl";
+    /** Max number of cached responses. */
+    public static final String CACHE_MAX_SIZE  = "analytics.api.cache.max_size";
+
+    private static final long DEFAULT_CACHE_TTL       = 60;
+    private static final long DEFAULT_CACHE_STALE_TTL = 300;
+    private static final int  DEFAULT_CACHE_MAX_SIZE  = 10000;
+
     private String proxyUrl;
 
+    private final MetricResponseCache cache;
+
     public RemoteMetricHandler(Properties properties) {
         this.proxyUrl = properties.getProperty(PROXY_URL);
         if (this.proxyUrl == null) {
             throw new IllegalArgumentException("Not defined mandatory property " + PROXY_URL);
         }
+        final long ttl = Long.parseLong(properties.getProperty(CACHE_TTL, String.valueOf(DEFAULT_CACHE_TTL)));
+        if (ttl > 0) {
+            final long staleTtl = Long.parseLong(properties.getProperty(CACHE_STALE_TTL, String.valueOf(DEFAULT_CACHE_STALE_TTL)));
+            final int maxSize = Integer.parseInt(properties.getProperty(CACHE_MAX_SIZE, String.valueOf(DEFAULT_CACHE_MAX_SIZE)));
+            this.cache = new MetricResponseCache(TimeUnit.SECONDS.toMillis(ttl), TimeUnit.SECONDS.toMillis(staleTtl), maxSize);
+        } else {
+            this.cache = null;
+        }
+    }
+
+    /** Get statistic of response cache or {@code null} if caching is disabled. */
+    public MetricResponseCache.Stats getCacheStats() {
+        return cache == null ? null : cache.getStats();
     }
 
     @Override
@@ -226,10 +257,51 @@ public class RemoteMetricHandler implements MetricHandler {
     }
 
     private <DTO> DTO request(Class<DTO> dtoInterface,
-                              String proxyUrl,
-                              String method,
-                              Object body,
-                              Pair<String, ?>... parameters) throws IOException {
+                              final String proxyUrl,
+                              final String method,
+                              final Object body,
+                              final Pair<String, ?>... parameters) throws Exception {
+        final String json;
+        if (cache == null) {
+            json = doRequest(proxyUrl, method, body, parameters);
+        } else {
+            json = cache.get(getCacheKey(proxyUrl, method, body, parameters), new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return doRequest(proxyUrl, method, body, parameters);
+                }
+            });
+        }
+        return DtoFactory.getInstance().createDtoFromJson(json, dtoInterface);
+    }
+
+    /**
+     * Key of response in cache. Includes everything that may change response except authentication token, since responses are the same
+     * for all sessions of the same user.
+     */
+    private String getCacheKey(String proxyUrl, String method, Object body, Pair<String, ?>... parameters) {
+        final List<String> normalized = new ArrayList<>(parameters.length);
+        for (Pair<String, ?> parameter : parameters) {
+            if (!"token".equals(parameter.first)) {
+                normalized.add(parameter.first + '=' + parameter.second);
+            }
+        }
+        Collections.sort(normalized);
+        final User user = EnvironmentContext.getCurrent().getUser();
+        final StringBuilder key = new StringBuilder();
+        key.append(user == null ? "" : user.getId()).append('\n');
+        key.append(method).append(' ').append(proxyUrl).append('\n');
+        key.append(normalized).append('\n');
+        if (body != null) {
+            key.append(DtoFactory.getInstance().toJson(body));
+        }
+        return key.toString();
+    }
+
+    private String doRequest(String proxyUrl,
+                             String method,
+                             Object body,
+                             Pair<String, ?>... parameters) throws IOException {
 
         if (parameters != null && parameters.length > 0) {
             final StringBuilder sb = new StringBuilder();
@@ -275,9 +347,7 @@ public class RemoteMetricHandler implements MetricHandler {
             if (!contentType.startsWith("application/json")) {
                 throw new IOException("Unsupported type of response from remote server. ");
             }
-            try (InputStream input = conn.getInputStream()) {
-                return DtoFactory.getInstance().createDtoFromJson(input, dtoInterface);
-            }
+            return IoUtil.readAndCloseQuietly(conn.getInputStream());
         } finally {
             conn.disconnect();
         }
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.analytics.logger;
+
+import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EventQueue} based on {@link LinkedBlockingQueue}.
+ */
+class BlockingEventQueue implements EventQueue {
+    private final BlockingQueue<String> queue;
+    private final int                   capacity;
+
+    BlockingEventQueue(int capacity) {
+        this.capacity = capacity;
+        queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public boolean offer(String message) {
+        return queue.offer(message);
+    }
+
+    @Override
+    public int drainTo(Collection<String> to, int maxMessages, long timeout, TimeUnit unit) throws InterruptedException {
+        final String first = queue.poll(timeout, unit);
+        if (first == null) {
+            return 0;
+        }
+        to.add(first);
+        return 1 + queue.drainTo(to, maxMessages - 1);
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+}
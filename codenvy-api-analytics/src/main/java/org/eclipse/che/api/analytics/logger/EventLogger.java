@@ -15,17 +15,26 @@ import com.google.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Logs analytics events. Events are queued and written by single background thread in batches, so callers never wait for logging.
+ * Events are dropped if queue is full. Type of queue is configured with {@link #QUEUE_TYPE} parameter, {@code blocking} (default) or
+ * {@code ring} for preallocated lock-free ring buffer which suits better for high rate of events.
+ *
  * @author Anatoliy Bazko
  */
 @Singleton
@@ -49,11 +58,15 @@ public class EventLogger {
     public static final String SESSION_USAGE         = "session-usage";
     public static final String SESSION_FACTORY_USAGE = "session-factory-usage";
 
+    /** Name of configuration parameter that sets type of event queue. */
+    public static final String QUEUE_TYPE = "analytics.logger.queue";
+
     private static final int MAX_EXTENDED_PARAMS_NUMBER = 3;
     private static final int RESERVED_PARAMS_NUMBER     = 6;
     private static final int MAX_PARAM_NAME_LENGTH      = 20;
     private static final int MAX_PARAM_VALUE_LENGTH     = 100;
     private static final int QUEUE_MAX_CAPACITY         = 10000;
+    private static final int MAX_BATCH_SIZE             = 512;
 
     private static final Set<String> ALLOWED_EVENTS = new HashSet<String>() {{
         add(IDE_USAGE);
@@ -63,30 +76,65 @@ public class EventLogger {
         add(SESSION_FACTORY_USAGE);
     }};
 
-    private final Thread        logThread;
-    private final Queue<String> queue;
+    private final EventQueue queue;
+    /** Number of ignored events due to maximum queue capacity. */
+    private final AtomicLong ignoredEvents;
+    private final AtomicLong loggedEvents;
 
-    /**
-     * Stores the number of ignored events due to maximum queue capacity
-     */
-    private long ignoredEvents;
+    private Thread logThread;
 
     public EventLogger() {
-        this.queue = new LinkedBlockingQueue<>(QUEUE_MAX_CAPACITY);
-        this.ignoredEvents = 0;
+        this(null);
+    }
 
-        logThread = new LogThread();
-        logThread.setDaemon(true);
+    @Inject
+    public EventLogger(@Nullable @Named(QUEUE_TYPE) String queueType) {
+        if (queueType == null || "blocking".equals(queueType)) {
+            this.queue = new BlockingEventQueue(QUEUE_MAX_CAPACITY);
+        } else if ("ring".equals(queueType)) {
+            this.queue = new RingBufferEventQueue(QUEUE_MAX_CAPACITY);
+        } else {
+            throw new IllegalArgumentException("Unknown type of analytics event queue: " + queueType);
+        }
+        this.ignoredEvents = new AtomicLong();
+        this.loggedEvents = new AtomicLong();
     }
 
     @PostConstruct
-    public void init() {
-        logThread.start();
+    public synchronized void init() {
+        if (logThread == null) {
+            logThread = new LogThread();
+            logThread.setDaemon(true);
+            logThread.start();
+        }
     }
 
     @PreDestroy
-    public void destroy() {
-        logThread.interrupt();
+    public synchronized void destroy() {
+        if (logThread != null) {
+            logThread.interrupt();
+            try {
+                logThread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            logThread = null;
+        }
+    }
+
+    /** Get number of events which were dropped since queue was full. */
+    public long getIgnoredEvents() {
+        return ignoredEvents.get();
+    }
+
+    /** Get number of events which were written to log. */
+    public long getLoggedEvents() {
+        return loggedEvents.get();
+    }
+
+    /** Get number of events which wait in queue, i.e. how far logging lags behind. */
+    public int getQueueSize() {
+        return queue.size();
     }
 
     public void log(String event, Map<String, String> parameters) throws UnsupportedEncodingException {
@@ -99,8 +147,9 @@ public class EventLogger {
 
             String message = createMessage(event, parameters);
             if (!offerEvent(message)) {
-                if (ignoredEvents++ % 1000 == 0) {
-                    LOG.warn("Ignored " + ignoredEvents + " events due to maximum queue capacity");
+                final long ignored = ignoredEvents.incrementAndGet();
+                if (ignored % 1000 == 1) {
+                    LOG.warn("Ignored " + ignored + " events due to maximum queue capacity");
                 }
             }
         }
@@ -110,6 +159,16 @@ public class EventLogger {
         return queue.offer(message);
     }
 
+    /**
+     * Writes batch of messages. Invoked by logging thread only. Messages are passed to logger one by one, flushing of output is
+     * controlled by configuration of appender.
+     */
+    protected void write(List<String> messages) {
+        for (String message : messages) {
+            LOG.info(message);
+        }
+    }
+
     private String createMessage(String event, Map<String, String> parameters) throws UnsupportedEncodingException {
         StringBuilder message = new StringBuilder();
 
@@ -183,10 +242,7 @@ public class EventLogger {
         }
     }
 
-    /**
-     * Is responsible for logging events.
-     * Rate-limit is 50 messages per second.
-     */
+    /** Is responsible for logging events. Takes all available events from queue and writes them at once. */
     private class LogThread extends Thread {
         private LogThread() {
             super("Analytics Event Logger");
@@ -194,23 +250,41 @@ public class EventLogger {
 
         @Override
         public void run() {
-            LOG.info(getName() + " thread is started, queue is initialized for " + QUEUE_MAX_CAPACITY + " messages");
-            while (!isInterrupted()) {
-                String message = queue.poll();
-
+            LOG.info(getName() + " thread is started, queue is initialized for " + queue.capacity() + " messages");
+            final List<String> batch = new ArrayList<>(MAX_BATCH_SIZE);
+            try {
+                while (!isInterrupted()) {
+                    if (queue.drainTo(batch, MAX_BATCH_SIZE, 1, TimeUnit.SECONDS) > 0) {
+                        writeBatch(batch);
+                    }
+                }
+            } catch (InterruptedException ignored) {
+            }
+            // Write events which are already accepted. Clear interrupted status otherwise blocking queue refuses to give them.
+            interrupted();
+            while (queue.size() > 0) {
                 try {
-                    if (message != null) {
-                        LOG.info(message);
-                        sleep(20);
-                    } else {
-                        sleep(1000);
+                    if (queue.drainTo(batch, MAX_BATCH_SIZE, 0, TimeUnit.MILLISECONDS) == 0) {
+                        break;
                     }
-                } catch (InterruptedException e) {
+                } catch (InterruptedException ignored) {
                     break;
                 }
+                writeBatch(batch);
             }
 
             LOG.info(getName() + " thread is stopped");
         }
+
+        private void writeBatch(List<String> batch) {
+            try {
+                write(batch);
+                loggedEvents.addAndGet(batch.size());
+            } catch (RuntimeException e) {
+                LOG.error(e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
     }
 }
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.analytics.logger;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue of analytics messages which are written by single consumer thread.
+ */
+interface EventQueue {
+    /**
+     * Adds message to the queue if there is free space.
+     *
+     * @return {@code false} if queue is full
+     */
+    boolean offer(String message);
+
+    /**
+     * Moves up to {@code maxMessages} messages to {@code to}. Waits up to specified time if queue is empty. Must be called from single
+     * thread.
+     *
+     * @return number of moved messages, {@code 0} if no messages appear in queue during specified time
+     */
+    int drainTo(Collection<String> to, int maxMessages, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /** Get number of messages that wait in the queue. */
+    int size();
+
+    int capacity();
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.analytics.logger;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link EventQueue} based on preallocated ring buffer in the style of disruptor. Producers claim slot with CAS on the tail sequence
+ * and publish message in the slot, single consumer takes published messages in order of claimed sequences. Neither producers nor
+ * consumer take locks and no objects are allocated per message. Consumer waits for messages with short parks, so this queue suits for
+ * steady stream of messages better than {@link BlockingEventQueue}.
+ */
+class RingBufferEventQueue implements EventQueue {
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AtomicReferenceArray<String> slots;
+    private final int                          mask;
+    /** Next sequence to be claimed by producer. */
+    private final AtomicLong                   tail;
+    /** Next sequence to be read by consumer. */
+    private final AtomicLong                   head;
+
+    /**
+     * @param capacity
+     *         capacity of the queue, rounded up to the nearest power of two
+     */
+    RingBufferEventQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero. ");
+        }
+        final int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+        tail = new AtomicLong();
+        head = new AtomicLong();
+    }
+
+    @Override
+    public boolean offer(String message) {
+        if (message == null) {
+            throw new NullPointerException();
+        }
+        for (; ; ) {
+            final long t = tail.get();
+            if (t - head.get() >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                // Slot is free: consumer clears it before it moves head.
+                slots.set((int)t & mask, message);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<String> to, int maxMessages, long timeout, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long parkNanos = 1000;
+        int drained;
+        while ((drained = drainPublished(to, maxMessages)) == 0) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return 0;
+            }
+            LockSupport.parkNanos(Math.min(parkNanos, remaining));
+            parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+        }
+        return drained;
+    }
+
+    private int drainPublished(Collection<String> to, int maxMessages) {
+        long h = head.get();
+        int drained = 0;
+        while (drained < maxMessages) {
+            final int index = (int)h & mask;
+            // null if slot is claimed but message isn't published yet or queue is empty
+            final String message = slots.get(index);
+            if (message == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            to.add(message);
+            h++;
+            drained++;
+        }
+        if (drained > 0) {
+            head.set(h);
+        }
+        return drained;
+    }
+
+    @Override
+    public int size() {
+        return (int)Math.max(0, tail.get() - head.get());
+    }
+
+    @Override
+    public int capacity() {
+        return slots.length();
+    }
+}
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.analytics.impl;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.eclipse.che.api.analytics.shared.dto.MetricValueDTO;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Checks caching of responses of remote server. Stub metric server returns number of received requests as metric value.
+ */
+public class TestRemoteMetricHandler {
+
+    private HttpServer             server;
+    private AtomicInteger          requests;
+    private volatile CountDownLatch release;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        requests = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/analytics/metric/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                final int value = requests.incrementAndGet();
+                final CountDownLatch latch = release;
+                if (latch != null) {
+                    try {
+                        latch.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                final String path = exchange.getRequestURI().getPath();
+                final byte[] body = ("{\"name\":\"" + path.substring(path.lastIndexOf('/') + 1) +
+                                     "\",\"value\":\"" + value + "\",\"type\":\"LONG\"}").getBytes("UTF-8");
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(body);
+                }
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldCacheResponse() throws Exception {
+        RemoteMetricHandler handler = createHandler(60, 60);
+
+        assertEquals(handler.getValue("users", context("PER_PAGE", "10", "PAGE", "1"), null).getValue(), "1");
+        assertEquals(handler.getValue("users", context("PAGE", "1", "PER_PAGE", "10"), null).getValue(), "1");
+        assertEquals(requests.get(), 1);
+        assertEquals(handler.getCacheStats().getHits(), 1);
+        assertEquals(handler.getCacheStats().getMisses(), 1);
+    }
+
+    @Test
+    public void shouldNotShareResponseForDifferentParameters() throws Exception {
+        RemoteMetricHandler handler = createHandler(60, 60);
+
+        assertEquals(handler.getValue("users", context("PAGE", "1"), null).getValue(), "1");
+        assertEquals(handler.getValue("users", context("PAGE", "2"), null).getValue(), "2");
+        assertEquals(handler.getValue("factories", context("PAGE", "1"), null).getValue(), "3");
+        assertEquals(requests.get(), 3);
+    }
+
+    @Test
+    public void shouldSendOneRequestForConcurrentIdenticalQueries() throws Exception {
+        final RemoteMetricHandler handler = createHandler(60, 60);
+        release = new CountDownLatch(1);
+        final int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<MetricValueDTO>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(new Callable<MetricValueDTO>() {
+                    @Override
+                    public MetricValueDTO call() throws Exception {
+                        return handler.getValue("users", context("PAGE", "1"), null);
+                    }
+                }));
+            }
+            waitFor(handler, threads);
+            release.countDown();
+            for (Future<MetricValueDTO> result : results) {
+                assertEquals(result.get(10, TimeUnit.SECONDS).getValue(), "1");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(requests.get(), 1);
+        assertEquals(handler.getCacheStats().getMisses(), threads);
+        assertEquals(handler.getCacheStats().getCoalesced(), threads - 1);
+    }
+
+    @Test
+    public void shouldReturnStaleResponseWhileReloading() throws Exception {
+        RemoteMetricHandler handler = createHandler(1, 60);
+
+        assertEquals(handler.getValue("users", context("PAGE", "1"), null).getValue(), "1");
+        Thread.sleep(1100);
+        assertEquals(handler.getValue("users", context("PAGE", "1"), null).getValue(), "1");
+        assertEquals(handler.getCacheStats().getStaleHits(), 1);
+
+        final long end = System.currentTimeMillis() + 5000;
+        while (requests.get() < 2 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        String value;
+        while (!"2".equals(value = handler.getValue("users", context("PAGE", "1"), null).getValue()) && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(value, "2");
+        assertEquals(requests.get(), 2);
+    }
+
+    @Test
+    public void shouldNotCacheWhenTtlIsZero() throws Exception {
+        RemoteMetricHandler handler = createHandler(0, 0);
+
+        assertEquals(handler.getValue("users", context("PAGE", "1"), null).getValue(), "1");
+        assertEquals(handler.getValue("users", context("PAGE", "1"), null).getValue(), "2");
+        assertNull(handler.getCacheStats());
+    }
+
+    private RemoteMetricHandler createHandler(long ttl, long staleTtl) {
+        Properties properties = new Properties();
+        properties.setProperty("analytics.api.proxy_url", "http://localhost:" + server.getAddress().getPort() + "/analytics");
+        properties.setProperty(RemoteMetricHandler.CACHE_TTL, String.valueOf(ttl));
+        properties.setProperty(RemoteMetricHandler.CACHE_STALE_TTL, String.valueOf(staleTtl));
+        return new RemoteMetricHandler(properties);
+    }
+
+    private void waitFor(RemoteMetricHandler handler, int misses) throws InterruptedException {
+        final long end = System.currentTimeMillis() + 5000;
+        while (handler.getCacheStats().getMisses() < misses && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertTrue(handler.getCacheStats().getMisses() >= misses);
+        // let the last thread join to request which is already sent
+        Thread.sleep(100);
+    }
+
+    private static Map<String, String> context(String... parameters) {
+        Map<String, String> context = new HashMap<>();
+        for (int i = 0; i < parameters.length; i += 2) {
+            context.put(parameters[i], parameters[i + 1]);
+        }
+        return Collections.unmodifiableMap(context);
+    }
+}
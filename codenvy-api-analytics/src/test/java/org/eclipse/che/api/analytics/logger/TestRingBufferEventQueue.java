@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.analytics.logger;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestRingBufferEventQueue {
+
+    @Test
+    public void shouldRoundCapacityToPowerOfTwo() {
+        assertEquals(new RingBufferEventQueue(1000).capacity(), 1024);
+        assertEquals(new RingBufferEventQueue(512).capacity(), 512);
+    }
+
+    @Test
+    public void shouldRefuseMessagesWhenFull() throws Exception {
+        EventQueue queue = new RingBufferEventQueue(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer("message" + i));
+        }
+        assertFalse(queue.offer("message4"));
+        assertEquals(queue.size(), 4);
+
+        List<String> batch = new ArrayList<>();
+        assertEquals(queue.drainTo(batch, 3, 0, TimeUnit.MILLISECONDS), 3);
+        assertEquals(batch, Arrays.asList("message0", "message1", "message2"));
+        assertTrue(queue.offer("message4"));
+        assertEquals(queue.size(), 2);
+    }
+
+    @Test
+    public void shouldReturnNothingAfterTimeout() throws Exception {
+        EventQueue queue = new RingBufferEventQueue(4);
+        List<String> batch = new ArrayList<>();
+        assertEquals(queue.drainTo(batch, 10, 50, TimeUnit.MILLISECONDS), 0);
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    public void shouldDeliverAllMessagesFromConcurrentProducers() throws Exception {
+        final EventQueue queue = new RingBufferEventQueue(256);
+        final int producers = 4;
+        final int messages = 50000;
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < messages; i++) {
+                        while (!queue.offer(producer + ":" + i)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            };
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        Set<String> received = new HashSet<>();
+        int[] last = new int[producers];
+        Arrays.fill(last, -1);
+        List<String> batch = new ArrayList<>();
+        final long end = System.currentTimeMillis() + 30000;
+        while (received.size() < producers * messages && System.currentTimeMillis() < end) {
+            queue.drainTo(batch, 512, 100, TimeUnit.MILLISECONDS);
+            for (String message : batch) {
+                int separator = message.indexOf(':');
+                int producer = Integer.parseInt(message.substring(0, separator));
+                int i = Integer.parseInt(message.substring(separator + 1));
+                // messages of the same producer keep order
+                assertEquals(i, last[producer] + 1);
+                last[producer] = i;
+                received.add(message);
+            }
+            batch.clear();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(received.size(), producers * messages);
+        assertEquals(queue.size(), 0);
+    }
+}
@@ -30,6 +30,8 @@ import org.eclipse.che.api.core.UnauthorizedException;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.core.rest.HttpJsonHelper;
+import org.eclipse.che.api.core.rest.RemoteServiceDescriptor;
+import org.eclipse.che.api.core.rest.RemoteServiceHealthMonitor;
 import org.eclipse.che.api.core.rest.ServiceContext;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.api.project.server.ProjectService;
@@ -113,6 +115,8 @@ public class BuildQueue {
     private final Cache<BaseBuilderRequest, RemoteTask>      successfulBuilds;
     private final AtomicBoolean                              started;
     private final long                                       keepResultTimeMillis;
+    private final RemoteServiceHealthMonitor                 healthMonitor;
+    private final RemoteServiceHealthMonitor.Listener        healthListener;
 
     private ExecutorService          executor;
     private ScheduledExecutorService scheduler;
@@ -140,6 +144,8 @@ public class BuildQueue {
      *         in this queue. After this time the results of build may be removed.
      * @param maxExecutionTime
      *         build timeout. Configuration parameter that provides build timeout is seconds. After this time build may be terminated.
+     * @param healthMonitor
+     *         monitor that checks availability of builder servers in background
      */
     @Inject
     public BuildQueue(@Nullable @Named("workspace.base_api_url") String baseWorkspaceApiUrl,
@@ -148,7 +154,8 @@ public class BuildQueue {
                       @Named(Constants.MAX_EXECUTION_TIME) int maxExecutionTime,
                       @Named(Constants.KEEP_RESULT_TIME) int keepResultTime,
                       BuilderSelectionStrategy builderSelector,
-                      EventService eventService) {
+                      EventService eventService,
+                      RemoteServiceHealthMonitor healthMonitor) {
         this.baseWorkspaceApiUrl = baseWorkspaceApiUrl;
         this.baseProjectApiUrl = baseProjectApiUrl;
         this.maxExecutionTimeMillis = maxExecutionTime;
@@ -156,11 +163,13 @@ public class BuildQueue {
         this.waitingTimeMillis = TimeUnit.SECONDS.toMillis(waitingTime);
         this.builderSelector = builderSelector;
         this.keepResultTimeMillis = TimeUnit.SECONDS.toMillis(keepResultTime);
+        this.healthMonitor = healthMonitor;
 
         tasks = new ConcurrentHashMap<>();
         builderListMapping = new ConcurrentHashMap<>();
         successfulBuilds = new SynchronizedCache<>(new SLRUCache<BaseBuilderRequest, RemoteTask>(200, 400));
         builderServices = new ConcurrentHashMap<>();
+        healthListener = new BuilderServerHealthListener();
         started = new AtomicBoolean(false);
     }
 
@@ -194,6 +203,20 @@ public class BuildQueue {
         return new ArrayList<>(builderServices.values());
     }
 
+    /**
+     * Get registered builder servers which are not down. Availability of servers is checked in background so this method doesn't send
+     * any requests to remote servers.
+     */
+    public List<RemoteBuilderServer> getAvailableBuilderServers() {
+        final List<RemoteBuilderServer> result = new ArrayList<>(builderServices.size());
+        for (RemoteBuilderServer builderServer : builderServices.values()) {
+            if (healthMonitor.isAvailable(builderServer)) {
+                result.add(builderServer);
+            }
+        }
+        return result;
+    }
+
     /**
      * Register remote SlaveBuildService which can process builds.
      *
@@ -242,7 +265,10 @@ public class BuildQueue {
                 builderList = newBuilderList;
             }
         }
-        return builderList.addBuilders(builderServer.getRemoteBuilders());
+        final boolean modified = builderList.addBuilders(builderServer.getRemoteBuilders());
+        // Server just responded, no need to check it immediately.
+        healthMonitor.watch(builderServer, RemoteServiceHealthMonitor.Health.UP);
+        return modified;
     }
 
     /**
@@ -261,6 +287,7 @@ public class BuildQueue {
             return false;
         }
         final RemoteBuilderServer builderServer = builderServices.remove(url);
+        healthMonitor.unwatch(url);
         return builderServer != null && doUnregisterBuilders(url);
     }
 
@@ -672,6 +699,8 @@ public class BuildQueue {
             //Log events for analytics
             eventService.subscribe(new AnalyticsMessenger());
 
+            healthMonitor.addListener(healthListener);
+
             if (slaves.length > 0) {
                 executor.execute(new Runnable() {
                     @Override
@@ -679,7 +708,9 @@ public class BuildQueue {
                         final LinkedList<RemoteBuilderServer> servers = new LinkedList<>();
                         for (String slave : slaves) {
                             try {
-                                servers.add(createRemoteBuilderServer(slave));
+                                final RemoteBuilderServer server = createRemoteBuilderServer(slave);
+                                servers.add(server);
+                                healthMonitor.watch(server, RemoteServiceHealthMonitor.Health.UNKNOWN);
                             } catch (IllegalArgumentException e) {
                                 LOG.error(e.getMessage(), e);
                             }
@@ -691,7 +722,9 @@ public class BuildQueue {
                                     return;
                                 }
                                 final RemoteBuilderServer server = servers.pop();
-                                if (server.isAvailable()) {
+                                final RemoteServiceHealthMonitor.Health health = healthMonitor.getHealth(server.getBaseUrl());
+                                if (health == RemoteServiceHealthMonitor.Health.UP
+                                    || health == RemoteServiceHealthMonitor.Health.DEGRADED) {
                                     try {
                                         doRegisterBuilderServer(server);
                                         LOG.debug("Pre-configured slave builder server {} registered. ", server.getBaseUrl());
@@ -700,7 +733,9 @@ public class BuildQueue {
                                         offline.add(server);
                                     }
                                 } else {
-                                    LOG.warn("Pre-configured slave builder server {} isn't responding. ", server.getBaseUrl());
+                                    if (health == RemoteServiceHealthMonitor.Health.DOWN) {
+                                        LOG.warn("Pre-configured slave builder server {} isn't responding. ", server.getBaseUrl());
+                                    }
                                     offline.add(server);
                                 }
                             }
@@ -757,6 +792,13 @@ public class BuildQueue {
                 interrupted |= true;
                 executor.shutdownNow();
             }
+            healthMonitor.removeListener(healthListener);
+            for (String url : builderServices.keySet()) {
+                healthMonitor.unwatch(url);
+            }
+            for (String url : slaves) {
+                healthMonitor.unwatch(url);
+            }
             tasks.clear();
             builderListMapping.clear();
             successfulBuilds.clear();
@@ -772,6 +814,33 @@ public class BuildQueue {
         return eventService;
     }
 
+    /**
+     * Gets notifications about health of registered builder servers. Builders of server which is down are removed from dispatch and
+     * registered again when server is back.
+     */
+    private class BuilderServerHealthListener implements RemoteServiceHealthMonitor.Listener {
+        @Override
+        public void onHealthChanged(RemoteServiceDescriptor service, RemoteServiceHealthMonitor.Health oldHealth,
+                                    RemoteServiceHealthMonitor.Health newHealth) {
+            final String url = service.getBaseUrl();
+            final RemoteBuilderServer builderServer = builderServices.get(url);
+            if (builderServer == null) {
+                return;
+            }
+            if (newHealth == RemoteServiceHealthMonitor.Health.DOWN) {
+                LOG.error("Builder server {} becomes unavailable", url);
+                doUnregisterBuilders(url);
+            } else if (oldHealth == RemoteServiceHealthMonitor.Health.DOWN) {
+                LOG.info("Builder server {} becomes available", url);
+                try {
+                    doRegisterBuilderServer(builderServer);
+                } catch (BuilderException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
     private static class InternalBuildTask extends FutureTask<RemoteTask> {
         final Long    id;
         final String  workspace;
@@ -48,7 +48,6 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -355,14 +354,7 @@ public class BuilderService extends Service {
     @Path("/builders")
     public List<BuilderDescriptor> getRegisteredServers(@ApiParam(value = "Workspace ID", required = true)
                                                         @PathParam("ws-id") String workspace) {
-        final List<RemoteBuilderServer> builderServers = buildQueue.getRegisterBuilderServers();
-        for (Iterator<RemoteBuilderServer> itr = builderServers.iterator(); itr.hasNext(); ) {
-            final RemoteBuilderServer builderServer = itr.next();
-            if (!builderServer.isAvailable()) {
-                LOG.error("Builder server {} becomes unavailable", builderServer.getBaseUrl());
-                itr.remove();
-            }
-        }
+        final List<RemoteBuilderServer> builderServers = buildQueue.getAvailableBuilderServers();
 
         final List<BuilderDescriptor> result = new LinkedList<>();
         for (RemoteBuilderServer builderServer : builderServers) {
@@ -10,8 +10,101 @@
  *******************************************************************************/
 package org.eclipse.che.api.builder;
 
+import org.eclipse.che.api.builder.dto.BaseBuilderRequest;
+import org.eclipse.che.api.builder.dto.BuildRequest;
+import org.eclipse.che.api.builder.dto.BuilderDescriptor;
+import org.eclipse.che.api.builder.dto.BuilderState;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.rest.RemoteServiceHealthMonitor;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.dto.server.DtoFactory;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+
 /**
  * @author andrew00x
  */
 public class BuildQueueTest {
+    static class StubBuilderServer extends RemoteBuilderServer {
+        final RemoteBuilder builder;
+
+        volatile boolean available = true;
+
+        StubBuilderServer(String baseUrl) {
+            super(baseUrl);
+            builder = new RemoteBuilder(baseUrl, DtoFactory.getInstance().createDto(BuilderDescriptor.class).withName("java"),
+                                        Collections.<Link>emptyList()) {
+                @Override
+                public BuilderState getBuilderState() {
+                    return DtoFactory.getInstance().createDto(BuilderState.class).withName("java").withFreeWorkers(1);
+                }
+            };
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return available;
+        }
+
+        @Override
+        public List<RemoteBuilder> getRemoteBuilders() {
+            return Collections.singletonList(builder);
+        }
+    }
+
+    private RemoteServiceHealthMonitor healthMonitor;
+    private BuildQueue                 buildQueue;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        healthMonitor = new RemoteServiceHealthMonitor(50, 200, 1000, 2);
+        healthMonitor.start();
+        buildQueue = new BuildQueue("http://localhost:8080/api/workspace", "http://localhost:8080/api/project", 60, 60, 60,
+                                    new LastInUseBuilderSelectionStrategy(), new EventService(), healthMonitor);
+        buildQueue.start();
+    }
+
+    @AfterMethod
+    public void afterMethod() {
+        buildQueue.stop();
+        healthMonitor.stop();
+    }
+
+    @Test
+    public void testRouteAroundBuilderServerWhichIsDown() throws Exception {
+        StubBuilderServer server1 = new StubBuilderServer("http://localhost:8080/api/internal/builder1");
+        StubBuilderServer server2 = new StubBuilderServer("http://localhost:8080/api/internal/builder2");
+        buildQueue.doRegisterBuilderServer(server1);
+        buildQueue.doRegisterBuilderServer(server2);
+        assertEquals(buildQueue.getAvailableBuilderServers().size(), 2);
+
+        server2.available = false;
+        // Server is DOWN after two failed checks. Listeners are notified before the next check is scheduled, so after the third failed
+        // check builders of server are surely removed from dispatch.
+        final long end = System.currentTimeMillis() + 3000;
+        while (healthMonitor.getStats(server2.getBaseUrl()).getConsecutiveFailures() < 3 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(healthMonitor.getHealth(server2.getBaseUrl()), RemoteServiceHealthMonitor.Health.DOWN);
+        assertEquals(buildQueue.getAvailableBuilderServers(), Collections.<RemoteBuilderServer>singletonList(server1));
+
+        final BaseBuilderRequest request = DtoFactory.getInstance().createDto(BuildRequest.class).withBuilder("java");
+        for (int i = 0; i < 10; i++) {
+            assertEquals(buildQueue.getBuilder(request).getBaseUrl(), server1.getBaseUrl());
+        }
+
+        server2.available = true;
+        final long end2 = System.currentTimeMillis() + 3000;
+        while (buildQueue.getAvailableBuilderServers().size() < 2 && System.currentTimeMillis() < end2) {
+            Thread.sleep(10);
+        }
+        assertEquals(buildQueue.getAvailableBuilderServers().size(), 2);
+    }
 }
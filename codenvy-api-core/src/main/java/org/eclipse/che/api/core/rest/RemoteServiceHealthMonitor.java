@@ -0,0 +1,374 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Checks availability of remote services in background. Request processing code should ask this monitor about health of remote service
+ * instead of calling {@link RemoteServiceDescriptor#isAvailable()} that opens new connection each time.
+ * <p/>
+ * Each watched service is checked with period {@code checkPeriod}. After failed check next check is delayed with exponential backoff up
+ * to {@code maxCheckPeriod}. Delays are randomized a bit to avoid checking all services at the same time. Service is {@link Health#UP} if
+ * the last check succeeded in {@code degradedLatency} milliseconds, {@link Health#DEGRADED} if it responds slowly or the last check
+ * failed and {@link Health#DOWN} after {@code downThreshold} failed checks in a row.
+ * <p/>
+ * Service that stops responding is marked as {@link Health#DOWN} not earlier than after {@code downThreshold} checks, with default
+ * settings it takes about {@code checkPeriod * (1 + 2 + ... + 2^(downThreshold - 1))}, i.e. 15 seconds: the first failed check is done
+ * up to 5 seconds after service dies and the next one is done in 10 seconds because of backoff. Plus time of connection timeout of
+ * each check if service doesn't respond at all instead of refusing connection.
+ */
+@Singleton
+public class RemoteServiceHealthMonitor {
+    private static final Logger LOG = LoggerFactory.getLogger(RemoteServiceHealthMonitor.class);
+
+    public static final long DEFAULT_CHECK_PERIOD     = 5000;
+    public static final long DEFAULT_MAX_CHECK_PERIOD = 60000;
+    public static final long DEFAULT_DEGRADED_LATENCY = 1000;
+    public static final int  DEFAULT_DOWN_THRESHOLD   = 2;
+
+    private static final double JITTER = 0.2;
+
+    public enum Health {
+        /** Service wasn't checked yet. */
+        UNKNOWN,
+        UP,
+        DEGRADED,
+        DOWN
+    }
+
+    /** Gets notification when health of watched service is changed. Notification is sent in thread of monitor. */
+    public interface Listener {
+        void onHealthChanged(RemoteServiceDescriptor service, Health oldHealth, Health newHealth);
+    }
+
+    /** Result of checks of remote service. */
+    public static class HealthStats {
+        private final Health health;
+        private final long   lastCheckTime;
+        private final long   lastLatency;
+        private final long   averageLatency;
+        private final int    consecutiveFailures;
+        private final long   checks;
+        private final long   failures;
+
+        HealthStats(Health health, long lastCheckTime, long lastLatency, long averageLatency, int consecutiveFailures, long checks,
+                    long failures) {
+            this.health = health;
+            this.lastCheckTime = lastCheckTime;
+            this.lastLatency = lastLatency;
+            this.averageLatency = averageLatency;
+            this.consecutiveFailures = consecutiveFailures;
+            this.checks = checks;
+            this.failures = failures;
+        }
+
+        public Health getHealth() {
+            return health;
+        }
+
+        /** Get time of last check or {@code 0} if service wasn't checked yet. */
+        public long getLastCheckTime() {
+            return lastCheckTime;
+        }
+
+        /** Get time of last successful check in milliseconds. */
+        public long getLastLatency() {
+            return lastLatency;
+        }
+
+        /** Get average time of successful checks in milliseconds. Recent checks have bigger weight. */
+        public long getAverageLatency() {
+            return averageLatency;
+        }
+
+        public int getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+
+        public long getChecks() {
+            return checks;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return "HealthStats{" +
+                   "health=" + health +
+                   ", lastCheckTime=" + lastCheckTime +
+                   ", lastLatency=" + lastLatency +
+                   ", averageLatency=" + averageLatency +
+                   ", consecutiveFailures=" + consecutiveFailures +
+                   ", checks=" + checks +
+                   ", failures=" + failures +
+                   '}';
+        }
+    }
+
+    private final long                                 checkPeriod;
+    private final long                                 maxCheckPeriod;
+    private final long                                 degradedLatency;
+    private final int                                  downThreshold;
+    private final ConcurrentMap<String, WatchedService> services;
+    private final CopyOnWriteArrayList<Listener>        listeners;
+    private final AtomicBoolean                        started;
+
+    private volatile ScheduledExecutorService checker;
+
+    @Inject
+    public RemoteServiceHealthMonitor() {
+        this(DEFAULT_CHECK_PERIOD, DEFAULT_MAX_CHECK_PERIOD, DEFAULT_DEGRADED_LATENCY, DEFAULT_DOWN_THRESHOLD);
+    }
+
+    /**
+     * @param checkPeriod
+     *         period in milliseconds between checks of service
+     * @param maxCheckPeriod
+     *         max period in milliseconds between checks of service which doesn't respond
+     * @param degradedLatency
+     *         service that responds slower than this time in milliseconds is considered as degraded
+     * @param downThreshold
+     *         number of failed checks in a row after that service is considered as down
+     */
+    public RemoteServiceHealthMonitor(long checkPeriod, long maxCheckPeriod, long degradedLatency, int downThreshold) {
+        if (checkPeriod <= 0) {
+            throw new IllegalArgumentException("Check period must be greater than zero. ");
+        }
+        this.checkPeriod = checkPeriod;
+        this.maxCheckPeriod = Math.max(checkPeriod, maxCheckPeriod);
+        this.degradedLatency = degradedLatency;
+        this.downThreshold = Math.max(1, downThreshold);
+        services = new ConcurrentHashMap<>();
+        listeners = new CopyOnWriteArrayList<>();
+        started = new AtomicBoolean(false);
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (started.compareAndSet(false, true)) {
+            checker = Executors.newScheduledThreadPool(Math.min(4, Runtime.getRuntime().availableProcessors()),
+                                                       new ThreadFactoryBuilder().setNameFormat("RemoteServiceHealthMonitor-%d")
+                                                                                 .setDaemon(true).build());
+            for (WatchedService service : services.values()) {
+                final HealthStats stats = service.stats();
+                service.start(stats.getHealth() == Health.UNKNOWN ? 0 : nextDelay(stats));
+            }
+        } else {
+            throw new IllegalStateException("Already started");
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (started.compareAndSet(true, false)) {
+            checker.shutdownNow();
+            for (WatchedService service : services.values()) {
+                service.stop();
+            }
+            try {
+                if (!checker.awaitTermination(5, TimeUnit.SECONDS)) {
+                    LOG.warn("Unable terminate checker");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Start watching health of remote service. Does nothing if service with the same base URL is already watched.
+     *
+     * @param service
+     *         remote service
+     * @param initialHealth
+     *         health of service before the first check, e.g. {@link Health#UP} if service just responded to other request. Service that
+     *         has {@link Health#UNKNOWN} health is checked immediately.
+     */
+    public void watch(RemoteServiceDescriptor service, Health initialHealth) {
+        final WatchedService watched = new WatchedService(service, initialHealth);
+        if (services.putIfAbsent(service.getBaseUrl(), watched) == null) {
+            synchronized (this) {
+                // If monitor isn't started yet the service is scheduled in method start().
+                if (started.get()) {
+                    watched.start(initialHealth == Health.UNKNOWN ? 0 : nextDelay(watched.stats()));
+                }
+            }
+        }
+    }
+
+    /** Stop watching health of remote service. Listeners aren't notified. */
+    public void unwatch(String baseUrl) {
+        final WatchedService watched = services.remove(baseUrl);
+        if (watched != null) {
+            watched.cancel();
+        }
+    }
+
+    /** Get health of remote service or {@link Health#UNKNOWN} if service isn't watched. */
+    public Health getHealth(String baseUrl) {
+        final WatchedService watched = services.get(baseUrl);
+        return watched == null ? Health.UNKNOWN : watched.stats().getHealth();
+    }
+
+    /** Get statistic of checks of remote service or {@code null} if service isn't watched. */
+    public HealthStats getStats(String baseUrl) {
+        final WatchedService watched = services.get(baseUrl);
+        return watched == null ? null : watched.stats();
+    }
+
+    /**
+     * Check whether remote service may accept requests, i.e. it isn't {@link Health#DOWN}. Availability of service that isn't watched is
+     * checked with {@link RemoteServiceDescriptor#isAvailable()}, i.e. with request to the service.
+     */
+    public boolean isAvailable(RemoteServiceDescriptor service) {
+        final WatchedService watched = services.get(service.getBaseUrl());
+        if (watched == null) {
+            return service.isAvailable();
+        }
+        return watched.stats().getHealth() != Health.DOWN;
+    }
+
+    private long nextDelay(HealthStats stats) {
+        long delay = checkPeriod;
+        for (int i = 0; i < stats.getConsecutiveFailures() && delay < maxCheckPeriod; i++) {
+            delay <<= 1;
+        }
+        delay = Math.min(delay, maxCheckPeriod);
+        final long jitter = (long)(delay * JITTER);
+        return jitter > 0 ? delay - jitter + ThreadLocalRandom.current().nextLong(2 * jitter + 1) : delay;
+    }
+
+    private class WatchedService implements Runnable {
+        final RemoteServiceDescriptor service;
+
+        // guarded by this
+        Health             health;
+        long               lastCheckTime;
+        long               lastLatency;
+        long               averageLatency;
+        int                consecutiveFailures;
+        long               checks;
+        long               failures;
+        ScheduledFuture<?> future;
+        boolean            started;
+        boolean            cancelled;
+
+        WatchedService(RemoteServiceDescriptor service, Health health) {
+            this.service = service;
+            this.health = health;
+        }
+
+        synchronized HealthStats stats() {
+            return new HealthStats(health, lastCheckTime, lastLatency, averageLatency, consecutiveFailures, checks, failures);
+        }
+
+        /** Schedule the first check. Does nothing if checks of this service are already scheduled. */
+        synchronized void start(long delay) {
+            if (!started) {
+                started = true;
+                schedule(delay);
+            }
+        }
+
+        synchronized void schedule(long delay) {
+            if (!cancelled) {
+                try {
+                    future = checker.schedule(this, delay, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Monitor is stopped.
+                }
+            }
+        }
+
+        /** Forget about scheduled checks after monitor is stopped, so checks may be scheduled again if monitor is restarted. */
+        synchronized void stop() {
+            started = false;
+            future = null;
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            final long start = System.currentTimeMillis();
+            final boolean available = service.isAvailable();
+            final long latency = System.currentTimeMillis() - start;
+            final Health oldHealth;
+            final Health newHealth;
+            final HealthStats stats;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                oldHealth = health;
+                checks++;
+                lastCheckTime = start;
+                if (available) {
+                    consecutiveFailures = 0;
+                    lastLatency = latency;
+                    averageLatency = averageLatency == 0 ? latency : (averageLatency * 3 + latency) / 4;
+                    health = latency > degradedLatency ? Health.DEGRADED : Health.UP;
+                } else {
+                    consecutiveFailures++;
+                    failures++;
+                    health = consecutiveFailures >= downThreshold ? Health.DOWN : Health.DEGRADED;
+                }
+                newHealth = health;
+                stats = stats();
+            }
+            if (oldHealth != newHealth) {
+                LOG.info("Health of remote service {} changed from {} to {}", service.getBaseUrl(), oldHealth, newHealth);
+                for (Listener listener : listeners) {
+                    try {
+                        listener.onHealthChanged(service, oldHealth, newHealth);
+                    } catch (RuntimeException e) {
+                        LOG.error(e.getMessage(), e);
+                    }
+                }
+            }
+            schedule(nextDelay(stats));
+        }
+    }
+}
@@ -0,0 +1,354 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timer that manages big number of timeouts with a single thread. Timeouts are kept in a hashed wheel: each bucket of wheel holds
+ * timeouts which expire during one tick, the wheel thread wakes up once per tick and expires timeouts of the current bucket. Adding and
+ * cancelling of timeout doesn't depend on number of timeouts, precision of timer is one tick.
+ * <p/>
+ * Expired tasks are run with {@code Executor} passed to constructor. Timer thread is started when the first timeout is added.
+ */
+public final class HashedWheelTimer {
+    private static final Logger LOG = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private static final int STATE_INIT    = 0;
+    private static final int STATE_STARTED = 1;
+    private static final int STATE_STOPPED = 2;
+
+    private static final int TIMEOUT_INIT      = 0;
+    private static final int TIMEOUT_CANCELLED = 1;
+    private static final int TIMEOUT_EXPIRED   = 2;
+
+    /** Max number of new timeouts which are added to wheel in one tick. Rest of them are added in next tick. */
+    private static final int MAX_TRANSFER_PER_TICK = 100000;
+
+    /** Timeout of task. */
+    public interface Timeout {
+        /**
+         * Cancels timeout. Task isn't run after cancellation.
+         *
+         * @return {@code false} if timeout is already expired or cancelled
+         */
+        boolean cancel();
+
+        boolean isCancelled();
+
+        boolean isExpired();
+    }
+
+    private final String                    name;
+    private final long                      tickDuration;
+    private final Bucket[]                  wheel;
+    private final int                       mask;
+    private final Executor                  executor;
+    private final Queue<HashedWheelTimeout> newTimeouts;
+    private final Queue<HashedWheelTimeout> cancelledTimeouts;
+    private final AtomicInteger             state;
+    private final AtomicLong                pendingTimeouts;
+    private final CountDownLatch            startTimeInitialized;
+    private final Thread                    worker;
+
+    private volatile long startTime;
+
+    /**
+     * @param name
+     *         name of timer thread
+     * @param tickDuration
+     *         duration of one tick
+     * @param unit
+     *         unit of {@code tickDuration}
+     * @param ticksPerWheel
+     *         number of buckets in wheel, rounded up to power of two
+     * @param executor
+     *         executor to run expired tasks
+     */
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel, Executor executor) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid tick duration: %d", tickDuration));
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException(String.format("Invalid number of ticks per wheel: %d", ticksPerWheel));
+        }
+        int size = 1;
+        while (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        this.name = name;
+        this.tickDuration = unit.toNanos(tickDuration);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.executor = executor;
+        this.newTimeouts = new ConcurrentLinkedQueue<>();
+        this.cancelledTimeouts = new ConcurrentLinkedQueue<>();
+        this.state = new AtomicInteger(STATE_INIT);
+        this.pendingTimeouts = new AtomicLong();
+        this.startTimeInitialized = new CountDownLatch(1);
+        this.worker = new Thread(new Worker(), name);
+        this.worker.setDaemon(true);
+    }
+
+    /**
+     * Schedules execution of task after specified delay.
+     *
+     * @throws IllegalStateException
+     *         if timer is stopped
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new NullPointerException("Task may not be null. ");
+        }
+        start();
+        final HashedWheelTimeout timeout = new HashedWheelTimeout(task, System.nanoTime() + unit.toNanos(delay) - startTime);
+        pendingTimeouts.incrementAndGet();
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /** Gets number of timeouts which are neither expired nor cancelled yet. */
+    public long getPendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    /** Stops timer. Not expired timeouts are cancelled. */
+    public void stop() {
+        if (state.getAndSet(STATE_STOPPED) == STATE_STARTED) {
+            worker.interrupt();
+            try {
+                worker.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void start() {
+        switch (state.get()) {
+            case STATE_INIT:
+                if (state.compareAndSet(STATE_INIT, STATE_STARTED)) {
+                    startTime = System.nanoTime();
+                    startTimeInitialized.countDown();
+                    worker.start();
+                }
+                break;
+            case STATE_STARTED:
+                break;
+            default:
+                throw new IllegalStateException(String.format("Timer %s is stopped", name));
+        }
+        // Thread that started timer sets start time, others may need to wait for it for a very short time.
+        boolean interrupted = false;
+        while (startTimeInitialized.getCount() > 0) {
+            try {
+                startTimeInitialized.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class Worker implements Runnable {
+        private long tick;
+
+        @Override
+        public void run() {
+            while (state.get() == STATE_STARTED) {
+                final long deadline = waitForNextTick();
+                if (deadline > 0) {
+                    removeCancelled();
+                    transferNewTimeouts();
+                    wheel[(int)(tick & mask)].expire(deadline);
+                    tick++;
+                }
+            }
+            for (Bucket bucket : wheel) {
+                bucket.clear();
+            }
+            HashedWheelTimeout timeout;
+            while ((timeout = newTimeouts.poll()) != null) {
+                timeout.cancel();
+            }
+            removeCancelled();
+        }
+
+        /** Waits until end of current tick. Returns time of end of tick relative to start time or {@code -1} if timer is stopped. */
+        private long waitForNextTick() {
+            final long deadline = tickDuration * (tick + 1);
+            for (; ; ) {
+                final long current = System.nanoTime() - startTime;
+                final long sleepTime = TimeUnit.NANOSECONDS.toMillis(deadline - current + 999999);
+                if (sleepTime <= 0) {
+                    return current;
+                }
+                try {
+                    Thread.sleep(sleepTime);
+                } catch (InterruptedException e) {
+                    if (state.get() == STATE_STOPPED) {
+                        return -1;
+                    }
+                }
+            }
+        }
+
+        private void transferNewTimeouts() {
+            for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+                final HashedWheelTimeout timeout = newTimeouts.poll();
+                if (timeout == null) {
+                    break;
+                }
+                if (timeout.isCancelled()) {
+                    continue;
+                }
+                final long calculated = timeout.deadline / tickDuration;
+                timeout.remainingRounds = (calculated - tick) / wheel.length;
+                // Timeout that should be already expired is put in current bucket.
+                wheel[(int)(Math.max(calculated, tick) & mask)].add(timeout);
+            }
+        }
+
+        private void removeCancelled() {
+            HashedWheelTimeout timeout;
+            while ((timeout = cancelledTimeouts.poll()) != null) {
+                if (timeout.bucket != null) {
+                    timeout.bucket.remove(timeout);
+                }
+            }
+        }
+    }
+
+    private class HashedWheelTimeout implements Timeout {
+        final Runnable      task;
+        final long          deadline;
+        final AtomicInteger timeoutState;
+
+        // accessed by worker thread only
+        long               remainingRounds;
+        Bucket             bucket;
+        HashedWheelTimeout next;
+        HashedWheelTimeout prev;
+
+        HashedWheelTimeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+            this.timeoutState = new AtomicInteger(TIMEOUT_INIT);
+        }
+
+        @Override
+        public boolean cancel() {
+            if (timeoutState.compareAndSet(TIMEOUT_INIT, TIMEOUT_CANCELLED)) {
+                pendingTimeouts.decrementAndGet();
+                cancelledTimeouts.add(this);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return timeoutState.get() == TIMEOUT_CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return timeoutState.get() == TIMEOUT_EXPIRED;
+        }
+
+        void expire() {
+            if (timeoutState.compareAndSet(TIMEOUT_INIT, TIMEOUT_EXPIRED)) {
+                pendingTimeouts.decrementAndGet();
+                try {
+                    executor.execute(task);
+                } catch (RuntimeException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /** Doubly-linked list of timeouts. Accessed by worker thread only. */
+    private static class Bucket {
+        HashedWheelTimeout head;
+        HashedWheelTimeout tail;
+
+        void add(HashedWheelTimeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire(long deadline) {
+            HashedWheelTimeout timeout = head;
+            while (timeout != null) {
+                final HashedWheelTimeout next = timeout.next;
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(HashedWheelTimeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = timeout.next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        void clear() {
+            HashedWheelTimeout timeout;
+            while ((timeout = head) != null) {
+                remove(timeout);
+                timeout.cancel();
+            }
+        }
+    }
+}
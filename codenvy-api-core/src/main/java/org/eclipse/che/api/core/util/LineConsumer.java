@@ -15,6 +15,9 @@ import java.io.IOException;
 
 /**
  * Consumes text line by line for analysing, writing, storing, etc.
+ * <p/>
+ * Consumers of output of process, see {@link ProcessOutputMultiplexer}, must not block: output of process isn't read while its consumer
+ * is blocked.
  *
  * @author andrew00x
  */
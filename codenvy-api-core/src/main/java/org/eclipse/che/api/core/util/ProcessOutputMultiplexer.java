@@ -0,0 +1,497 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reads output of many processes with few threads. Each polling thread checks streams of its processes in turn and reads only bytes that
+ * are already available, so it never waits for output of one process while other processes have something to read. Output is split to
+ * lines which are passed to {@code LineConsumer}s, lines of each stream are delivered in order they are written by process.
+ * <p/>
+ * Lines are passed to {@code LineConsumer}s in delivery threads, not in polling threads, so slow consumer delays only output of its own
+ * process. Reading of process is suspended while too many of its lines wait for delivery. Consumers must not block, e.g. wait for remote
+ * side or for other process: while consumer is blocked output of process isn't read and process stops as soon as its pipe is full.
+ * <p/>
+ * When process is finished the rest of its output is read in separate thread. Usually it is read at once but output stream may stay
+ * open if process started child processes which are still alive, so polling threads never wait for it.
+ * <p/>
+ * Number of polling threads of {@link #getDefault() shared multiplexer} is set with system property {@value #THREADS_PROPERTY}, by
+ * default it is {@value #DEFAULT_THREADS}.
+ */
+public final class ProcessOutputMultiplexer {
+    private static final Logger LOG = LoggerFactory.getLogger(ProcessOutputMultiplexer.class);
+
+    /** Name of system property that sets number of polling threads of {@link #getDefault() shared multiplexer}. */
+    public static final String THREADS_PROPERTY = "org.eclipse.che.process-output.threads";
+    /** Number of polling threads of {@link #getDefault() shared multiplexer} if it isn't set with {@link #THREADS_PROPERTY}. */
+    public static final int    DEFAULT_THREADS  = 2;
+
+    private static final int  BUFFER_SIZE       = 8192;
+    private static final int  MAX_PENDING_LINES = 1024;
+    private static final long MIN_POLL_DELAY    = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long MAX_POLL_DELAY    = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static class DefaultInstanceHolder {
+        static final ProcessOutputMultiplexer INSTANCE =
+                new ProcessOutputMultiplexer("ProcessOutputMultiplexer", Math.max(1, Integer.getInteger(THREADS_PROPERTY, DEFAULT_THREADS)));
+    }
+
+    /** Gets instance of multiplexer shared by all users in JVM. */
+    public static ProcessOutputMultiplexer getDefault() {
+        return DefaultInstanceHolder.INSTANCE;
+    }
+
+    /** Output of process which is read by multiplexer. */
+    public final class Registration {
+        private final StreamReader[]     readers;
+        private final Poller             poller;
+        private final Queue<PendingLine> pending;
+        private final AtomicInteger      pendingLines;
+        private final AtomicBoolean      delivering;
+        private final Runnable           deliverer;
+
+        private volatile boolean cancelled;
+        // accessed by polling thread only
+        private boolean          finished;
+        // guarded by this
+        private IOException      exception;
+        private boolean          done;
+
+        private Registration(StreamReader[] readers, Poller poller) {
+            this.readers = readers;
+            this.poller = poller;
+            pending = new ConcurrentLinkedQueue<>();
+            pendingLines = new AtomicInteger();
+            delivering = new AtomicBoolean();
+            deliverer = new Runnable() {
+                @Override
+                public void run() {
+                    deliver();
+                }
+            };
+        }
+
+        /** Stops reading of output and closes streams of process. */
+        public void cancel() {
+            cancelled = true;
+            LockSupport.unpark(poller.thread);
+        }
+
+        public synchronized boolean isDone() {
+            return done;
+        }
+
+        /** Waits until the whole output of process is read and passed to consumers or reading is cancelled. */
+        public synchronized void await() throws InterruptedException {
+            while (!done) {
+                wait();
+            }
+        }
+
+        /**
+         * Waits until the whole output of process is read and passed to consumers or reading is cancelled.
+         *
+         * @return {@code false} if output isn't read after specified time
+         */
+        public synchronized boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            final long end = System.currentTimeMillis() + unit.toMillis(timeout);
+            long now;
+            while (!done && (now = System.currentTimeMillis()) < end) {
+                wait(end - now);
+            }
+            return done;
+        }
+
+        /** Gets error that occurs while reading output or passing it to {@code LineConsumer} or {@code null}. */
+        public synchronized IOException getException() {
+            return exception;
+        }
+
+        synchronized void setException(IOException e) {
+            if (exception == null) {
+                exception = e;
+            }
+        }
+
+        /** Reads available output. Returns {@code true} if anything is read. Invoked by polling thread only. */
+        boolean poll(byte[] buffer) {
+            if (!cancelled && isBacklogged()) {
+                return false;
+            }
+            boolean read = false;
+            boolean eof = true;
+            for (StreamReader reader : readers) {
+                if (cancelled) {
+                    break;
+                }
+                read |= reader.poll(buffer);
+                eof &= reader.eof;
+            }
+            if (cancelled || eof) {
+                finish();
+            }
+            return read;
+        }
+
+        /** Returns {@code true} if too many lines wait for delivery and reading of process should be suspended. */
+        boolean isBacklogged() {
+            return pendingLines.get() >= MAX_PENDING_LINES;
+        }
+
+        void addLine(LineConsumer consumer, String line) {
+            pending.add(new PendingLine(consumer, line));
+            pendingLines.incrementAndGet();
+            scheduleDelivery();
+        }
+
+        /** Closes streams of process. Registration is done when all lines which are already read are delivered. */
+        private void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            for (StreamReader reader : readers) {
+                reader.close();
+            }
+            pending.add(PendingLine.END);
+            scheduleDelivery();
+        }
+
+        private void scheduleDelivery() {
+            if (delivering.compareAndSet(false, true)) {
+                try {
+                    delivery.execute(deliverer);
+                } catch (RejectedExecutionException e) {
+                    // Multiplexer is stopped.
+                    deliver();
+                }
+            }
+        }
+
+        /** Passes lines to consumers. Only one thread delivers lines of registration at a time, so lines keep their order. */
+        private void deliver() {
+            do {
+                PendingLine pendingLine;
+                while ((pendingLine = pending.poll()) != null) {
+                    if (pendingLine == PendingLine.END) {
+                        synchronized (this) {
+                            done = true;
+                            notifyAll();
+                        }
+                        continue;
+                    }
+                    pendingLines.decrementAndGet();
+                    if (cancelled) {
+                        continue;
+                    }
+                    try {
+                        pendingLine.consumer.writeLine(pendingLine.line);
+                    } catch (IOException e) {
+                        setException(e);
+                    } catch (RuntimeException e) {
+                        LOG.error(e.getMessage(), e);
+                        cancel();
+                    }
+                }
+                delivering.set(false);
+            } while (!pending.isEmpty() && delivering.compareAndSet(false, true));
+        }
+    }
+
+    private static final class PendingLine {
+        static final PendingLine END = new PendingLine(null, null);
+
+        final LineConsumer consumer;
+        final String       line;
+
+        PendingLine(LineConsumer consumer, String line) {
+            this.consumer = consumer;
+            this.line = line;
+        }
+    }
+
+    private final Poller[]        pollers;
+    private final AtomicInteger   nextPoller;
+    private final ExecutorService finisher;
+    private final ExecutorService delivery;
+
+    private volatile boolean stopped;
+
+    /**
+     * @param name
+     *         prefix for names of threads
+     * @param threads
+     *         number of polling threads
+     */
+    public ProcessOutputMultiplexer(String name, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException(String.format("Invalid number of threads: %d", threads));
+        }
+        pollers = new Poller[threads];
+        for (int i = 0; i < threads; i++) {
+            pollers[i] = new Poller(name + "-" + i);
+        }
+        nextPoller = new AtomicInteger();
+        finisher = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat(name + "-Finisher-%d").setDaemon(true).build());
+        // Thread is busy only while lines of registration wait for delivery, blocked consumer doesn't stop delivery to other consumers.
+        delivery = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat(name + "-Delivery-%d").setDaemon(true).build());
+        for (Poller poller : pollers) {
+            poller.thread.start();
+        }
+    }
+
+    /**
+     * Starts reading of output of process.
+     *
+     * @param process
+     *         process
+     * @param stdout
+     *         consumer of standard output of process, it must not block
+     * @param stderr
+     *         consumer of error output of process, it must not block. If {@code null} then error output isn't read, e.g. it is redirected
+     *         to standard output
+     */
+    public Registration register(Process process, LineConsumer stdout, LineConsumer stderr) {
+        if (stopped) {
+            throw new IllegalStateException("Multiplexer is stopped");
+        }
+        final Charset charset = Charset.defaultCharset();
+        final StreamReader[] readers;
+        if (stderr == null) {
+            readers = new StreamReader[]{new StreamReader(process, process.getInputStream(), stdout, charset)};
+        } else {
+            readers = new StreamReader[]{new StreamReader(process, process.getInputStream(), stdout, charset),
+                                         new StreamReader(process, process.getErrorStream(), stderr, charset)};
+        }
+        final Poller poller = pollers[(nextPoller.getAndIncrement() & Integer.MAX_VALUE) % pollers.length];
+        final Registration registration = new Registration(readers, poller);
+        for (StreamReader reader : readers) {
+            reader.registration = registration;
+        }
+        poller.added.add(registration);
+        LockSupport.unpark(poller.thread);
+        return registration;
+    }
+
+    /** Stops all threads of multiplexer. Reading of output of all processes is cancelled. */
+    public void stop() {
+        stopped = true;
+        for (Poller poller : pollers) {
+            LockSupport.unpark(poller.thread);
+        }
+        finisher.shutdownNow();
+        delivery.shutdownNow();
+    }
+
+    private class Poller implements Runnable {
+        final Thread              thread;
+        final Queue<Registration> added;
+        final List<Registration>  active;
+        final byte[]              buffer;
+
+        Poller(String name) {
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+            added = new ConcurrentLinkedQueue<>();
+            active = new ArrayList<>();
+            buffer = new byte[BUFFER_SIZE];
+        }
+
+        @Override
+        public void run() {
+            long delay = MIN_POLL_DELAY;
+            while (!stopped) {
+                Registration registration;
+                while ((registration = added.poll()) != null) {
+                    active.add(registration);
+                    delay = MIN_POLL_DELAY;
+                }
+                boolean read = false;
+                for (Iterator<Registration> i = active.iterator(); i.hasNext(); ) {
+                    registration = i.next();
+                    try {
+                        read |= registration.poll(buffer);
+                    } catch (RuntimeException e) {
+                        LOG.error(e.getMessage(), e);
+                        registration.cancelled = true;
+                        registration.finish();
+                    }
+                    if (registration.finished) {
+                        i.remove();
+                    }
+                }
+                if (read) {
+                    delay = MIN_POLL_DELAY;
+                } else if (active.isEmpty()) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, delay);
+                    delay = Math.min(delay << 1, MAX_POLL_DELAY);
+                }
+            }
+            for (Registration registration : active) {
+                registration.finish();
+            }
+            Registration registration;
+            while ((registration = added.poll()) != null) {
+                registration.finish();
+            }
+        }
+    }
+
+    /** Reads one stream of process and splits it to lines. */
+    private class StreamReader implements Runnable {
+        final Process      process;
+        final InputStream  in;
+        final LineConsumer consumer;
+        final Charset      charset;
+
+        Registration registration;
+        byte[]       line = new byte[256];
+        int          lineLength;
+        boolean      skipLF;
+        boolean      finishing;
+
+        volatile boolean eof;
+
+        StreamReader(Process process, InputStream in, LineConsumer consumer, Charset charset) {
+            this.process = process;
+            this.in = in;
+            this.consumer = consumer;
+            this.charset = charset;
+        }
+
+        /** Reads available bytes without blocking. Returns {@code true} if anything is read. */
+        boolean poll(byte[] buffer) {
+            if (eof || finishing) {
+                return false;
+            }
+            try {
+                final int available = in.available();
+                if (available > 0) {
+                    final int n = in.read(buffer, 0, Math.min(available, buffer.length));
+                    if (n < 0) {
+                        endOfStream();
+                        return false;
+                    }
+                    consume(buffer, n);
+                    return true;
+                }
+                if (isFinished(process)) {
+                    // Read the rest of output in separate thread. It isn't blocked if all writers of stream are finished.
+                    finishing = true;
+                    try {
+                        finisher.execute(this);
+                    } catch (RejectedExecutionException e) {
+                        endOfStream();
+                    }
+                }
+            } catch (IOException e) {
+                registration.setException(e);
+                endOfStream();
+            }
+            return false;
+        }
+
+        @Override
+        public void run() {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            try {
+                int n;
+                while (!registration.cancelled && (n = in.read(buffer)) != -1) {
+                    consume(buffer, n);
+                    while (!registration.cancelled && registration.isBacklogged()) {
+                        LockSupport.parkNanos(this, MAX_POLL_DELAY);
+                    }
+                }
+            } catch (IOException e) {
+                if (!registration.cancelled) {
+                    registration.setException(e);
+                }
+            } finally {
+                endOfStream();
+                LockSupport.unpark(registration.poller.thread);
+            }
+        }
+
+        void close() {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        private void endOfStream() {
+            if (lineLength > 0) {
+                writeLine();
+            }
+            eof = true;
+        }
+
+        private void consume(byte[] buffer, int length) {
+            for (int i = 0; i < length; i++) {
+                final byte b = buffer[i];
+                if (b == '\n') {
+                    if (skipLF) {
+                        skipLF = false;
+                    } else {
+                        writeLine();
+                    }
+                } else if (b == '\r') {
+                    writeLine();
+                    skipLF = true;
+                } else {
+                    skipLF = false;
+                    if (lineLength == line.length) {
+                        line = Arrays.copyOf(line, line.length << 1);
+                    }
+                    line[lineLength++] = b;
+                }
+            }
+        }
+
+        private void writeLine() {
+            final String str = new String(line, 0, lineLength, charset);
+            lineLength = 0;
+            registration.addLine(consumer, str);
+        }
+    }
+
+    private static boolean isFinished(Process process) {
+        try {
+            process.exitValue();
+            return true;
+        } catch (IllegalThreadStateException e) {
+            return false;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 
 /**
  * Helpers to manage system processes.
@@ -23,34 +24,23 @@ import java.io.InputStreamReader;
 public final class ProcessUtil {
     private static final ProcessManager PROCESS_MANAGER = ProcessManager.newInstance();
 
+    /**
+     * Reads stdout and stderr of process at the same time and passes them to consumers. Returns when the whole output is read.
+     *
+     * @throws IOException
+     *         if output can't be read or consumer fails
+     */
     public static void process(Process p, LineConsumer stdout, LineConsumer stderr) throws IOException {
-        BufferedReader inputReader = null;
-        BufferedReader errorReader = null;
+        final ProcessOutputMultiplexer.Registration output = ProcessOutputMultiplexer.getDefault().register(p, stdout, stderr);
         try {
-            final InputStream inputStream = p.getInputStream();
-            final InputStream errorStream = p.getErrorStream();
-            inputReader = new BufferedReader(new InputStreamReader(inputStream));
-            errorReader = new BufferedReader(new InputStreamReader(errorStream));
-            String line;
-            while ((line = inputReader.readLine()) != null) {
-                stdout.writeLine(line);
-            }
-            while ((line = errorReader.readLine()) != null) {
-                stderr.writeLine(line);
-            }
-        } finally {
-            if (inputReader != null) {
-                try {
-                    inputReader.close();
-                } catch (IOException ignored) {
-                }
-            }
-            if (errorReader != null) {
-                try {
-                    errorReader.close();
-                } catch (IOException ignored) {
-                }
-            }
+            output.await();
+        } catch (InterruptedException e) {
+            output.cancel();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading output of process");
+        }
+        if (output.getException() != null) {
+            throw output.getException();
         }
     }
 
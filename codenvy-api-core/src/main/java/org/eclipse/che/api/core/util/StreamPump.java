@@ -10,67 +10,65 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.util;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-
-/** @author andrew00x */
+/**
+ * Passes output of process to {@code LineConsumer}. Output is read with {@link ProcessOutputMultiplexer#getDefault() shared
+ * multiplexer}, pump doesn't need own thread.
+ *
+ * @author andrew00x
+ */
 public final class StreamPump implements Runnable {
 
-    private BufferedReader bufferedReader;
-    private LineConsumer   lineConsumer;
-
-    private Exception exception;
-    private boolean   done;
+    private ProcessOutputMultiplexer.Registration registration;
 
     public synchronized void start(Process process, LineConsumer lineConsumer) {
-        this.lineConsumer = lineConsumer;
-        bufferedReader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-        final Thread t = new Thread(this, "StreamPump");
-        t.setDaemon(true);
-        t.start();
+        registration = ProcessOutputMultiplexer.getDefault().register(process, lineConsumer, null);
+        notifyAll();
     }
 
     public synchronized void stop() {
-        // Not clear do we need close original stream, but since it was wrapped by BufferedReader close it anyway.
-        try {
-            bufferedReader.close();
-        } catch (IOException ignored) {
+        if (registration != null) {
+            registration.cancel();
         }
     }
 
-    public synchronized void await() throws InterruptedException {
-        while (!done) {
-            wait();
+    /** Waits until the whole output of process is read. If pump isn't started yet waits for start as well. */
+    public void await() throws InterruptedException {
+        final ProcessOutputMultiplexer.Registration registration;
+        synchronized (this) {
+            while (this.registration == null) {
+                wait();
+            }
+            registration = this.registration;
         }
+        registration.await();
     }
 
     public synchronized boolean isDone() {
-        return done;
+        return registration != null && registration.isDone();
     }
 
     public boolean hasError() {
-        return null != exception;
+        return null != getException();
     }
 
     public Exception getException() {
-        return exception;
+        final ProcessOutputMultiplexer.Registration registration;
+        synchronized (this) {
+            registration = this.registration;
+        }
+        return registration == null ? null : registration.getException();
     }
 
+    /**
+     * Waits until the whole output of process is read, the same as {@link #await()}. Output is read by multiplexer, so pump doesn't need
+     * own thread. Method is kept for code that runs pump in a thread.
+     */
     @Override
     public void run() {
-        String line;
         try {
-            while ((line = bufferedReader.readLine()) != null) {
-                lineConsumer.writeLine(line);
-            }
-        } catch (IOException e) {
-            exception = e;
-        } finally {
-            synchronized (this) {
-                done = true;
-                notifyAll();
-            }
+            await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 }
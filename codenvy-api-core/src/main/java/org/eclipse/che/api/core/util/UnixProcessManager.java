@@ -18,8 +18,13 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 /**
@@ -72,6 +77,11 @@ class UnixProcessManager extends ProcessManager {
 
     private static final Pattern UNIX_PS_TABLE_PATTERN = Pattern.compile("\\s+");
 
+    /** Errno that means that process doesn't exist. */
+    private static final int ESRCH = 3;
+
+    private static final java.io.File PROC = new java.io.File("/proc");
+
     @Override
     public void kill(Process process) {
         if (C_LIBRARY != null) {
@@ -87,42 +97,97 @@ class UnixProcessManager extends ProcessManager {
     }
 
     private void killTree(int pid) {
-        final int[] children = getChildProcesses(pid);
+        // Read process table once for the whole tree.
+        killTree(pid, getProcessTree());
+    }
+
+    private void killTree(int pid, Map<Integer, List<Integer>> processTree) {
+        final List<Integer> children = processTree.get(pid);
         LOG.debug("PID: {}, child PIDs: {}", pid, children);
-        if (children.length > 0) {
+        if (children != null) {
             for (int cpid : children) {
-                killTree(cpid); // kill process tree recursively
+                killTree(cpid, processTree); // kill process tree recursively
             }
         }
         int r = C_LIBRARY.kill(pid, CLibrary.SIGKILL); // kill origin process
         LOG.debug("kill {}", pid);
         if (r != 0) {
             if (LOG.isDebugEnabled()) {
-                LOG.debug("kill for {} returns {}, strerror '{}'", pid, r, C_LIBRARY.strerror(r));
+                final int errno = Native.getLastError();
+                LOG.debug("kill for {} returns {}, strerror '{}'", pid, r, C_LIBRARY.strerror(errno));
             }
         }
     }
 
-    private int[] getChildProcesses(final int myPid) {
+    /**
+     * Gets snapshot of process table as map of PIDs of parent processes to PIDs of their children. Table is read from {@code /proc}
+     * filesystem if it is available and with {@code ps} command otherwise.
+     */
+    Map<Integer, List<Integer>> getProcessTree() {
+        if (PROC.isDirectory()) {
+            return readProcFileSystem();
+        }
+        return readPsTable();
+    }
+
+    /** Reads PPID of each process from file /proc/[pid]/stat. */
+    Map<Integer, List<Integer>> readProcFileSystem() {
+        final Map<Integer, List<Integer>> processTree = new HashMap<>();
+        final String[] names = PROC.list();
+        if (names == null) {
+            throw new IllegalStateException("can't get child processes: unable read " + PROC);
+        }
+        for (String name : names) {
+            if (!isNumber(name)) {
+                continue;
+            }
+            // Process may be finished while we read process table.
+            final String[] stat = readStat(name);
+            if (stat != null && isNumber(stat[1])) {
+                addChild(processTree, Integer.parseInt(stat[1]), Integer.parseInt(name));
+            }
+        }
+        return processTree;
+    }
+
+    /**
+     * Reads state and PPID of process from file /proc/[pid]/stat.
+     *
+     * @return array of state and PPID or {@code null} if process doesn't exist
+     */
+    private String[] readStat(String pid) {
+        final String stat;
+        try {
+            stat = new String(Files.readAllBytes(Paths.get(PROC.getPath(), pid, "stat")), StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+            return null;
+        }
+        // Format: 'pid (comm) state ppid ...'. Command may contain spaces and brackets, so look for the last bracket.
+        final int commEnd = stat.lastIndexOf(')');
+        if (commEnd < 0) {
+            return null;
+        }
+        final String[] tokens = UNIX_PS_TABLE_PATTERN.split(stat.substring(commEnd + 1).trim(), 3);
+        if (tokens.length < 2) {
+            return null;
+        }
+        return new String[]{tokens[0], tokens[1]};
+    }
+
+    /** Reads process table with single {@code ps} command. */
+    Map<Integer, List<Integer>> readPsTable() {
         final String ps = "ps -e -o ppid,pid,comm"; /* PPID, PID, COMMAND */
-        final List<Integer> children = new ArrayList<>();
+        final Map<Integer, List<Integer>> processTree = new HashMap<>();
         final StringBuilder error = new StringBuilder();
         final LineConsumer stdout = new LineConsumer() {
             @Override
             public void writeLine(String line) throws IOException {
                 if (line != null && !line.isEmpty()) {
-                    final String[] tokens = UNIX_PS_TABLE_PATTERN.split(line.trim());
+                    final String[] tokens = UNIX_PS_TABLE_PATTERN.split(line.trim(), 3);
                     if (tokens.length == 3 /* PPID, PID, COMMAND */) {
-                        int ppid;
-                        try {
-                            ppid = Integer.parseInt(tokens[0]);
-                        } catch (NumberFormatException e) {
-                            // May be first line from process table: 'PPID PID COMMAND'. Skip it.
-                            return;
-                        }
-                        if (ppid == myPid) {
-                            int pid = Integer.parseInt(tokens[1]);
-                            children.add(pid);
+                        // May be first line from process table: 'PPID PID COMMAND'. Skip it.
+                        if (isNumber(tokens[0]) && isNumber(tokens[1])) {
+                            addChild(processTree, Integer.parseInt(tokens[0]), Integer.parseInt(tokens[1]));
                         }
                     }
                 }
@@ -156,12 +221,27 @@ class UnixProcessManager extends ProcessManager {
         if (error.length() > 0) {
             throw new IllegalStateException("can't get child processes: " + error.toString());
         }
-        final int size = children.size();
-        final int[] result = new int[size];
-        for (int i = 0; i < size; i++) {
-            result[i] = children.get(i);
+        return processTree;
+    }
+
+    private static void addChild(Map<Integer, List<Integer>> processTree, int ppid, int pid) {
+        List<Integer> children = processTree.get(ppid);
+        if (children == null) {
+            processTree.put(ppid, children = new ArrayList<>(2));
+        }
+        children.add(pid);
+    }
+
+    private static boolean isNumber(String str) {
+        if (str.isEmpty() || str.length() > 9) {
+            return false;
+        }
+        for (int i = 0, length = str.length(); i < length; i++) {
+            if (!Character.isDigit(str.charAt(i))) {
+                return false;
+            }
         }
-        return result;
+        return true;
     }
 
     @Override
@@ -174,16 +254,16 @@ class UnixProcessManager extends ProcessManager {
         if (pid <= 0) {
             return false;
         }
-        if (SystemInfo.isMacOS()) {
-            final String cmd = "kill -0 " + pid;
-            final int i = system(cmd);
-            if (i != 0) {
-                final String msg = C_LIBRARY.strerror(i);
-                return msg != null && !msg.contains("No such process");
-            }
-            return true;
+        if (PROC.isDirectory()) {
+            // Zombie process is finished, it just waits until parent gets its exit code.
+            final String[] stat = readStat(Integer.toString(pid));
+            return stat != null && !"Z".equals(stat[0]);
+        }
+        if (C_LIBRARY == null) {
+            throw new IllegalStateException("Can't check process. Not unix system?");
         }
-        return new java.io.File("/proc/" + pid).exists();
+        // Signal 0 isn't sent but checks whether process exists. Process which we may not signal still exists.
+        return C_LIBRARY.kill(pid, 0) == 0 || Native.getLastError() != ESRCH;
     }
 
     @Override
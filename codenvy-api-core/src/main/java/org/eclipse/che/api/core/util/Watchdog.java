@@ -10,30 +10,42 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.util;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
  * It controls the time of {@code Cancellable} invocation and if time if greater than timeout it terminates such {@code Cancellable}.
+ * <p/>
+ * All watchdogs share single {@link HashedWheelTimer}, so watching doesn't need own thread. {@code Cancellable}s are terminated in
+ * separate threads, they are created only when timeout is expired.
  *
  * @author <a href="mailto:andrew00x@gmail.com">Andrey Parfonov</a>
  */
 public final class Watchdog implements Runnable {
     private static final Logger LOG = LoggerFactory.getLogger(Watchdog.class);
 
+    private static final HashedWheelTimer TIMER = new HashedWheelTimer("Watchdog-Timer", 100, TimeUnit.MILLISECONDS, 512,
+                                                                       Executors.newCachedThreadPool(
+                                                                               new ThreadFactoryBuilder().setNameFormat("Watchdog-%d")
+                                                                                                         .setDaemon(true).build()));
+
     private final String name;
     private final long   timeout;
 
-    private boolean     watch;
-    private Cancellable cancellable;
+    private HashedWheelTimer.Timeout timerTimeout;
+    private Cancellable              cancellable;
 
     /**
      * Create new {@code Watchdog}.
      *
      * @param name
-     *         name for background {@code Thread}. It helps to identify out threads. This parameter is optional and may be {@code null}.
+     *         name of {@code Watchdog}. It helps to identify {@code Cancellable} in logs. This parameter is optional and may be
+     *         {@code null}.
      * @param timeout
      *         timeout
      * @param unit
@@ -58,37 +70,38 @@ public final class Watchdog implements Runnable {
      *         Cancellable
      */
     public synchronized void start(Cancellable cancellable) {
+        if (timerTimeout != null) {
+            timerTimeout.cancel();
+        }
         this.cancellable = cancellable;
-        this.watch = true;
-        final Thread t = name == null ? new Thread(this) : new Thread(this, name);
-        t.setDaemon(true);
-        t.start();
+        this.timerTimeout = TIMER.newTimeout(this, timeout, TimeUnit.MILLISECONDS);
     }
 
     /** Stop watching. */
     public synchronized void stop() {
-        watch = false;
-        notify();
+        if (timerTimeout != null) {
+            timerTimeout.cancel();
+            timerTimeout = null;
+        }
     }
 
     /** NOTE: Not expected to call directly by regular users of this class. */
-    public synchronized void run() {
-        final long end = System.currentTimeMillis() + timeout;
-        long now;
-        while (watch && (end > (now = System.currentTimeMillis()))) {
-            try {
-                wait(end - now);
-            } catch (InterruptedException ignored) {
-                // Not expected to be thrown
+    public void run() {
+        final Cancellable toCancel;
+        synchronized (this) {
+            if (timerTimeout == null || !timerTimeout.isExpired()) {
+                return;
             }
+            timerTimeout = null;
+            toCancel = cancellable;
         }
-        if (watch) {
-            try {
-                cancellable.cancel();
-            } catch (Exception e) {
-                LOG.error(e.getMessage(), e);
-            }
-            watch = false;
+        if (name != null) {
+            LOG.debug("{}: timeout {} ms is expired", name, timeout);
+        }
+        try {
+            toCancel.cancel();
+        } catch (Exception e) {
+            LOG.error(e.getMessage(), e);
         }
     }
 }
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class RemoteServiceHealthMonitorTest {
+    static class StubService extends RemoteServiceDescriptor {
+        volatile boolean available = true;
+
+        StubService(String baseUrl) {
+            super(baseUrl);
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return available;
+        }
+    }
+
+    private RemoteServiceHealthMonitor healthMonitor;
+    private List<RemoteServiceHealthMonitor.Health> changes;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        healthMonitor = new RemoteServiceHealthMonitor(50, 200, 1000, 2);
+        changes = new CopyOnWriteArrayList<>();
+        healthMonitor.addListener(new RemoteServiceHealthMonitor.Listener() {
+            @Override
+            public void onHealthChanged(RemoteServiceDescriptor service, RemoteServiceHealthMonitor.Health oldHealth,
+                                        RemoteServiceHealthMonitor.Health newHealth) {
+                changes.add(newHealth);
+            }
+        });
+        healthMonitor.start();
+    }
+
+    @AfterMethod
+    public void afterMethod() {
+        healthMonitor.stop();
+    }
+
+    @Test
+    public void testUnknownServiceIsCheckedImmediately() throws Exception {
+        StubService service = new StubService("http://localhost:8080/api/internal/builder");
+        healthMonitor.watch(service, RemoteServiceHealthMonitor.Health.UNKNOWN);
+        waitFor(service.getBaseUrl(), RemoteServiceHealthMonitor.Health.UP, 1000);
+        assertEquals(healthMonitor.getHealth(service.getBaseUrl()), RemoteServiceHealthMonitor.Health.UP);
+        assertTrue(healthMonitor.isAvailable(service));
+        assertEquals(changes.get(0), RemoteServiceHealthMonitor.Health.UP);
+    }
+
+    @Test
+    public void testServiceIsDownAfterFailedChecks() throws Exception {
+        StubService service = new StubService("http://localhost:8080/api/internal/builder");
+        healthMonitor.watch(service, RemoteServiceHealthMonitor.Health.UP);
+        service.available = false;
+        waitFor(service.getBaseUrl(), RemoteServiceHealthMonitor.Health.DOWN, 3000);
+        assertFalse(healthMonitor.isAvailable(service));
+        assertEquals(changes.get(0), RemoteServiceHealthMonitor.Health.DEGRADED);
+        assertEquals(changes.get(1), RemoteServiceHealthMonitor.Health.DOWN);
+        assertTrue(healthMonitor.getStats(service.getBaseUrl()).getFailures() >= 2);
+
+        service.available = true;
+        waitFor(service.getBaseUrl(), RemoteServiceHealthMonitor.Health.UP, 3000);
+        assertTrue(healthMonitor.isAvailable(service));
+        assertEquals(healthMonitor.getStats(service.getBaseUrl()).getConsecutiveFailures(), 0);
+    }
+
+    @Test
+    public void testUnwatch() throws Exception {
+        StubService service = new StubService("http://localhost:8080/api/internal/builder");
+        healthMonitor.watch(service, RemoteServiceHealthMonitor.Health.UP);
+        assertTrue(healthMonitor.isAvailable(service));
+        healthMonitor.unwatch(service.getBaseUrl());
+        assertEquals(healthMonitor.getHealth(service.getBaseUrl()), RemoteServiceHealthMonitor.Health.UNKNOWN);
+        // Not watched service is checked directly.
+        assertTrue(healthMonitor.isAvailable(service));
+        service.available = false;
+        assertFalse(healthMonitor.isAvailable(service));
+        assertNull(healthMonitor.getStats(service.getBaseUrl()));
+    }
+
+    @Test
+    public void testWatchDuringStartIsScheduledOnce() throws Exception {
+        healthMonitor.stop();
+        // Service is checked immediately and the next check is in one minute, so there must be exactly one check.
+        healthMonitor = new RemoteServiceHealthMonitor(60000, 60000, 1000, 2);
+        final StubService service = new StubService("http://localhost:8080/api/internal/builder");
+        final Thread watcher = new Thread() {
+            @Override
+            public void run() {
+                healthMonitor.watch(service, RemoteServiceHealthMonitor.Health.UNKNOWN);
+            }
+        };
+        watcher.start();
+        healthMonitor.start();
+        watcher.join();
+        waitFor(service.getBaseUrl(), RemoteServiceHealthMonitor.Health.UP, 1000);
+        Thread.sleep(100);
+        assertEquals(healthMonitor.getStats(service.getBaseUrl()).getChecks(), 1);
+    }
+
+    private void waitFor(String url, RemoteServiceHealthMonitor.Health health, long timeout) throws InterruptedException {
+        final long end = System.currentTimeMillis() + timeout;
+        while (healthMonitor.getHealth(url) != health && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(healthMonitor.getHealth(url), health);
+    }
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class HashedWheelTimerTest {
+    private HashedWheelTimer timer;
+
+    @BeforeMethod
+    public void setUp() {
+        timer = new HashedWheelTimer("TestTimer", 10, TimeUnit.MILLISECONDS, 8, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    public void testTimeoutExpired() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long start = System.currentTimeMillis();
+        final HashedWheelTimer.Timeout timeout = timer.newTimeout(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 200, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 200);
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+        assertEquals(timer.getPendingTimeouts(), 0);
+    }
+
+    @Test
+    public void testCancelledTimeoutIsNotExpired() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        final HashedWheelTimer.Timeout timeout = timer.newTimeout(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+        assertTrue(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        Thread.sleep(300);
+        assertEquals(runs.get(), 0);
+        assertFalse(timeout.isExpired());
+        assertEquals(timer.getPendingTimeouts(), 0);
+    }
+
+    @Test
+    public void testTimeoutLongerThanWheel() throws Exception {
+        // Wheel of 8 buckets with 10 ms tick makes full round in 80 ms.
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long start = System.currentTimeMillis();
+        timer.newTimeout(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 300, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 300);
+    }
+
+    @Test
+    public void testManyTimeouts() throws Exception {
+        final int number = 50000;
+        final CountDownLatch latch = new CountDownLatch(number / 2);
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+        final List<HashedWheelTimer.Timeout> timeouts = new ArrayList<>(number);
+        for (int i = 0; i < number; i++) {
+            timeouts.add(timer.newTimeout(task, 100 + i % 200, TimeUnit.MILLISECONDS));
+        }
+        // Cancel half of timeouts.
+        for (int i = 0; i < number; i += 2) {
+            assertTrue(timeouts.get(i).cancel());
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(latch.getCount(), 0);
+        assertEquals(timer.getPendingTimeouts(), 0);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testNewTimeoutAfterStop() {
+        timer.newTimeout(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+        timer.stop();
+        timer.newTimeout(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+    }
+}
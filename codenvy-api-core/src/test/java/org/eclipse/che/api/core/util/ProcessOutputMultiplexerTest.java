@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class ProcessOutputMultiplexerTest {
+    private ProcessOutputMultiplexer multiplexer;
+
+    @BeforeMethod
+    public void setUp() {
+        multiplexer = new ProcessOutputMultiplexer("TestMultiplexer", 2);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        multiplexer.stop();
+    }
+
+    @Test
+    public void testReadStdoutAndStderr() throws Exception {
+        // Process fills buffer of stderr pipe before it writes anything to stdout.
+        final Process p = new ProcessBuilder("/bin/bash", "-c",
+                                             "for i in $(seq 1 20000); do echo err$i 1>&2; done; echo out1; echo out2; printf out3")
+                .start();
+        final ListLineConsumer stdout = new ListLineConsumer();
+        final ListLineConsumer stderr = new ListLineConsumer();
+        final ProcessOutputMultiplexer.Registration output = multiplexer.register(p, stdout, stderr);
+        assertTrue(output.await(20, TimeUnit.SECONDS), "output is not read");
+        assertNull(output.getException());
+        assertEquals(stdout.getText(), "out1\nout2\nout3");
+        final String[] lines = stderr.getText().split("\n");
+        assertEquals(lines.length, 20000);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(lines[i], "err" + (i + 1));
+        }
+    }
+
+    @Test
+    public void testManyProcesses() throws Exception {
+        final int number = 100;
+        final List<ListLineConsumer> consumers = new ArrayList<>(number);
+        final List<ProcessOutputMultiplexer.Registration> outputs = new ArrayList<>(number);
+        for (int i = 0; i < number; i++) {
+            final Process p = new ProcessBuilder("/bin/bash", "-c", "for i in 1 2 3; do echo line$i; sleep 0.1; done")
+                    .redirectErrorStream(true).start();
+            final ListLineConsumer consumer = new ListLineConsumer();
+            consumers.add(consumer);
+            outputs.add(multiplexer.register(p, consumer, null));
+        }
+        for (int i = 0; i < number; i++) {
+            assertTrue(outputs.get(i).await(20, TimeUnit.SECONDS), "output is not read");
+            assertEquals(consumers.get(i).getText(), "line1\nline2\nline3");
+        }
+    }
+
+    @Test
+    public void testBlockedConsumerDoesNotStopOtherProcesses() throws Exception {
+        final ProcessOutputMultiplexer singleThread = new ProcessOutputMultiplexer("TestSingleThreadMultiplexer", 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Process p1 = new ProcessBuilder("/bin/bash", "-c", "echo blocked").start();
+        final Process p2 = new ProcessBuilder("/bin/bash", "-c", "for i in 1 2 3; do echo line$i; sleep 0.1; done").start();
+        try {
+            final ListLineConsumer blocked = new ListLineConsumer() {
+                @Override
+                public void writeLine(String line) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    super.writeLine(line);
+                }
+            };
+            final ListLineConsumer stdout = new ListLineConsumer();
+            final ProcessOutputMultiplexer.Registration output1 = singleThread.register(p1, blocked, null);
+            final ProcessOutputMultiplexer.Registration output2 = singleThread.register(p2, stdout, null);
+            assertTrue(output2.await(20, TimeUnit.SECONDS), "output is not read");
+            assertEquals(stdout.getText(), "line1\nline2\nline3");
+            assertFalse(output1.isDone());
+            release.countDown();
+            assertTrue(output1.await(20, TimeUnit.SECONDS), "output is not read");
+            assertEquals(blocked.getText(), "blocked");
+        } finally {
+            release.countDown();
+            singleThread.stop();
+            ProcessUtil.kill(p1);
+            ProcessUtil.kill(p2);
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final Process p = new ProcessBuilder("/bin/bash", "-c", "echo start; sleep 10; echo end").start();
+        final ListLineConsumer stdout = new ListLineConsumer();
+        final ProcessOutputMultiplexer.Registration output = multiplexer.register(p, stdout, new ListLineConsumer());
+        try {
+            final long end = System.currentTimeMillis() + 5000;
+            while (stdout.getText().isEmpty() && System.currentTimeMillis() < end) {
+                Thread.sleep(10);
+            }
+            output.cancel();
+            assertTrue(output.await(2, TimeUnit.SECONDS), "reading is not cancelled");
+            assertEquals(stdout.getText(), "start");
+        } finally {
+            ProcessUtil.kill(p);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/** Tests of group 'benchmark' run only with profile 'benchmark'. */
+public class UnixProcessManagerTest {
+    private static final Logger LOG = LoggerFactory.getLogger(UnixProcessManagerTest.class);
+
+    private UnixProcessManager processManager;
+
+    @BeforeMethod(alwaysRun = true)
+    public void setUp() {
+        if (!SystemInfo.isLinux()) {
+            throw new SkipException("Test requires /proc filesystem");
+        }
+        processManager = new UnixProcessManager();
+    }
+
+    @Test
+    public void testReadProcessTree() throws Exception {
+        final Process p = Runtime.getRuntime().exec(new String[]{"/bin/bash", "-c", "sleep 30 & sleep 30 & wait"});
+        try {
+            final int pid = processManager.getPid(p);
+            waitForDescendants(pid, 2);
+            final List<Integer> fromProc = processManager.readProcFileSystem().get(pid);
+            final List<Integer> fromPs = processManager.readPsTable().get(pid);
+            assertEquals(fromProc.size(), 2);
+            assertTrue(fromPs.containsAll(fromProc));
+            for (int child : fromProc) {
+                assertTrue(processManager.isAlive(child));
+            }
+        } finally {
+            processManager.kill(p);
+        }
+    }
+
+    @Test(groups = "benchmark")
+    public void testKillTreePerformance() throws Exception {
+        // 20 sub-shells with 5 sleeping processes each, 121 processes in tree.
+        final Process p = Runtime.getRuntime().exec(new String[]{"/bin/bash", "-c",
+                                                                 "for i in $(seq 1 20); do " +
+                                                                 "(for j in $(seq 1 5); do sleep 60 & done; wait) & " +
+                                                                 "done; wait"});
+        boolean killed = false;
+        try {
+            final int pid = processManager.getPid(p);
+            final List<Integer> descendants = waitForDescendants(pid, 120);
+
+            final int iterations = 20;
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                processManager.readPsTable();
+            }
+            final long psTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                processManager.readProcFileSystem();
+            }
+            final long procTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            processManager.kill(p);
+            killed = true;
+            final long killTime = System.nanoTime() - start;
+            p.waitFor();
+
+            LOG.info("{} reads of process table, ps: {} ms, /proc: {} ms; kill tree of {} processes: {} ms",
+                     iterations, psTime / 1000000, procTime / 1000000, descendants.size() + 1, killTime / 1000000);
+
+            // Killed processes may need a bit of time to die.
+            final long end = System.currentTimeMillis() + 5000;
+            for (int child : descendants) {
+                while (processManager.isAlive(child) && System.currentTimeMillis() < end) {
+                    Thread.sleep(10);
+                }
+                assertFalse(processManager.isAlive(child), "process " + child + " is alive");
+            }
+        } finally {
+            // Don't leave 120 sleeping processes behind if test fails before the tree is killed. Don't kill it twice, pid may be reused.
+            if (!killed) {
+                processManager.kill(p);
+            }
+        }
+    }
+
+    private List<Integer> waitForDescendants(int pid, int number) throws InterruptedException {
+        final long end = System.currentTimeMillis() + 10000;
+        List<Integer> descendants = new ArrayList<>();
+        while (System.currentTimeMillis() < end) {
+            descendants = new ArrayList<>();
+            collectDescendants(pid, processManager.getProcessTree(), descendants);
+            if (descendants.size() >= number) {
+                return descendants;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("expected " + number + " child processes but found " + descendants.size());
+    }
+
+    private void collectDescendants(int pid, Map<Integer, List<Integer>> processTree, List<Integer> descendants) {
+        final List<Integer> children = processTree.get(pid);
+        if (children != null) {
+            for (int child : children) {
+                descendants.add(child);
+                collectDescendants(child, processTree, descendants);
+            }
+        }
+    }
+}
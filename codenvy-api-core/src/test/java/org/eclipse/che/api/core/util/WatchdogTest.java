@@ -35,4 +35,20 @@ public class WatchdogTest {
         latch.await(2, TimeUnit.SECONDS); // wait 2 sec
         Assert.assertTrue(cancel[0], "cancellation failed"); // should be cancelled
     }
+
+    @Test
+    public void testStopWatchDog() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Cancellable myCancellable = new Cancellable() {
+            @Override
+            public void cancel() throws Exception {
+                latch.countDown();
+            }
+        };
+
+        final Watchdog watchdog = new Watchdog(1, TimeUnit.SECONDS);
+        watchdog.start(myCancellable);
+        watchdog.stop(); // myCancellable must not be cancelled after stop
+        Assert.assertFalse(latch.await(2, TimeUnit.SECONDS), "cancelled after stop");
+    }
 }
@@ -22,7 +22,6 @@ import org.eclipse.che.api.project.shared.dto.ImportSourceDescriptor;
 import org.eclipse.che.api.vfs.shared.dto.ReplacementSet;
 import org.eclipse.che.commons.lang.URLEncodedUtils;
 import org.eclipse.che.dto.server.DtoFactory;
-import org.eclipse.che.dto.shared.DTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,9 +32,6 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.util.ArrayList;
@@ -240,80 +236,68 @@ public class FactoryBuilder extends NonEncodedFactoryBuilder {
                                FactoryFormat sourceFormat,
                                String accountId,
                                String parentName) throws ApiException {
-        // get all methods recursively
-        for (Method method : methodsProvider.getMethods()) {
-            FactoryParameter factoryParameter = method.getAnnotation(FactoryParameter.class);
-            // is it factory parameter
-            if (factoryParameter != null) {
-                String fullName = (parentName.isEmpty() ? "" : (parentName + ".")) + factoryParameter.queryParameterName();
-                // check that field is set
-                Object parameterValue;
-                try {
-                    parameterValue = method.invoke(object);
-                } catch (IllegalAccessException | InvocationTargetException | IllegalArgumentException e) {
-                    // should never happen
-                    LOG.error(e.getLocalizedMessage(), e);
-                    throw new ConflictException(FactoryConstants.INVALID_PARAMETER_MESSAGE);
-                }
+        for (FactoryDtoDescriptor.Parameter parameter : FactoryDtoDescriptor.of(methodsProvider).getParameters()) {
+            FactoryParameter factoryParameter = parameter.annotation;
+            String fullName = (parentName.isEmpty() ? "" : (parentName + ".")) + parameter.queryParameterName;
+            // check that field is set
+            Object parameterValue;
+            try {
+                parameterValue = parameter.get(object);
+            } catch (IllegalAccessException | InvocationTargetException | IllegalArgumentException e) {
+                // should never happen
+                LOG.error(e.getLocalizedMessage(), e);
+                throw new ConflictException(FactoryConstants.INVALID_PARAMETER_MESSAGE);
+            }
 
-                // if value is null or empty collection or default value for primitives
-                if (ValueHelper.isEmpty(parameterValue)) {
-                    // field must not be a mandatory, unless it's ignored or deprecated or doesn't suit to the version
-                    if (Obligation.MANDATORY.equals(factoryParameter.obligation()) &&
-                        factoryParameter.deprecatedSince().compareTo(version) > 0 &&
-                        factoryParameter.ignoredSince().compareTo(version) > 0 &&
-                        method.getDeclaringClass().isAssignableFrom(allowedMethodsProvider)) {
-                        throw new ConflictException(FactoryConstants.MISSING_MANDATORY_MESSAGE);
-                    }
-                } else if (!method.getDeclaringClass().isAssignableFrom(allowedMethodsProvider)) {
-                    throw new ConflictException(String.format(FactoryConstants.PARAMETRIZED_INVALID_PARAMETER_MESSAGE, fullName, version));
-                } else {
-                    // is parameter deprecated
-                    if (factoryParameter.deprecatedSince().compareTo(version) <= 0) {
-                        throw new ConflictException(
-                                String.format(FactoryConstants.PARAMETRIZED_INVALID_PARAMETER_MESSAGE, fullName, version));
-                    }
+            // if value is null or empty collection or default value for primitives
+            if (ValueHelper.isEmpty(parameterValue)) {
+                // field must not be a mandatory, unless it's ignored or deprecated or doesn't suit to the version
+                if (Obligation.MANDATORY.equals(factoryParameter.obligation()) &&
+                    factoryParameter.deprecatedSince().compareTo(version) > 0 &&
+                    factoryParameter.ignoredSince().compareTo(version) > 0 &&
+                    parameter.isAllowedIn(allowedMethodsProvider)) {
+                    throw new ConflictException(FactoryConstants.MISSING_MANDATORY_MESSAGE);
+                }
+            } else if (!parameter.isAllowedIn(allowedMethodsProvider)) {
+                throw new ConflictException(String.format(FactoryConstants.PARAMETRIZED_INVALID_PARAMETER_MESSAGE, fullName, version));
+            } else {
+                // is parameter deprecated
+                if (factoryParameter.deprecatedSince().compareTo(version) <= 0) {
+                    throw new ConflictException(
+                            String.format(FactoryConstants.PARAMETRIZED_INVALID_PARAMETER_MESSAGE, fullName, version));
+                }
 
-                    if (factoryParameter.setByServer()) {
-                        throw new ConflictException(
-                                String.format(FactoryConstants.PARAMETRIZED_INVALID_PARAMETER_MESSAGE, fullName, version));
-                    }
+                if (factoryParameter.setByServer()) {
+                    throw new ConflictException(
+                            String.format(FactoryConstants.PARAMETRIZED_INVALID_PARAMETER_MESSAGE, fullName, version));
+                }
 
-                    // check that field satisfies format rules
-                    if (!FactoryFormat.BOTH.equals(factoryParameter.format()) && !factoryParameter.format().equals(sourceFormat)) {
-                        throw new ConflictException(String.format(FactoryConstants.PARAMETRIZED_ENCODED_ONLY_PARAMETER_MESSAGE, fullName));
-                    }
+                // check that field satisfies format rules
+                if (!FactoryFormat.BOTH.equals(factoryParameter.format()) && !factoryParameter.format().equals(sourceFormat)) {
+                    throw new ConflictException(String.format(FactoryConstants.PARAMETRIZED_ENCODED_ONLY_PARAMETER_MESSAGE, fullName));
+                }
 
-                    // use recursion if parameter is DTO object
-                    if (method.getReturnType().isAnnotationPresent(DTO.class)) {
-                        // validate inner objects such Git ot ProjectAttributes
-                        validateCompatibility(parameterValue, method.getReturnType(), method.getReturnType(), version, sourceFormat,
-                                              accountId, fullName);
-                    } else if (Map.class.isAssignableFrom(method.getReturnType())) {
-                        Type tp = ((ParameterizedType)method.getGenericReturnType()).getActualTypeArguments()[1];
-
-                        Class secMapParamClass;
-                        if (tp instanceof ParameterizedType) {
-                            secMapParamClass = (Class)((ParameterizedType)tp).getRawType();
-                        } else {
-                            secMapParamClass = (Class)tp;
+                // use recursion if parameter is DTO object
+                if (parameter.dto) {
+                    // validate inner objects such Git ot ProjectAttributes
+                    validateCompatibility(parameterValue, parameter.type, parameter.type, version, sourceFormat, accountId, fullName);
+                } else if (parameter.map) {
+                    Class secMapParamClass = parameter.itemType;
+                    if (String.class.equals(secMapParamClass)) {
+                        if (ImportSourceDescriptor.class.equals(methodsProvider)) {
+                            sourceProjectParametersValidator.validate((ImportSourceDescriptor)object, version);
                         }
-                        if (String.class.equals(secMapParamClass)) {
-                            if (ImportSourceDescriptor.class.equals(methodsProvider)) {
-                                sourceProjectParametersValidator.validate((ImportSourceDescriptor)object, version);
+                    } else if (List.class.equals(secMapParamClass)) {
+                        // do nothing
+                    } else {
+                        if (parameter.itemDto) {
+                            Map<Object, Object> map = (Map)parameterValue;
+                            for (Map.Entry<Object, Object> entry : map.entrySet()) {
+                                validateCompatibility(entry.getValue(), secMapParamClass, secMapParamClass, version, sourceFormat,
+                                                      accountId, fullName + "." + (String)entry.getKey());
                             }
-                        } else if (List.class.equals(secMapParamClass)) {
-                            // do nothing
                         } else {
-                            if (secMapParamClass.isAnnotationPresent(DTO.class)) {
-                                Map<Object, Object> map = (Map)parameterValue;
-                                for (Map.Entry<Object, Object> entry : map.entrySet()) {
-                                    validateCompatibility(entry.getValue(), secMapParamClass, secMapParamClass, version, sourceFormat,
-                                                          accountId, fullName + "." + (String)entry.getKey());
-                                }
-                            } else {
-                                throw new RuntimeException("This type of fields is not supported by factory.");
-                            }
+                            throw new RuntimeException("This type of fields is not supported by factory.");
                         }
                     }
                 }
@@ -339,167 +323,148 @@ public class FactoryBuilder extends NonEncodedFactoryBuilder {
                                  Class<T> cl) throws ApiException {
         T result = DtoFactory.getInstance().createDto(cl);
         boolean returnNull = true;
-        // get all methods of object recursively
-        for (Method method : cl.getMethods()) {
-            FactoryParameter factoryParameter = method.getAnnotation(FactoryParameter.class);
+        for (FactoryDtoDescriptor.Parameter parameter : FactoryDtoDescriptor.of(cl).getParameters()) {
+            FactoryParameter factoryParameter = parameter.annotation;
             try {
-                if (factoryParameter != null) {
-                    final String queryParameterName = factoryParameter.queryParameterName();
-                    // define full queryParameterName of parameter to be able retrieving nested parameters
-                    String fullName = (parentName.isEmpty() ? "" : parentName + ".") + queryParameterName;
-                    Class<?> returnClass = method.getReturnType();
-
-                    if (factoryParameter.format() == FactoryFormat.ENCODED) {
-                        if (queryParams.containsKey(fullName)) {
-                            throw new ConflictException(
-                                    String.format(FactoryConstants.PARAMETRIZED_ENCODED_ONLY_PARAMETER_MESSAGE, fullName));
-                        } else {
-                            continue;
-                        }
-                    }
+                final String queryParameterName = parameter.queryParameterName;
+                // define full queryParameterName of parameter to be able retrieving nested parameters
+                String fullName = (parentName.isEmpty() ? "" : parentName + ".") + queryParameterName;
+                Class<?> returnClass = parameter.type;
 
-                    //PrimitiveTypeProducer
-                    Object param = null;
+                if (factoryParameter.format() == FactoryFormat.ENCODED) {
                     if (queryParams.containsKey(fullName)) {
-                        Set<String> values;
-                        if (null == (values = queryParams.remove(fullName)) || values.size() != 1) {
-                            throw new ConflictException(
-                                    String.format(FactoryConstants.PARAMETRIZED_ILLEGAL_PARAMETER_VALUE_MESSAGE, fullName,
-                                                  null != values ? values.toString() : "null"));
-                        }
-                        param = ValueHelper.createValue(returnClass, values);
-                        if (null == param) {
-                            if ("variables".equals(fullName) || "actions.findReplace".equals(fullName)) {
-                                try {
-                                    param = DtoFactory.getInstance().createListDtoFromJson(values.iterator().next(), ReplacementSet.class);
-                                } catch (Exception e) {
-                                    throw new ConflictException(
-                                            String.format(FactoryConstants.PARAMETRIZED_ILLEGAL_PARAMETER_VALUE_MESSAGE, fullName,
-                                                          values.toString()));
-                                }
-                            } else {
-                                // should never happen
+                        throw new ConflictException(
+                                String.format(FactoryConstants.PARAMETRIZED_ENCODED_ONLY_PARAMETER_MESSAGE, fullName));
+                    } else {
+                        continue;
+                    }
+                }
+
+                //PrimitiveTypeProducer
+                Object param = null;
+                if (queryParams.containsKey(fullName)) {
+                    Set<String> values;
+                    if (null == (values = queryParams.remove(fullName)) || values.size() != 1) {
+                        throw new ConflictException(
+                                String.format(FactoryConstants.PARAMETRIZED_ILLEGAL_PARAMETER_VALUE_MESSAGE, fullName,
+                                              null != values ? values.toString() : "null"));
+                    }
+                    param = ValueHelper.createValue(returnClass, values);
+                    if (null == param) {
+                        if ("variables".equals(fullName) || "actions.findReplace".equals(fullName)) {
+                            try {
+                                param = DtoFactory.getInstance().createListDtoFromJson(values.iterator().next(), ReplacementSet.class);
+                            } catch (Exception e) {
                                 throw new ConflictException(
                                         String.format(FactoryConstants.PARAMETRIZED_ILLEGAL_PARAMETER_VALUE_MESSAGE, fullName,
                                                       values.toString()));
                             }
-                        }
-                    } else if (returnClass.isAnnotationPresent(DTO.class)) {
-                        // use recursion if parameter is DTO object
-                        param = buildDtoObject(queryParams, fullName, returnClass);
-                    } else if (List.class.isAssignableFrom(returnClass)) {
-                        Type tp = ((ParameterizedType)method.getGenericReturnType()).getActualTypeArguments()[0];
-                        Class listClass;
-                        if (tp instanceof ParameterizedType) {
-                            listClass = (Class)((ParameterizedType)tp).getRawType();
                         } else {
-                            listClass = (Class)tp;
+                            // should never happen
+                            throw new ConflictException(
+                                    String.format(FactoryConstants.PARAMETRIZED_ILLEGAL_PARAMETER_VALUE_MESSAGE, fullName,
+                                                  values.toString()));
                         }
-
-                        Set<String> keys = new TreeSet<>();
-                        for (String key : queryParams.keySet()) {
-                            if (key.startsWith(fullName)) {
-                                keys.add(key.substring(fullName.length() + 1, key.indexOf(".", fullName.length() + 1)));
-                            }
+                    }
+                } else if (parameter.dto) {
+                    // use recursion if parameter is DTO object
+                    param = buildDtoObject(queryParams, fullName, returnClass);
+                } else if (parameter.list) {
+                    Class listClass = parameter.itemType;
+
+                    Set<String> keys = new TreeSet<>();
+                    for (String key : queryParams.keySet()) {
+                        if (key.startsWith(fullName)) {
+                            keys.add(key.substring(fullName.length() + 1, key.indexOf(".", fullName.length() + 1)));
                         }
-                        if (!keys.isEmpty()) {
-                            param = new ArrayList<>(keys.size());
-                            for (String key : keys) {
-                                Map<String, Set<String>> listQueryParams = new HashMap<>();
-                                Set<String> removeKeys = new HashSet<>();
-                                for (Map.Entry<String, Set<String>> queryParam : queryParams.entrySet()) {
-                                    String queryParamKey = queryParam.getKey();
-                                    if (queryParamKey.startsWith(fullName + "." + key + ".")) {
-                                        removeKeys.add(queryParamKey);
-                                        listQueryParams
-                                                .put(queryParamKey.substring(fullName.length() + key.length() + 2), queryParam.getValue());
-                                    }
-                                }
-                                ((List)param).add(buildDtoObject(listQueryParams, "", listClass));
-                                //cleanup in list of query params.
-                                for (String removeKey : removeKeys) {
-                                    queryParams.remove(removeKey);
+                    }
+                    if (!keys.isEmpty()) {
+                        param = new ArrayList<>(keys.size());
+                        for (String key : keys) {
+                            Map<String, Set<String>> listQueryParams = new HashMap<>();
+                            Set<String> removeKeys = new HashSet<>();
+                            for (Map.Entry<String, Set<String>> queryParam : queryParams.entrySet()) {
+                                String queryParamKey = queryParam.getKey();
+                                if (queryParamKey.startsWith(fullName + "." + key + ".")) {
+                                    removeKeys.add(queryParamKey);
+                                    listQueryParams
+                                            .put(queryParamKey.substring(fullName.length() + key.length() + 2), queryParam.getValue());
                                 }
                             }
+                            ((List)param).add(buildDtoObject(listQueryParams, "", listClass));
+                            //cleanup in list of query params.
+                            for (String removeKey : removeKeys) {
+                                queryParams.remove(removeKey);
+                            }
                         }
-                    } else if (Map.class.isAssignableFrom(returnClass)) {
-                        Type tp = ((ParameterizedType)method.getGenericReturnType()).getActualTypeArguments()[1];
-
-                        Class secMapParamClass;
-                        if (tp instanceof ParameterizedType) {
-                            secMapParamClass = (Class)((ParameterizedType)tp).getRawType();
-                        } else {
-                            secMapParamClass = (Class)tp;
+                    }
+                } else if (parameter.map) {
+                    Class secMapParamClass = parameter.itemType;
+                    String mapEntryPrefix = fullName + ".";
+                    Map<String, Object> map;
+                    if (Map.class == returnClass) {
+                        map = new HashMap<>();
+                    } else {
+                        map = (Map)returnClass.newInstance();
+                    }
+                    if (String.class.equals(secMapParamClass)) {
+                        for (Map.Entry<String, Set<String>> parameterEntry : queryParams.entrySet()) {
+                            if (parameterEntry.getKey().startsWith(mapEntryPrefix)) {
+                                map.put(parameterEntry.getKey().substring(mapEntryPrefix.length()),
+                                        parameterEntry.getValue().iterator().next());
+                            }
                         }
-                        String mapEntryPrefix = fullName + ".";
-                        Map<String, Object> map;
-                        if (Map.class == returnClass) {
-                            map = new HashMap<>();
-                        } else {
-                            map = (Map)returnClass.newInstance();
+                        for (String key : map.keySet()) {
+                            queryParams.remove(mapEntryPrefix + key);
                         }
-                        if (String.class.equals(secMapParamClass)) {
-                            for (Map.Entry<String, Set<String>> parameterEntry : queryParams.entrySet()) {
-                                if (parameterEntry.getKey().startsWith(mapEntryPrefix)) {
-                                    map.put(parameterEntry.getKey().substring(mapEntryPrefix.length()),
-                                            parameterEntry.getValue().iterator().next());
-                                }
-                            }
-                            for (String key : map.keySet()) {
-                                queryParams.remove(mapEntryPrefix + key);
-                            }
-                            if (!map.isEmpty()) {
-                                param = map;
+                        if (!map.isEmpty()) {
+                            param = map;
+                        }
+                    } else if (List.class.equals(secMapParamClass)) {
+                        for (Map.Entry<String, Set<String>> parameterEntry : queryParams.entrySet()) {
+                            if (parameterEntry.getKey().startsWith(mapEntryPrefix)) {
+                                map.put(parameterEntry.getKey().substring(mapEntryPrefix.length()),
+                                        new ArrayList<>(parameterEntry.getValue()));
                             }
-                        } else if (List.class.equals(secMapParamClass)) {
+                        }
+                        for (String key : map.keySet()) {
+                            queryParams.remove(mapEntryPrefix + key);
+                        }
+                        if (!map.isEmpty()) {
+                            param = map;
+                        }
+                    } else {
+                        if (parameter.itemDto) {
+                            final Map<String, Map<String, Set<String>>> dtosQueries = new HashMap<>();
                             for (Map.Entry<String, Set<String>> parameterEntry : queryParams.entrySet()) {
-                                if (parameterEntry.getKey().startsWith(mapEntryPrefix)) {
-                                    map.put(parameterEntry.getKey().substring(mapEntryPrefix.length()),
-                                            new ArrayList<>(parameterEntry.getValue()));
+                                if (parameterEntry.getKey().startsWith(mapEntryPrefix) &&
+                                    parameterEntry.getKey().length() > mapEntryPrefix.length()) {
+                                    final String currentKey = parameterEntry.getKey().substring(mapEntryPrefix.length());
+                                    final int i = currentKey.indexOf('.');
+                                    if (i != -1) {
+                                        String dtoKey = currentKey.substring(0, i);
+                                        Map<String, Set<String>> dtoMap;
+                                        if ((dtoMap = dtosQueries.get(dtoKey)) == null) {
+                                            dtosQueries.put(dtoKey, dtoMap = new HashMap<>());
+                                        }
+                                        dtoMap.put(parameterEntry.getKey(), parameterEntry.getValue());
+                                    }
                                 }
                             }
-                            for (String key : map.keySet()) {
-                                queryParams.remove(mapEntryPrefix + key);
+                            for (Map.Entry<String, Map<String, Set<String>>> dtoEntry : dtosQueries.entrySet()) {
+                                Object dto = buildDtoObject(queryParams, mapEntryPrefix + dtoEntry.getKey(), secMapParamClass);
+                                map.put(dtoEntry.getKey(), dto);
                             }
                             if (!map.isEmpty()) {
                                 param = map;
                             }
-                        } else {
-                            if (secMapParamClass.isAnnotationPresent(DTO.class)) {
-                                final Map<String, Map<String, Set<String>>> dtosQueries = new HashMap<>();
-                                for (Map.Entry<String, Set<String>> parameterEntry : queryParams.entrySet()) {
-                                    if (parameterEntry.getKey().startsWith(mapEntryPrefix) &&
-                                        parameterEntry.getKey().length() > mapEntryPrefix.length()) {
-                                        final String currentKey = parameterEntry.getKey().substring(mapEntryPrefix.length());
-                                        final int i = currentKey.indexOf('.');
-                                        if (i != -1) {
-                                            String dtoKey = currentKey.substring(0, i);
-                                            Map<String, Set<String>> dtoMap;
-                                            if ((dtoMap = dtosQueries.get(dtoKey)) == null) {
-                                                dtosQueries.put(dtoKey, dtoMap = new HashMap<>());
-                                            }
-                                            dtoMap.put(parameterEntry.getKey(), parameterEntry.getValue());
-                                        }
-                                    }
-                                }
-                                for (Map.Entry<String, Map<String, Set<String>>> dtoEntry : dtosQueries.entrySet()) {
-                                    Object dto = buildDtoObject(queryParams, mapEntryPrefix + dtoEntry.getKey(), secMapParamClass);
-                                    map.put(dtoEntry.getKey(), dto);
-                                }
-                                if (!map.isEmpty()) {
-                                    param = map;
-                                }
-                            }
                         }
                     }
-                    if (param != null) {
-                        // call appropriate setter to set current parameter
-                        String setterMethodName =
-                                "set" + Character.toUpperCase(method.getName().substring(3).charAt(0)) + method.getName().substring(4);
-                        Method setterMethod = cl.getMethod(setterMethodName, returnClass);
-                        setterMethod.invoke(result, param);
-                        returnNull = false;
-                    }
+                }
+                if (param != null) {
+                    // call appropriate setter to set current parameter
+                    parameter.set(result, param);
+                    returnNull = false;
                 }
             } catch (ApiException e) {
                 throw e;
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.factory;
+
+import org.eclipse.che.api.core.factory.FactoryParameter;
+import org.eclipse.che.dto.shared.DTO;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Describes factory parameters of DTO interface, i.e. its methods annotated with {@link FactoryParameter}, their setters and types of
+ * nested objects. Descriptor is created once for each interface and shared, so building and validation of factory don't look up methods
+ * and annotations each time.
+ */
+final class FactoryDtoDescriptor {
+    private static final ConcurrentMap<Class<?>, FactoryDtoDescriptor> DESCRIPTORS = new ConcurrentHashMap<>();
+
+    static FactoryDtoDescriptor of(Class<?> dtoInterface) {
+        FactoryDtoDescriptor descriptor = DESCRIPTORS.get(dtoInterface);
+        if (descriptor == null) {
+            final FactoryDtoDescriptor newDescriptor = new FactoryDtoDescriptor(dtoInterface);
+            descriptor = DESCRIPTORS.putIfAbsent(dtoInterface, newDescriptor);
+            if (descriptor == null) {
+                descriptor = newDescriptor;
+            }
+        }
+        return descriptor;
+    }
+
+    /** Factory parameter of DTO interface. */
+    static final class Parameter {
+        final FactoryParameter annotation;
+        final String           queryParameterName;
+        final Method           getter;
+        final Method           setter;
+        /** Return type of getter. */
+        final Class<?>         type;
+        /** Raw type of elements of list or values of map, {@code null} if parameter isn't list or map. */
+        final Class<?>         itemType;
+        final boolean          dto;
+        final boolean          list;
+        final boolean          map;
+        final boolean          itemDto;
+
+        private Parameter(Class<?> dtoInterface, Method getter, FactoryParameter annotation) {
+            this.annotation = annotation;
+            this.queryParameterName = annotation.queryParameterName();
+            this.getter = getter;
+            this.type = getter.getReturnType();
+            this.dto = type.isAnnotationPresent(DTO.class);
+            this.list = List.class.isAssignableFrom(type);
+            this.map = Map.class.isAssignableFrom(type);
+            this.itemType = list ? typeArgument(getter, 0) : map ? typeArgument(getter, 1) : null;
+            this.itemDto = itemType != null && itemType.isAnnotationPresent(DTO.class);
+            final String name = getter.getName();
+            final String setterName = "set" + Character.toUpperCase(name.charAt(3)) + name.substring(4);
+            Method mySetter;
+            try {
+                mySetter = dtoInterface.getMethod(setterName, type);
+            } catch (NoSuchMethodException e) {
+                mySetter = null;
+            }
+            this.setter = mySetter;
+        }
+
+        /** Checks whether parameter belongs to given version of factory or its nested object. */
+        boolean isAllowedIn(Class<?> allowedMethodsProvider) {
+            return getter.getDeclaringClass().isAssignableFrom(allowedMethodsProvider);
+        }
+
+        Object get(Object object) throws IllegalAccessException, InvocationTargetException {
+            return getter.invoke(object);
+        }
+
+        void set(Object object, Object value) throws IllegalAccessException, InvocationTargetException, NoSuchMethodException {
+            if (setter == null) {
+                throw new NoSuchMethodException(String.format("Setter for %s isn't found", getter));
+            }
+            setter.invoke(object, value);
+        }
+
+        private static Class<?> typeArgument(Method method, int index) {
+            final Type genericType = method.getGenericReturnType();
+            if (!(genericType instanceof ParameterizedType)) {
+                return null;
+            }
+            final Type tp = ((ParameterizedType)genericType).getActualTypeArguments()[index];
+            if (tp instanceof ParameterizedType) {
+                return (Class<?>)((ParameterizedType)tp).getRawType();
+            }
+            return tp instanceof Class ? (Class<?>)tp : null;
+        }
+    }
+
+    private final List<Parameter> parameters;
+
+    private FactoryDtoDescriptor(Class<?> dtoInterface) {
+        final List<Parameter> myParameters = new ArrayList<>();
+        // get all methods recursively
+        for (Method method : dtoInterface.getMethods()) {
+            final FactoryParameter factoryParameter = method.getAnnotation(FactoryParameter.class);
+            if (factoryParameter != null) {
+                myParameters.add(new Parameter(dtoInterface, method, factoryParameter));
+            }
+        }
+        parameters = Collections.unmodifiableList(myParameters);
+    }
+
+    List<Parameter> getParameters() {
+        return parameters;
+    }
+}
@@ -12,15 +12,22 @@ package org.eclipse.che.api.factory;
 
 import org.eclipse.che.api.core.ApiException;
 import org.eclipse.che.api.core.ConflictException;
+import com.google.common.hash.Hashing;
 
 import java.io.*;
 import java.util.Arrays;
 
-/** Class to hold image information such as data, name, media type */
+/**
+ * Class to hold image information such as data, name, media type.
+ * <p/>
+ * Stores and services pass array of image data around without copying it, so content of array must not be modified, replace it with
+ * {@link #setImageData(byte[])} instead.
+ */
 public class FactoryImage {
     private byte[] imageData;
     private String mediaType;
     private String name;
+    private String hash;
 
     public FactoryImage() {
     }
@@ -37,6 +44,18 @@ public class FactoryImage {
 
     public void setImageData(byte[] imageData) throws IOException {
         this.imageData = imageData;
+        this.hash = null;
+    }
+
+    /**
+     * Get SHA-1 hash of image data as hex string or {@code null} if image has no data. Images with the same content have the same hash
+     * so it may be used as key in content addressed storage and as entity tag of image in HTTP response.
+     */
+    public String getHash() {
+        if (hash == null && imageData != null) {
+            hash = Hashing.sha1().hashBytes(imageData).toString();
+        }
+        return hash;
     }
 
     public String getMediaType() {
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.factory;
+
+import org.eclipse.che.api.core.ApiException;
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.ServerException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import javax.imageio.ImageIO;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Keeps factory images scaled down to sizes requested by dashboard and snippets. Image is scaled to the nearest supported size that is
+ * not less than requested one, so cache contains at most {@link #SIZES} variants of each image. Cache is bounded by total size of
+ * scaled images. Scaled images are shared by factories which have the same image since they are keyed by content hash of original.
+ */
+@Singleton
+public class FactoryImageCache {
+    /** Supported sizes in pixels of the biggest side of scaled image. */
+    public static final int[] SIZES = {16, 32, 48, 64, 100};
+
+    public static final long DEFAULT_MAX_CACHE_SIZE = 16 * 1024 * 1024;
+
+    private final Cache<String, FactoryImage> cache;
+
+    @Inject
+    public FactoryImageCache() {
+        this(DEFAULT_MAX_CACHE_SIZE);
+    }
+
+    /**
+     * @param maxCacheSize
+     *         max total size in bytes of scaled images kept in cache
+     */
+    public FactoryImageCache(long maxCacheSize) {
+        cache = CacheBuilder.newBuilder()
+                            .maximumWeight(maxCacheSize)
+                            .weigher(new Weigher<String, FactoryImage>() {
+                                @Override
+                                public int weigh(String key, FactoryImage image) {
+                                    return image.getImageData().length;
+                                }
+                            })
+                            .build();
+    }
+
+    /**
+     * Get image scaled to fit in square with side {@code size}. Returns original image if it is already small enough.
+     *
+     * @param image
+     *         original image
+     * @param size
+     *         requested size in pixels, must be greater than zero
+     * @throws ConflictException
+     *         if {@code size} isn't valid
+     * @throws ServerException
+     *         if image can't be scaled
+     */
+    public FactoryImage getScaled(final FactoryImage image, int size) throws ApiException {
+        if (size <= 0) {
+            throw new ConflictException(String.format("Invalid 'size' parameter: %d.", size));
+        }
+        final int scaledSize = nearestSize(size);
+        if (scaledSize < 0) {
+            return image;
+        }
+        try {
+            return cache.get(image.getHash() + '-' + scaledSize, new Callable<FactoryImage>() {
+                @Override
+                public FactoryImage call() throws Exception {
+                    return scale(image, scaledSize);
+                }
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new ServerException(String.format("Unable scale image %s. %s", image.getName(), e.getCause().getMessage()),
+                                      e.getCause());
+        }
+    }
+
+    /** Get the smallest supported size that isn't less than {@code size} or {@code -1} if {@code size} is bigger than all of them. */
+    static int nearestSize(int size) {
+        int i = Arrays.binarySearch(SIZES, size);
+        if (i < 0) {
+            i = -(i + 1);
+        }
+        return i < SIZES.length ? SIZES[i] : -1;
+    }
+
+    private static FactoryImage scale(FactoryImage image, int size) throws IOException {
+        final BufferedImage original = ImageIO.read(new ByteArrayInputStream(image.getImageData()));
+        if (original == null) {
+            throw new IOException("Unsupported image format");
+        }
+        final int width = original.getWidth();
+        final int height = original.getHeight();
+        if (width <= size && height <= size) {
+            return image;
+        }
+        final double scale = Math.min((double)size / width, (double)size / height);
+        final int scaledWidth = Math.max(1, (int)Math.round(width * scale));
+        final int scaledHeight = Math.max(1, (int)Math.round(height * scale));
+        final boolean jpeg = "image/jpeg".equals(image.getMediaType());
+        final BufferedImage scaled = new BufferedImage(scaledWidth, scaledHeight,
+                                                       jpeg ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(original, 0, 0, scaledWidth, scaledHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(scaled, image.getMediaType().substring("image/".length()), out)) {
+            throw new IOException(String.format("Unable write image of type %s", image.getMediaType()));
+        }
+        return new FactoryImage(out.toByteArray(), image.getMediaType(), image.getName());
+    }
+}
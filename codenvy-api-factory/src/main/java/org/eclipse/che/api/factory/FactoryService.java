@@ -64,7 +64,9 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
@@ -73,6 +75,7 @@ import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -97,6 +100,7 @@ public class FactoryService extends Service {
     private LinksHelper            linksHelper;
     private FactoryBuilder         factoryBuilder;
     private ProjectManager         projectManager;
+    private FactoryImageCache      imageCache;
 
     @Inject
     public FactoryService(@Named("api.endpoint") String baseApiUrl,
@@ -106,7 +110,8 @@ public class FactoryService extends Service {
                           FactoryEditValidator factoryEditValidator,
                           LinksHelper linksHelper,
                           FactoryBuilder factoryBuilder,
-                          ProjectManager projectManager) {
+                          ProjectManager projectManager,
+                          FactoryImageCache imageCache) {
         this.baseApiUrl = baseApiUrl;
         this.factoryStore = factoryStore;
         this.createValidator = createValidator;
@@ -115,6 +120,7 @@ public class FactoryService extends Service {
         this.linksHelper = linksHelper;
         this.factoryBuilder = factoryBuilder;
         this.projectManager = projectManager;
+        this.imageCache = imageCache;
     }
 
     /**
@@ -426,7 +432,8 @@ public class FactoryService extends Service {
 
 
     /**
-     * Get list of factory links which conform specified attributes.
+     * Get list of factory links which conform specified attributes. Query parameters {@code maxItems} and {@code skipCount} are used for
+     * paging and aren't considered as attributes.
      *
      * @param uriInfo
      *         - url context
@@ -446,15 +453,28 @@ public class FactoryService extends Service {
         if (queryParams.isEmpty()) {
             throw new IllegalArgumentException("Query must contain at least one attribute.");
         }
+        final int maxItems = getIntParameter(queryParams.remove("maxItems"), "maxItems", -1);
+        final int skipCount = getIntParameter(queryParams.remove("skipCount"), "skipCount", 0);
+        if (skipCount < 0) {
+            throw new ConflictException(String.format("Invalid 'skipCount' parameter: %d.", skipCount));
+        }
         if (queryParams.containsKey("accountid")) {
             queryParams.put("orgid", queryParams.remove("accountid"));
         }
-        ArrayList<Pair> pairs = new ArrayList<>();
+        List<Pair<String, String>> pairs = new ArrayList<>();
         for (Map.Entry<String, Set<String>> entry : queryParams.entrySet()) {
             if (!entry.getValue().isEmpty())
                 pairs.add(Pair.of(entry.getKey(), entry.getValue().iterator().next()));
         }
-        List<Factory> factories = factoryStore.findByAttribute(pairs.toArray(new Pair[pairs.size()]));
+        if (pairs.isEmpty()) {
+            throw new IllegalArgumentException("Query must contain at least one attribute.");
+        }
+        final List<Factory> factories;
+        if (factoryStore instanceof PagingFactoryStore) {
+            factories = ((PagingFactoryStore)factoryStore).findByAttribute(maxItems, skipCount, pairs);
+        } else {
+            factories = page(factoryStore.findByAttribute(pairs.toArray(new Pair[pairs.size()])), maxItems, skipCount);
+        }
         for (Factory factory : factories) {
             result.add(DtoFactory.getInstance().createDto(Link.class)
                                  .withMethod("GET")
@@ -470,13 +490,37 @@ public class FactoryService extends Service {
         return result;
     }
 
+    private static int getIntParameter(Set<String> values, String name, int defaultValue) throws ConflictException {
+        if (values == null || values.isEmpty()) {
+            return defaultValue;
+        }
+        final String value = values.iterator().next();
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ConflictException(String.format("Invalid '%s' parameter: %s.", name, value));
+        }
+    }
+
+    /** Takes page from all found factories, used for stores which don't implement {@link PagingFactoryStore}. */
+    private static List<Factory> page(List<Factory> factories, int maxItems, int skipCount) {
+        if (skipCount >= factories.size()) {
+            return Collections.emptyList();
+        }
+        final int end = maxItems < 0 ? factories.size() : (int)Math.min((long)skipCount + maxItems, factories.size());
+        return factories.subList(skipCount, end);
+    }
+
     /**
-     * Get image information by its id.
+     * Get image information by its id. Content hash of image is sent as entity tag, if it matches tag from {@code If-None-Match}
+     * header of request then response with status 304 and without content is sent.
      *
      * @param factoryId
      *         - id of factory
      * @param imageId
      *         - image id.
+     * @param size
+     *         - if set, image is scaled down to fit in square with such side, see {@link FactoryImageCache}
      * @return - image information if ids are correct. If imageId is not set, random image of factory will be returned. But if factory has
      * no images, exception will be thrown.
      * @throws org.eclipse.che.api.core.ApiException
@@ -498,7 +542,10 @@ public class FactoryService extends Service {
     public Response getImage(@ApiParam(value = "Factory ID", required = true)
                              @PathParam("factoryId") String factoryId,
                              @ApiParam(value = "Image ID", required = true)
-                             @DefaultValue("") @QueryParam("imgId") String imageId)
+                             @DefaultValue("") @QueryParam("imgId") String imageId,
+                             @ApiParam(value = "Max width and height of image in pixels")
+                             @QueryParam("size") Integer size,
+                             @Context Request request)
             throws ApiException {
         Set<FactoryImage> factoryImages = factoryStore.getFactoryImages(factoryId, null);
         if (factoryImages == null) {
@@ -507,8 +554,7 @@ public class FactoryService extends Service {
         }
         if (imageId.isEmpty()) {
             if (factoryImages.size() > 0) {
-                FactoryImage image = factoryImages.iterator().next();
-                return Response.ok(image.getImageData(), image.getMediaType()).build();
+                return imageResponse(factoryImages.iterator().next(), size, request);
             } else {
                 LOG.warn("Default image for factory {} is not found.", factoryId);
                 throw new NotFoundException("Default image for factory " + factoryId + " is not found.");
@@ -516,7 +562,7 @@ public class FactoryService extends Service {
         } else {
             for (FactoryImage image : factoryImages) {
                 if (image.getName().equals(imageId)) {
-                    return Response.ok(image.getImageData(), image.getMediaType()).build();
+                    return imageResponse(image, size, request);
                 }
             }
         }
@@ -524,6 +570,17 @@ public class FactoryService extends Service {
         throw new NotFoundException("Image with id " + imageId + " is not found.");
     }
 
+    private Response imageResponse(FactoryImage image, Integer size, Request request) throws ApiException {
+        final FactoryImage myImage = size == null ? image : imageCache.getScaled(image, size);
+        final EntityTag tag = new EntityTag(myImage.getHash());
+        final Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.tag(tag).build();
+        }
+        // array of image data is written as is, stores don't copy it on read
+        return Response.ok(myImage.getImageData(), myImage.getMediaType()).tag(tag).build();
+    }
+
     /**
      * Get factory snippet by factory id and snippet type. If snippet type is not set, "url" type will be used as default.
      *
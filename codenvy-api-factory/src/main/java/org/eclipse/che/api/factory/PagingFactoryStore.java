@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.factory;
+
+import org.eclipse.che.api.core.ApiException;
+import org.eclipse.che.api.factory.dto.Factory;
+import org.eclipse.che.commons.lang.Pair;
+
+import java.util.List;
+
+/**
+ * {@link FactoryStore} which finds page of factories itself. Factory service uses it when store implements this interface, for other
+ * stores it gets all matched factories with {@link FactoryStore#findByAttribute(Pair[])} and takes page from them.
+ */
+public interface PagingFactoryStore extends FactoryStore {
+    /**
+     * Retrieve page of factories which have all given attributes. Attribute name is path to field of factory separated with dots,
+     * e.g. {@code creator.userId}. Factories are returned in the same order for the same query, so client may read all of them page
+     * by page.
+     *
+     * @param maxItems
+     *         - max number of factories in result, {@code -1} for no limits
+     * @param skipCount
+     *         - number of matched factories to skip
+     * @param attributes
+     *         - attribute pairs to search for
+     * @return - List {@code AdvancedFactoryUrl} if factory(s) exist and found, empty list otherwise
+     * @throws org.eclipse.che.api.core.ApiException
+     */
+    public List<Factory> findByAttribute(int maxItems, int skipCount, List<Pair<String, String>> attributes) throws ApiException;
+}
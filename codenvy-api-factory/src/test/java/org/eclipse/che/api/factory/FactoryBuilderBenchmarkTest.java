@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.factory;
+
+import org.eclipse.che.api.factory.dto.Author;
+import org.eclipse.che.api.factory.dto.Factory;
+import org.eclipse.che.api.factory.dto.Policies;
+import org.eclipse.che.api.factory.dto.Workspace;
+import org.eclipse.che.api.project.shared.dto.ImportSourceDescriptor;
+import org.eclipse.che.api.project.shared.dto.NewProject;
+import org.eclipse.che.api.project.shared.dto.Source;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.HashMap;
+
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.eclipse.che.api.core.factory.FactoryParameter.FactoryFormat.ENCODED;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Measures throughput of building and validation of factories. Tests of group 'benchmark' run only with profile 'benchmark'.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class FactoryBuilderBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(FactoryBuilderBenchmarkTest.class);
+
+    private static final int WARM_UP    = 1000;
+    private static final int ITERATIONS = 20000;
+
+    private static DtoFactory dto = DtoFactory.getInstance();
+
+    @Mock
+    private SourceProjectParametersValidator sourceProjectParametersValidator;
+
+    private FactoryBuilder factoryBuilder;
+    private Factory        factory;
+
+    @BeforeMethod(alwaysRun = true)
+    public void setUp() throws Exception {
+        factoryBuilder = new FactoryBuilder(sourceProjectParametersValidator);
+        factory = dto.createDto(Factory.class)
+                     .withV("2.0")
+                     .withSource(dto.createDto(Source.class)
+                                    .withProject(dto.createDto(ImportSourceDescriptor.class)
+                                                    .withType("git")
+                                                    .withLocation("http://github.com/codenvy/platform-api.git")
+                                                    .withParameters(new HashMap<String, String>() {
+                                                        {
+                                                            put("keepVcs", "true");
+                                                            put("branch", "master");
+                                                        }
+                                                    })))
+                     .withProject(dto.createDto(NewProject.class)
+                                     .withType("maven")
+                                     .withName("platform-api")
+                                     .withDescription("description")
+                                     .withAttributes(singletonMap("language", singletonList("java")))
+                                     .withVisibility("public"))
+                     .withCreator(dto.createDto(Author.class)
+                                     .withAccountId("accountId")
+                                     .withEmail("user@codenvy.com")
+                                     .withName("name"))
+                     .withPolicies(dto.createDto(Policies.class)
+                                      .withRefererHostname("codenvy.com")
+                                      .withValidSince(123L)
+                                      .withValidUntil(456L))
+                     .withWorkspace(dto.createDto(Workspace.class)
+                                       .withType("named"));
+    }
+
+    @Test(groups = "benchmark")
+    public void benchmarkNonEncoded() throws Exception {
+        final URI uri = new URI("?" + factoryBuilder.buildNonEncoded(factory));
+        final Factory parsed = factoryBuilder.buildEncoded(uri);
+        assertEquals(parsed.getProject().getName(), "platform-api");
+        assertEquals(parsed.getSource().getProject().getLocation(), "http://github.com/codenvy/platform-api.git");
+        for (int i = 0; i < WARM_UP; i++) {
+            factoryBuilder.buildEncoded(new URI("?" + factoryBuilder.buildNonEncoded(factory)));
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            factoryBuilder.buildEncoded(new URI("?" + factoryBuilder.buildNonEncoded(factory)));
+        }
+        log("buildNonEncoded + buildEncoded(URI)", start);
+    }
+
+    @Test(groups = "benchmark")
+    public void benchmarkEncoded() throws Exception {
+        final String json = dto.toJson(factory);
+        assertEquals(factoryBuilder.buildEncoded(json), factory);
+        for (int i = 0; i < WARM_UP; i++) {
+            factoryBuilder.buildEncoded(json);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            factoryBuilder.buildEncoded(json);
+        }
+        log("buildEncoded(json)", start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            factoryBuilder.checkValid(factory, ENCODED);
+        }
+        log("checkValid", start);
+    }
+
+    private void log(String operation, long start) {
+        final long time = System.nanoTime() - start;
+        LOG.info("{}: {} iterations in {} ms, {} ops/s", operation, ITERATIONS, time / 1000000, ITERATIONS * 1000000000L / time);
+    }
+}
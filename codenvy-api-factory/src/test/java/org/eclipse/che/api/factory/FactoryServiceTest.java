@@ -48,7 +48,10 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
+import javax.imageio.ImageIO;
 import javax.ws.rs.core.MediaType;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -114,7 +117,8 @@ public class FactoryServiceTest {
                                             editValidator,
                                             new LinksHelper(),
                                             factoryBuilder,
-                                            projectManager);
+                                            projectManager,
+                                            new FactoryImageCache());
     }
 
     @Filter
@@ -611,6 +615,45 @@ public class FactoryServiceTest {
         assertEquals(response.asByteArray(), imageContent);
     }
 
+    @Test
+    public void shouldSendContentHashOfImageAsEntityTag() throws Exception {
+        // given
+        Path path = Paths.get(Thread.currentThread().getContextClassLoader().getResource("100x100_image.jpeg").toURI());
+        byte[] imageContent = Files.readAllBytes(path);
+        FactoryImage image = new FactoryImage(imageContent, "image/jpeg", "imageName");
+
+        when(factoryStore.getFactoryImages(CORRECT_FACTORY_ID, null)).thenReturn(new HashSet<>(Arrays.asList(image)));
+
+        // when
+        Response response = given().when().get(SERVICE_PATH + "/" + CORRECT_FACTORY_ID + "/image?imgId=imageName");
+        Response notModified = given().header("If-None-Match", response.getHeader("ETag"))
+                                      .when().get(SERVICE_PATH + "/" + CORRECT_FACTORY_ID + "/image?imgId=imageName");
+
+        // then
+        assertEquals(response.getHeader("ETag"), "\"" + image.getHash() + "\"");
+        assertEquals(notModified.getStatusCode(), 304);
+    }
+
+    @Test
+    public void shouldBeAbleToGetScaledFactoryImage() throws Exception {
+        // given
+        Path path = Paths.get(Thread.currentThread().getContextClassLoader().getResource("100x100_image.jpeg").toURI());
+        byte[] imageContent = Files.readAllBytes(path);
+        FactoryImage image = new FactoryImage(imageContent, "image/jpeg", "imageName");
+
+        when(factoryStore.getFactoryImages(CORRECT_FACTORY_ID, null)).thenReturn(new HashSet<>(Arrays.asList(image)));
+
+        // when
+        Response response = given().when().get(SERVICE_PATH + "/" + CORRECT_FACTORY_ID + "/image?imgId=imageName&size=30");
+
+        // then
+        assertEquals(response.getStatusCode(), 200);
+        assertEquals(response.getContentType(), "image/jpeg");
+        BufferedImage scaled = ImageIO.read(new ByteArrayInputStream(response.asByteArray()));
+        assertEquals(scaled.getWidth(), 32);
+        assertEquals(scaled.getHeight(), 32);
+    }
+
     @Test
     public void shouldReturnStatus404OnGetFactoryImageWithIllegalId() throws Exception {
         // given
@@ -1096,6 +1139,28 @@ public class FactoryServiceTest {
         assertEquals(responseLinks.size(), 2);
     }
 
+    @Test
+    public void shouldTakePageOfFoundFactoriesIfStoreDoesNotPage() throws Exception {
+        // given
+        List<Factory> factories = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            factories.add((Factory)dto.createDto(Factory.class).withV("2.0").withId("factory" + i)
+                                      .withCreator(dto.createDto(Author.class).withAccountId("testorg")));
+        }
+        when(factoryStore.findByAttribute(Pair.of("orgid", "testorg"))).thenReturn(factories);
+
+        // when
+        Response response = given().auth().basic(JettyHttpServer.ADMIN_USER_NAME, JettyHttpServer.ADMIN_USER_PASSWORD).
+                when().get("/private" + SERVICE_PATH + "/find?accountid=testorg&maxItems=2&skipCount=2");
+
+        // then
+        assertEquals(response.getStatusCode(), 200);
+        List<Link> responseLinks = dto.createListDtoFromJson(response.getBody().asString(), Link.class);
+        assertEquals(responseLinks.size(), 2);
+        assertTrue(responseLinks.get(0).getHref().endsWith("/factory2"));
+        assertTrue(responseLinks.get(1).getHref().endsWith("/factory3"));
+    }
+
     private class FactorySaveAnswer implements Answer<Object> {
 
         private Factory savedFactory;
@@ -31,5 +31,6 @@ public class BaseProjectModule extends AbstractModule {
         bind(ProjectImportersService.class);
         bind(ProjectTemplateDescriptionLoader.class);
         bind(ProjectTemplateRegistry.class);
+        bind(ProjectTemplateCache.class);
     }
 }
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.ServerException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Folder entry that remembers its children. Used as base folder of project while project types are estimated: all estimators usually
+ * look for the same marker files, e.g. pom.xml or package.json, so each of them is looked up in virtual file system once. Entry is
+ * supposed to be used for short read-only operations, changes of folder made after lookup aren't visible.
+ */
+class CachingFolderEntry extends FolderEntry {
+    private static final Object NOT_FOUND = new Object();
+
+    /** Relative path -> child or {@link #NOT_FOUND}. */
+    private final ConcurrentMap<String, Object> children;
+
+    private volatile List<VirtualFileEntry> childList;
+
+    CachingFolderEntry(FolderEntry folder) {
+        super(folder.getWorkspace(), folder.getVirtualFile());
+        children = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public VirtualFileEntry getChild(String path) throws ForbiddenException, ServerException {
+        Object child = children.get(path);
+        if (child == null) {
+            final VirtualFileEntry entry = super.getChild(path);
+            child = entry == null ? NOT_FOUND : entry;
+            children.putIfAbsent(path, child);
+        }
+        return child == NOT_FOUND ? null : (VirtualFileEntry)child;
+    }
+
+    @Override
+    public List<VirtualFileEntry> getChildren() throws ServerException {
+        return new ArrayList<>(getChildList());
+    }
+
+    @Override
+    public List<FileEntry> getChildFiles() throws ServerException {
+        final List<FileEntry> files = new ArrayList<>();
+        for (VirtualFileEntry child : getChildList()) {
+            if (child.isFile()) {
+                files.add((FileEntry)child);
+            }
+        }
+        return files;
+    }
+
+    @Override
+    public List<FolderEntry> getChildFolders() throws ServerException {
+        final List<FolderEntry> folders = new ArrayList<>();
+        for (VirtualFileEntry child : getChildList()) {
+            if (child.isFolder()) {
+                folders.add((FolderEntry)child);
+            }
+        }
+        return folders;
+    }
+
+    private List<VirtualFileEntry> getChildList() throws ServerException {
+        List<VirtualFileEntry> list = childList;
+        if (list == null) {
+            childList = list = super.getChildren();
+        }
+        return list;
+    }
+}
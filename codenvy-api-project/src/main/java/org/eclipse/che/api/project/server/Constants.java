@@ -24,6 +24,8 @@ public class Constants {
     public static final String LINK_REL_GET_CONTENT             = "get content";
     public static final String LINK_REL_UPDATE_CONTENT          = "update content";
     public static final String LINK_REL_GET_RUNNER_ENVIRONMENTS = "get runner environments";
+    public static final String LINK_REL_GET_IMPORT_JOB          = "get import job";
+    public static final String LINK_REL_CANCEL_IMPORT_JOB       = "cancel import job";
 
     public static final String LINK_REL_PROJECT_TYPES = "project types";
 
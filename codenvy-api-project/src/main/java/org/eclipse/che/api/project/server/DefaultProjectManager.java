@@ -29,12 +29,18 @@ import org.eclipse.che.api.project.shared.dto.SourceEstimation;
 
 import org.eclipse.che.api.vfs.server.Path;
 import org.eclipse.che.api.vfs.server.VirtualFileSystemRegistry;
+import org.eclipse.che.api.vfs.server.observation.MoveEvent;
+import org.eclipse.che.api.vfs.server.observation.RenameEvent;
 import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
+import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.commons.lang.cache.Cache;
 import org.eclipse.che.commons.lang.cache.SLRUCache;
 import org.eclipse.che.dto.server.DtoFactory;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,9 +53,20 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -64,9 +81,40 @@ public final class DefaultProjectManager implements ProjectManager {
     private static final int CACHE_MASK = CACHE_NUM - 1;
     private static final int SEG_SIZE   = 32;
 
+    private static final int CONFIG_CACHE_SIZE = 1 << 10;
+
+    /** Max time in milliseconds for estimation of folder against all project types. */
+    private static final long ESTIMATE_TIMEOUT = 30000;
+
+    /** Set in threads that estimate project. */
+    private static final ThreadLocal<Boolean> ESTIMATOR = new ThreadLocal<>();
+
+    /**
+     * Parsed content of file .codenvy/project.json and configuration of project that is resolved from it. Instances are never modified
+     * but replaced, so replacing of cached instance fails if it was invalidated while configuration was resolved.
+     */
+    private static class CachedConfig {
+        /** {@code null} if not loaded yet. */
+        final ProjectJson   json;
+        /** {@code null} if not resolved yet or values provided by value providers may be outdated. */
+        final ProjectConfig config;
+        /** Revision of {@link ProjectTypeRegistry} which was used for resolving {@link #config}. */
+        final int           typesRevision;
+
+        CachedConfig(ProjectJson json, ProjectConfig config, int typesRevision) {
+            this.json = json;
+            this.config = config;
+            this.typesRevision = typesRevision;
+        }
+    }
+
     private final Lock[]                                     miscLocks;
     private final Cache<Pair<String, String>, ProjectMisc>[] miscCaches;
 
+    private final ConcurrentMap<Pair<String, String>, CachedConfig> configs;
+    private final ProjectModificationTracker                       modificationTracker;
+    private final ExecutorService                                  estimators;
+
     private final VirtualFileSystemRegistry         fileSystemRegistry;
     private final EventService                      eventService;
     private final EventSubscriber<VirtualFileEvent> vfsSubscriber;
@@ -111,6 +159,16 @@ public final class DefaultProjectManager implements ProjectManager {
             };
         }
 
+        modificationTracker = new ProjectModificationTracker(this, ProjectModificationTracker.DEFAULT_FLUSH_PERIOD);
+        final int estimatorThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        final ThreadPoolExecutor estimators = new ThreadPoolExecutor(estimatorThreads, estimatorThreads, 60, TimeUnit.SECONDS,
+                                                                     new LinkedBlockingQueue<Runnable>(),
+                                                                     new ThreadFactoryBuilder().setNameFormat("ProjectTypeEstimator-%d")
+                                                                                               .setDaemon(true).build());
+        estimators.allowCoreThreadTimeOut(true);
+        this.estimators = estimators;
+        configs = CacheBuilder.newBuilder().maximumSize(CONFIG_CACHE_SIZE).<Pair<String, String>, CachedConfig>build().asMap();
+
         vfsSubscriber = new EventSubscriber<VirtualFileEvent>() {
             @Override
             public void onEvent(VirtualFileEvent event) {
@@ -120,23 +178,33 @@ public final class DefaultProjectManager implements ProjectManager {
                     return;
                 }
                 switch (event.getType()) {
-                    case CONTENT_UPDATED:
-                    case CREATED:
-                    case DELETED:
-                    case MOVED:
+                    case CONTENT_UPDATED: {
+                        onChanged(workspace, path, false, false);
+                        break;
+                    }
+                    case CREATED: {
+                        // Created folder may be copy of other folder with projects inside.
+                        onChanged(workspace, path, event.isFolder(), false);
+                        break;
+                    }
+                    case DELETED: {
+                        onChanged(workspace, path, true, false);
+                        break;
+                    }
+                    case MOVED: {
+                        invalidate(workspace, ((MoveEvent)event).getOldPath(), true);
+                        onChanged(workspace, path, true, false);
+                        break;
+                    }
                     case RENAMED: {
-                        final int length = path.length();
-                        for (int i = 1; i < length && (i = path.indexOf('/', i)) > 0; i++) {
-                            final String projectPath = path.substring(0, i);
-                            try {
-                                final Project project = getProject(workspace, projectPath);
-                                if (project != null) {
-                                    getProjectMisc(project).setModificationDate(System.currentTimeMillis());
-                                }
-                            } catch (Exception e) {
-                                LOG.error(e.getMessage(), e);
-                            }
-                        }
+                        invalidate(workspace, ((RenameEvent)event).getOldPath(), true);
+                        onChanged(workspace, path, true, false);
+                        break;
+                    }
+                    case BULK_CHANGED: {
+                        // All items of bulk change are under the path of event. Update projects that contain whole subtree once instead
+                        // of processing each entry separately.
+                        onChanged(workspace, path, true, true);
                         break;
                     }
                 }
@@ -144,6 +212,58 @@ public final class DefaultProjectManager implements ProjectManager {
         };
     }
 
+    private void onChanged(String workspace, String path, boolean subtree, boolean includeSelf) {
+        invalidate(workspace, path, subtree);
+        modificationTracker.onChanged(workspace, path, includeSelf);
+    }
+
+    private void invalidate(String workspace, String path, boolean subtree) {
+        invalidateConfigs(workspace, path, subtree);
+        modificationTracker.invalidate(workspace, path, subtree);
+    }
+
+    /** Checks whether {@code path} points to folder .codenvy of project with path {@code path.substring(0, projectPathLength)} or inside it. */
+    static boolean isCodenvyPath(String path, int projectPathLength) {
+        final int end = projectPathLength + 1 + Constants.CODENVY_DIR.length();
+        return path.startsWith(Constants.CODENVY_DIR, projectPathLength + 1)
+               && path.charAt(projectPathLength) == '/'
+               && (end == path.length() || path.charAt(end) == '/');
+    }
+
+    /**
+     * Invalidates cached configurations of projects affected by change of item. Change in folder .codenvy of project invalidates whole
+     * cached configuration. Any other change in project may change values of value providers and list of transient project types, so
+     * configuration of project is resolved again but parsed content of .codenvy/project.json is reused.
+     *
+     * @param subtree
+     *         if {@code true} also drop configurations of projects that are located under the path, e.g. if folder is deleted
+     */
+    private void invalidateConfigs(String workspace, String path, boolean subtree) {
+        if (path == null || configs.isEmpty()) {
+            return;
+        }
+        final int length = path.length();
+        for (int i = 1; i < length && (i = path.indexOf('/', i)) > 0; i++) {
+            final Pair<String, String> key = Pair.of(workspace, path.substring(0, i));
+            if (isCodenvyPath(path, i)) {
+                configs.remove(key);
+            } else {
+                CachedConfig cached;
+                while ((cached = configs.get(key)) != null && !configs.replace(key, cached, new CachedConfig(cached.json, null, 0))) {
+                    // retry
+                }
+            }
+        }
+        if (subtree) {
+            final String prefix = path + '/';
+            for (Iterator<Pair<String, String>> iterator = configs.keySet().iterator(); iterator.hasNext(); ) {
+                final Pair<String, String> key = iterator.next();
+                if (workspace.equals(key.first) && (path.equals(key.second) || key.second.startsWith(prefix))) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
 
     /**
      * Gets the list of projects in {@code workspace}.
@@ -359,12 +479,42 @@ public final class DefaultProjectManager implements ProjectManager {
             if (misc == null) {
                 miscCaches[index].put(key, misc = readProjectMisc(project));
             }
+            final Long modificationDate = modificationTracker.getModificationDate(key);
+            if (modificationDate != null && modificationDate > misc.getModificationDate()) {
+                misc.setModificationDate(modificationDate);
+            }
             return misc;
         } finally {
             miscLocks[index].unlock();
         }
     }
 
+    /**
+     * Gets configuration of project. Configuration is cached until content of project is changed, so repeated calls don't read and parse
+     * project's meta-data.
+     */
+    public ProjectConfig getProjectConfig(Project project) throws ServerException, ValueStorageException, ProjectTypeConstraintException,
+                                                                  InvalidValueException {
+        final Pair<String, String> key = Pair.of(project.getWorkspace(), project.getPath());
+        CachedConfig cached = configs.get(key);
+        if (cached == null) {
+            final CachedConfig newCached = new CachedConfig(null, null, 0);
+            cached = configs.putIfAbsent(key, newCached);
+            if (cached == null) {
+                cached = newCached;
+            }
+        }
+        final int typesRevision = projectTypeRegistry.getRevision();
+        if (cached.config != null && cached.typesRevision == typesRevision) {
+            return new ProjectConfig(cached.config);
+        }
+        final ProjectJson json = cached.json == null ? ProjectJson.load(project) : cached.json;
+        final ProjectConfig config = project.resolveConfig(json);
+        // Fails if project was changed while configuration was resolved.
+        configs.replace(key, cached, new CachedConfig(json, config, typesRevision));
+        return new ProjectConfig(config);
+    }
+
     private ProjectMisc readProjectMisc(Project project) throws ServerException {
         try {
             ProjectMisc misc;
@@ -461,6 +611,8 @@ public final class DefaultProjectManager implements ProjectManager {
     @PreDestroy
     void stop() {
         eventService.unsubscribe(vfsSubscriber);
+        modificationTracker.stop();
+        estimators.shutdownNow();
         for (int i = 0, length = miscLocks.length; i < length; i++) {
             miscLocks[i].lock();
             try {
@@ -469,6 +621,7 @@ public final class DefaultProjectManager implements ProjectManager {
                 miscLocks[i].unlock();
             }
         }
+        configs.clear();
     }
 
 
@@ -493,60 +646,80 @@ public final class DefaultProjectManager implements ProjectManager {
         if (projectType == null)
             throw new NotFoundException("Project Type " + projectTypeId + " not found.");
 
+        return estimateProject(projectType, getFolder(workspace, path));
+
+    }
+
+    private FolderEntry getFolder(String workspace, String path) throws ServerException, ForbiddenException, NotFoundException {
         final VirtualFileEntry baseFolder = getProjectsRoot(workspace).getChild(path.startsWith("/") ? path.substring(1) : path);
-        if (!baseFolder.isFolder()) {
+        if (baseFolder == null || !baseFolder.isFolder()) {
             throw new NotFoundException("Not a folder: " + path);
         }
+        return (FolderEntry)baseFolder;
+    }
 
+    private Map<String, AttributeValue> estimateProject(ProjectType projectType, FolderEntry baseFolder) throws ValueStorageException {
         Map<String, AttributeValue> attributes = new HashMap<>();
 
         for (Attribute attr : projectType.getAttributes()) {
 
-            if (attr.isVariable() && ((Variable)attr).getValueProviderFactory() != null) {
+            if (isProvided(attr)) {
 
                 Variable var = (Variable)attr;
                 // getValue throws ValueStorageException if not valid
-                attributes.put(attr.getName(), var.getValue((FolderEntry)baseFolder));
+                attributes.put(attr.getName(), var.getValue(baseFolder));
             }
 
         }
 
         return attributes;
+    }
 
+    private static boolean isProvided(Attribute attr) {
+        return attr.isVariable() && ((Variable)attr).getValueProviderFactory() != null;
     }
 
+    /**
+     * Estimates folder against each project type. Project types which don't have attributes with value providers are skipped since they
+     * never match. Estimators of different project types run in parallel and share the same {@link CachingFolderEntry}, so files which
+     * each estimator looks for are read once. Estimators which aren't finished in {@link #ESTIMATE_TIMEOUT} milliseconds are cancelled
+     * and their project types are considered as not matched.
+     */
     // ProjectSuggestion
     public List<SourceEstimation> resolveSources(String workspace, String path, boolean transientOnly)
             throws ServerException, ForbiddenException, NotFoundException,
                    ProjectTypeConstraintException {
-        final List<SourceEstimation> estimations = new ArrayList<>();
-
+        final FolderEntry baseFolder = new CachingFolderEntry(getFolder(workspace, path));
+        final List<ProjectType> types = new ArrayList<>();
         for (ProjectType type : projectTypeRegistry.getProjectTypes(ProjectTypeRegistry.CHILD_TO_PARENT_COMPARATOR)) {
-
             if (transientOnly && type.isPersisted())
                 continue;
-
-            final HashMap<String, List<String>> attributes = new HashMap<>();
-
-
-            try {
-                for (Map.Entry<String, AttributeValue> attr : estimateProject(workspace, path, type.getId()).entrySet()) {
-                    attributes.put(attr.getKey(), attr.getValue().getList());
+            for (Attribute attr : type.getAttributes()) {
+                if (isProvided(attr)) {
+                    types.add(type);
+                    break;
                 }
+            }
+        }
 
-                if (!attributes.isEmpty()) {
-                    estimations.add(
-                            DtoFactory.getInstance().createDto(SourceEstimation.class)
-                                      .withType(type.getId())
-                                      .withAttributes(attributes));
-
+        final List<SourceEstimation> estimations = new ArrayList<>();
+        if (!types.isEmpty()) {
+            final List<Map<String, AttributeValue>> results = estimateProject(types, baseFolder);
+            for (int i = 0, size = types.size(); i < size; i++) {
+                final Map<String, AttributeValue> result = results.get(i);
+                if (result == null || result.isEmpty()) {
+                    // just not added
+                    continue;
                 }
-
-            } catch (ValueStorageException e) {
-                // just not added
-                //e.printStackTrace();
+                final HashMap<String, List<String>> attributes = new HashMap<>();
+                for (Map.Entry<String, AttributeValue> attr : result.entrySet()) {
+                    attributes.put(attr.getKey(), attr.getValue().getList());
+                }
+                estimations.add(
+                        DtoFactory.getInstance().createDto(SourceEstimation.class)
+                                  .withType(types.get(i).getId())
+                                  .withAttributes(attributes));
             }
-
         }
         if (estimations.isEmpty()) {
             estimations.add(
@@ -558,6 +731,69 @@ public final class DefaultProjectManager implements ProjectManager {
         return estimations;
     }
 
+    /** Returns result of estimation for each type in the same order, {@code null} if folder doesn't match project type. */
+    private List<Map<String, AttributeValue>> estimateProject(List<ProjectType> types, final FolderEntry baseFolder)
+            throws ServerException {
+        final List<Map<String, AttributeValue>> results = new ArrayList<>(types.size());
+        // Value provider may resolve configuration of other project, don't wait for pool from thread of pool.
+        if (types.size() == 1 || ESTIMATOR.get() != null) {
+            for (ProjectType type : types) {
+                try {
+                    results.add(estimateProject(type, baseFolder));
+                } catch (ValueStorageException e) {
+                    results.add(null);
+                }
+            }
+            return results;
+        }
+
+        final EnvironmentContext context = EnvironmentContext.getCurrent();
+        final List<Callable<Map<String, AttributeValue>>> tasks = new ArrayList<>(types.size());
+        for (final ProjectType type : types) {
+            tasks.add(new Callable<Map<String, AttributeValue>>() {
+                @Override
+                public Map<String, AttributeValue> call() throws Exception {
+                    ESTIMATOR.set(Boolean.TRUE);
+                    EnvironmentContext.setCurrent(context);
+                    try {
+                        return estimateProject(type, baseFolder);
+                    } finally {
+                        EnvironmentContext.reset();
+                        ESTIMATOR.remove();
+                    }
+                }
+            });
+        }
+        final List<Future<Map<String, AttributeValue>>> futures;
+        try {
+            futures = estimators.invokeAll(tasks, ESTIMATE_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Estimation of project is interrupted. ");
+        } catch (RejectedExecutionException e) {
+            throw new ServerException("Project manager is stopped. ");
+        }
+        for (int i = 0, size = futures.size(); i < size; i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (CancellationException e) {
+                LOG.warn("Estimation of folder {} against project type {} isn't finished in {} ms",
+                         baseFolder.getPath(), types.get(i).getId(), ESTIMATE_TIMEOUT);
+                results.add(null);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (!(cause instanceof ValueStorageException)) {
+                    throw new ServerException(cause.getMessage(), cause);
+                }
+                results.add(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServerException("Estimation of project is interrupted. ");
+            }
+        }
+        return results;
+    }
+
 
     /**
      * Converts existed Folder to Project
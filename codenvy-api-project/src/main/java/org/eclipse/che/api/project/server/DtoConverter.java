@@ -52,6 +52,8 @@ import java.util.*;
  * @author andrew00x
  */
 public class DtoConverter {
+    /** Stands for path of item in link templates while they are built, see {@link #createItemLinkTemplates(String, UriBuilder)}. */
+    private static final String PATH_MARKER = "__item_path__";
 
     /*================================ Method for conversion from DTO. ===============================*/
 
@@ -241,6 +243,11 @@ public class DtoConverter {
     }
 
     public static ItemReference toItemReferenceDto(FileEntry file, UriBuilder uriBuilder) throws ServerException {
+        return toItemReferenceDto(file).withLinks(generateFileLinks(file, uriBuilder));
+    }
+
+    /** Converts file to DTO without links. Links may be created on client side with templates, see {@link #createItemLinkTemplates}. */
+    public static ItemReference toItemReferenceDto(FileEntry file) throws ServerException {
         return DtoFactory.getInstance().createDto(ItemReference.class)
                          .withName(file.getName())
                          .withPath(file.getPath())
@@ -249,11 +256,15 @@ public class DtoConverter {
                          .withAttributes(file.getAttributes())
                          .withCreated(file.getCreated())
                          .withModified(file.getModified())
-                         .withContentLength(file.getVirtualFile().getLength())
-                         .withLinks(generateFileLinks(file, uriBuilder));
+                         .withContentLength(file.getVirtualFile().getLength());
     }
 
     public static ItemReference toItemReferenceDto(FolderEntry folder, UriBuilder uriBuilder) throws ServerException {
+        return toItemReferenceDto(folder).withLinks(generateFolderLinks(folder, uriBuilder));
+    }
+
+    /** Converts folder to DTO without links. Links may be created on client side with templates, see {@link #createItemLinkTemplates}. */
+    public static ItemReference toItemReferenceDto(FolderEntry folder) throws ServerException {
         return DtoFactory.getInstance().createDto(ItemReference.class)
                          .withName(folder.getName())
                          .withPath(folder.getPath())
@@ -261,8 +272,28 @@ public class DtoConverter {
                          .withMediaType("text/directory")
                          .withAttributes(folder.getAttributes())
                          .withCreated(folder.getCreated())
-                         .withModified(folder.getModified())
-                         .withLinks(generateFolderLinks(folder, uriBuilder));
+                         .withModified(folder.getModified());
+    }
+
+    /**
+     * Creates templates of links of files and folders in workspace. Placeholder {@code [path]} in templates should be replaced with path
+     * of item without leading '/'. Placeholder isn't URL-encoded in templates. Templates with relations {@link
+     * Constants#LINK_REL_GET_CONTENT} and {@link Constants#LINK_REL_UPDATE_CONTENT} are applicable to files only, templates with relations
+     * {@link Constants#LINK_REL_EXPORT_ZIP}, {@link Constants#LINK_REL_CHILDREN}, {@link Constants#LINK_REL_TREE} and {@link
+     * Constants#LINK_REL_MODULES} to folders only.
+     */
+    public static List<Link> createItemLinkTemplates(String workspace, UriBuilder uriBuilder) {
+        // UriBuilder encodes brackets, build links with marker that isn't changed by encoding and replace it with placeholder.
+        final List<Link> templates = generateFileLinks(workspace, PATH_MARKER, null, uriBuilder);
+        for (Link link : generateFolderLinks(workspace, PATH_MARKER, uriBuilder)) {
+            if (!Constants.LINK_REL_DELETE.equals(link.getRel())) {
+                templates.add(link);
+            }
+        }
+        for (Link template : templates) {
+            template.setHref(template.getHref().replace(PATH_MARKER, "[path]"));
+        }
+        return templates;
     }
 
 
@@ -433,9 +464,11 @@ public class DtoConverter {
     }
 
     private static List<Link> generateFolderLinks(FolderEntry folder, UriBuilder uriBuilder) {
+        return generateFolderLinks(folder.getWorkspace(), folder.getPath().substring(1), uriBuilder);
+    }
+
+    private static List<Link> generateFolderLinks(String workspace, String relPath, UriBuilder uriBuilder) {
         final List<Link> links = new LinkedList<>();
-        final String workspace = folder.getWorkspace();
-        final String relPath = folder.getPath().substring(1);
         //String method, String href, String produces, String rel
         links.add(LinksHelper.createLink("GET",
                                          uriBuilder.clone().path(ProjectService.class, "exportZip").build(workspace, relPath).toString(),
@@ -456,12 +489,14 @@ public class DtoConverter {
     }
 
     private static List<Link> generateFileLinks(FileEntry file, UriBuilder uriBuilder) throws ServerException {
+        return generateFileLinks(file.getWorkspace(), file.getPath().substring(1), file.getMediaType(), uriBuilder);
+    }
+
+    private static List<Link> generateFileLinks(String workspace, String relPath, String mediaType, UriBuilder uriBuilder) {
         final List<Link> links = new LinkedList<>();
-        final String workspace = file.getWorkspace();
-        final String relPath = file.getPath().substring(1);
         links.add(
                 LinksHelper.createLink("GET", uriBuilder.clone().path(ProjectService.class, "getFile").build(workspace, relPath).toString(),
-                                       null, file.getMediaType(), Constants.LINK_REL_GET_CONTENT));
+                                       null, mediaType, Constants.LINK_REL_GET_CONTENT));
         links.add(LinksHelper.createLink("PUT",
                                          uriBuilder.clone().path(ProjectService.class, "updateFile").build(workspace, relPath).toString(),
                                          MediaType.WILDCARD, null, Constants.LINK_REL_UPDATE_CONTENT));
@@ -101,11 +101,18 @@ public class Project {
     }
 
 
+    /** @see ProjectManager#getProjectConfig(Project) */
     public ProjectConfig getConfig() throws ServerException, ValueStorageException, ProjectTypeConstraintException,
                                             InvalidValueException {
+        return manager.getProjectConfig(this);
+    }
 
-        final ProjectJson projectJson = ProjectJson.load(this);
-
+    /**
+     * Resolves configuration of project from its meta-data. Values of variables that have {@link ValueProviderFactory} are taken from
+     * value providers, transient project types are detected from sources of project.
+     */
+    ProjectConfig resolveConfig(ProjectJson projectJson) throws ServerException, ValueStorageException, ProjectTypeConstraintException,
+                                                               InvalidValueException {
         ProjectTypes types = new ProjectTypes(projectJson.getType(), projectJson.getMixinTypes());
         types.addTransient();
 
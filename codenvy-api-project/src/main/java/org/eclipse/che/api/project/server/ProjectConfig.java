@@ -50,6 +50,19 @@ public class ProjectConfig {
 
     }
 
+    /** Copy constructor. Changes in the copy don't affect the original config. */
+    public ProjectConfig(ProjectConfig other) {
+        this.description = other.description;
+        this.typeId = other.typeId;
+        this.attributes = new HashMap<>(other.attributes.size());
+        for (Map.Entry<String, AttributeValue> entry : other.attributes.entrySet()) {
+            this.attributes.put(entry.getKey(), new AttributeValue(entry.getValue().getList()));
+        }
+        this.builders = new Builders(other.builders.getDefault(), other.builders.getConfigs());
+        this.runners = new Runners(other.runners.getDefault(), other.runners.getConfigs());
+        this.mixinTypes = new ArrayList<>(other.mixinTypes);
+    }
+
     public ProjectConfig() {
         this("", BaseProjectType.ID, new HashMap<String, AttributeValue>(), new Runners(), new Builders(), new ArrayList<String>());
     }
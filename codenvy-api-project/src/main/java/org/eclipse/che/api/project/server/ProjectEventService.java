@@ -12,6 +12,7 @@ package org.eclipse.che.api.project.server;
 
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.vfs.server.observation.BulkChangeEvent;
 import org.eclipse.che.api.vfs.server.observation.MoveEvent;
 import org.eclipse.che.api.vfs.server.observation.RenameEvent;
 import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
@@ -86,6 +87,20 @@ public final class ProjectEventService {
             final VirtualFileEvent.ChangeType eventType = event.getType();
             final String eventWorkspace = event.getWorkspaceId();
             if (workspace.equals(eventWorkspace)) {
+                if (eventType == VirtualFileEvent.ChangeType.BULK_CHANGED) {
+                    // listeners are not aware about bulk changes
+                    for (BulkChangeEvent.Entry entry : ((BulkChangeEvent)event).getEntries()) {
+                        final String entryPath = entry.getPath();
+                        if (entryPath.startsWith(projectPath)) {
+                            final ProjectEvent.EventType projectEventType =
+                                    entry.getType() == VirtualFileEvent.ChangeType.CONTENT_UPDATED ? ProjectEvent.EventType.UPDATED
+                                                                                                   : ProjectEvent.EventType.CREATED;
+                            listener.onEvent(new ProjectEvent(projectEventType, workspace, project,
+                                                              entryPath.substring(projectPath.length()), entry.isFolder()));
+                        }
+                    }
+                    return;
+                }
                 final String eventPath = event.getPath();
                 if (eventPath.startsWith(projectPath)) {
                     if (eventType == VirtualFileEvent.ChangeType.CONTENT_UPDATED) {
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.project.server.notification.ProjectImportEvent;
+import org.eclipse.che.api.project.shared.dto.ImportResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * State of asynchronous import of project. Each change of stage or progress of import is published with {@link EventService} as
+ * {@link ProjectImportEvent}. Progress events are published only when progress is changed at least for one percent.
+ */
+class ProjectImportJob {
+    enum Status {
+        IN_PROGRESS,
+        SUCCESSFUL,
+        FAILED,
+        CANCELLED
+    }
+
+    static final String STAGE_IMPORT      = "import";
+    static final String STAGE_EXTRACT     = "extract";
+    static final String STAGE_CONFIGURE   = "configure";
+    static final String STAGE_POST_IMPORT = "post-import";
+
+    private final long         id;
+    private final String       workspace;
+    private final String       path;
+    private final EventService eventService;
+    private final long         startTime;
+
+    // guarded by this
+    private Status         status;
+    private String         stage;
+    private int            progress;
+    private long           endTime;
+    private String         error;
+    private ImportResponse result;
+    private Thread         thread;
+    private boolean        cancelled;
+
+    ProjectImportJob(long id, String workspace, String path, EventService eventService) {
+        this.id = id;
+        this.workspace = workspace;
+        this.path = path;
+        this.eventService = eventService;
+        this.startTime = System.currentTimeMillis();
+        this.status = Status.IN_PROGRESS;
+        this.progress = -1;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    String getWorkspace() {
+        return workspace;
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    long getStartTime() {
+        return startTime;
+    }
+
+    synchronized Status getStatus() {
+        return status;
+    }
+
+    synchronized String getStage() {
+        return stage;
+    }
+
+    synchronized int getProgress() {
+        return progress;
+    }
+
+    synchronized long getEndTime() {
+        return endTime;
+    }
+
+    synchronized String getError() {
+        return error;
+    }
+
+    synchronized ImportResponse getResult() {
+        return result;
+    }
+
+    /** Binds import to the current thread. Thread is interrupted if import is cancelled. */
+    synchronized void attach() {
+        thread = Thread.currentThread();
+        if (cancelled) {
+            thread.interrupt();
+        }
+    }
+
+    synchronized void detach() {
+        thread = null;
+    }
+
+    /**
+     * Cancels import. Thread of import is interrupted, streams which are wrapped with {@link #track(InputStream, long)} are failed on
+     * next read.
+     *
+     * @return {@code false} if import is already finished
+     */
+    boolean cancel() {
+        synchronized (this) {
+            if (status != Status.IN_PROGRESS || cancelled) {
+                return false;
+            }
+            cancelled = true;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+        return true;
+    }
+
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** @throws CancellationException if import is cancelled */
+    void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException(String.format("Import of project '%s' is cancelled. ", path));
+        }
+    }
+
+    /** Switches import to the next stage. Progress of new stage is unknown until {@link #setProgress(int)} is called. */
+    void setStage(String stage) {
+        checkCancelled();
+        synchronized (this) {
+            this.stage = stage;
+            this.progress = -1;
+        }
+        publish(ProjectImportEvent.EventType.STAGE, stage, -1, null);
+    }
+
+    void setProgress(int progress) {
+        final String stage;
+        synchronized (this) {
+            if (progress <= this.progress) {
+                return;
+            }
+            this.progress = progress;
+            stage = this.stage;
+        }
+        publish(ProjectImportEvent.EventType.PROGRESS, stage, progress, null);
+    }
+
+    /**
+     * Completes import successfully. Completion and {@link #cancel()} exclude each other, import is either cancelled or done.
+     *
+     * @throws CancellationException
+     *         if import is cancelled
+     */
+    void done(ImportResponse result) {
+        synchronized (this) {
+            checkCancelled();
+            this.result = result;
+            status = Status.SUCCESSFUL;
+            endTime = System.currentTimeMillis();
+        }
+        publish(ProjectImportEvent.EventType.SUCCESSFUL, null, 100, null);
+    }
+
+    void failed(String error) {
+        final boolean cancelled;
+        synchronized (this) {
+            cancelled = this.cancelled;
+            this.error = error;
+            status = cancelled ? Status.CANCELLED : Status.FAILED;
+            endTime = System.currentTimeMillis();
+        }
+        publish(cancelled ? ProjectImportEvent.EventType.CANCELLED : ProjectImportEvent.EventType.FAILED, null, -1, error);
+    }
+
+    /**
+     * Wraps stream of imported content to track progress of current stage. Reading from returned stream fails with {@link
+     * InterruptedIOException} after import is cancelled.
+     *
+     * @param in
+     *         stream to track
+     * @param length
+     *         total length of stream or {@code -1} if it's unknown
+     */
+    InputStream track(InputStream in, final long length) {
+        return new FilterInputStream(in) {
+            long read;
+
+            @Override
+            public int read() throws IOException {
+                checkStream();
+                final int b = super.read();
+                if (b != -1) {
+                    count(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                checkStream();
+                final int n = super.read(b, off, len);
+                if (n > 0) {
+                    count(n);
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                checkStream();
+                final long skipped = super.skip(n);
+                count(skipped);
+                return skipped;
+            }
+
+            private void checkStream() throws InterruptedIOException {
+                if (isCancelled()) {
+                    throw new InterruptedIOException(String.format("Import of project '%s' is cancelled. ", path));
+                }
+            }
+
+            private void count(long n) {
+                read += n;
+                if (length > 0) {
+                    setProgress((int)Math.min(100, read * 100 / length));
+                }
+            }
+        };
+    }
+
+    private void publish(ProjectImportEvent.EventType type, String stage, int progress, String error) {
+        eventService.publish(new ProjectImportEvent(type, id, workspace, path, stage, progress, error));
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectImportJob{" +
+               "id=" + id +
+               ", workspace='" + workspace + '\'' +
+               ", path='" + path + '\'' +
+               '}';
+    }
+}
@@ -116,6 +116,18 @@ public interface ProjectManager {
      */
     void saveProjectMisc(Project project, ProjectMisc misc) throws ServerException;
 
+    /**
+     * Gets configuration of project.
+     *
+     * @param project
+     *         project
+     * @return ProjectConfig, changes in returned config don't affect the project, use {@link Project#updateConfig(ProjectConfig)} to
+     * update configuration of project
+     * @see Project#getConfig()
+     */
+    ProjectConfig getProjectConfig(Project project) throws ServerException, ValueStorageException, ProjectTypeConstraintException,
+                                                           InvalidValueException;
+
 
     /**
      *
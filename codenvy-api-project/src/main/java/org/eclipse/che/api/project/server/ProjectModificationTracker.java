@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.commons.lang.Pair;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects modification dates of projects from events of virtual file system.
+ * <p/>
+ * Folders which were checked once are remembered as project roots or as regular folders, so finding projects that own changed item
+ * costs a few lookups in memory instead of reading of virtual file system for each event. Modification date of each project is kept in
+ * memory and written to misc of project by background task {@code flushPeriod} milliseconds after the first not written change, so
+ * thread that reports change doesn't wait for it. Task runs with {@link EnvironmentContext} of the last change of project, so misc is
+ * written on behalf of the user who changed project.
+ */
+class ProjectModificationTracker {
+    private static final Logger LOG = LoggerFactory.getLogger(ProjectModificationTracker.class);
+
+    static final long DEFAULT_FLUSH_PERIOD = 5000;
+
+    private static final int ROOTS_CACHE_SIZE = 1 << 14;
+
+    private final ProjectManager                                    manager;
+    private final long                                              flushPeriod;
+    /** Folder -> whether folder is root of project. */
+    private final ConcurrentMap<Pair<String, String>, Boolean>      roots;
+    /** Project -> modification date that isn't written to misc yet. */
+    private final ConcurrentMap<Pair<String, String>, Modification> modifications;
+    private final ScheduledExecutorService                          writer;
+
+    ProjectModificationTracker(ProjectManager manager, long flushPeriod) {
+        this.manager = manager;
+        this.flushPeriod = flushPeriod;
+        roots = CacheBuilder.newBuilder().maximumSize(ROOTS_CACHE_SIZE).<Pair<String, String>, Boolean>build().asMap();
+        modifications = new ConcurrentHashMap<>();
+        writer = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("ProjectModificationWriter-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Notifies about change of item. Modification date of each project that contains item is updated.
+     *
+     * @param includeSelf
+     *         if {@code true} item itself may be project which is changed, e.g. content of folder is replaced
+     */
+    void onChanged(String workspace, String path, boolean includeSelf) {
+        final long time = System.currentTimeMillis();
+        final int length = path.length();
+        for (int i = 1; i < length && (i = path.indexOf('/', i)) > 0; i++) {
+            touch(Pair.of(workspace, path.substring(0, i)), time);
+        }
+        if (includeSelf && length > 1) {
+            touch(Pair.of(workspace, path), time);
+        }
+    }
+
+    /**
+     * Forgets which folders are projects. Must be called before {@link #onChanged(String, String, boolean)} for the same change.
+     *
+     * @param subtree
+     *         if {@code true} forget about all folders under the path, e.g. if folder is deleted
+     */
+    void invalidate(String workspace, String path, boolean subtree) {
+        if (path == null || roots.isEmpty()) {
+            return;
+        }
+        final int length = path.length();
+        for (int i = 1; i < length && (i = path.indexOf('/', i)) > 0; i++) {
+            // Folder becomes project or stops being project when its meta-data is created or removed.
+            if (DefaultProjectManager.isCodenvyPath(path, i)) {
+                roots.remove(Pair.of(workspace, path.substring(0, i)));
+                break;
+            }
+        }
+        if (subtree) {
+            final String prefix = path + '/';
+            for (Iterator<Pair<String, String>> iterator = roots.keySet().iterator(); iterator.hasNext(); ) {
+                final Pair<String, String> key = iterator.next();
+                if (workspace.equals(key.first) && (path.equals(key.second) || key.second.startsWith(prefix))) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /** Gets modification date of project which isn't written to misc yet. Returns {@code null} if there is no such date. */
+    Long getModificationDate(Pair<String, String> project) {
+        final Modification modification = modifications.get(project);
+        if (modification == null) {
+            return null;
+        }
+        synchronized (modification) {
+            return modification.date;
+        }
+    }
+
+    /** Stops background writing and writes all collected modification dates to misc of projects in the current thread. */
+    void stop() {
+        writer.shutdownNow();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOG.warn("Unable terminate writer of modification dates");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Map.Entry<Pair<String, String>, Modification> e : modifications.entrySet()) {
+            write(e.getKey(), e.getValue());
+        }
+        roots.clear();
+        modifications.clear();
+    }
+
+    /** Writes modification date of project to its misc in context of the last change of project. */
+    private void write(Pair<String, String> key, Modification modification) {
+        final EnvironmentContext context;
+        final long date;
+        synchronized (modification) {
+            modification.scheduled = false;
+            context = modification.context;
+            date = modification.date;
+        }
+        final EnvironmentContext previous = EnvironmentContext.getCurrent();
+        EnvironmentContext.setCurrent(context);
+        try {
+            final Project project = manager.getProject(key.first, key.second);
+            if (project != null) {
+                // Collected modification date is applied to misc when it is taken from manager.
+                manager.saveProjectMisc(project, manager.getProjectMisc(project));
+            }
+        } catch (Exception e) {
+            LOG.error(e.getMessage(), e);
+        } finally {
+            EnvironmentContext.setCurrent(previous);
+        }
+        synchronized (modification) {
+            // Keep date if project was changed again while misc was saved.
+            if (!modification.scheduled && modification.date == date) {
+                modification.removed = true;
+                modifications.remove(key, modification);
+            }
+        }
+    }
+
+    private void touch(Pair<String, String> key, long time) {
+        Boolean root = roots.get(key);
+        if (root == null) {
+            try {
+                root = manager.getProject(key.first, key.second) != null;
+            } catch (Exception e) {
+                LOG.error(e.getMessage(), e);
+                return;
+            }
+            roots.put(key, root);
+        }
+        if (root) {
+            modified(key, time);
+        }
+    }
+
+    private void modified(final Pair<String, String> key, long time) {
+        for (; ; ) {
+            Modification modification = modifications.get(key);
+            if (modification == null) {
+                final Modification newModification = new Modification();
+                modification = modifications.putIfAbsent(key, newModification);
+                if (modification == null) {
+                    modification = newModification;
+                }
+            }
+            synchronized (modification) {
+                if (modification.removed) {
+                    // written and removed concurrently, start new one
+                    continue;
+                }
+                modification.date = time;
+                modification.context = EnvironmentContext.getCurrent();
+                if (!modification.scheduled) {
+                    modification.scheduled = true;
+                    final Modification myModification = modification;
+                    try {
+                        writer.schedule(new Runnable() {
+                            @Override
+                            public void run() {
+                                write(key, myModification);
+                            }
+                        }, flushPeriod, TimeUnit.MILLISECONDS);
+                    } catch (RejectedExecutionException e) {
+                        // tracker is stopped
+                        modification.scheduled = false;
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    private static class Modification {
+        long               date;
+        EnvironmentContext context;
+        boolean            scheduled;
+        boolean            removed;
+    }
+}
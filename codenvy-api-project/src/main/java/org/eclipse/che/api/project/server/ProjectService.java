@@ -16,12 +16,14 @@ import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.UnauthorizedException;
 import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.api.core.rest.Service;
 import org.eclipse.che.api.core.rest.annotations.Description;
 import org.eclipse.che.api.core.rest.annotations.GenerateLink;
 import org.eclipse.che.api.core.rest.annotations.Required;
 import org.eclipse.che.api.core.util.LineConsumer;
 import org.eclipse.che.api.core.util.LineConsumerFactory;
+import org.eclipse.che.api.core.util.LinksHelper;
 import org.eclipse.che.api.project.server.handlers.GetModulesHandler;
 import org.eclipse.che.api.project.server.handlers.PostImportProjectHandler;
 import org.eclipse.che.api.project.server.handlers.ProjectHandlerRegistry;
@@ -31,6 +33,7 @@ import org.eclipse.che.api.project.server.type.AttributeValue;
 import org.eclipse.che.api.project.server.type.ProjectTypeRegistry;
 import org.eclipse.che.api.project.shared.EnvironmentId;
 import org.eclipse.che.api.project.shared.dto.GeneratorDescription;
+import org.eclipse.che.api.project.shared.dto.ImportJobDescriptor;
 import org.eclipse.che.api.project.shared.dto.ImportProject;
 import org.eclipse.che.api.project.shared.dto.ImportResponse;
 import org.eclipse.che.api.project.shared.dto.ImportSourceDescriptor;
@@ -52,6 +55,7 @@ import org.eclipse.che.api.vfs.server.ContentStream;
 import org.eclipse.che.api.vfs.server.VirtualFile;
 import org.eclipse.che.api.vfs.server.VirtualFileSystemImpl;
 import org.eclipse.che.api.vfs.server.search.QueryExpression;
+import org.eclipse.che.api.vfs.server.search.SearchResult;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
 import org.eclipse.che.api.vfs.shared.dto.AccessControlEntry;
 import org.eclipse.che.api.vfs.shared.dto.Principal;
@@ -84,9 +88,12 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -99,8 +106,18 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 
@@ -117,6 +134,12 @@ import static com.google.common.base.MoreObjects.firstNonNull;
 public class ProjectService extends Service {
     private static final Logger LOG = LoggerFactory.getLogger(ProjectService.class);
 
+    /** Media type of newline delimited JSON, see {@link #getTreeStream}. */
+    public static final String NDJSON = "application/x-ndjson";
+
+    /** Finished import jobs are removed after this time. */
+    private static final long IMPORT_JOB_TTL = TimeUnit.HOURS.toMillis(1);
+
     @Inject
     private ProjectManager              projectManager;
     @Inject
@@ -127,15 +150,44 @@ public class ProjectService extends Service {
     private EventService                eventService;
     @Inject
     private ProjectHandlerRegistry      projectHandlerRegistry;
+    @Inject
+    private ProjectTemplateCache        templateCache;
 
     private final ExecutorService executor = Executors.newFixedThreadPool(1 + Runtime.getRuntime().availableProcessors(),
                                                                           new ThreadFactoryBuilder()
                                                                                   .setNameFormat("ProjectService-IndexingThread-")
                                                                                   .setDaemon(true).build());
 
+    private final ExecutorService importExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                                                                                new ThreadFactoryBuilder()
+                                                                                        .setNameFormat("ProjectService-ImportThread-%d")
+                                                                                        .setDaemon(true).build());
+    // Estimation of imported project which runs in parallel with import of runner environments. Use separate pool to avoid waiting for
+    // thread that waits for us. Tasks of this pool don't start other tasks, so bounded pool may only delay them but not deadlock.
+    private final ExecutorService postImportExecutor = newPostImportExecutor();
+
+    private static ExecutorService newPostImportExecutor() {
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                                                                   new LinkedBlockingQueue<Runnable>(),
+                                                                   new ThreadFactoryBuilder()
+                                                                           .setNameFormat("ProjectService-PostImportThread-%d")
+                                                                           .setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private final ConcurrentMap<Long, ProjectImportJob> importJobs         = new ConcurrentHashMap<>();
+    private final AtomicLong                            importJobsSequence = new AtomicLong(1);
+
     @PreDestroy
     void stop() {
         executor.shutdownNow();
+        for (ProjectImportJob job : importJobs.values()) {
+            job.cancel();
+        }
+        importExecutor.shutdownNow();
+        postImportExecutor.shutdownNow();
     }
 
 
@@ -835,31 +887,253 @@ public class ProjectService extends Service {
             throws ConflictException, ForbiddenException, UnauthorizedException, IOException, ServerException, NotFoundException {
 
         final ImportSourceDescriptor projectSource = importProject.getSource().getProject();
+        final ProjectImporter importer = getImporter(projectSource);
+        // Preparing websocket output publisher to broadcast output of import process to the ide clients while importing
+        final LineConsumerFactory outputOutputConsumerFactory = getImportOutputConsumerFactory(workspace, path);
+
+        // Not all importers uses virtual file system API. In this case virtual file system API doesn't get events and isn't able to set
+        // correct creation time. Need do it manually.
+        long creationDate = System.currentTimeMillis();
+        VirtualFileEntry virtualFile = getVirtualFile(workspace, path, force);
+
+        final FolderEntry baseProjectFolder = (FolderEntry)virtualFile;
+        importSources(importer, baseProjectFolder, projectSource, outputOutputConsumerFactory);
+
+        //project source already imported going to configure project
+        return configureProject(importProject, baseProjectFolder, workspace, creationDate, getServiceContext().getServiceUriBuilder(), null);
+    }
+
+    @ApiOperation(value = "Import project asynchronously",
+                  notes = "Starts import of project and returns descriptor of import job immediately. Progress of import is sent to " +
+                          "clients with events, job may be checked or cancelled with links of returned descriptor",
+                  response = ImportJobDescriptor.class,
+                  position = 31)
+    @ApiResponses(value = {
+            @ApiResponse(code = 202, message = "Import is started"),
+            @ApiResponse(code = 401, message = "User not authorized to call this operation"),
+            @ApiResponse(code = 403, message = "Forbidden operation"),
+            @ApiResponse(code = 409, message = "Resource already exists"),
+            @ApiResponse(code = 500, message = "Unsupported source type")})
+    @POST
+    @Path("/import-async/{path:.*}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response importProjectAsync(@ApiParam(value = "Workspace ID", required = true)
+                                       @PathParam("ws-id") String workspace,
+                                       @ApiParam(value = "Path in the project", required = true)
+                                       @PathParam("path") String path,
+                                       @ApiParam(value = "Force rewrite existing project", allowableValues = "true,false")
+                                       @QueryParam("force") boolean force,
+                                       final ImportProject importProject)
+            throws ConflictException, ForbiddenException, ServerException {
+        final ImportSourceDescriptor projectSource = importProject.getSource().getProject();
+        final ProjectImporter importer = getImporter(projectSource);
+        final LineConsumerFactory outputOutputConsumerFactory = getImportOutputConsumerFactory(workspace, path);
+        final long creationDate = System.currentTimeMillis();
+        final boolean created = projectManager.getProjectsRoot(workspace).getChild(path) == null;
+        final FolderEntry baseProjectFolder = (FolderEntry)getVirtualFile(workspace, path, force);
+        final UriBuilder uriBuilder = getServiceContext().getServiceUriBuilder();
+        final ProjectImportJob job = startImportJob(workspace, baseProjectFolder, created, uriBuilder, new ImportStage() {
+            @Override
+            public ImportProject execute(ProjectImportJob job) throws Exception {
+                job.setStage(ProjectImportJob.STAGE_IMPORT);
+                importSources(importer, baseProjectFolder, projectSource, outputOutputConsumerFactory);
+                return importProject;
+            }
+        }, creationDate);
+        return importJobCreated(job, uriBuilder);
+    }
+
+    @ApiOperation(value = "Get import job",
+                  response = ImportJobDescriptor.class,
+                  position = 32)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 404, message = "Import job not found")})
+    @GET
+    @Path("/import-jobs/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public ImportJobDescriptor getImportJob(@ApiParam(value = "Workspace ID", required = true)
+                                            @PathParam("ws-id") String workspace,
+                                            @ApiParam(value = "Import job ID", required = true)
+                                            @PathParam("id") long id) throws NotFoundException {
+        return toImportJobDescriptor(getImportJob(workspace, id), getServiceContext().getServiceUriBuilder());
+    }
+
+    @ApiOperation(value = "Get import jobs of workspace",
+                  notes = "Finished jobs are available for one hour",
+                  response = ImportJobDescriptor.class,
+                  responseContainer = "List",
+                  position = 33)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK")})
+    @GET
+    @Path("/import-jobs")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<ImportJobDescriptor> getImportJobs(@ApiParam(value = "Workspace ID", required = true)
+                                                   @PathParam("ws-id") String workspace) {
+        final UriBuilder uriBuilder = getServiceContext().getServiceUriBuilder();
+        final List<ImportJobDescriptor> result = new ArrayList<>();
+        for (ProjectImportJob job : importJobs.values()) {
+            if (job.getWorkspace().equals(workspace)) {
+                result.add(toImportJobDescriptor(job, uriBuilder));
+            }
+        }
+        return result;
+    }
+
+    @ApiOperation(value = "Cancel import job",
+                  notes = "Project folder is removed if it was created by cancelled import",
+                  position = 34)
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "Import is cancelled"),
+            @ApiResponse(code = 404, message = "Import job not found"),
+            @ApiResponse(code = 409, message = "Import is already finished")})
+    @DELETE
+    @Path("/import-jobs/{id}")
+    public void cancelImportJob(@ApiParam(value = "Workspace ID", required = true)
+                                @PathParam("ws-id") String workspace,
+                                @ApiParam(value = "Import job ID", required = true)
+                                @PathParam("id") long id) throws NotFoundException, ConflictException {
+        if (!getImportJob(workspace, id).cancel()) {
+            throw new ConflictException(String.format("Import job %d is already finished. ", id));
+        }
+    }
+
+    private ProjectImporter getImporter(ImportSourceDescriptor projectSource) throws ServerException {
         final ProjectImporter importer = importers.getImporter(projectSource.getType());
         if (importer == null) {
             throw new ServerException(String.format("Unable import sources project from '%s'. Sources type '%s' is not supported.",
                                                     projectSource.getLocation(), projectSource.getType()));
         }
-        // Preparing websocket output publisher to broadcast output of import process to the ide clients while importing
-        final String fWorkspace = workspace;
-        final String fPath = path;
-        final LineConsumerFactory outputOutputConsumerFactory = new LineConsumerFactory() {
+        return importer;
+    }
+
+    /** Imports sources of project. Sources of registered project templates are copied from cache if possible. */
+    private void importSources(ProjectImporter importer, FolderEntry baseProjectFolder, ImportSourceDescriptor projectSource,
+                               LineConsumerFactory outputConsumerFactory)
+            throws ConflictException, ForbiddenException, UnauthorizedException, IOException, ServerException {
+        if (!templateCache.importSources(baseProjectFolder, projectSource)) {
+            importer.importSources(baseProjectFolder, projectSource.getLocation(), projectSource.getParameters(), outputConsumerFactory);
+        }
+    }
+
+    private LineConsumerFactory getImportOutputConsumerFactory(final String workspace, final String path) {
+        return new LineConsumerFactory() {
             @Override
             public LineConsumer newLineConsumer() {
-                return new ProjectImportOutputWSLineConsumer(fPath, fWorkspace, 300);
+                return new ProjectImportOutputWSLineConsumer(path, workspace, 300);
             }
         };
+    }
 
-        // Not all importers uses virtual file system API. In this case virtual file system API doesn't get events and isn't able to set
-        // correct creation time. Need do it manually.
-        long creationDate = System.currentTimeMillis();
-        VirtualFileEntry virtualFile = getVirtualFile(workspace, path, force);
+    /** Stage of asynchronous import which gets sources of project. */
+    private interface ImportStage {
+        /** @return configuration of imported project */
+        ImportProject execute(ProjectImportJob job) throws Exception;
+    }
 
-        final FolderEntry baseProjectFolder = (FolderEntry)virtualFile;
-        importer.importSources(baseProjectFolder, projectSource.getLocation(), projectSource.getParameters(), outputOutputConsumerFactory);
+    /**
+     * Starts asynchronous import of project. Sources of project are got with {@code sourcesStage} then project is configured in the same
+     * way as for synchronous import.
+     *
+     * @param removeOnCancel
+     *         if {@code true} remove project folder if import is cancelled
+     */
+    private ProjectImportJob startImportJob(final String workspace, final FolderEntry baseProjectFolder, final boolean removeOnCancel,
+                                            final UriBuilder uriBuilder, final ImportStage sourcesStage, final long creationDate)
+            throws ServerException {
+        purgeImportJobs();
+        final ProjectImportJob job = new ProjectImportJob(importJobsSequence.getAndIncrement(), workspace, baseProjectFolder.getPath(),
+                                                          eventService);
+        importJobs.put(job.getId(), job);
+        final EnvironmentContext context = EnvironmentContext.getCurrent();
+        try {
+            importExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    EnvironmentContext.setCurrent(context);
+                    job.attach();
+                    try {
+                        final ImportProject importProject = sourcesStage.execute(job);
+                        job.setStage(ProjectImportJob.STAGE_CONFIGURE);
+                        // Fails if job is cancelled while project is configured, project is removed then as for any other cancelled job.
+                        job.done(configureProject(importProject, baseProjectFolder, workspace, creationDate, uriBuilder, job));
+                    } catch (Exception e) {
+                        if (job.isCancelled()) {
+                            LOG.debug(e.getMessage(), e);
+                        } else {
+                            LOG.error(e.getMessage(), e);
+                        }
+                        if (job.isCancelled() && removeOnCancel) {
+                            try {
+                                baseProjectFolder.remove();
+                            } catch (ServerException | ForbiddenException re) {
+                                LOG.warn(re.getMessage(), re);
+                            }
+                        }
+                        job.failed(firstNonNull(e.getMessage(), e.toString()));
+                    } finally {
+                        job.detach();
+                        // Clear interrupted status if job was cancelled before thread is returned to pool.
+                        Thread.interrupted();
+                        EnvironmentContext.reset();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            importJobs.remove(job.getId());
+            throw new ServerException("Unable start import of project, service is stopped. ");
+        }
+        return job;
+    }
 
-        //project source already imported going to configure project
-        return configureProject(importProject, baseProjectFolder, workspace, creationDate);
+    private ProjectImportJob getImportJob(String workspace, long id) throws NotFoundException {
+        final ProjectImportJob job = importJobs.get(id);
+        if (job == null || !job.getWorkspace().equals(workspace)) {
+            throw new NotFoundException(String.format("Import job %d not found. ", id));
+        }
+        return job;
+    }
+
+    private void purgeImportJobs() {
+        final long expired = System.currentTimeMillis() - IMPORT_JOB_TTL;
+        for (Iterator<ProjectImportJob> i = importJobs.values().iterator(); i.hasNext(); ) {
+            final long endTime = i.next().getEndTime();
+            if (endTime > 0 && endTime < expired) {
+                i.remove();
+            }
+        }
+    }
+
+    private Response importJobCreated(ProjectImportJob job, UriBuilder uriBuilder) {
+        final ImportJobDescriptor descriptor = toImportJobDescriptor(job, uriBuilder);
+        return Response.status(Response.Status.ACCEPTED)
+                       .location(uriBuilder.clone().path(getClass(), "getImportJob").build(job.getWorkspace(), job.getId()))
+                       .entity(descriptor)
+                       .build();
+    }
+
+    private ImportJobDescriptor toImportJobDescriptor(ProjectImportJob job, UriBuilder uriBuilder) {
+        final String href = uriBuilder.clone().path(getClass(), "getImportJob").build(job.getWorkspace(), job.getId()).toString();
+        final List<Link> links = new ArrayList<>(2);
+        links.add(LinksHelper.createLink("GET", href, MediaType.APPLICATION_JSON, Constants.LINK_REL_GET_IMPORT_JOB));
+        final ProjectImportJob.Status status = job.getStatus();
+        if (status == ProjectImportJob.Status.IN_PROGRESS) {
+            links.add(LinksHelper.createLink("DELETE", href, Constants.LINK_REL_CANCEL_IMPORT_JOB));
+        }
+        return DtoFactory.getInstance().createDto(ImportJobDescriptor.class)
+                         .withId(job.getId())
+                         .withWorkspaceId(job.getWorkspace())
+                         .withPath(job.getPath())
+                         .withStatus(status.name())
+                         .withStage(job.getStage())
+                         .withProgress(job.getProgress())
+                         .withStartTime(job.getStartTime())
+                         .withEndTime(job.getEndTime())
+                         .withError(job.getError())
+                         .withResult(job.getResult())
+                         .withLinks(links);
     }
 
     private VirtualFileEntry getVirtualFile(String workspace, String path, boolean force) throws ServerException, ForbiddenException, ConflictException {
@@ -878,7 +1152,15 @@ public class ProjectService extends Service {
         return virtualFile;
     }
 
-    private ImportResponse configureProject(ImportProject importProject, FolderEntry baseProjectFolder, String workspace, long creationDate)
+    /**
+     * Converts imported folder to project and runs post-import stages. Estimation of project types and import of runner environments
+     * don't depend on post-import handler and run in parallel with it.
+     *
+     * @param job
+     *         asynchronous import job or {@code null} if import is synchronous
+     */
+    private ImportResponse configureProject(final ImportProject importProject, final FolderEntry baseProjectFolder, final String workspace,
+                                            long creationDate, UriBuilder uriBuilder, ProjectImportJob job)
             throws IOException, ForbiddenException, ConflictException, NotFoundException,
                    ServerException {
         ImportResponse importResponse = DtoFactory.getInstance().createDto(ImportResponse.class);
@@ -899,8 +1181,11 @@ public class ProjectService extends Service {
                                                             projectConfig,
                                                             visibility);
             projectDescriptor = DtoConverter.toDescriptorDto2(project,
-                                                              getServiceContext().getServiceUriBuilder(),
+                                                              uriBuilder.clone(),
                                                               projectManager.getProjectTypeRegistry());
+            if (job != null) {
+                job.setStage(ProjectImportJob.STAGE_POST_IMPORT);
+            }
             PostImportProjectHandler postImportProjectHandler =
                     projectHandlerRegistry.getPostImportProjectHandler(projectDescriptor.getType());
             if (postImportProjectHandler != null) {
@@ -909,22 +1194,78 @@ public class ProjectService extends Service {
         } catch (ConflictException | ForbiddenException | ServerException | NotFoundException e) {
             project = new NotValidProject(baseProjectFolder, projectManager);
             projectDescriptor = DtoConverter.toDescriptorDto2(project,
-                                                              getServiceContext().getServiceUriBuilder(),
+                                                              uriBuilder.clone(),
                                                               projectManager.getProjectTypeRegistry());
             ProjectProblem problem = DtoFactory.getInstance().createDto(ProjectProblem.class).withCode(1).withMessage(e.getMessage());
             projectDescriptor.setProblems(Arrays.asList(problem));
         }
         importResponse.setProjectDescriptor(projectDescriptor);
+        // Post-import handler may change sources of project, so estimation and import of runner environments are started after it.
+        // They don't depend on each other: estimation reads sources of project, runner environments are written into .codenvy folder.
         //we will add project type estimations any way
-        List<SourceEstimation> sourceEstimations = projectManager.resolveSources(workspace, baseProjectFolder.getPath(), false);
-        importResponse.setSourceEstimations(sourceEstimations);
+        final Future<List<SourceEstimation>> sourceEstimations = fork(new Callable<List<SourceEstimation>>() {
+            @Override
+            public List<SourceEstimation> call() throws Exception {
+                return projectManager.resolveSources(workspace, baseProjectFolder.getPath(), false);
+            }
+        });
+        try {
+            importRunnerEnvironment(importProject, baseProjectFolder);
+            importResponse.setSourceEstimations(join(sourceEstimations));
+        } finally {
+            // Stop estimation if import of runner environments failed.
+            sourceEstimations.cancel(true);
+        }
         reindexProject(creationDate, baseProjectFolder, project);
-        importRunnerEnvironment(importProject, baseProjectFolder);
         eventService.publish(new ProjectCreatedEvent(project.getWorkspace(), project.getPath()));
         logProjectCreatedEvent(projectDescriptor.getName(), projectDescriptor.getType());
         return importResponse;
     }
 
+    /** Runs task in pool of post-import stages. Environment of current thread is passed to the task. */
+    private <T> Future<T> fork(final Callable<T> task) {
+        final EnvironmentContext context = EnvironmentContext.getCurrent();
+        return postImportExecutor.submit(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                EnvironmentContext.setCurrent(context);
+                try {
+                    return task.call();
+                } finally {
+                    EnvironmentContext.reset();
+                }
+            }
+        });
+    }
+
+    /** Waits for result of task which is started with {@link #fork(Callable)} and rethrows its error if any. */
+    private <T> T join(Future<T> future) throws IOException, ForbiddenException, ConflictException, NotFoundException, ServerException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Import of project is interrupted. ");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof ForbiddenException) {
+                throw (ForbiddenException)cause;
+            } else if (cause instanceof ConflictException) {
+                throw (ConflictException)cause;
+            } else if (cause instanceof NotFoundException) {
+                throw (NotFoundException)cause;
+            } else if (cause instanceof ServerException) {
+                throw (ServerException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new ServerException(cause.getMessage(), cause);
+        }
+    }
+
     @ApiOperation(value = "Upload zip project",
                   notes = "Upload project from local zip",
                   response = ImportResponse.class,
@@ -954,6 +1295,91 @@ public class ProjectService extends Service {
         long creationDate = System.currentTimeMillis();
         final FolderEntry baseProjectFolder = (FolderEntry)getVirtualFile(workspace, path, force);
 
+        final ZipProjectUpload upload = readZipProjectUpload(formData);
+        try (InputStream zip = upload.content.getInputStream()) {
+            baseProjectFolder.getVirtualFile().unzip(zip, true, upload.stripNumber);
+        }
+
+        //project source already imported going to configure project
+        return configureProject(upload.importProject, baseProjectFolder, workspace, creationDate,
+                                getServiceContext().getServiceUriBuilder(), null);
+    }
+
+    @ApiOperation(value = "Upload zip project asynchronously",
+                  notes = "Upload project from local zip. Extraction and configuration of project are performed in background, " +
+                          "descriptor of import job is returned immediately",
+                  response = ImportJobDescriptor.class,
+                  position = 35)
+    @ApiResponses(value = {
+            @ApiResponse(code = 202, message = "Import is started"),
+            @ApiResponse(code = 401, message = "User not authorized to call this operation"),
+            @ApiResponse(code = 403, message = "Forbidden operation"),
+            @ApiResponse(code = 409, message = "Resource already exists"),
+            @ApiResponse(code = 500, message = "Internal Server Error")})
+    @POST
+    @Consumes({MediaType.MULTIPART_FORM_DATA})
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/upload/zipproject-async/{path:.*}")
+    public Response uploadProjectFromZipAsync(@ApiParam(value = "Workspace ID", required = true)
+                                              @PathParam("ws-id") String workspace,
+                                              @ApiParam(value = "Path in the project", required = true)
+                                              @PathParam("path") String path,
+                                              @ApiParam(value = "Force rewrite existing project", allowableValues = "true,false")
+                                              @QueryParam("force") boolean force,
+                                              Iterator<FileItem> formData)
+            throws ServerException, ConflictException, ForbiddenException {
+        final long creationDate = System.currentTimeMillis();
+        final boolean created = projectManager.getProjectsRoot(workspace).getChild(path) == null;
+        final FolderEntry baseProjectFolder = (FolderEntry)getVirtualFile(workspace, path, force);
+        final ZipProjectUpload upload = readZipProjectUpload(formData);
+        // Uploaded file is removed after request, keep it until the end of extraction. Usually file is just moved, not copied.
+        final File zipFile;
+        try {
+            zipFile = File.createTempFile("project-import-", ".zip");
+            upload.content.write(zipFile);
+        } catch (Exception e) {
+            throw new ServerException(String.format("Unable save uploaded file. %s", e.getMessage()), e);
+        }
+        final UriBuilder uriBuilder = getServiceContext().getServiceUriBuilder();
+        final ProjectImportJob job;
+        try {
+            job = startImportJob(workspace, baseProjectFolder, created, uriBuilder, new ImportStage() {
+                @Override
+                public ImportProject execute(ProjectImportJob job) throws Exception {
+                    job.setStage(ProjectImportJob.STAGE_EXTRACT);
+                    try (InputStream zip = job.track(new FileInputStream(zipFile), zipFile.length())) {
+                        baseProjectFolder.getVirtualFile().unzip(zip, true, upload.stripNumber);
+                    } finally {
+                        if (!zipFile.delete()) {
+                            LOG.warn("Unable delete file {}", zipFile);
+                        }
+                    }
+                    return upload.importProject;
+                }
+            }, creationDate);
+        } catch (ServerException e) {
+            if (!zipFile.delete()) {
+                LOG.warn("Unable delete file {}", zipFile);
+            }
+            throw e;
+        }
+        return importJobCreated(job, uriBuilder);
+    }
+
+    /** Content of form which is sent to upload project from local zip. */
+    private static class ZipProjectUpload {
+        final FileItem      content;
+        final int           stripNumber;
+        final ImportProject importProject;
+
+        ZipProjectUpload(FileItem content, int stripNumber, ImportProject importProject) {
+            this.content = content;
+            this.stripNumber = stripNumber;
+            this.importProject = importProject;
+        }
+    }
+
+    private ZipProjectUpload readZipProjectUpload(Iterator<FileItem> formData) throws ServerException {
         int stripNumber = 0;
         String projectName = "";
         String projectDescription = "";
@@ -989,9 +1415,6 @@ public class ProjectService extends Service {
         if (contentItem == null) {
             throw new ServerException("Cannot find zip file for upload.");
         }
-        try (InputStream zip = contentItem.getInputStream()) {
-            baseProjectFolder.getVirtualFile().unzip(zip, true, stripNumber);
-        }
 
         final DtoFactory dtoFactory = DtoFactory.getInstance();
         NewProject newProject = dtoFactory.createDto(NewProject.class)
@@ -1003,9 +1426,7 @@ public class ProjectService extends Service {
         ImportProject importProject = dtoFactory.createDto(ImportProject.class)
                                                 .withProject(newProject)
                                                 .withSource(source);
-
-        //project source already imported going to configure project
-        return configureProject(importProject, baseProjectFolder, workspace, creationDate);
+        return new ZipProjectUpload(contentItem, stripNumber, importProject);
     }
 
     /**
@@ -1170,23 +1591,38 @@ public class ProjectService extends Service {
     public List<ItemReference> getChildren(@ApiParam(value = "Workspace ID", required = true)
                                            @PathParam("ws-id") String workspace,
                                            @ApiParam(value = "Path to a project", required = true)
-                                           @PathParam("parent") String path)
+                                           @PathParam("parent") String path,
+                                           @ApiParam(value = "If true items are returned without links, links may be created with templates")
+                                           @DefaultValue("false") @QueryParam("linkTemplates") boolean linkTemplates)
             throws NotFoundException, ForbiddenException, ServerException {
         final FolderEntry folder = asFolder(workspace, path);
         final List<VirtualFileEntry> children = folder.getChildren();
         final ArrayList<ItemReference> result = new ArrayList<>(children.size());
-        final UriBuilder uriBuilder = getServiceContext().getServiceUriBuilder();
+        final UriBuilder uriBuilder = linkTemplates ? null : getServiceContext().getServiceUriBuilder();
         for (VirtualFileEntry child : children) {
-            if (child.isFile()) {
-                result.add(DtoConverter.toItemReferenceDto((FileEntry)child, uriBuilder.clone()));
-            } else {
-                result.add(DtoConverter.toItemReferenceDto((FolderEntry)child, uriBuilder.clone()));
-            }
+            result.add(toItemReference(child, uriBuilder));
         }
 
         return result;
     }
 
+    @ApiOperation(value = "Get templates of links of project items",
+                  notes = "Templates may be used to create links of items which are requested without links. Placeholder [path] in " +
+                          "templates should be replaced with path of item without leading '/'",
+                  response = Link.class,
+                  responseContainer = "List",
+                  position = 30)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 500, message = "Internal Server Error")})
+    @GET
+    @Path("/link-templates")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<Link> getItemLinkTemplates(@ApiParam(value = "Workspace ID", required = true)
+                                           @PathParam("ws-id") String workspace) {
+        return DtoConverter.createItemLinkTemplates(workspace, getServiceContext().getServiceUriBuilder());
+    }
+
     @ApiOperation(value = "Get project tree",
                   notes = "Get project tree. Depth is specified in a query parameter",
                   response = TreeElement.class,
@@ -1205,16 +1641,73 @@ public class ProjectService extends Service {
                                @ApiParam(value = "Path to resource. Can be project or its folders", required = true)
                                @PathParam("parent") String path,
                                @ApiParam(value = "Tree depth. This parameter can be dropped. If not specified ?depth=1 is used by default")
-                               @DefaultValue("1") @QueryParam("depth") int depth)
+                               @DefaultValue("1") @QueryParam("depth") int depth,
+                               @ApiParam(value = "If true items are returned without links, links may be created with templates")
+                               @DefaultValue("false") @QueryParam("linkTemplates") boolean linkTemplates)
             throws NotFoundException, ForbiddenException, ServerException {
         final FolderEntry folder = asFolder(workspace, path);
-        final UriBuilder uriBuilder = getServiceContext().getServiceUriBuilder();
+        final UriBuilder uriBuilder = linkTemplates ? null : getServiceContext().getServiceUriBuilder();
         final DtoFactory dtoFactory = DtoFactory.getInstance();
         return dtoFactory.createDto(TreeElement.class)
-                         .withNode(DtoConverter.toItemReferenceDto(folder, uriBuilder.clone()))
+                         .withNode(toItemReference(folder, uriBuilder))
                          .withChildren(getTree(folder, depth, uriBuilder, dtoFactory));
     }
 
+    @ApiOperation(value = "Get project tree as stream",
+                  notes = "Items are written in depth-first order as soon as they are read. Children of each folder are sorted by name. " +
+                          "Items don't contain links and attributes. JSON array is returned by default, newline delimited JSON is " +
+                          "returned if client accepts " + NDJSON + ". If number of items is limited with maxItems and there are more " +
+                          "items, token of the next page is returned in header 'x-next-page-token'. If listing fails in the middle of " +
+                          "unlimited stream, the response is aborted and isn't finished as valid JSON.",
+                  response = ItemReference.class,
+                  responseContainer = "List",
+                  position = 29)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 403, message = "User not authorized to call this operation"),
+            @ApiResponse(code = 404, message = "Not found"),
+            @ApiResponse(code = 409, message = "Conflict error"),
+            @ApiResponse(code = 500, message = "Internal Server Error")})
+    @GET
+    @Path("/tree-stream/{parent:.*}")
+    @Produces({MediaType.APPLICATION_JSON, NDJSON})
+    public Response getTreeStream(@ApiParam(value = "Workspace ID", required = true)
+                                  @PathParam("ws-id") String workspace,
+                                  @ApiParam(value = "Path to resource. Can be project or its folders", required = true)
+                                  @PathParam("parent") String path,
+                                  @ApiParam(value = "Tree depth. Negative value means whole tree. If not specified ?depth=1 is used by default")
+                                  @DefaultValue("1") @QueryParam("depth") int depth,
+                                  @ApiParam(value = "Include files or folders only")
+                                  @DefaultValue("true") @QueryParam("includeFiles") boolean includeFiles,
+                                  @ApiParam(value = "Glob patterns of names of files to include, e.g. *.java")
+                                  @QueryParam("include") List<String> includes,
+                                  @ApiParam(value = "Glob patterns of names of files and folders to exclude, e.g. target")
+                                  @QueryParam("exclude") List<String> excludes,
+                                  @ApiParam(value = "Maximum items to return. Negative value means no limit")
+                                  @DefaultValue("-1") @QueryParam("maxItems") int maxItems,
+                                  @ApiParam(value = "Path of the last received item, listing is continued after this item. " +
+                                                    "Token returned in header 'x-next-page-token' of previous response may be used")
+                                  @QueryParam("pageToken") String pageToken,
+                                  @HeaderParam("Accept") String accept)
+            throws NotFoundException, ForbiddenException, ConflictException, ServerException {
+        final FolderEntry folder = asFolder(workspace, path);
+        final boolean ndjson = accept != null && accept.contains(NDJSON);
+        final TreeStreamWriter treeWriter;
+        try {
+            treeWriter = new TreeStreamWriter(folder, depth, includeFiles, includes, excludes, pageToken, maxItems, ndjson);
+        } catch (IllegalArgumentException e) {
+            throw new ConflictException(e.getMessage());
+        }
+        final Response.ResponseBuilder responseBuilder = Response.ok(treeWriter, ndjson ? NDJSON : MediaType.APPLICATION_JSON);
+        if (maxItems >= 0) {
+            final String nextPageToken = treeWriter.readPage();
+            if (nextPageToken != null) {
+                responseBuilder.header("x-next-page-token", nextPageToken);
+            }
+        }
+        return responseBuilder.build();
+    }
+
     @ApiOperation(value = "Get file or folder",
                   response = TreeElement.class,
                   responseContainer = "List",
@@ -1250,6 +1743,16 @@ public class ProjectService extends Service {
 
     }
 
+    /** Converts item to DTO. Links aren't added if {@code uriBuilder} is {@code null}. */
+    private ItemReference toItemReference(VirtualFileEntry entry, UriBuilder uriBuilder) throws ServerException {
+        if (entry.isFile()) {
+            return uriBuilder == null ? DtoConverter.toItemReferenceDto((FileEntry)entry)
+                                      : DtoConverter.toItemReferenceDto((FileEntry)entry, uriBuilder.clone());
+        }
+        return uriBuilder == null ? DtoConverter.toItemReferenceDto((FolderEntry)entry)
+                                  : DtoConverter.toItemReferenceDto((FolderEntry)entry, uriBuilder.clone());
+    }
+
     private List<TreeElement> getTree(FolderEntry folder, int depth, UriBuilder uriBuilder, DtoFactory dtoFactory) throws ServerException {
         if (depth == 0) {
             return null;
@@ -1258,14 +1761,16 @@ public class ProjectService extends Service {
         final List<TreeElement> nodes = new ArrayList<>(childFolders.size());
         for (FolderEntry childFolder : childFolders) {
             nodes.add(dtoFactory.createDto(TreeElement.class)
-                                .withNode(DtoConverter.toItemReferenceDto(childFolder, uriBuilder.clone()))
+                                .withNode(toItemReference(childFolder, uriBuilder))
                                 .withChildren(getTree(childFolder, depth - 1, uriBuilder, dtoFactory)));
         }
         return nodes;
     }
 
     @ApiOperation(value = "Search for resources",
-                  notes = "Search for resources applying a number of search filters as query parameters",
+                  notes = "Search for resources applying a number of search filters as query parameters. Result is returned page by " +
+                          "page, if there are more items than fit in one page, token of the next page is returned in header " +
+                          "'x-next-page-token'",
                   response = ItemReference.class,
                   responseContainer = "List",
                   position = 23)
@@ -1278,20 +1783,23 @@ public class ProjectService extends Service {
     @GET
     @Path("/search/{path:.*}")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<ItemReference> search(@ApiParam(value = "Workspace ID", required = true)
-                                      @PathParam("ws-id") String workspace,
-                                      @ApiParam(value = "Path to resource, i.e. where to search?", required = true)
-                                      @PathParam("path") String path,
-                                      @ApiParam(value = "Resource name")
-                                      @QueryParam("name") String name,
-                                      @ApiParam(value = "Media type")
-                                      @QueryParam("mediatype") String mediatype,
-                                      @ApiParam(value = "Search keywords")
-                                      @QueryParam("text") String text,
-                                      @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
-                                      @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
-                                      @ApiParam(value = "Skip count")
-                                      @QueryParam("skipCount") int skipCount)
+    public Response search(@ApiParam(value = "Workspace ID", required = true)
+                           @PathParam("ws-id") String workspace,
+                           @ApiParam(value = "Path to resource, i.e. where to search?", required = true)
+                           @PathParam("path") String path,
+                           @ApiParam(value = "Resource name")
+                           @QueryParam("name") String name,
+                           @ApiParam(value = "Media type")
+                           @QueryParam("mediatype") String mediatype,
+                           @ApiParam(value = "Search keywords")
+                           @QueryParam("text") String text,
+                           @ApiParam(value = "Maximum items to display. Response never contains more than 1000 items even if this " +
+                                              "parameter is dropped, use header 'x-next-page-token' to get the rest of them")
+                           @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
+                           @ApiParam(value = "Skip count")
+                           @QueryParam("skipCount") int skipCount,
+                           @ApiParam(value = "Token of next page, it is returned in header 'x-next-page-token' of previous response")
+                           @QueryParam("pageToken") String pageToken)
             throws NotFoundException, ForbiddenException, ConflictException, ServerException {
 
         // to search from workspace root path should end with "/" i.e /{ws}/search/?<query>
@@ -1305,24 +1813,27 @@ public class ProjectService extends Service {
                     .setPath(path.startsWith("/") ? path : ('/' + path))
                     .setName(name)
                     .setMediaType(mediatype)
-                    .setText(text);
-
-            final String[] result = searcherProvider.getSearcher(folder.getVirtualFile().getMountPoint(), true).search(expr);
-            if (skipCount > 0) {
-                if (skipCount > result.length) {
+                    .setText(text)
+                    .setMaxItems(maxItems)
+                    .setSkipCount(skipCount)
+                    .setPageToken(pageToken);
+
+            final SearchResult result = searcherProvider.getSearcher(folder.getVirtualFile().getMountPoint(), true).searchPage(expr);
+            if (skipCount > 0 && pageToken == null) {
+                if (skipCount > result.getTotalHits()) {
                     throw new ConflictException(
                             String.format("'skipCount' parameter: %d is greater then total number of items in result: %d.",
-                                          skipCount, result.length));
+                                          skipCount, result.getTotalHits()));
                 }
             }
-            final int length = maxItems > 0 ? Math.min(result.length, maxItems) : result.length;
-            final List<ItemReference> items = new ArrayList<>(length);
+            final String[] paths = result.getFilePaths();
+            final List<ItemReference> items = new ArrayList<>(paths.length);
             final FolderEntry root = projectManager.getProjectsRoot(workspace);
             final UriBuilder uriBuilder = getServiceContext().getServiceUriBuilder();
-            for (int i = skipCount; i < length; i++) {
+            for (String itemPath : paths) {
                 VirtualFileEntry child = null;
                 try {
-                    child = root.getChild(result[i]);
+                    child = root.getChild(itemPath);
                 } catch (ForbiddenException ignored) {
                     // Ignore item that user can't access
                 }
@@ -1330,9 +1841,15 @@ public class ProjectService extends Service {
                     items.add(DtoConverter.toItemReferenceDto((FileEntry)child, uriBuilder.clone()));
                 }
             }
-            return items;
+            final Response.ResponseBuilder responseBuilder = Response.ok(new GenericEntity<List<ItemReference>>(items) {
+            });
+            if (result.getNextPageToken() != null) {
+                responseBuilder.header("x-next-page-token", result.getNextPageToken());
+            }
+            return responseBuilder.build();
         }
-        return Collections.emptyList();
+        return Response.ok(new GenericEntity<List<ItemReference>>(Collections.<ItemReference>emptyList()) {
+        }).build();
     }
 
     @ApiOperation(value = "Get user permissions in a project",
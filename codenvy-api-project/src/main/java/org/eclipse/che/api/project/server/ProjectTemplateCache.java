@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.project.shared.dto.ImportSourceDescriptor;
+import org.eclipse.che.api.project.shared.dto.ProjectTemplateDescriptor;
+import org.eclipse.che.api.vfs.server.Path;
+import org.eclipse.che.api.vfs.server.VirtualFile;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.eclipse.che.api.project.shared.Constants.ZIP_IMPORTER_ID;
+
+/**
+ * Keeps expanded copies of ZIP archives of registered project templates. Expanded content is packed again without compression and
+ * project is created from template by {@link VirtualFile#unzip(InputStream, boolean, int) unzip} of this copy, so archive isn't
+ * downloaded and inflated each time and virtual file system publishes single event for whole imported tree.
+ * <p/>
+ * Each copy is identified by SHA-1 hash of archive. Archive in local file is checked for update by its modification time and length,
+ * other archives are checked not often than once per {@link #VALIDATION_PERIOD}. If content of archive is changed then template is
+ * expanded again. Archives which are too big aren't cached and are imported with {@link ProjectImporter} as usual.
+ */
+@Singleton
+public class ProjectTemplateCache {
+    private static final Logger LOG = LoggerFactory.getLogger(ProjectTemplateCache.class);
+
+    /** Period in milliseconds of checking remote archive for update. */
+    static final long VALIDATION_PERIOD = 60 * 1000;
+    /** Max size of archive that may be cached. */
+    static final int  MAX_ARCHIVE_SIZE  = 10 * 1024 * 1024;
+    /** Max size of expanded archive that may be cached. */
+    static final long MAX_EXPANDED_SIZE = 50 * 1024 * 1024;
+
+    private final ProjectTemplateRegistry               templateRegistry;
+    private final ConcurrentMap<String, TemplateHolder> templates;
+
+    @Inject
+    public ProjectTemplateCache(ProjectTemplateRegistry templateRegistry) {
+        this.templateRegistry = templateRegistry;
+        this.templates = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Imports sources of project template to the specified folder from cache. Existed files are overwritten.
+     *
+     * @param baseFolder
+     *         folder to import sources
+     * @param source
+     *         source of project
+     * @return {@code true} if sources are imported and {@code false} if {@code source} isn't registered template or template can't be
+     * cached, in this case caller should import sources with {@link ProjectImporter}
+     * @throws IOException
+     *         if archive of template can't be read
+     */
+    public boolean importSources(FolderEntry baseFolder, ImportSourceDescriptor source)
+            throws ForbiddenException, ConflictException, ServerException, IOException {
+        if (!isTemplate(source)) {
+            return false;
+        }
+        final ExpandedTemplate template = getTemplate(source.getLocation(), ZipProjectImporter.getStripNumber(source.getParameters()));
+        if (template.archive == null) {
+            return false;
+        }
+        baseFolder.getVirtualFile().unzip(new ByteArrayInputStream(template.archive), true, 0);
+        return true;
+    }
+
+    /** Removes all expanded templates. */
+    public void clear() {
+        templates.clear();
+    }
+
+    private boolean isTemplate(ImportSourceDescriptor source) {
+        if (source == null || !ZIP_IMPORTER_ID.equals(source.getType()) || source.getLocation() == null) {
+            return false;
+        }
+        for (ProjectTemplateDescriptor template : templateRegistry.getAllTemplates()) {
+            final ImportSourceDescriptor templateSource = template.getSource();
+            if (templateSource != null
+                && ZIP_IMPORTER_ID.equals(templateSource.getType())
+                && source.getLocation().equals(templateSource.getLocation())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ExpandedTemplate getTemplate(String location, int stripNumber) throws IOException {
+        final String key = stripNumber + ":" + location;
+        final URL url = ZipProjectImporter.resolveLocation(location);
+        TemplateHolder holder = templates.get(key);
+        if (holder == null) {
+            final TemplateHolder newHolder = new TemplateHolder();
+            holder = templates.putIfAbsent(key, newHolder);
+            if (holder == null) {
+                holder = newHolder;
+            }
+        }
+        final ExpandedTemplate cached = holder.template;
+        if (cached != null && isFresh(cached, url)) {
+            return cached;
+        }
+        // Only imports of the same template wait for each other while archive is downloaded and expanded.
+        synchronized (holder) {
+            final ExpandedTemplate current = holder.template;
+            if (current != null && isFresh(current, url)) {
+                return current;
+            }
+            final ExpandedTemplate loaded = load(url, stripNumber, current);
+            holder.template = loaded;
+            return loaded;
+        }
+    }
+
+    private boolean isFresh(ExpandedTemplate template, URL url) {
+        final File file = toFile(url);
+        if (file != null) {
+            return file.lastModified() == template.lastModified && file.length() == template.length;
+        }
+        return System.currentTimeMillis() - template.validated < VALIDATION_PERIOD;
+    }
+
+    private ExpandedTemplate load(URL url, int stripNumber, ExpandedTemplate previous) throws IOException {
+        final File file = toFile(url);
+        final long lastModified = file == null ? 0 : file.lastModified();
+        final long length = file == null ? -1 : file.length();
+        final byte[] archive;
+        try (InputStream in = url.openStream()) {
+            archive = ByteStreams.toByteArray(ByteStreams.limit(in, MAX_ARCHIVE_SIZE + 1));
+        }
+        if (archive.length > MAX_ARCHIVE_SIZE) {
+            LOG.debug("Archive {} is too big to be cached", url);
+            return new ExpandedTemplate(null, null, lastModified, length);
+        }
+        final String hash = Hashing.sha1().hashBytes(archive).toString();
+        if (previous != null && hash.equals(previous.hash)) {
+            // Archive is touched but content is the same.
+            return new ExpandedTemplate(hash, previous.archive, lastModified, length);
+        }
+        final Node root = expand(archive, stripNumber);
+        if (root == null) {
+            LOG.debug("Expanded archive {} is too big to be cached", url);
+            return new ExpandedTemplate(hash, null, lastModified, length);
+        }
+        return new ExpandedTemplate(hash, pack(root), lastModified, length);
+    }
+
+    /** Expands archive in memory. Returns {@code null} if size of expanded content is over {@link #MAX_EXPANDED_SIZE}. */
+    private Node expand(byte[] archive, int stripNumber) throws IOException {
+        final Node root = new Node(null);
+        long size = 0;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                Path relPath = Path.fromString(zipEntry.getName());
+                if (stripNumber > 0) {
+                    if (relPath.length() <= stripNumber) {
+                        continue;
+                    }
+                    relPath = relPath.subPath(stripNumber);
+                }
+                Node current = root;
+                for (int i = 0, stop = relPath.length() - 1; i < stop; i++) {
+                    current = current.folder(relPath.element(i));
+                }
+                if (zipEntry.isDirectory()) {
+                    current.folder(relPath.getName());
+                } else {
+                    final byte[] content = ByteStreams.toByteArray(ByteStreams.limit(zip, MAX_EXPANDED_SIZE - size + 1));
+                    size += content.length;
+                    if (size > MAX_EXPANDED_SIZE) {
+                        return null;
+                    }
+                    current.children.put(relPath.getName(), new Node(content));
+                }
+                zip.closeEntry();
+            }
+        }
+        return root;
+    }
+
+    /** Packs expanded tree to archive without compression. Paths in archive are already stripped. */
+    private byte[] pack(Node root) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.setMethod(ZipOutputStream.STORED);
+            pack(root, "", zip);
+        }
+        return out.toByteArray();
+    }
+
+    private void pack(Node folder, String parentPath, ZipOutputStream zip) throws IOException {
+        for (Map.Entry<String, Node> entry : folder.children.entrySet()) {
+            final Node node = entry.getValue();
+            final String path = node.isFolder() ? parentPath + entry.getKey() + '/' : parentPath + entry.getKey();
+            final byte[] content = node.isFolder() ? new byte[0] : node.content;
+            final CRC32 crc = new CRC32();
+            crc.update(content);
+            final ZipEntry zipEntry = new ZipEntry(path);
+            zipEntry.setSize(content.length);
+            zipEntry.setCompressedSize(content.length);
+            zipEntry.setCrc(crc.getValue());
+            zip.putNextEntry(zipEntry);
+            zip.write(content);
+            zip.closeEntry();
+            if (node.isFolder()) {
+                pack(node, path, zip);
+            }
+        }
+    }
+
+    private static File toFile(URL url) {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return new File(url.toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /** Latest expanded archive of template. Template is loaded under lock of its holder. */
+    private static class TemplateHolder {
+        volatile ExpandedTemplate template;
+    }
+
+    /** Expanded archive. Once packed content is never modified and is shared between all imports of the same template. */
+    private static class ExpandedTemplate {
+        final String hash;
+        /** Expanded content packed without compression or {@code null} if archive can't be cached. */
+        final byte[] archive;
+        final long   lastModified;
+        final long   length;
+        final long   validated;
+
+        ExpandedTemplate(String hash, byte[] archive, long lastModified, long length) {
+            this.hash = hash;
+            this.archive = archive;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.validated = System.currentTimeMillis();
+        }
+    }
+
+    /** File or folder of expanded archive. File has content and folder has children. */
+    private static class Node {
+        final byte[]            content;
+        final Map<String, Node> children;
+
+        Node(byte[] content) {
+            this.content = content;
+            this.children = content == null ? new LinkedHashMap<String, Node>() : Collections.<String, Node>emptyMap();
+        }
+
+        boolean isFolder() {
+            return content == null;
+        }
+
+        Node folder(String name) {
+            Node folder = children.get(name);
+            if (folder == null || !folder.isFolder()) {
+                children.put(name, folder = new Node(null));
+            }
+            return folder;
+        }
+    }
+}
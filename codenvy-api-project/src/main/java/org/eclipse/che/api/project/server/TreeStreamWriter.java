@@ -0,0 +1,274 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.project.shared.dto.ItemReference;
+import org.eclipse.che.api.vfs.server.VirtualFile;
+import org.eclipse.che.api.vfs.server.VirtualFileFilter;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Writes items of tree of folder directly to output as soon as they are read from virtual file system. Items are written in depth-first
+ * order, children of each folder are sorted by name. Only children of folders which are currently traversed are kept in memory.
+ * <p/>
+ * Items are written either as JSON array or as newline delimited JSON, one item per line. Items don't contain links and attributes.
+ * Listing may be resumed from the path of the last received item, e.g. after connection is broken or limit of items is reached.
+ * <p/>
+ * If number of items is limited, the page is read with {@link #readPage()} before response is started. So failure of reading is reported
+ * with error status and it is known whether there are more items. Unlimited listing is streamed, if reading fails in the middle output
+ * is aborted and response is left incomplete instead of being finished as valid JSON.
+ */
+class TreeStreamWriter implements StreamingOutput {
+    private static final Logger LOG = LoggerFactory.getLogger(TreeStreamWriter.class);
+
+    private static final Comparator<VirtualFileEntry> BY_NAME = new Comparator<VirtualFileEntry>() {
+        @Override
+        public int compare(VirtualFileEntry o1, VirtualFileEntry o2) {
+            return o1.getName().compareTo(o2.getName());
+        }
+    };
+
+    private final FolderEntry       folder;
+    private final int               depth;
+    private final boolean           includeFiles;
+    private final List<PathMatcher> includes;
+    private final List<PathMatcher> excludes;
+    private final String[]          after;
+    private final int               maxItems;
+    private final boolean           ndjson;
+    private final DtoFactory        dtoFactory;
+
+    private Writer              writer;
+    /** Items read by {@link #readPage()}, {@code null} if items are streamed as soon as they are read. */
+    private List<ItemReference> page;
+    private int                 written;
+
+    /**
+     * @param folder
+     *         root of tree, it isn't written to output
+     * @param depth
+     *         depth of tree, negative value means no limit
+     * @param includeFiles
+     *         if {@code false} only folders are written
+     * @param includes
+     *         glob patterns of names of files to write, if empty all files are written. Folders are not checked against these patterns
+     * @param excludes
+     *         glob patterns of names of files and folders to skip. Content of skipped folder isn't traversed
+     * @param after
+     *         path of item after that listing should be continued, if {@code null} listing is started from the beginning
+     * @param maxItems
+     *         max number of items to write, negative value means no limit
+     * @param ndjson
+     *         if {@code true} write items as newline delimited JSON, otherwise as JSON array
+     * @throws IllegalArgumentException
+     *         if {@code after} isn't path of descendant of {@code folder} or any of patterns is invalid
+     */
+    TreeStreamWriter(FolderEntry folder, int depth, boolean includeFiles, List<String> includes, List<String> excludes, String after,
+                     int maxItems, boolean ndjson) {
+        this.folder = folder;
+        this.depth = depth;
+        this.includeFiles = includeFiles;
+        this.includes = toMatchers(includes);
+        this.excludes = toMatchers(excludes);
+        this.after = after == null || after.isEmpty() ? null : relativize(folder.getPath(), after);
+        this.maxItems = maxItems;
+        this.ndjson = ndjson;
+        this.dtoFactory = DtoFactory.getInstance();
+    }
+
+    /**
+     * Reads items up to limit {@code maxItems} to write them later with {@link #write(OutputStream)}.
+     *
+     * @return path of the last item of page if there are more items after it, {@code null} otherwise. The path may be used as
+     * {@code after} for the next page.
+     * @throws IllegalStateException
+     *         if number of items isn't limited
+     */
+    String readPage() throws ServerException {
+        if (maxItems < 0) {
+            throw new IllegalStateException("Number of items isn't limited");
+        }
+        page = new ArrayList<>(Math.min(maxItems, 256));
+        final boolean complete;
+        try {
+            complete = writeChildren(folder, 1, after == null ? -1 : 0);
+        } catch (IOException e) {
+            // nothing is written to output while page is read
+            throw new ServerException(e.getMessage(), e);
+        }
+        return complete || page.isEmpty() ? null : page.get(page.size() - 1).getPath();
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (!ndjson) {
+            writer.write('[');
+        }
+        if (page != null) {
+            for (int i = 0, size = page.size(); i < size; i++) {
+                writeJson(page.get(i), i);
+            }
+        } else {
+            try {
+                writeChildren(folder, 1, after == null ? -1 : 0);
+            } catch (ServerException e) {
+                // Don't finish JSON, so client doesn't take partial listing for complete one. Client may continue from the last received
+                // item.
+                LOG.error(e.getMessage(), e);
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+        if (!ndjson) {
+            writer.write(']');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes children of folder recursively.
+     *
+     * @param cursor
+     *         index of segment of path {@link #after} that matches to child of {@code parent} or {@code -1} if all children of
+     *         {@code parent} should be written
+     * @return {@code false} if limit of items is reached
+     */
+    private boolean writeChildren(FolderEntry parent, int level, int cursor) throws ServerException, IOException {
+        if (depth >= 0 && level > depth) {
+            return true;
+        }
+        final List<VirtualFileEntry> children = parent.getChildren(new VirtualFileFilter() {
+            @Override
+            public boolean accept(VirtualFile file) {
+                return (includeFiles || file.isFolder()) && !matches(excludes, file.getName());
+            }
+        });
+        Collections.sort(children, BY_NAME);
+        for (VirtualFileEntry child : children) {
+            if (cursor >= 0) {
+                final int cmp = child.getName().compareTo(after[cursor]);
+                if (cmp < 0) {
+                    continue;
+                }
+                if (cmp == 0) {
+                    // Item itself is already received, continue with its children.
+                    if (child.isFolder()
+                        && !writeChildren((FolderEntry)child, level + 1, cursor + 1 < after.length ? cursor + 1 : -1)) {
+                        return false;
+                    }
+                    continue;
+                }
+                cursor = -1;
+            }
+            if (child.isFile()) {
+                if ((includes.isEmpty() || matches(includes, child.getName())) && !writeItem(toItem((FileEntry)child))) {
+                    return false;
+                }
+            } else if (!writeItem(toItem((FolderEntry)child)) || !writeChildren((FolderEntry)child, level + 1, -1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean writeItem(ItemReference item) throws IOException {
+        if (maxItems >= 0 && written >= maxItems) {
+            return false;
+        }
+        if (page != null) {
+            page.add(item);
+        } else {
+            writeJson(item, written);
+        }
+        written++;
+        return true;
+    }
+
+    private void writeJson(ItemReference item, int index) throws IOException {
+        if (index > 0 && !ndjson) {
+            writer.write(',');
+        }
+        writer.write(dtoFactory.toJson(item));
+        if (ndjson) {
+            writer.write('\n');
+        }
+    }
+
+    private ItemReference toItem(FileEntry file) throws ServerException {
+        return dtoFactory.createDto(ItemReference.class)
+                         .withName(file.getName())
+                         .withPath(file.getPath())
+                         .withType("file")
+                         .withMediaType(file.getMediaType())
+                         .withCreated(file.getCreated())
+                         .withModified(file.getModified())
+                         .withContentLength(file.getVirtualFile().getLength());
+    }
+
+    private ItemReference toItem(FolderEntry folder) throws ServerException {
+        return dtoFactory.createDto(ItemReference.class)
+                         .withName(folder.getName())
+                         .withPath(folder.getPath())
+                         .withType(folder.isProjectFolder() ? "project" : "folder")
+                         .withMediaType("text/directory")
+                         .withCreated(folder.getCreated())
+                         .withModified(folder.getModified());
+    }
+
+    private static boolean matches(List<PathMatcher> matchers, String name) {
+        if (!matchers.isEmpty()) {
+            final java.nio.file.Path path = Paths.get(name);
+            for (PathMatcher matcher : matchers) {
+                if (matcher.matches(path)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static List<PathMatcher> toMatchers(List<String> patterns) {
+        if (patterns == null || patterns.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<PathMatcher> matchers = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+        }
+        return matchers;
+    }
+
+    private static String[] relativize(String root, String path) {
+        final String prefix = root.endsWith("/") ? root : root + '/';
+        if (!path.startsWith(prefix) || path.length() == prefix.length()) {
+            throw new IllegalArgumentException(String.format("Item '%s' isn't located in folder '%s'. ", path, root));
+        }
+        return path.substring(prefix.length()).split("/");
+    }
+}
@@ -55,6 +55,13 @@ public class ZipProjectImporter implements ProjectImporter {
                               Map<String, String> parameters,
                               LineConsumerFactory importOutputConsumerFactory)
             throws ForbiddenException, ConflictException, IOException, ServerException {
+        try (InputStream zip = resolveLocation(location).openStream()) {
+            baseFolder.getVirtualFile().unzip(zip, true, getStripNumber(parameters));
+        }
+    }
+
+    /** Gets URL of ZIP archive. Location may be http(s) URL, path to resource in classpath or path to local file. */
+    static URL resolveLocation(String location) throws IOException {
         URL url;
         if (location.startsWith("http://") || location.startsWith("https://")) {
             url = new URL(location);
@@ -70,14 +77,16 @@ public class ZipProjectImporter implements ProjectImporter {
         if (url == null) {
             throw new IOException(String.format("Can't find %s", location));
         }
+        return url;
+    }
 
-        try (InputStream zip = url.openStream()) {
-            int stripNumber = 0;
-            if (parameters != null && parameters.containsKey("skipFirstLevel")) {
-                stripNumber = Boolean.parseBoolean(parameters.get("skipFirstLevel")) ? 1 : 0;
-            }
-            baseFolder.getVirtualFile().unzip(zip, true, stripNumber);
+    /** Gets number of leading path segments which are removed from names of ZIP entries. */
+    static int getStripNumber(Map<String, String> parameters) {
+        int stripNumber = 0;
+        if (parameters != null && parameters.containsKey("skipFirstLevel")) {
+            stripNumber = Boolean.parseBoolean(parameters.get("skipFirstLevel")) ? 1 : 0;
         }
+        return stripNumber;
     }
 
     /** {@inheritDoc} */
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server.notification;
+
+import org.eclipse.che.api.core.notification.EventOrigin;
+
+/**
+ * Reports progress of asynchronous import of project.
+ */
+@EventOrigin("project")
+public class ProjectImportEvent {
+
+    public static enum EventType {
+        /** Import is started or switched to the next stage. */
+        STAGE("stage"),
+        /** Progress of current stage is changed. */
+        PROGRESS("progress"),
+        SUCCESSFUL("successful"),
+        FAILED("failed"),
+        CANCELLED("cancelled");
+
+        private final String value;
+
+        private EventType(String value) {
+            this.value = value;
+        }
+
+        public String value() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    private EventType type;
+    private long      job;
+    private String    workspace;
+    private String    path;
+    private String    stage;
+    private int       progress;
+    private String    error;
+
+    public ProjectImportEvent(EventType type, long job, String workspace, String path, String stage, int progress, String error) {
+        this.type = type;
+        this.job = job;
+        this.workspace = workspace;
+        this.path = path;
+        this.stage = stage;
+        this.progress = progress;
+        this.error = error;
+    }
+
+    public ProjectImportEvent() {
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    public void setType(EventType type) {
+        this.type = type;
+    }
+
+    public long getJob() {
+        return job;
+    }
+
+    public void setJob(long job) {
+        this.job = job;
+    }
+
+    public String getWorkspace() {
+        return workspace;
+    }
+
+    public void setWorkspace(String workspace) {
+        this.workspace = workspace;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public void setProgress(int progress) {
+        this.progress = progress;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectImportEvent{" +
+               "type=" + type +
+               ", job=" + job +
+               ", workspace='" + workspace + '\'' +
+               ", path='" + path + '\'' +
+               ", stage='" + stage + '\'' +
+               ", progress=" + progress +
+               ", error='" + error + '\'' +
+               '}';
+    }
+}
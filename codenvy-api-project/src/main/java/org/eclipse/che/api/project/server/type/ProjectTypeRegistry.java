@@ -37,6 +37,8 @@ public class ProjectTypeRegistry {
 
     private Set <String> allIds = new HashSet<>();
 
+    private volatile int revision;
+
     @Inject
     public ProjectTypeRegistry(Set<ProjectType> projTypes) {
 
@@ -103,7 +105,13 @@ public class ProjectTypeRegistry {
 
         init(projectType);
         this.projectTypes.put(projectType.getId(), projectType);
+        revision++;
+
+    }
 
+    /** Gets number of changes in registry. Callers use it to detect that cached data which depends on registered types is outdated. */
+    public int getRevision() {
+        return revision;
     }
 
 
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/**
+ * Describes asynchronous import of project.
+ */
+@DTO
+public interface ImportJobDescriptor {
+    /** Id of import job. */
+    long getId();
+
+    void setId(long id);
+
+    ImportJobDescriptor withId(long id);
+
+    String getWorkspaceId();
+
+    void setWorkspaceId(String workspaceId);
+
+    ImportJobDescriptor withWorkspaceId(String workspaceId);
+
+    /** Path of imported project. */
+    String getPath();
+
+    void setPath(String path);
+
+    ImportJobDescriptor withPath(String path);
+
+    /** Status of import: IN_PROGRESS, SUCCESSFUL, FAILED or CANCELLED. */
+    String getStatus();
+
+    void setStatus(String status);
+
+    ImportJobDescriptor withStatus(String status);
+
+    /** Current stage of import: import, extract, configure or post-import. */
+    String getStage();
+
+    void setStage(String stage);
+
+    ImportJobDescriptor withStage(String stage);
+
+    /** Progress of current stage in percents or {@code -1} if progress of current stage is unknown. */
+    int getProgress();
+
+    void setProgress(int progress);
+
+    ImportJobDescriptor withProgress(int progress);
+
+    long getStartTime();
+
+    void setStartTime(long startTime);
+
+    ImportJobDescriptor withStartTime(long startTime);
+
+    /** Time when import is finished or {@code 0} if import is still in progress. */
+    long getEndTime();
+
+    void setEndTime(long endTime);
+
+    ImportJobDescriptor withEndTime(long endTime);
+
+    /** Error message if import failed. */
+    String getError();
+
+    void setError(String error);
+
+    ImportJobDescriptor withError(String error);
+
+    /** Result of successful import. */
+    ImportResponse getResult();
+
+    void setResult(ImportResponse result);
+
+    ImportJobDescriptor withResult(ImportResponse result);
+
+    List<Link> getLinks();
+
+    void setLinks(List<Link> links);
+
+    ImportJobDescriptor withLinks(List<Link> links);
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.project.shared.dto.ImportResponse;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CancellationException;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.fail;
+
+public class ProjectImportJobTest {
+    @Test
+    public void testCancelledJobMayNotBeDone() throws Exception {
+        ProjectImportJob job = new ProjectImportJob(1, "my_ws", "/my_project", new EventService());
+        job.cancel();
+        try {
+            job.done(DtoFactory.getInstance().createDto(ImportResponse.class));
+            fail("CancellationException expected");
+        } catch (CancellationException ignored) {
+        }
+        assertEquals(job.getStatus(), ProjectImportJob.Status.IN_PROGRESS);
+        assertNull(job.getResult());
+        job.failed("cancelled");
+        assertEquals(job.getStatus(), ProjectImportJob.Status.CANCELLED);
+    }
+
+    @Test
+    public void testDoneJobMayNotBeCancelled() throws Exception {
+        ProjectImportJob job = new ProjectImportJob(1, "my_ws", "/my_project", new EventService());
+        job.done(DtoFactory.getInstance().createDto(ImportResponse.class));
+        assertFalse(job.cancel());
+        assertEquals(job.getStatus(), ProjectImportJob.Status.SUCCESSFUL);
+    }
+}
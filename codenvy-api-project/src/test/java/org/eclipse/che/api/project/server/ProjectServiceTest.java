@@ -15,6 +15,7 @@ import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.core.rest.ApiExceptionMapper;
 import org.eclipse.che.api.core.rest.CodenvyJsonProvider;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
@@ -27,11 +28,13 @@ import org.eclipse.che.api.project.server.handlers.GetModulesHandler;
 import org.eclipse.che.api.project.server.handlers.PostImportProjectHandler;
 import org.eclipse.che.api.project.server.handlers.ProjectHandler;
 import org.eclipse.che.api.project.server.handlers.ProjectHandlerRegistry;
+import org.eclipse.che.api.project.server.notification.ProjectImportEvent;
 import org.eclipse.che.api.project.server.type.AttributeValue;
 import org.eclipse.che.api.project.server.type.ProjectType;
 import org.eclipse.che.api.project.server.type.ProjectTypeRegistry;
 
 import org.eclipse.che.api.project.shared.dto.GeneratorDescription;
+import org.eclipse.che.api.project.shared.dto.ImportJobDescriptor;
 import org.eclipse.che.api.project.shared.dto.ImportProject;
 import org.eclipse.che.api.project.shared.dto.ImportResponse;
 import org.eclipse.che.api.project.shared.dto.ImportSourceDescriptor;
@@ -57,6 +60,7 @@ import org.eclipse.che.api.vfs.server.VirtualFileSystemUser;
 import org.eclipse.che.api.vfs.server.VirtualFileSystemUserContext;
 import org.eclipse.che.api.vfs.server.impl.memory.MemoryFileSystemProvider;
 import org.eclipse.che.api.vfs.server.impl.memory.MemoryMountPoint;
+import org.eclipse.che.api.vfs.server.search.Searcher;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
 import org.eclipse.che.api.vfs.shared.dto.AccessControlEntry;
 import org.eclipse.che.api.vfs.shared.dto.Principal;
@@ -87,12 +91,16 @@ import org.testng.annotations.Test;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.core.Application;
+import javax.ws.rs.core.MediaType;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -121,12 +129,14 @@ public class ProjectServiceTest {
     @Mock
     private UserDao                     userDao;
     private ProjectTypeResolverRegistry resolverRegistry;
+    private MemoryMountPoint            mmp;
+    private EventService                eventService;
 
     @BeforeMethod
     public void setUp() throws Exception {
 
 
-        final EventService eventService = new EventService();
+        eventService = new EventService();
         VirtualFileSystemRegistry vfsRegistry = new VirtualFileSystemRegistry();
 
         final MemoryFileSystemProvider memoryFileSystemProvider =
@@ -137,7 +147,7 @@ public class ProjectServiceTest {
                     }
                 }, vfsRegistry);
 
-        MemoryMountPoint mmp = (MemoryMountPoint)memoryFileSystemProvider.getMountPoint(true);
+        mmp = (MemoryMountPoint)memoryFileSystemProvider.getMountPoint(true);
         vfsRegistry.registerProvider(workspace, memoryFileSystemProvider);
 
         // PTs for test
@@ -161,6 +171,7 @@ public class ProjectServiceTest {
 
         pm = new DefaultProjectManager(vfsRegistry, eventService,
                                        ptRegistry, phRegistry);
+        ((DefaultProjectManager)pm).start();
 
         pm.createProject(workspace, "my_project", new ProjectConfig("my test project", "my_project_type",
                                                                     new HashMap<String, AttributeValue>(), null, null, null), null, null);
@@ -192,6 +203,7 @@ public class ProjectServiceTest {
         dependencies.addComponent(SearcherProvider.class, mmp.getSearcherProvider());
         dependencies.addComponent(ProjectTypeResolverRegistry.class, resolverRegistry);
         dependencies.addComponent(EventService.class, eventService);
+        dependencies.addComponent(ProjectTemplateCache.class, new ProjectTemplateCache(new ProjectTemplateRegistry()));
 
 
         ResourceBinder resources = new ResourceBinderImpl();
@@ -1248,6 +1260,185 @@ public class ProjectServiceTest {
         assertNotNull(newProject);
     }
 
+    @Test
+    public void testImportProjectAsync() throws Exception {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        ZipOutputStream zipOut = new ZipOutputStream(bout);
+        zipOut.putNextEntry(new ZipEntry("folder1/"));
+        zipOut.putNextEntry(new ZipEntry("folder1/file1.txt"));
+        zipOut.write("to be or not to be".getBytes());
+        zipOut.putNextEntry(new ZipEntry(Constants.CODENVY_DIR + "/"));
+        zipOut.putNextEntry(new ZipEntry(Constants.CODENVY_PROJECT_FILE_RELATIVE_PATH));
+        zipOut.write(("{\"type\":\"chuck_project_type\"," +
+                      "\"description\":\"import test\"," +
+                      "\"attributes\":{\"x\": [\"a\",\"b\"]}}").getBytes());
+        zipOut.close();
+        final InputStream zip = new ByteArrayInputStream(bout.toByteArray());
+        final String importType = "_123_";
+        importerRegistry.register(new ProjectImporter() {
+            @Override
+            public String getId() {
+                return importType;
+            }
+
+            @Override
+            public boolean isInternal() {
+                return false;
+            }
+
+            @Override
+            public String getDescription() {
+                return "Chuck importer";
+            }
+
+            @Override
+            public void importSources(FolderEntry baseFolder, String location, Map<String, String> parameters)
+                    throws ConflictException, ServerException, ForbiddenException {
+                importSources(baseFolder, location, parameters, LineConsumerFactory.NULL);
+            }
+
+            @Override
+            public void importSources(FolderEntry baseFolder, String location, Map<String, String> parameters,
+                                      LineConsumerFactory importOutputConsumerFactory)
+                    throws ConflictException, ServerException, ForbiddenException {
+                baseFolder.getVirtualFile().unzip(zip, true, 0);
+            }
+
+            @Override
+            public ImporterCategory getCategory() {
+                return ImporterCategory.ARCHIVE;
+            }
+        });
+        final List<ProjectImportEvent> events = new CopyOnWriteArrayList<>();
+        eventService.subscribe(new EventSubscriber<ProjectImportEvent>() {
+            @Override
+            public void onEvent(ProjectImportEvent event) {
+                events.add(event);
+            }
+        });
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Content-Type", Arrays.asList("application/json"));
+        byte[] b = String.format("{\"source\":{\"project\":{\"location\":null,\"type\":\"%s\",\"parameters\":{}},\"runners\":{}}}",
+                                 importType).getBytes();
+        ContainerResponse response = launcher.service("POST",
+                                                      String.format("http://localhost:8080/api/project/%s/import-async/new_project",
+                                                                    workspace),
+                                                      "http://localhost:8080/api", headers, b, null);
+        assertEquals(response.getStatus(), 202, "Error: " + response.getEntity());
+        ImportJobDescriptor job = (ImportJobDescriptor)response.getEntity();
+        assertEquals(job.getPath(), "/new_project");
+        assertNotNull(response.getHttpHeaders().getFirst("Location"));
+
+        job = waitForImportJob(job.getId());
+        assertEquals(job.getStatus(), "SUCCESSFUL", job.getError());
+        ImportResponse importResponse = job.getResult();
+        Assert.assertTrue(importResponse.getProjectDescriptor().getProblems().isEmpty());
+        assertEquals(importResponse.getProjectDescriptor().getDescription(), "import test");
+        assertEquals(importResponse.getProjectDescriptor().getType(), "chuck_project_type");
+        assertNotNull(pm.getProject(workspace, "new_project"));
+
+        List<String> stages = new ArrayList<>();
+        for (ProjectImportEvent event : events) {
+            if (event.getType() == ProjectImportEvent.EventType.STAGE) {
+                stages.add(event.getStage());
+            }
+        }
+        assertEquals(stages, Arrays.asList("import", "configure", "post-import"));
+        assertEquals(events.get(events.size() - 1).getType(), ProjectImportEvent.EventType.SUCCESSFUL);
+    }
+
+    @Test
+    public void testCancelImportProjectAsync() throws Exception {
+        final String importType = "_123_";
+        final CountDownLatch started = new CountDownLatch(1);
+        importerRegistry.register(new ProjectImporter() {
+            @Override
+            public String getId() {
+                return importType;
+            }
+
+            @Override
+            public boolean isInternal() {
+                return false;
+            }
+
+            @Override
+            public String getDescription() {
+                return "Chuck importer";
+            }
+
+            @Override
+            public void importSources(FolderEntry baseFolder, String location, Map<String, String> parameters)
+                    throws ConflictException, ServerException, ForbiddenException {
+                importSources(baseFolder, location, parameters, LineConsumerFactory.NULL);
+            }
+
+            @Override
+            public void importSources(FolderEntry baseFolder, String location, Map<String, String> parameters,
+                                      LineConsumerFactory importOutputConsumerFactory)
+                    throws ConflictException, ServerException, ForbiddenException {
+                baseFolder.createFile("file1.txt", "to be or not to be".getBytes(), "text/plain");
+                started.countDown();
+                try {
+                    // Never released, import is interrupted when job is cancelled.
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    throw new ServerException("Import is interrupted");
+                }
+            }
+
+            @Override
+            public ImporterCategory getCategory() {
+                return ImporterCategory.ARCHIVE;
+            }
+        });
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Content-Type", Arrays.asList("application/json"));
+        byte[] b = String.format("{\"source\":{\"project\":{\"location\":null,\"type\":\"%s\",\"parameters\":{}},\"runners\":{}}}",
+                                 importType).getBytes();
+        ContainerResponse response = launcher.service("POST",
+                                                      String.format("http://localhost:8080/api/project/%s/import-async/new_project",
+                                                                    workspace),
+                                                      "http://localhost:8080/api", headers, b, null);
+        assertEquals(response.getStatus(), 202, "Error: " + response.getEntity());
+        long id = ((ImportJobDescriptor)response.getEntity()).getId();
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        response = launcher.service("DELETE", String.format("http://localhost:8080/api/project/%s/import-jobs/%d", workspace, id),
+                                    "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 204, "Error: " + response.getEntity());
+
+        ImportJobDescriptor job = waitForImportJob(id);
+        assertEquals(job.getStatus(), "CANCELLED");
+        Assert.assertNull(pm.getProjectsRoot(workspace).getChild("new_project"));
+
+        // Finished job may not be cancelled.
+        response = launcher.service("DELETE", String.format("http://localhost:8080/api/project/%s/import-jobs/%d", workspace, id),
+                                    "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 409);
+    }
+
+    private ImportJobDescriptor waitForImportJob(long id) throws Exception {
+        final long end = System.currentTimeMillis() + 10000;
+        ImportJobDescriptor job;
+        do {
+            ContainerResponse response = launcher.service("GET",
+                                                          String.format("http://localhost:8080/api/project/%s/import-jobs/%d",
+                                                                        workspace, id),
+                                                          "http://localhost:8080/api", null, null, null);
+            assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+            job = (ImportJobDescriptor)response.getEntity();
+            if (!"IN_PROGRESS".equals(job.getStatus())) {
+                return job;
+            }
+            Thread.sleep(50);
+        } while (System.currentTimeMillis() < end);
+        Assert.fail("Import job isn't finished");
+        return job;
+    }
+
 
 
     @Test
@@ -1838,6 +2029,45 @@ public class ProjectServiceTest {
         Assert.assertTrue(names.contains("test.txt"));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetChildrenWithLinkTemplates() throws Exception {
+        Project myProject = pm.getProject(workspace, "my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        a.createFolder("b");
+        a.createFile("test.txt", "test".getBytes(), "text/plain");
+        ContainerResponse response = launcher.service("GET",
+                                                      String.format("http://localhost:8080/api/project/%s/children/my_project/a" +
+                                                                    "?linkTemplates=true", workspace),
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        List<ItemReference> result = (List<ItemReference>)response.getEntity();
+        assertEquals(result.size(), 2);
+        for (ItemReference itemReference : result) {
+            Assert.assertTrue(itemReference.getLinks().isEmpty());
+        }
+
+        response = launcher.service("GET", String.format("http://localhost:8080/api/project/%s/link-templates", workspace),
+                                    "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        Map<String, Link> templates = new HashMap<>();
+        for (Link link : (List<Link>)response.getEntity()) {
+            templates.put(link.getRel(), link);
+        }
+        assertEquals(templates.get(Constants.LINK_REL_GET_CONTENT).getMethod(), "GET");
+        assertEquals(templates.get(Constants.LINK_REL_GET_CONTENT).getHref(),
+                     String.format("http://localhost:8080/api/project/%s/file/[path]", workspace));
+        assertEquals(templates.get(Constants.LINK_REL_UPDATE_CONTENT).getHref(),
+                     String.format("http://localhost:8080/api/project/%s/file/[path]", workspace));
+        assertEquals(templates.get(Constants.LINK_REL_CHILDREN).getHref(),
+                     String.format("http://localhost:8080/api/project/%s/children/[path]", workspace));
+        assertEquals(templates.get(Constants.LINK_REL_TREE).getHref(),
+                     String.format("http://localhost:8080/api/project/%s/tree/[path]", workspace));
+        assertEquals(templates.get(Constants.LINK_REL_DELETE).getMethod(), "DELETE");
+        assertEquals(templates.get(Constants.LINK_REL_DELETE).getHref(),
+                     String.format("http://localhost:8080/api/project/%s/[path]", workspace));
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testGetItem() throws Exception {
@@ -1992,6 +2222,126 @@ public class ProjectServiceTest {
         Assert.assertTrue(names.contains("x/y"));
     }
 
+    @Test
+    public void testGetTreeStream() throws Exception {
+        Project myProject = pm.getProject(workspace, "my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        a.createFolder("b/c");
+        a.createFolder("x/y");
+        a.createFolder("target/classes");
+        a.createFile("test.txt", "test".getBytes(), "text/plain");
+        ((FolderEntry)a.getChild("b")).createFile("Test.java", "test".getBytes(), "text/x-java");
+        ((FolderEntry)a.getChild("b")).createFile("test.xml", "test".getBytes(), "text/xml");
+
+        List<ItemReference> items = getTreeStream("depth=-1&exclude=target", null);
+        assertEquals(getPaths(items), Arrays.asList("/my_project/a/b",
+                                                    "/my_project/a/b/Test.java",
+                                                    "/my_project/a/b/c",
+                                                    "/my_project/a/b/test.xml",
+                                                    "/my_project/a/test.txt",
+                                                    "/my_project/a/x",
+                                                    "/my_project/a/x/y"));
+        assertEquals(items.get(1).getType(), "file");
+        assertEquals(items.get(1).getContentLength(), 4);
+        assertEquals(items.get(2).getType(), "folder");
+        Assert.assertTrue(items.get(2).getLinks().isEmpty());
+
+        items = getTreeStream("depth=2&include=*.java&exclude=target", MediaType.APPLICATION_JSON);
+        assertEquals(getPaths(items), Arrays.asList("/my_project/a/b",
+                                                    "/my_project/a/b/Test.java",
+                                                    "/my_project/a/b/c",
+                                                    "/my_project/a/x",
+                                                    "/my_project/a/x/y"));
+
+        items = getTreeStream("depth=-1&includeFiles=false&exclude=target", ProjectService.NDJSON);
+        assertEquals(getPaths(items), Arrays.asList("/my_project/a/b",
+                                                    "/my_project/a/b/c",
+                                                    "/my_project/a/x",
+                                                    "/my_project/a/x/y"));
+    }
+
+    @Test
+    public void testGetTreeStreamWithPageToken() throws Exception {
+        Project myProject = pm.getProject(workspace, "my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        a.createFolder("b/c/d");
+        a.createFolder("b/e");
+        a.createFolder("x/y");
+        a.createFile("test.txt", "test".getBytes(), "text/plain");
+        List<String> all = getPaths(getTreeStream("depth=-1", null));
+        assertEquals(all.size(), 7);
+
+        List<String> paths = new ArrayList<>();
+        String pageToken = null;
+        int pages = 0;
+        do {
+            Map<String, List<String>> headers = new HashMap<>();
+            headers.put("Accept", Arrays.asList(ProjectService.NDJSON));
+            ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+            ContainerResponse response = launcher.service("GET",
+                                                          String.format("http://localhost:8080/api/project/%s/tree-stream/my_project/a" +
+                                                                        "?depth=-1&maxItems=2%s", workspace,
+                                                                        pageToken == null ? "" : "&pageToken=" + pageToken),
+                                                          "http://localhost:8080/api", headers, null, writer, null);
+            assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+            List<String> page = new ArrayList<>();
+            for (String line : new String(writer.getBody()).split("\n")) {
+                if (!line.isEmpty()) {
+                    page.add(DtoFactory.getInstance().createDtoFromJson(line, ItemReference.class).getPath());
+                }
+            }
+            Assert.assertTrue(page.size() <= 2);
+            paths.addAll(page);
+            pageToken = (String)response.getHttpHeaders().getFirst("x-next-page-token");
+            if (pageToken != null) {
+                assertEquals(pageToken, page.get(page.size() - 1));
+            }
+            pages++;
+        } while (pageToken != null);
+        assertEquals(paths, all);
+        // 7 items, the last page isn't empty and has no token
+        assertEquals(pages, 4);
+
+        ContainerResponse response = launcher.service("GET",
+                                                      String.format("http://localhost:8080/api/project/%s/tree-stream/my_project/a" +
+                                                                    "?pageToken=/my_project/z", workspace),
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 409);
+    }
+
+    private List<ItemReference> getTreeStream(String query, String accept) throws Exception {
+        Map<String, List<String>> headers = new HashMap<>();
+        if (accept != null) {
+            headers.put("Accept", Arrays.asList(accept));
+        }
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        ContainerResponse response = launcher.service("GET",
+                                                      String.format("http://localhost:8080/api/project/%s/tree-stream/my_project/a?%s",
+                                                                    workspace, query),
+                                                      "http://localhost:8080/api", headers, null, writer, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        String body = new String(writer.getBody());
+        if (ProjectService.NDJSON.equals(accept)) {
+            assertEquals(response.getContentType().toString(), ProjectService.NDJSON);
+            List<ItemReference> items = new ArrayList<>();
+            for (String line : body.split("\n")) {
+                if (!line.isEmpty()) {
+                    items.add(DtoFactory.getInstance().createDtoFromJson(line, ItemReference.class));
+                }
+            }
+            return items;
+        }
+        return DtoFactory.getInstance().createListDtoFromJson(body, ItemReference.class);
+    }
+
+    private List<String> getPaths(List<ItemReference> items) {
+        List<String> paths = new ArrayList<>(items.size());
+        for (ItemReference item : items) {
+            paths.add(item.getPath());
+        }
+        return paths;
+    }
+
     @Test
     public void testSwitchProjectVisibilityToPrivate() throws Exception {
         Project myProject = pm.getProject(workspace, "my_project");
@@ -2047,6 +2397,8 @@ public class ProjectServiceTest {
         myProject.getBaseFolder().createFolder("x/y").createFile("test.txt", "test".getBytes(), "text/plain");
         myProject.getBaseFolder().createFolder("c").createFile("exclude", "test".getBytes(), "text/plain");
 
+        waitForIndex();
+
         ContainerResponse response = launcher.service("GET",
                                                       String.format("http://localhost:8080/api/project/%s/search/my_project?name=test.txt",
                                                                     workspace),
@@ -2070,6 +2422,8 @@ public class ProjectServiceTest {
         myProject.getBaseFolder().createFolder("x/y").createFile("__test.txt", "searchhit".getBytes(), "text/plain");
         myProject.getBaseFolder().createFolder("c").createFile("_test", "searchhit".getBytes(), "text/plain");
 
+        waitForIndex();
+
         ContainerResponse response = launcher.service("GET",
                                                       String.format("http://localhost:8080/api/project/%s/search/my_project?text=searchhit",
                                                                     workspace),
@@ -2093,6 +2447,8 @@ public class ProjectServiceTest {
         myProject.getBaseFolder().createFolder("x/y").createFile("test.txt", "132434".getBytes(), "text/plain");
         myProject.getBaseFolder().createFolder("c").createFile("test", "2343124".getBytes(), "text/plain");
 
+        waitForIndex();
+
         ContainerResponse response = launcher.service("GET",
                                                       String.format(
                                                               "http://localhost:8080/api/project/%s/search/my_project?mediatype=text/plain",
@@ -2118,6 +2474,8 @@ public class ProjectServiceTest {
         myProject.getBaseFolder().createFolder("x/y").createFile("test.txt", "test".getBytes(), "text/*");
         myProject.getBaseFolder().createFolder("c").createFile("test", "test".getBytes(), "text/plain");
 
+        waitForIndex();
+
         ContainerResponse response = launcher.service("GET",
                                                       String.format(
                                                               "http://localhost:8080/api/project/%s/search/my_project?text=test&name=test&mediatype=text/plain",
@@ -2138,6 +2496,8 @@ public class ProjectServiceTest {
         myProject.getBaseFolder().createFolder("x/y").createFile("test.txt", "test".getBytes(), "text/*");
         myProject.getBaseFolder().createFolder("c").createFile("test", "test".getBytes(), "text/plain");
 
+        waitForIndex();
+
         ContainerResponse response = launcher.service("GET",
                 String.format(
                         "http://localhost:8080/api/project/%s/search/?text=test&name=test&mediatype=text/plain",
@@ -2583,6 +2943,11 @@ public class ProjectServiceTest {
         project.getBaseFolder().getVirtualFile().updateACL(Collections.<AccessControlEntry>emptyList(), true, null);
     }
 
+    private void waitForIndex() throws Exception {
+        final Searcher searcher = mmp.getSearcherProvider().getSearcher(mmp, true);
+        Assert.assertTrue(searcher.waitForIndex(10000), "Changes are not visible in index. ");
+    }
+
 
     private class MyProjType extends ProjectType {
         private MyProjType() {
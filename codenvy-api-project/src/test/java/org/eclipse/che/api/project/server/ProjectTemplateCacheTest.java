@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.project.shared.dto.ImportSourceDescriptor;
+import org.eclipse.che.api.project.shared.dto.ProjectTemplateDescriptor;
+import org.eclipse.che.api.vfs.server.VirtualFile;
+import org.eclipse.che.api.vfs.server.VirtualFileSystemUser;
+import org.eclipse.che.api.vfs.server.VirtualFileSystemUserContext;
+import org.eclipse.che.api.vfs.server.impl.memory.MemoryMountPoint;
+import org.eclipse.che.api.vfs.server.observation.BulkChangeEvent;
+import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
+import org.eclipse.che.dto.server.DtoFactory;
+import com.google.common.io.ByteStreams;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.eclipse.che.api.project.shared.Constants.ZIP_IMPORTER_ID;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/** Tests of group 'benchmark' run only with profile 'benchmark'. */
+public class ProjectTemplateCacheTest {
+    private static final Logger LOG = LoggerFactory.getLogger(ProjectTemplateCacheTest.class);
+
+    private EventService            eventService;
+    private MemoryMountPoint        mmp;
+    private ProjectTemplateRegistry templateRegistry;
+    private ProjectTemplateCache    templateCache;
+    private File                    archive;
+
+    @BeforeMethod(alwaysRun = true)
+    public void setUp() throws Exception {
+        eventService = new EventService();
+        mmp = new MemoryMountPoint("my_ws", eventService, null, new VirtualFileSystemUserContext() {
+            @Override
+            public VirtualFileSystemUser getVirtualFileSystemUser() {
+                return new VirtualFileSystemUser("dev", new LinkedHashSet<>(Arrays.asList("workspace/developer")));
+            }
+        });
+        templateRegistry = new ProjectTemplateRegistry();
+        templateCache = new ProjectTemplateCache(templateRegistry);
+        archive = File.createTempFile("template", ".zip");
+        writeArchive(archive, "hello");
+        templateRegistry.register("my_project_type", DtoFactory.getInstance().createDto(ProjectTemplateDescriptor.class)
+                                                               .withSource(newSource(archive.getAbsolutePath(), false)));
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        assertTrue(archive.delete());
+    }
+
+    @Test
+    public void testImportSourcesFromCache() throws Exception {
+        final ImportSourceDescriptor source = newSource(archive.getAbsolutePath(), false);
+        for (String name : Arrays.asList("project1", "project2")) {
+            final FolderEntry folder = new FolderEntry("my_ws", mmp.getRoot().createFolder(name));
+            assertTrue(templateCache.importSources(folder, source));
+            assertEquals(readContent(folder, "template/src/hello.txt"), "hello");
+            assertNotNull(folder.getChild("template/empty"));
+        }
+    }
+
+    @Test
+    public void testImportSourcesWithSkipFirstLevel() throws Exception {
+        final FolderEntry folder = new FolderEntry("my_ws", mmp.getRoot().createFolder("project"));
+        assertTrue(templateCache.importSources(folder, newSource(archive.getAbsolutePath(), true)));
+        assertNull(folder.getChild("template"));
+        assertEquals(readContent(folder, "src/hello.txt"), "hello");
+    }
+
+    @Test
+    public void testTemplateIsExpandedAgainWhenArchiveChanged() throws Exception {
+        final ImportSourceDescriptor source = newSource(archive.getAbsolutePath(), false);
+        final FolderEntry folder1 = new FolderEntry("my_ws", mmp.getRoot().createFolder("project1"));
+        assertTrue(templateCache.importSources(folder1, source));
+        assertEquals(readContent(folder1, "template/src/hello.txt"), "hello");
+
+        final long lastModified = archive.lastModified();
+        writeArchive(archive, "hello, updated");
+        assertTrue(archive.setLastModified(lastModified + 2000));
+
+        final FolderEntry folder2 = new FolderEntry("my_ws", mmp.getRoot().createFolder("project2"));
+        assertTrue(templateCache.importSources(folder2, source));
+        assertEquals(readContent(folder2, "template/src/hello.txt"), "hello, updated");
+    }
+
+    @Test
+    public void testExistedFilesAreOverwritten() throws Exception {
+        final FolderEntry folder = new FolderEntry("my_ws", mmp.getRoot().createFolder("project"));
+        folder.createFolder("template").createFolder("src").createFile("hello.txt", "bye".getBytes(), "text/plain");
+        assertTrue(templateCache.importSources(folder, newSource(archive.getAbsolutePath(), false)));
+        assertEquals(readContent(folder, "template/src/hello.txt"), "hello");
+    }
+
+    @Test
+    public void testSingleEventIsPublishedForImportedTree() throws Exception {
+        final List<VirtualFileEvent> events = new ArrayList<>();
+        eventService.subscribe(new EventSubscriber<VirtualFileEvent>() {
+            @Override
+            public void onEvent(VirtualFileEvent event) {
+                events.add(event);
+            }
+        });
+        final FolderEntry folder = new FolderEntry("my_ws", mmp.getRoot().createFolder("project"));
+        events.clear();
+        assertTrue(templateCache.importSources(folder, newSource(archive.getAbsolutePath(), false)));
+
+        assertEquals(events.size(), 1);
+        final BulkChangeEvent event = (BulkChangeEvent)events.get(0);
+        assertEquals(event.getPath(), folder.getPath());
+        final List<String> paths = new ArrayList<>();
+        for (BulkChangeEvent.Entry entry : event.getEntries()) {
+            paths.add(entry.getPath());
+        }
+        assertEquals(paths, Arrays.asList(folder.getPath() + "/template",
+                                          folder.getPath() + "/template/src",
+                                          folder.getPath() + "/template/src/hello.txt",
+                                          folder.getPath() + "/template/empty"));
+    }
+
+    @Test
+    public void testSourcesOfNotRegisteredTemplateAreNotImported() throws Exception {
+        final File other = File.createTempFile("other", ".zip");
+        try {
+            writeArchive(other, "hello");
+            final FolderEntry folder = new FolderEntry("my_ws", mmp.getRoot().createFolder("project"));
+            assertFalse(templateCache.importSources(folder, newSource(other.getAbsolutePath(), false)));
+            assertTrue(folder.getChildren().isEmpty());
+        } finally {
+            assertTrue(other.delete());
+        }
+    }
+
+    @Test
+    public void testCacheCreatesSameTreeAsImporter() throws Exception {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(archive))) {
+            for (int i = 0; i < 20; i++) {
+                zip.putNextEntry(new ZipEntry("template/src/pkg" + (i % 4) + "/File" + i + ".java"));
+                zip.write(("class File" + i + " {}").getBytes());
+                zip.closeEntry();
+            }
+        }
+        final ImportSourceDescriptor source = newSource(archive.getAbsolutePath(), false);
+        final FolderEntry imported = new FolderEntry("my_ws", mmp.getRoot().createFolder("importer"));
+        new ZipProjectImporter().importSources(imported, source.getLocation(), source.getParameters());
+        final FolderEntry cached = new FolderEntry("my_ws", mmp.getRoot().createFolder("cache"));
+        assertTrue(templateCache.importSources(cached, source));
+
+        final Map<String, String> expected = new TreeMap<>();
+        readTree(imported, imported.getPath().length(), expected);
+        final Map<String, String> actual = new TreeMap<>();
+        readTree(cached, cached.getPath().length(), actual);
+        assertEquals(expected.size(), 26);
+        assertEquals(actual, expected);
+    }
+
+    @Test(groups = "benchmark")
+    public void testImportLatency() throws Exception {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(archive))) {
+            final byte[] content = new byte[4096];
+            Arrays.fill(content, (byte)'x');
+            for (int i = 0; i < 200; i++) {
+                zip.putNextEntry(new ZipEntry("template/src/pkg" + (i % 10) + "/File" + i + ".java"));
+                zip.write(content);
+                zip.closeEntry();
+            }
+        }
+        final ImportSourceDescriptor source = newSource(archive.getAbsolutePath(), false);
+        final ZipProjectImporter importer = new ZipProjectImporter();
+        final int iterations = 50;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            importer.importSources(new FolderEntry("my_ws", mmp.getRoot().createFolder("importer" + i)), source.getLocation(),
+                                   source.getParameters());
+        }
+        final long importerTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            assertTrue(templateCache.importSources(new FolderEntry("my_ws", mmp.getRoot().createFolder("cache" + i)), source));
+        }
+        final long cacheTime = System.nanoTime() - start;
+
+        LOG.info("{} projects created from template of 200 files, importer: {} ms, cache: {} ms",
+                 iterations, importerTime / 1000000, cacheTime / 1000000);
+        final VirtualFile last = mmp.getRoot().getChild("cache" + (iterations - 1) + "/template/src/pkg9/File199.java");
+        assertNotNull(last);
+        assertEquals(last.getLength(), 4096);
+    }
+
+    private void readTree(FolderEntry folder, int rootPathLength, Map<String, String> result) throws Exception {
+        for (VirtualFileEntry child : folder.getChildren()) {
+            final String path = child.getPath().substring(rootPathLength);
+            if (child.isFile()) {
+                result.put(path, new String(ByteStreams.toByteArray(((FileEntry)child).getInputStream())));
+            } else {
+                result.put(path, null);
+                readTree((FolderEntry)child, rootPathLength, result);
+            }
+        }
+    }
+
+    private ImportSourceDescriptor newSource(String location, boolean skipFirstLevel) {
+        final Map<String, String> parameters = skipFirstLevel ? Collections.singletonMap("skipFirstLevel", "true")
+                                                              : new LinkedHashMap<String, String>();
+        return DtoFactory.getInstance().createDto(ImportSourceDescriptor.class)
+                         .withType(ZIP_IMPORTER_ID)
+                         .withLocation(location)
+                         .withParameters(parameters);
+    }
+
+    private String readContent(FolderEntry folder, String path) throws Exception {
+        return new String(ByteStreams.toByteArray(((FileEntry)folder.getChild(path)).getInputStream()));
+    }
+
+    private void writeArchive(File file, String content) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+            zip.putNextEntry(new ZipEntry("template/"));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("template/src/hello.txt"));
+            zip.write(content.getBytes());
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("template/empty/"));
+            zip.closeEntry();
+        }
+    }
+}
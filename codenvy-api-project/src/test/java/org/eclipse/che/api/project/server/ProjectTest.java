@@ -34,6 +34,7 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.InputStream;
 import java.util.*;
 
 /**
@@ -207,6 +208,25 @@ public class ProjectTest {
         Assert.assertTrue(modificationDate2 > modificationDate1);
     }
 
+    @Test
+    public void testModificationDateIsSavedInMisc() throws Exception {
+        Project myProject = pm.getProject("my_ws", "my_project");
+        FolderEntry folder = myProject.getBaseFolder().createFolder("src");
+        for (int i = 0; i < 100; i++) {
+            folder.createFile("test" + i + ".txt", "test".getBytes(), "text/plain");
+        }
+        long modificationDate = myProject.getModificationDate();
+        Assert.assertTrue(modificationDate > 0);
+
+        // Collected modification dates are saved when manager is stopped.
+        ((DefaultProjectManager)pm).stop();
+        Properties misc = new Properties();
+        try (InputStream in = ((FileEntry)myProject.getBaseFolder().getChild(Constants.CODENVY_DIR + "/misc.xml")).getInputStream()) {
+            misc.loadFromXML(in);
+        }
+        Assert.assertEquals(Long.parseLong(misc.getProperty(ProjectMisc.UPDATED)), modificationDate);
+    }
+
     @Test
     public void testIfDefaultBuilderRunnerAppearsInProject() throws Exception {
         Project myProject = pm.getProject("my_ws", "my_project");
@@ -651,6 +671,90 @@ public class ProjectTest {
         Assert.assertEquals(projectConfig.getAttributes().get("var2"), new AttributeValue("var2Value"));
     }
 
+    @Test
+    public void testResolveSourcesWithManyProjectTypes() throws Exception {
+        VirtualFile root = pm.getVirtualFileSystemRegistry().getProvider("my_ws").getMountPoint(false).getRoot();
+        root.createFolder("testResolveSources").createFile("pom.xml", "text/xml", null);
+
+        final Set<String> estimatorThreads = Collections.synchronizedSet(new HashSet<String>());
+        for (int i = 0; i < 10; i++) {
+            final String marker = i % 2 == 0 ? "pom.xml" : "package.json";
+            final ValueProviderFactory vpf = new ValueProviderFactory() {
+                @Override
+                public ValueProvider newInstance(final FolderEntry projectFolder) {
+                    return new ValueProvider() {
+                        @Override
+                        public List<String> getValues(String attributeName) throws ValueStorageException {
+                            estimatorThreads.add(Thread.currentThread().getName());
+                            try {
+                                if (projectFolder.getChild(marker) == null) {
+                                    throw new ValueStorageException(marker + " not found");
+                                }
+                            } catch (ForbiddenException | ServerException e) {
+                                throw new ValueStorageException(e.getMessage());
+                            }
+                            return Collections.singletonList(marker);
+                        }
+
+                        @Override
+                        public void setValues(String attributeName, List<String> value) {
+                        }
+                    };
+                }
+            };
+            pm.getProjectTypeRegistry().registerProjectType(new ProjectType("testResolveSources" + i, "type " + i, true, false) {
+                {
+                    addVariableDefinition("marker", "marker file", true, vpf);
+                }
+            });
+        }
+
+        List<SourceEstimation> estimations = pm.resolveSources("my_ws", "testResolveSources", false);
+        Set<String> types = new HashSet<>();
+        for (SourceEstimation estimation : estimations) {
+            types.add(estimation.getType());
+            if (estimation.getType().startsWith("testResolveSources")) {
+                Assert.assertEquals(estimation.getAttributes().get("marker"), Arrays.asList("pom.xml"));
+            }
+        }
+        Assert.assertEquals(types, new HashSet<>(Arrays.asList("my_project_type", "testResolveSources0", "testResolveSources2",
+                                                               "testResolveSources4", "testResolveSources6", "testResolveSources8")));
+        // estimators run in pool
+        Assert.assertFalse(estimatorThreads.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void testConfigIsCachedUntilProjectIsChanged() throws Exception {
+        Project myProject = pm.getProject("my_ws", "my_project");
+        Map<String, List<String>> attributes = new HashMap<>(1);
+        attributes.put("my_property_1", Arrays.asList("value_1"));
+        new ProjectJson("my_project_type", attributes, null, null, "test project").save(myProject);
 
+        final List<String> calculated = calculateAttributeValueHolder;
+        try {
+            ProjectConfig myConfig = myProject.getConfig();
+            Assert.assertEquals(myConfig.getAttributes().get("calculated_attribute").getList(), calculated);
+            // changes in returned config must not affect other callers
+            myConfig.getAttributes().get("my_property_1").setString("changed");
+
+            // value provider isn't asked again while project isn't changed
+            calculateAttributeValueHolder = Collections.singletonList("recalculated");
+            myConfig = pm.getProject("my_ws", "my_project").getConfig();
+            Assert.assertEquals(myConfig.getAttributes().get("my_property_1").getList(), Arrays.asList("value_1"));
+            Assert.assertEquals(myConfig.getAttributes().get("calculated_attribute").getList(), calculated);
+
+            // any change in project may change provided values
+            myProject.getBaseFolder().createFile("test.txt", "test".getBytes(), "text/plain");
+            myConfig = pm.getProject("my_ws", "my_project").getConfig();
+            Assert.assertEquals(myConfig.getAttributes().get("calculated_attribute").getList(), Arrays.asList("recalculated"));
+            Assert.assertEquals(myConfig.getAttributes().get("my_property_1").getList(), Arrays.asList("value_1"));
+
+            attributes.put("my_property_1", Arrays.asList("value_2"));
+            new ProjectJson("my_project_type", attributes, null, null, "test project").save(myProject);
+            myConfig = pm.getProject("my_ws", "my_project").getConfig();
+            Assert.assertEquals(myConfig.getAttributes().get("my_property_1").getList(), Arrays.asList("value_2"));
+        } finally {
+            calculateAttributeValueHolder = calculated;
+        }
+    }
 }
-
@@ -25,6 +25,7 @@ import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.core.rest.HttpJsonHelper;
 import org.eclipse.che.api.core.rest.RemoteServiceDescriptor;
+import org.eclipse.che.api.core.rest.RemoteServiceHealthMonitor;
 import org.eclipse.che.api.core.rest.ServiceContext;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.api.core.util.ValueHolder;
@@ -34,11 +35,15 @@ import org.eclipse.che.api.project.shared.dto.BuildersDescriptor;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.ProjectDescriptor;
 import org.eclipse.che.api.project.shared.dto.RunnerConfiguration;
+import org.eclipse.che.api.project.shared.dto.RunnerEnvironment;
+import org.eclipse.che.api.project.shared.dto.RunnerEnvironmentLeaf;
+import org.eclipse.che.api.project.shared.dto.RunnerEnvironmentTree;
 import org.eclipse.che.api.project.shared.dto.RunnersDescriptor;
 import org.eclipse.che.api.runner.dto.ApplicationProcessDescriptor;
 import org.eclipse.che.api.runner.dto.ResourcesDescriptor;
 import org.eclipse.che.api.runner.dto.RunOptions;
 import org.eclipse.che.api.runner.dto.RunRequest;
+import org.eclipse.che.api.runner.dto.RunnerDescriptor;
 import org.eclipse.che.api.runner.dto.RunnerMetric;
 import org.eclipse.che.api.runner.dto.RunnerServerAccessCriteria;
 import org.eclipse.che.api.runner.dto.RunnerServerLocation;
@@ -72,7 +77,9 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -120,6 +127,10 @@ public class RunQueue {
     private final ConcurrentMap<String, RemoteRunnerServer>       runnerServers;
     private final RunnerSelectionStrategy                         runnerSelector;
     private final ConcurrentMap<RunnerListKey, Set<RemoteRunner>> runnerListMapping;
+    private final ConcurrentMap<String, RunnerServerEnvironments> runnerServerEnvironments;
+    private final Set<String>                                     unavailableRunnerServers;
+    private final RemoteServiceHealthMonitor                      healthMonitor;
+    private final RemoteServiceHealthMonitor.Listener             healthListener;
     private final ConcurrentMap<Long, RunQueueTask>               tasks;
     private final int                                             defMemSize;
     private final EventService                                    eventService;
@@ -137,6 +148,9 @@ public class RunQueue {
     private ExecutorService          executor;
     private ScheduledExecutorService cleanScheduler;
 
+    /** Merged trees of runner environments. Whole map is replaced when set of registered runner servers is changed. */
+    private volatile ConcurrentMap<Pair<String, String>, RunnerEnvironmentTree> environmentTrees;
+
     /** Optional pre-configured slave runners. */
     @com.google.inject.Inject(optional = true)
     @Named(Constants.RUNNER_SLAVE_RUNNER_URLS)
@@ -190,6 +204,8 @@ public class RunQueue {
      *         max time for request to be in queue in seconds
      * @param defLifetime
      *         default application life time in seconds. After this time the application may be terminated.
+     * @param healthMonitor
+     *         monitor that checks availability of runner servers in background
      */
     @Inject
     @SuppressWarnings("unchecked")
@@ -201,7 +217,8 @@ public class RunQueue {
                     @Named(Constants.APP_LIFETIME) int defLifetime,
                     @Named(Constants.APP_CLEANUP_TIME) int appCleanupTime,
                     RunnerSelectionStrategy runnerSelector,
-                    EventService eventService) {
+                    EventService eventService,
+                    RemoteServiceHealthMonitor healthMonitor) {
         this.baseWorkspaceApiUrl = baseWorkspaceApiUrl;
         this.baseProjectApiUrl = baseProjectApiUrl;
         this.baseBuilderApiUrl = baseBuilderApiUrl;
@@ -211,10 +228,15 @@ public class RunQueue {
         this.defLifetime = defLifetime;
         this.runnerSelector = runnerSelector;
         this.appCleanupTime = TimeUnit.SECONDS.toMillis(appCleanupTime);
+        this.healthMonitor = healthMonitor;
 
         runnerServers = new ConcurrentHashMap<>();
         tasks = new ConcurrentHashMap<>();
         runnerListMapping = new ConcurrentHashMap<>();
+        runnerServerEnvironments = new ConcurrentHashMap<>();
+        unavailableRunnerServers = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        environmentTrees = new ConcurrentHashMap<>();
+        healthListener = new RunnerServerHealthListener();
         started = new AtomicBoolean(false);
         final int partitions = 1 << 4;
         resourceCheckerMask = partitions - 1;
@@ -342,6 +364,7 @@ public class RunQueue {
                     }
                 }
             }, cleanerPeriod, cleanerPeriod, TimeUnit.MILLISECONDS);
+            healthMonitor.addListener(healthListener);
 
             // sending message by websocket connection for notice about used memory size changing
             eventService.subscribe(new ResourcesChangesMessenger());
@@ -396,6 +419,22 @@ public class RunQueue {
             }
             tasks.clear();
             runnerListMapping.clear();
+            healthMonitor.removeListener(healthListener);
+            for (String url : runnerServers.keySet()) {
+                healthMonitor.unwatch(url);
+            }
+            for (String url : slaves) {
+                healthMonitor.unwatch(url);
+            }
+            for (String url : slavesPaid) {
+                healthMonitor.unwatch(url);
+            }
+            for (String url : slavesAlwaysOn) {
+                healthMonitor.unwatch(url);
+            }
+            runnerServerEnvironments.clear();
+            unavailableRunnerServers.clear();
+            invalidateEnvironmentTrees();
             if (interrupted) {
                 Thread.currentThread().interrupt();
             }
@@ -867,7 +906,11 @@ public class RunQueue {
                 runnerList = newRunnerList;
             }
         }
-        return runnerList.addAll(runnerServer.getRemoteRunners());
+        final boolean modified = runnerList.addAll(runnerServer.getRemoteRunners());
+        updateRunnerServerEnvironments(runnerServer);
+        // Server just responded, no need to check it immediately.
+        healthMonitor.watch(runnerServer, RemoteServiceHealthMonitor.Health.UP);
+        return modified;
     }
 
     /**
@@ -887,9 +930,99 @@ public class RunQueue {
             return false;
         }
         final RemoteRunnerServer runnerService = runnerServers.remove(url);
+        healthMonitor.unwatch(url);
+        if (runnerServerEnvironments.remove(url) != null | unavailableRunnerServers.remove(url)) {
+            invalidateEnvironmentTrees();
+        }
         return runnerService != null && doUnregisterRunners(url);
     }
 
+    /**
+     * Get tree of runner environments which are available for specified workspace and project. Tree is merged from environments of all
+     * registered and available runner servers. Trees are cached and re-built only when set of runner servers or their availability is
+     * changed, so this method doesn't access remote runner servers. Returned tree is shared and must not be modified.
+     *
+     * @param workspace
+     *         id of workspace
+     * @param project
+     *         name of project
+     * @return tree of runner environments
+     */
+    public RunnerEnvironmentTree getRunnerEnvironments(String workspace, String project) {
+        final ConcurrentMap<Pair<String, String>, RunnerEnvironmentTree> trees = environmentTrees;
+        // Share the same tree between all workspaces and projects which don't have dedicated runner servers.
+        boolean dedicatedWorkspace = false;
+        boolean dedicatedProject = false;
+        for (RunnerServerEnvironments environments : runnerServerEnvironments.values()) {
+            dedicatedWorkspace |= workspace != null && workspace.equals(environments.assignedWorkspace);
+            dedicatedProject |= project != null && project.equals(environments.assignedProject);
+        }
+        final Pair<String, String> key = Pair.of(dedicatedWorkspace ? workspace : null, dedicatedProject ? project : null);
+        RunnerEnvironmentTree tree = trees.get(key);
+        if (tree == null) {
+            final RunnerEnvironmentTree newTree = mergeRunnerEnvironments(key.first, key.second);
+            tree = trees.putIfAbsent(key, newTree);
+            if (tree == null) {
+                tree = newTree;
+            }
+        }
+        return tree;
+    }
+
+    private RunnerEnvironmentTree mergeRunnerEnvironments(String workspace, String project) {
+        final DtoFactory dtoFactory = DtoFactory.getInstance();
+        final RunnerEnvironmentTree root = dtoFactory.createDto(RunnerEnvironmentTree.class).withDisplayName("system");
+        for (Map.Entry<String, RunnerServerEnvironments> entry : runnerServerEnvironments.entrySet()) {
+            if (unavailableRunnerServers.contains(entry.getKey())) {
+                continue;
+            }
+            final RunnerServerEnvironments environments = entry.getValue();
+            final String assignedWorkspace = environments.assignedWorkspace;
+            final String assignedProject = environments.assignedProject;
+            if (((assignedWorkspace != null && assignedWorkspace.equals(workspace)) || assignedWorkspace == null)
+                && ((assignedProject != null && assignedProject.equals(project)) || assignedProject == null)) {
+                for (RunnerDescriptor runnerDescriptor : environments.runners) {
+                    for (RunnerEnvironment runnerEnvironment : runnerDescriptor.getEnvironments()) {
+                        RunnerEnvironmentTree node = root;
+                        for (String s : runnerDescriptor.getName().split("/")) {
+                            RunnerEnvironmentTree child = node.getNode(s);
+                            if (child == null) {
+                                child = dtoFactory.createDto(RunnerEnvironmentTree.class).withDisplayName(s);
+                                node.addNode(child);
+                            }
+                            node = child;
+                        }
+                        final String envId = runnerEnvironment.getId();
+                        if (node.getEnvironment(envId) == null) {
+                            // Environments are cloned once when runner server is registered.
+                            node.addLeaf(dtoFactory.createDto(RunnerEnvironmentLeaf.class)
+                                                   .withDisplayName(envId)
+                                                   .withEnvironment(environments.environments.get(runnerEnvironment)));
+                        }
+                    }
+                }
+            }
+        }
+        return root;
+    }
+
+    /** Get list of runners and environments from remote runner server and keep them to build trees of environments. */
+    private void updateRunnerServerEnvironments(RemoteRunnerServer runnerServer) {
+        try {
+            runnerServerEnvironments.put(runnerServer.getBaseUrl(), new RunnerServerEnvironments(runnerServer.getAssignedWorkspace(),
+                                                                                                 runnerServer.getAssignedProject(),
+                                                                                                 runnerServer.getRunnerDescriptors()));
+        } catch (RunnerException e) {
+            LOG.error(e.getMessage(), e);
+            runnerServerEnvironments.remove(runnerServer.getBaseUrl());
+        }
+        invalidateEnvironmentTrees();
+    }
+
+    private void invalidateEnvironmentTrees() {
+        environmentTrees = new ConcurrentHashMap<>();
+    }
+
     // Switched to default for test.
     // private
     boolean doUnregisterRunners(String url) {
@@ -937,6 +1070,7 @@ public class RunQueue {
                         server.setInfra(infra);
                     }
                     servers.add(server);
+                    healthMonitor.watch(server, RemoteServiceHealthMonitor.Health.UNKNOWN);
                 } catch (IllegalArgumentException e) {
                     LOG.error(e.getMessage(), e);
                 }
@@ -948,7 +1082,8 @@ public class RunQueue {
                         return;
                     }
                     final RemoteRunnerServer server = servers.pop();
-                    if (server.isAvailable()) {
+                    final RemoteServiceHealthMonitor.Health health = healthMonitor.getHealth(server.getBaseUrl());
+                    if (health == RemoteServiceHealthMonitor.Health.UP || health == RemoteServiceHealthMonitor.Health.DEGRADED) {
                         try {
                             doRegisterRunnerServer(server);
                             LOG.debug("Pre-configured slave runner server '{}' registered.", server.getBaseUrl());
@@ -957,7 +1092,9 @@ public class RunQueue {
                             offline.add(server);
                         }
                     } else {
-                        LOG.warn("Pre-configured slave runner server '{}' isn't responding.", server.getBaseUrl());
+                        if (health == RemoteServiceHealthMonitor.Health.DOWN) {
+                            LOG.warn("Pre-configured slave runner server '{}' isn't responding.", server.getBaseUrl());
+                        }
                         offline.add(server);
                     }
                 }
@@ -980,6 +1117,61 @@ public class RunQueue {
     }
 
 
+    /** Snapshot of runners and environments of registered runner server. */
+    private static class RunnerServerEnvironments {
+        final String                 assignedWorkspace;
+        final String                 assignedProject;
+        final List<RunnerDescriptor> runners;
+        /** Copies of environments with global ids in format scope:/runner/environment, e.g. system:/java/web/tomcat7 */
+        final Map<RunnerEnvironment, RunnerEnvironment> environments;
+
+        RunnerServerEnvironments(String assignedWorkspace, String assignedProject, List<RunnerDescriptor> runners) {
+            this.assignedWorkspace = assignedWorkspace;
+            this.assignedProject = assignedProject;
+            this.runners = runners;
+            final DtoFactory dtoFactory = DtoFactory.getInstance();
+            environments = new IdentityHashMap<>();
+            for (RunnerDescriptor runnerDescriptor : runners) {
+                for (RunnerEnvironment runnerEnvironment : runnerDescriptor.getEnvironments()) {
+                    final String unique =
+                            new EnvironmentId(EnvironmentId.Scope.system, runnerDescriptor.getName(), runnerEnvironment.getId()).toString();
+                    environments.put(runnerEnvironment, dtoFactory.clone(runnerEnvironment).withId(unique));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets notifications about health of registered runner servers. Runners of server which is down are removed from dispatch and
+     * environments of such server are excluded from trees of environments. Runners are registered again when server is back.
+     */
+    private class RunnerServerHealthListener implements RemoteServiceHealthMonitor.Listener {
+        @Override
+        public void onHealthChanged(RemoteServiceDescriptor service, RemoteServiceHealthMonitor.Health oldHealth,
+                                    RemoteServiceHealthMonitor.Health newHealth) {
+            final String url = service.getBaseUrl();
+            final RemoteRunnerServer runnerServer = runnerServers.get(url);
+            if (runnerServer == null) {
+                return;
+            }
+            if (newHealth == RemoteServiceHealthMonitor.Health.DOWN) {
+                if (unavailableRunnerServers.add(url)) {
+                    LOG.error("Runner server {} becomes unavailable", url);
+                    doUnregisterRunners(url);
+                    invalidateEnvironmentTrees();
+                }
+            } else if (unavailableRunnerServers.remove(url)) {
+                LOG.info("Runner server {} becomes available", url);
+                try {
+                    // Set of runners might be changed while server was unavailable.
+                    doRegisterRunnerServer(runnerServer);
+                } catch (RunnerException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
     private class RemoteRunnerProcessCallable implements Callable<RemoteRunnerProcess> {
         private final ValueHolder<BuildTaskDescriptor> buildTaskHolder;
         private final RunRequest                       request;
@@ -18,15 +18,11 @@ import org.eclipse.che.api.core.rest.annotations.Description;
 import org.eclipse.che.api.core.rest.annotations.GenerateLink;
 import org.eclipse.che.api.core.rest.annotations.Required;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
-import org.eclipse.che.api.project.shared.EnvironmentId;
-import org.eclipse.che.api.project.shared.dto.RunnerEnvironment;
-import org.eclipse.che.api.project.shared.dto.RunnerEnvironmentLeaf;
 import org.eclipse.che.api.project.shared.dto.RunnerEnvironmentTree;
 import org.eclipse.che.api.runner.dto.ApplicationProcessDescriptor;
 import org.eclipse.che.api.runner.dto.ResourcesDescriptor;
 import org.eclipse.che.api.runner.dto.RunOptions;
 import org.eclipse.che.api.runner.dto.RunRequest;
-import org.eclipse.che.api.runner.dto.RunnerDescriptor;
 import org.eclipse.che.api.runner.internal.Constants;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.Pair;
@@ -52,7 +48,6 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -223,65 +218,8 @@ public class RunnerService extends Service {
                                                        @PathParam("ws-id") String workspace,
                                                        @ApiParam(value = "Project name")
                                                        @Description("project name") @QueryParam("project") String project) {
-        // Here merge environments from all know runner servers and represent them as tree.
-        final DtoFactory dtoFactory = DtoFactory.getInstance();
-        final RunnerEnvironmentTree root = dtoFactory.createDto(RunnerEnvironmentTree.class).withDisplayName("system");
-        final List<RemoteRunnerServer> registerRunnerServers = runQueue.getRegisterRunnerServers();
-        for (Iterator<RemoteRunnerServer> itr = registerRunnerServers.iterator(); itr.hasNext(); ) {
-            final RemoteRunnerServer runnerServer = itr.next();
-            if (!runnerServer.isAvailable()) {
-                LOG.error("Runner server {} becomes unavailable", runnerServer.getBaseUrl());
-                itr.remove();
-            }
-        }
-        for (RemoteRunnerServer runnerServer : registerRunnerServers) {
-            final String assignedWorkspace;
-            final String assignedProject;
-            try {
-                assignedWorkspace = runnerServer.getAssignedWorkspace();
-                assignedProject = runnerServer.getAssignedProject();
-            } catch (RunnerException e) {
-                LOG.error(e.getMessage(), e);
-                continue;
-            }
-            if (((assignedWorkspace != null && assignedWorkspace.equals(workspace)) || assignedWorkspace == null)
-                && ((assignedProject != null && assignedProject.equals(project)) || assignedProject == null)) {
-
-                final List<RunnerDescriptor> runners;
-                try {
-                    runners = runnerServer.getRunnerDescriptors();
-                } catch (RunnerException e) {
-                    LOG.error(e.getMessage(), e);
-                    continue;
-                }
-                for (RunnerDescriptor runnerDescriptor : runners) {
-                    for (RunnerEnvironment runnerEnvironment : runnerDescriptor.getEnvironments()) {
-                        RunnerEnvironmentTree node = root;
-                        for (String s : runnerDescriptor.getName().split("/")) {
-                            RunnerEnvironmentTree child = node.getNode(s);
-                            if (child == null) {
-                                child = dtoFactory.createDto(RunnerEnvironmentTree.class).withDisplayName(s);
-                                node.addNode(child);
-                            }
-                            node = child;
-                        }
-                        // Clone environment and use its id as display name and replace its id with new one in format scope:/runner/environment.
-                        // This is global id that shown scope of this environment, e.g. system , project, etc.
-                        final String unique =
-                                new EnvironmentId(EnvironmentId.Scope.system, runnerDescriptor.getName(), runnerEnvironment.getId())
-                                        .toString();
-                        final String envId = runnerEnvironment.getId();
-                        final RunnerEnvironmentLeaf environment = node.getEnvironment(envId);
-                        if (environment == null) {
-                            node.addLeaf(dtoFactory.createDto(RunnerEnvironmentLeaf.class)
-                                                   .withDisplayName(envId)
-                                                   .withEnvironment(dtoFactory.clone(runnerEnvironment).withId(unique)));
-                        }
-                    }
-                }
-            }
-        }
-        return root;
+        // Environments from all known runner servers are merged in tree by RunQueue.
+        return runQueue.getRunnerEnvironments(workspace, project);
     }
 
 
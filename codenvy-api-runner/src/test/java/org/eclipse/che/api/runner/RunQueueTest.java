@@ -16,6 +16,7 @@ import org.eclipse.che.api.builder.dto.BuildOptions;
 import org.eclipse.che.api.builder.dto.BuildTaskDescriptor;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.rest.HttpJsonHelper;
+import org.eclipse.che.api.core.rest.RemoteServiceHealthMonitor;
 import org.eclipse.che.api.core.rest.RemoteServiceDescriptor;
 import org.eclipse.che.api.core.rest.ServiceContext;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
@@ -24,6 +25,8 @@ import org.eclipse.che.api.project.shared.dto.BuildersDescriptor;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.ProjectDescriptor;
 import org.eclipse.che.api.project.shared.dto.RunnerEnvironment;
+import org.eclipse.che.api.project.shared.dto.RunnerEnvironmentLeaf;
+import org.eclipse.che.api.project.shared.dto.RunnerEnvironmentTree;
 import org.eclipse.che.api.project.shared.dto.RunnersDescriptor;
 import org.eclipse.che.api.runner.dto.RunOptions;
 import org.eclipse.che.api.runner.dto.RunRequest;
@@ -70,6 +73,7 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -92,6 +96,7 @@ public class RunQueueTest {
     private DtoFactory dtoFactory = DtoFactory.getInstance();
     private HttpJsonHelper.HttpJsonHelperImpl httpJsonHelper;
     private RunQueue                          runQueue;
+    private RemoteServiceHealthMonitor        healthMonitor;
     private String wsId   = "my_ws";
     private String wsName = wsId;
     private String pName  = "my_project";
@@ -118,6 +123,8 @@ public class RunQueueTest {
             }
         }).when(eventService).publish(any(RunnerEvent.class));
         RunnerSelectionStrategy selectionStrategy = new LastInUseRunnerSelectionStrategy();
+        healthMonitor = new RemoteServiceHealthMonitor(100, 1000, 1000, 2);
+        healthMonitor.start();
         runQueue = spy(new RunQueue("http://localhost:8080/api/workspace",
                                     "http://localhost:8080/api/project",
                                     "http://localhost:8080/api/builder",
@@ -126,9 +133,9 @@ public class RunQueueTest {
                                     5,
                                     5,
                                     selectionStrategy,
-                                    eventService));
+                                    eventService,
+                                    healthMonitor));
         runQueue.cleanerPeriod = 1000; // run cleaner every second
-        runQueue.checkAvailableRunnerPeriod = 1000;
         runQueue.checkBuildResultPeriod = 1000;
         runQueue.start();
         verify(runQueue, timeout(1000).times(1)).start();
@@ -152,6 +159,7 @@ public class RunQueueTest {
     @AfterMethod
     public void afterMethod() {
         runQueue.stop();
+        healthMonitor.stop();
     }
 
     @Test
@@ -260,6 +268,104 @@ public class RunQueueTest {
         assertNull(runQueue.getRunnerList("community", null, null));
     }
 
+    @Test
+    public void testGetRunnerEnvironments() throws Exception {
+        registerRunnerServer("http://localhost:8080/api/internal/runner1", javaWebRunner("tomcat7", "jboss7"), null);
+        registerRunnerServer("http://localhost:8080/api/internal/runner2", javaWebRunner("tomcat7", "jboss7"), null);
+
+        RunnerEnvironmentTree system = runQueue.getRunnerEnvironments(null, null);
+        assertEquals(system.getDisplayName(), "system");
+        assertEquals(system.getLeaves().size(), 0);
+        assertEquals(system.getNodes().size(), 1);
+
+        RunnerEnvironmentTree java = system.getNode("java");
+        assertNotNull(java);
+        assertEquals(java.getNodes().size(), 1);
+        assertEquals(java.getLeaves().size(), 0);
+
+        RunnerEnvironmentTree web = java.getNode("web");
+        assertNotNull(web);
+        assertEquals(web.getNodes().size(), 0);
+        assertEquals(web.getLeaves().size(), 2);
+        RunnerEnvironmentLeaf tomcat7 = web.getEnvironment("tomcat7");
+        assertNotNull(tomcat7);
+        RunnerEnvironmentLeaf jboss7 = web.getEnvironment("jboss7");
+        assertNotNull(jboss7);
+        assertEquals(tomcat7.getEnvironment().getId(), "system:/java/web/tomcat7");
+        assertEquals(jboss7.getEnvironment().getId(), "system:/java/web/jboss7");
+    }
+
+    @Test
+    public void testGetRunnerEnvironmentsIfOneServerUnavailable() throws Exception {
+        registerRunnerServer("http://localhost:8080/api/internal/runner1", javaWebRunner("tomcat7", "jboss7"), null);
+        RemoteRunnerServer runnerServer =
+                registerRunnerServer("http://localhost:8080/api/internal/runner2", javaWebRunner("my_tomcat7"), null);
+        assertNotNull(runQueue.getRunnerEnvironments(null, null).getNode("java").getNode("web").getEnvironment("my_tomcat7"));
+
+        doReturn(false).when(runnerServer).isAvailable();
+        // Availability of servers is checked in background.
+        RunnerEnvironmentTree web = null;
+        for (int i = 0; i < 50 && (web == null || web.getEnvironment("my_tomcat7") != null); i++) {
+            Thread.sleep(100);
+            web = runQueue.getRunnerEnvironments(null, null).getNode("java").getNode("web");
+        }
+        assertNotNull(web);
+        assertEquals(web.getLeaves().size(), 2);
+        assertNotNull(web.getEnvironment("tomcat7"));
+        assertNotNull(web.getEnvironment("jboss7"));
+    }
+
+    @Test
+    public void testGetRunnerEnvironmentsIfFailedGetRunnersOfOneServer() throws Exception {
+        registerRunnerServer("http://localhost:8080/api/internal/runner1", javaWebRunner("tomcat7", "jboss7"), null);
+        String remoteUrl = "http://localhost:8080/api/internal/runner2";
+        RemoteRunnerServer runnerServer = spy(new RemoteRunnerServer(remoteUrl));
+        doReturn(dto(RunnerServerDescriptor.class)).when(runnerServer).getServiceDescriptor();
+        doReturn(true).when(runnerServer).isAvailable();
+        doReturn(new ArrayList<RemoteRunner>()).when(runnerServer).getRemoteRunners();
+        doThrow(new RunnerException("Connection refused")).when(runnerServer).getRunnerDescriptors();
+        runQueue.doRegisterRunnerServer(runnerServer);
+
+        RunnerEnvironmentTree web = runQueue.getRunnerEnvironments(null, null).getNode("java").getNode("web");
+        assertEquals(web.getLeaves().size(), 2);
+        assertNotNull(web.getEnvironment("tomcat7"));
+        assertNotNull(web.getEnvironment("jboss7"));
+    }
+
+    @Test
+    public void testFilterRunnerEnvironmentsByWorkspace() throws Exception {
+        registerRunnerServer("http://localhost:8080/api/internal/runner1", javaWebRunner("my_tomcat7", "my_jboss7"),
+                             dto(RunnerServerAccessCriteria.class).withWorkspace(wsId));
+        registerRunnerServer("http://localhost:8080/api/internal/runner2", javaWebRunner("tomcat7", "jboss7"), null);
+
+        RunnerEnvironmentTree web = runQueue.getRunnerEnvironments(wsId, pPath).getNode("java").getNode("web");
+        assertEquals(web.getLeaves().size(), 4);
+        assertNotNull(web.getEnvironment("my_tomcat7"));
+        assertNotNull(web.getEnvironment("my_jboss7"));
+
+        // environments of dedicated server aren't visible for other workspaces
+        web = runQueue.getRunnerEnvironments("other_ws", pPath).getNode("java").getNode("web");
+        assertEquals(web.getLeaves().size(), 2);
+        assertNotNull(web.getEnvironment("tomcat7"));
+        assertNotNull(web.getEnvironment("jboss7"));
+    }
+
+    @Test
+    public void testRunnerEnvironmentsAreCached() throws Exception {
+        RemoteRunnerServer runnerServer =
+                registerRunnerServer("http://localhost:8080/api/internal/runner1", javaWebRunner("tomcat7", "jboss7"), null);
+        RunnerEnvironmentTree system = runQueue.getRunnerEnvironments(wsId, pPath);
+        // workspaces without dedicated runners share the same tree
+        assertTrue(system == runQueue.getRunnerEnvironments("other_ws", null));
+        verify(runnerServer, times(1)).getRunnerDescriptors();
+
+        registerRunnerServer("http://localhost:8080/api/internal/runner2", javaWebRunner("my_tomcat7"), null);
+        assertNotNull(runQueue.getRunnerEnvironments(wsId, pPath).getNode("java").getNode("web").getEnvironment("my_tomcat7"));
+
+        runQueue.unregisterRunnerServer(dto(RunnerServerLocation.class).withUrl("http://localhost:8080/api/internal/runner2"));
+        assertNull(runQueue.getRunnerEnvironments(wsId, pPath).getNode("java").getNode("web").getEnvironment("my_tomcat7"));
+    }
+
     @Test(expectedExceptions = {RunnerException.class},
             expectedExceptionsMessageRegExp = "Runner environment 'system:/java/web/jboss7' is not available for workspace 'my_ws' on infra 'community'.")
     public void testRunWhenReadRunnerConfigurationFromProject_RunnerIsNotAvailable() throws Exception {
@@ -738,6 +844,14 @@ public class RunQueueTest {
         return dtoFactory.createDto(type);
     }
 
+    private RunnerDescriptor javaWebRunner(String... environments) {
+        RunnerDescriptor runnerDescriptor = dto(RunnerDescriptor.class).withName("java/web").withDescription("test description");
+        for (String environment : environments) {
+            runnerDescriptor.getEnvironments().add(dto(RunnerEnvironment.class).withId(environment));
+        }
+        return runnerDescriptor;
+    }
+
     private RemoteRunnerServer registerDefaultRunnerServer() throws Exception {
         String remoteUrl = "http://localhost:8080/api/internal/runner";
         RunnerDescriptor runnerDescriptor = dto(RunnerDescriptor.class).withName("java/web").withDescription("test description");
@@ -749,6 +863,7 @@ public class RunQueueTest {
                                                     RunnerServerAccessCriteria accessRules) throws Exception {
         RemoteRunnerServer runnerServer = spy(new RemoteRunnerServer(remoteUrl));
         doReturn(dto(RunnerServerDescriptor.class)).when(runnerServer).getServiceDescriptor();
+        doReturn(true).when(runnerServer).isAvailable();
         doReturn(Arrays.asList(runnerDescriptor)).when(runnerServer).getRunnerDescriptors();
         RemoteRunner runner = spy(new RemoteRunner(remoteUrl, runnerDescriptor.getName(), new ArrayList<Link>()));
         doReturn(runnerDescriptor.getEnvironments()).when(runner).getEnvironments();
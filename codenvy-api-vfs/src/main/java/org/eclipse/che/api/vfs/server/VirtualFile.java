@@ -335,6 +335,9 @@ public interface VirtualFile extends Comparable<VirtualFile> {
 
     /**
      * Imports ZIP content to the folder denoted by this VirtualFile.
+     * <p/>
+     * Imported files are added to the search index asynchronously, search that is started right after this method returns may not
+     * find them yet.
      *
      * @param zipped
      *         ZIP content
@@ -256,6 +256,10 @@ public interface VirtualFileSystem {
      *         If parameter isn't set then result is implementation specific.
      * @param propertyFilter
      *         only properties which are accepted by filter should be included in response. See {@link PropertyFilter#accept(String)}
+     * @param linkTemplates
+     *         if {@code true} then items are returned without links and templates of links are added to result list once. See {@link
+     *         ItemList#getLinks()}. This is much cheaper for big folders than creating set of links for each item. If parameter isn't
+     *         set then each item contains own links.
      * @return list of children of specified folder
      * @throws NotFoundException
      *         if {@code folderId} doesn't exist
@@ -276,7 +280,8 @@ public interface VirtualFileSystem {
     @Path("children")
     @Produces({MediaType.APPLICATION_JSON})
     ItemList getChildren(String folderId, int maxItems, int skipCount, String itemType, Boolean includePermissions,
-                         PropertyFilter propertyFilter) throws NotFoundException, ForbiddenException, ConflictException, ServerException;
+                         PropertyFilter propertyFilter, Boolean linkTemplates)
+            throws NotFoundException, ForbiddenException, ConflictException, ServerException;
 
     // For local usage. This method isn't accessible over REST interface.
     ItemList getChildren(String folderId, int maxItems, int skipCount, String itemType, boolean includePermissions)
@@ -695,6 +700,9 @@ public interface VirtualFileSystem {
      *         max number of items in response. If {@code -1} then no limit of max items in result set
      * @param skipCount
      *         the skip items. Must be equals or greater then {@code 0}
+     * @param pageToken
+     *         token of page returned in previous result with {@link ItemList#getNextPageToken()}. If {@code null} then first page is
+     *         returned. Items are skipped with {@code skipCount} after position specified by this token
      * @param propertyFilter
      *         only properties which are accepted by filter should be included in response. See {@link PropertyFilter#accept(String)}
      * @return query result
@@ -707,7 +715,7 @@ public interface VirtualFileSystem {
     @POST
     @Path("search")
     @Produces({MediaType.APPLICATION_JSON})
-    ItemList search(MultivaluedMap<String, String> query, int maxItems, int skipCount, PropertyFilter propertyFilter)
+    ItemList search(MultivaluedMap<String, String> query, int maxItems, int skipCount, String pageToken, PropertyFilter propertyFilter)
             throws ConflictException, ServerException;
 
     // For local usage. This method isn't accessible over REST interface.
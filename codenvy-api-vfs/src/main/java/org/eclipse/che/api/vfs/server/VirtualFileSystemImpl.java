@@ -15,6 +15,7 @@ import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.server.search.QueryExpression;
+import org.eclipse.che.api.vfs.server.search.SearchResult;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
 import org.eclipse.che.api.vfs.server.util.LinksHelper;
 import org.eclipse.che.api.vfs.shared.ItemType;
@@ -208,7 +209,8 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
                                 @QueryParam("skipCount") int skipCount,
                                 @QueryParam("itemType") String itemType,
                                 @DefaultValue("false") @QueryParam("includePermissions") Boolean includePermissions,
-                                @DefaultValue(PropertyFilter.NONE) @QueryParam("propertyFilter") PropertyFilter propertyFilter)
+                                @DefaultValue(PropertyFilter.NONE) @QueryParam("propertyFilter") PropertyFilter propertyFilter,
+                                @DefaultValue("false") @QueryParam("linkTemplates") Boolean linkTemplates)
             throws NotFoundException, ForbiddenException, ConflictException, ServerException {
         if (skipCount < 0) {
             throw new ConflictException("'skipCount' parameter is negative. ");
@@ -255,18 +257,23 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
             throw new ConflictException("'skipCount' parameter is greater then total number of items. ");
         }
 
+        final boolean addLinks = linkTemplates == null || !linkTemplates;
         final List<Item> items = new ArrayList<>();
         for (int count = 0; children.hasNext() && (maxItems < 0 || count < maxItems); count++) {
-            items.add(fromVirtualFile(children.next(), includePermissions, propertyFilter));
+            items.add(fromVirtualFile(children.next(), includePermissions, propertyFilter, addLinks));
         }
-        return DtoFactory.getInstance().createDto(ItemList.class).withItems(items).withNumItems(children.size())
-                         .withHasMoreItems(children.hasNext());
+        final ItemList itemList = DtoFactory.getInstance().createDto(ItemList.class).withItems(items).withNumItems(children.size())
+                                            .withHasMoreItems(children.hasNext());
+        if (!addLinks) {
+            itemList.setLinks(LinksHelper.createItemLinkTemplates(baseUri, vfsId));
+        }
+        return itemList;
     }
 
     @Override
     public ItemList getChildren(String folderId, int maxItems, int skipCount, String itemType, boolean includePermissions)
             throws NotFoundException, ForbiddenException, ConflictException, ServerException {
-        return getChildren(folderId, maxItems, skipCount, itemType, includePermissions, PropertyFilter.ALL_FILTER);
+        return getChildren(folderId, maxItems, skipCount, itemType, includePermissions, PropertyFilter.ALL_FILTER, false);
     }
 
     @Path("tree/{id}")
@@ -525,6 +532,7 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
     public ItemList search(MultivaluedMap<String, String> query,
                            @DefaultValue("-1") @QueryParam("maxItems") int maxItems,
                            @QueryParam("skipCount") int skipCount,
+                           @QueryParam("pageToken") String pageToken,
                            @DefaultValue(PropertyFilter.ALL) @QueryParam("propertyFilter") PropertyFilter propertyFilter)
             throws ConflictException, ServerException {
         if (searcherProvider != null) {
@@ -535,33 +543,35 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
                     .setPath(query.getFirst("path"))
                     .setName(query.getFirst("name"))
                     .setMediaType(query.getFirst("mediaType"))
-                    .setText(query.getFirst("text"));
-
-            final String[] result = searcherProvider.getSearcher(mountPoint, true).search(expr);
-            if (skipCount > 0) {
-                if (skipCount > result.length) {
+                    .setText(query.getFirst("text"))
+                    .setMaxItems(maxItems)
+                    .setSkipCount(skipCount)
+                    .setPageToken(pageToken);
+
+            final SearchResult result = searcherProvider.getSearcher(mountPoint, true).searchPage(expr);
+            if (skipCount > 0 && pageToken == null) {
+                if (skipCount > result.getTotalHits()) {
                     throw new ConflictException("'skipCount' parameter is greater then total number of items. ");
                 }
             }
-            final int length = maxItems > 0 ? Math.min(result.length, maxItems) : result.length;
-            final List<Item> items = new ArrayList<>(length);
-            for (int i = skipCount; i < length; i++) {
-                String path = result[i];
+            final String[] paths = result.getFilePaths();
+            final List<Item> items = new ArrayList<>(paths.length);
+            for (String path : paths) {
                 try {
                     items.add(fromVirtualFile(mountPoint.getVirtualFile(path), false, propertyFilter));
                 } catch (NotFoundException | ForbiddenException ignored) {
                 }
             }
 
-            return DtoFactory.getInstance().createDto(ItemList.class).withItems(items).withNumItems(result.length)
-                             .withHasMoreItems(length < result.length);
+            return DtoFactory.getInstance().createDto(ItemList.class).withItems(items).withNumItems(result.getTotalHits())
+                             .withHasMoreItems(result.getNextPageToken() != null).withNextPageToken(result.getNextPageToken());
         }
         throw new ServerException("Not supported. ");
     }
 
     @Override
     public ItemList search(MultivaluedMap<String, String> query, int maxItems, int skipCount) throws ConflictException, ServerException {
-        return search(query, maxItems, skipCount, PropertyFilter.ALL_FILTER);
+        return search(query, maxItems, skipCount, null, PropertyFilter.ALL_FILTER);
     }
 
     @Override
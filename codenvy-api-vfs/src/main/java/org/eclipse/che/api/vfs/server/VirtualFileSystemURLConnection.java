@@ -170,7 +170,7 @@ public final class VirtualFileSystemURLConnection extends URLConnection {
                 return content.getStream();
             }
             // Folder. Show plain list of child.
-            ItemList children = vfs.getChildren(item.getId(), -1, 0, null, false, PropertyFilter.NONE_FILTER);
+            ItemList children = vfs.getChildren(item.getId(), -1, 0, null, false, PropertyFilter.NONE_FILTER, true);
             ByteArrayOutputStream out = new ByteArrayOutputStream();
             Writer w = new OutputStreamWriter(out);
             for (Item i : children.getItems()) {
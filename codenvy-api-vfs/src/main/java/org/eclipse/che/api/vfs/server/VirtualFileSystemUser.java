@@ -33,6 +33,26 @@ public class VirtualFileSystemUser {
         return groups;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VirtualFileSystemUser)) {
+            return false;
+        }
+        final VirtualFileSystemUser other = (VirtualFileSystemUser)o;
+        return (userId == null ? other.userId == null : userId.equals(other.userId)) && groups.equals(other.groups);
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 7;
+        hashCode = 31 * hashCode + (userId == null ? 0 : userId.hashCode());
+        hashCode = 31 * hashCode + groups.hashCode();
+        return hashCode;
+    }
+
     @Override
     public String toString() {
         return "VirtualFileSystemUser{" +
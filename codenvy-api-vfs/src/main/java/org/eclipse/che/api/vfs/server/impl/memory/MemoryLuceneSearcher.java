@@ -11,6 +11,7 @@
 package org.eclipse.che.api.vfs.server.impl.memory;
 
 import org.eclipse.che.api.vfs.server.search.LuceneSearcher;
+import org.eclipse.che.api.vfs.server.util.MediaTypeFilter;
 
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.RAMDirectory;
@@ -27,6 +28,10 @@ public class MemoryLuceneSearcher extends LuceneSearcher {
         super(indexedMediaTypes);
     }
 
+    public MemoryLuceneSearcher(Set<String> indexedMediaTypes, long refreshInterval, long commitInterval) {
+        super(new MediaTypeFilter(indexedMediaTypes), refreshInterval, commitInterval);
+    }
+
     @Override
     protected Directory makeDirectory() {
         return new RAMDirectory();
@@ -28,6 +28,7 @@ import org.eclipse.che.api.vfs.shared.dto.VirtualFileSystemInfo;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * In-memory implementation of MountPoint.
@@ -43,6 +44,7 @@ public class MemoryMountPoint implements MountPoint {
     private final VirtualFileSystemUserContext userContext;
     private final Map<String, VirtualFile>     entries;
     private final VirtualFile                  root;
+    private final AtomicLong                   aclGeneration;
 
     public MemoryMountPoint(String workspaceId, EventService eventService, SearcherProvider searcherProvider,
                             VirtualFileSystemUserContext userContext) {
@@ -51,6 +53,7 @@ public class MemoryMountPoint implements MountPoint {
         this.searcherProvider = searcherProvider;
         this.userContext = userContext;
         entries = new HashMap<>();
+        aclGeneration = new AtomicLong();
         root = new MemoryVirtualFile(this);
     }
 
@@ -155,6 +158,19 @@ public class MemoryMountPoint implements MountPoint {
         return eventService;
     }
 
+    /**
+     * Get current generation of access control lists. Generation is changed each time when ACL of any item is updated or when item is
+     * moved to new parent. Items use it to check whether cached result of permissions resolution is still valid.
+     */
+    long getAclGeneration() {
+        return aclGeneration.get();
+    }
+
+    /** Invalidate cached results of permissions resolution of all items of this MountPoint. */
+    void invalidateAclCache() {
+        aclGeneration.incrementAndGet();
+    }
+
     VirtualFileSystemUserContext getUserContext() {
         return userContext;
     }
@@ -23,6 +23,7 @@ import org.eclipse.che.api.vfs.server.VirtualFile;
 import org.eclipse.che.api.vfs.server.VirtualFileFilter;
 import org.eclipse.che.api.vfs.server.VirtualFileSystemUser;
 import org.eclipse.che.api.vfs.server.VirtualFileVisitor;
+import org.eclipse.che.api.vfs.server.observation.BulkChangeEvent;
 import org.eclipse.che.api.vfs.server.observation.CreateEvent;
 import org.eclipse.che.api.vfs.server.observation.DeleteEvent;
 import org.eclipse.che.api.vfs.server.observation.MoveEvent;
@@ -30,6 +31,7 @@ import org.eclipse.che.api.vfs.server.observation.RenameEvent;
 import org.eclipse.che.api.vfs.server.observation.UpdateACLEvent;
 import org.eclipse.che.api.vfs.server.observation.UpdateContentEvent;
 import org.eclipse.che.api.vfs.server.observation.UpdatePropertiesEvent;
+import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
 import org.eclipse.che.api.vfs.server.util.NotClosableInputStream;
 import org.eclipse.che.api.vfs.server.util.ZipContent;
@@ -58,7 +60,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -69,6 +70,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -114,6 +117,11 @@ public class MemoryVirtualFile implements VirtualFile {
     private LockHolder                  lock;
     private Map<Principal, Set<String>> permissionsMap;
     private boolean exists = true;
+    // Compiled view of permissionsMap. Compiled together with each update of permissionsMap and published with volatile write, so
+    // readers never see compiled ACL which is older than permissionsMap.
+    private volatile CompiledACL         compiledACL;
+    // Nearest item (this item or one of its parents) which has not empty ACL.
+    private volatile ACLOwnerHolder      aclOwner;
 
     // --- File ---
     private MemoryVirtualFile(MemoryVirtualFile parent, String id, String name, InputStream content, String mediaType)
@@ -128,6 +136,7 @@ public class MemoryVirtualFile implements VirtualFile {
         this.id = id;
         this.name = name;
         this.permissionsMap = new HashMap<>();
+        this.compiledACL = new CompiledACL(permissionsMap);
         this.properties = new HashMap<>();
         this.creationDate = this.lastModificationDate = System.currentTimeMillis();
         this.content = content == null ? new byte[0] : content;
@@ -145,6 +154,7 @@ public class MemoryVirtualFile implements VirtualFile {
         this.id = id;
         this.name = name;
         this.permissionsMap = new HashMap<>();
+        this.compiledACL = new CompiledACL(permissionsMap);
         this.properties = new HashMap<>();
         this.creationDate = this.lastModificationDate = System.currentTimeMillis();
         children = new HashMap<>();
@@ -168,6 +178,7 @@ public class MemoryVirtualFile implements VirtualFile {
         final Set<String> anyPermissions = new HashSet<>(4);
         anyPermissions.add(BasicPermissions.READ.value());
         this.permissionsMap.put(anyPrincipal, anyPermissions);
+        this.compiledACL = new CompiledACL(permissionsMap);
         this.properties = new HashMap<>();
         this.creationDate = this.lastModificationDate = System.currentTimeMillis();
         children = new HashMap<>();
@@ -312,6 +323,8 @@ public class MemoryVirtualFile implements VirtualFile {
         }
 
         permissionsMap = update;
+        compiledACL = new CompiledACL(update);
+        mountPoint.invalidateAclCache();
         lastModificationDate = System.currentTimeMillis();
         mountPoint.getEventService().publish(new UpdateACLEvent(mountPoint.getWorkspaceId(), getPath(), isFolder()));
         return this;
@@ -547,6 +560,23 @@ public class MemoryVirtualFile implements VirtualFile {
 
     private VirtualFile updateContent(String mediaType, InputStream content, String lockToken, boolean updateMediaType)
             throws ForbiddenException, ServerException {
+        setContent(mediaType, content, lockToken, updateMediaType);
+
+        SearcherProvider searcherProvider = mountPoint.getSearcherProvider();
+        if (searcherProvider != null) {
+            try {
+                searcherProvider.getSearcher(mountPoint, true).update(this);
+            } catch (ServerException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+        mountPoint.getEventService().publish(new UpdateContentEvent(mountPoint.getWorkspaceId(), getPath()));
+        return this;
+    }
+
+    /** Checks permissions and lock and updates content of file. Doesn't update search index and doesn't publish event. */
+    private void setContent(String mediaType, InputStream content, String lockToken, boolean updateMediaType)
+            throws ForbiddenException, ServerException {
         checkExist();
 
         if (!isFile()) {
@@ -575,18 +605,7 @@ public class MemoryVirtualFile implements VirtualFile {
         if (updateMediaType) {
             setMediaType(mediaType);
         }
-
-        SearcherProvider searcherProvider = mountPoint.getSearcherProvider();
-        if (searcherProvider != null) {
-            try {
-                searcherProvider.getSearcher(mountPoint, true).update(this);
-            } catch (ServerException e) {
-                LOG.error(e.getMessage(), e);
-            }
-        }
         lastModificationDate = System.currentTimeMillis();
-        mountPoint.getEventService().publish(new UpdateContentEvent(mountPoint.getWorkspaceId(), getPath()));
-        return this;
     }
 
     @Override
@@ -745,6 +764,8 @@ public class MemoryVirtualFile implements VirtualFile {
         }
         this.parent.children.remove(getName());
         this.parent = (MemoryVirtualFile)parent;
+        // Item inherits ACL from new parent.
+        mountPoint.invalidateAclCache();
         SearcherProvider searcherProvider = mountPoint.getSearcherProvider();
         if (searcherProvider != null) {
             try {
@@ -973,6 +994,7 @@ public class MemoryVirtualFile implements VirtualFile {
                                                        " You do not have the correct permissions to complete this operation.", getPath()));
         }
 
+        final List<BulkChangeEvent.Entry> changes = new ArrayList<>();
         ZipInputStream zip = null;
         try {
             final ZipContent zipContent = ZipContent.newInstance(zipped);
@@ -1001,6 +1023,7 @@ public class MemoryVirtualFile implements VirtualFile {
                         if (((MemoryVirtualFile)current).addChild(folder)) {
                             current = folder;
                             mountPoint.putItem(folder);
+                            changes.add(new BulkChangeEvent.Entry(folder.getPath(), VirtualFileEvent.ChangeType.CREATED, true));
                         } else {
                             current = current.getChild(relPath.element(i));
                         }
@@ -1011,10 +1034,9 @@ public class MemoryVirtualFile implements VirtualFile {
                         MemoryVirtualFile folder = newFolder((MemoryVirtualFile)current, name);
                         ((MemoryVirtualFile)current).addChild(folder);
                         mountPoint.putItem(folder);
-                        mountPoint.getEventService().publish(new CreateEvent(mountPoint.getWorkspaceId(), folder.getPath(), true));
+                        changes.add(new BulkChangeEvent.Entry(folder.getPath(), VirtualFileEvent.ChangeType.CREATED, true));
                     }
                 } else {
-                    current.getChild(name);
                     VirtualFile file = current.getChild(name);
                     if (file != null) {
                         if (file.isLocked()) {
@@ -1028,26 +1050,19 @@ public class MemoryVirtualFile implements VirtualFile {
                         if (!overwrite) {
                             throw new ForbiddenException(String.format("File '%s' already exists. ", file.getPath()));
                         }
-                        file.updateContent(noCloseZip, null);
-                        mountPoint.getEventService().publish(new UpdateContentEvent(mountPoint.getWorkspaceId(), file.getPath()));
+                        // Do not use updateContent() here. It publishes event and updates index for each file.
+                        // Permissions and lock of file are checked anyway.
+                        ((MemoryVirtualFile)file).setContent(null, noCloseZip, null, false);
+                        changes.add(new BulkChangeEvent.Entry(file.getPath(), VirtualFileEvent.ChangeType.CONTENT_UPDATED, false));
                     } else {
                         file = newFile((MemoryVirtualFile)current, name, noCloseZip, ContentTypeGuesser.guessContentType(name));
                         ((MemoryVirtualFile)current).addChild(file);
                         mountPoint.putItem((MemoryVirtualFile)file);
-                        mountPoint.getEventService().publish(new CreateEvent(mountPoint.getWorkspaceId(), file.getPath(), false));
+                        changes.add(new BulkChangeEvent.Entry(file.getPath(), VirtualFileEvent.ChangeType.CREATED, false));
                     }
                 }
                 zip.closeEntry();
             }
-            SearcherProvider searcherProvider = mountPoint.getSearcherProvider();
-            if (searcherProvider != null) {
-                try {
-                    searcherProvider.getSearcher(mountPoint, true).add(this);
-                } catch (ServerException e) {
-                    LOG.error(e.getMessage(), e);
-                }
-            }
-
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
         } finally {
@@ -1057,6 +1072,11 @@ public class MemoryVirtualFile implements VirtualFile {
                 } catch (IOException ignored) {
                 }
             }
+            if (!changes.isEmpty()) {
+                // Publish single event for whole import even if it failed in the middle, items created before failure are still here.
+                // Searcher (if any) adds new and updated files to the index when gets this event.
+                mountPoint.getEventService().publish(new BulkChangeEvent(mountPoint.getWorkspaceId(), getPath(), changes));
+            }
         }
     }
 
@@ -1217,41 +1237,34 @@ public class MemoryVirtualFile implements VirtualFile {
 
     boolean hasPermission(String permission, boolean checkParent) {
         checkExist();
+        final MemoryVirtualFile aclOwner;
+        if (checkParent) {
+            aclOwner = getACLOwner();
+        } else {
+            aclOwner = compiledACL.isEmpty() ? null : this;
+        }
+        if (aclOwner == null) {
+            return true;
+        }
         final VirtualFileSystemUser user = mountPoint.getUserContext().getVirtualFileSystemUser();
-        MemoryVirtualFile current = this;
-        while (current != null) {
-            final Map<Principal, Set<String>> objectPermissions = current.getPermissions();
-            if (!objectPermissions.isEmpty()) {
-                final Principal userPrincipal =
-                        DtoFactory.getInstance().createDto(Principal.class).withName(user.getUserId()).withType(Principal.Type.USER);
-                Set<String> userPermissions = objectPermissions.get(userPrincipal);
-                if (userPermissions != null) {
-                    return userPermissions.contains(permission) || userPermissions.contains(BasicPermissions.ALL.value());
-                }
-                Collection<String> groups = user.getGroups();
-                if (!groups.isEmpty()) {
-                    for (String group : groups) {
-                        final Principal groupPrincipal =
-                                DtoFactory.getInstance().createDto(Principal.class).withName(group).withType(Principal.Type.GROUP);
-                        userPermissions = objectPermissions.get(groupPrincipal);
-                        if (userPermissions != null) {
-                            return userPermissions.contains(permission) || userPermissions.contains(BasicPermissions.ALL.value());
-                        }
-                    }
-                }
-                final Principal anyPrincipal = DtoFactory.getInstance().createDto(Principal.class)
-                                                         .withName(VirtualFileSystemInfo.ANY_PRINCIPAL).withType(Principal.Type.USER);
-                userPermissions = objectPermissions.get(anyPrincipal);
-                return userPermissions != null
-                       && (userPermissions.contains(permission) || userPermissions.contains(BasicPermissions.ALL.value()));
-            }
-            if (checkParent) {
-                current = (MemoryVirtualFile)current.getParent();
+        final Set<String> userPermissions = aclOwner.compiledACL.resolve(user);
+        return userPermissions.contains(permission) || userPermissions.contains(BasicPermissions.ALL.value());
+    }
+
+    /** Get nearest item (this item or one of its parents) which has not empty ACL or {@code null} if there is no such item. */
+    private MemoryVirtualFile getACLOwner() {
+        final long aclGeneration = mountPoint.getAclGeneration();
+        ACLOwnerHolder holder = aclOwner;
+        if (holder == null || holder.aclGeneration != aclGeneration) {
+            final MemoryVirtualFile owner;
+            if (!compiledACL.isEmpty()) {
+                owner = this;
             } else {
-                break;
+                owner = parent == null ? null : parent.getACLOwner();
             }
+            aclOwner = holder = new ACLOwnerHolder(owner, aclGeneration);
         }
-        return true;
+        return holder.owner;
     }
 
     private void checkExist() {
@@ -1274,6 +1287,75 @@ public class MemoryVirtualFile implements VirtualFile {
         return myLock == null || myLock.lockToken.equals(lockToken);
     }
 
+    private static class ACLOwnerHolder {
+        final MemoryVirtualFile owner;
+        final long              aclGeneration;
+
+        ACLOwnerHolder(MemoryVirtualFile owner, long aclGeneration) {
+            this.owner = owner;
+            this.aclGeneration = aclGeneration;
+        }
+    }
+
+    /**
+     * ACL of single item prepared for fast checking of permissions. Permissions of principals are kept in maps with plain names as keys, so
+     * no need to create Principal for each check. Result of resolution of permissions is cached for each user.
+     */
+    private static class CompiledACL {
+        static final int MAX_CACHED_USERS = 1024;
+
+        final Map<String, Set<String>>                          userPermissions;
+        final Map<String, Set<String>>                          groupPermissions;
+        final ConcurrentMap<VirtualFileSystemUser, Set<String>> resolved;
+
+        CompiledACL(Map<Principal, Set<String>> permissionsMap) {
+            userPermissions = new HashMap<>();
+            groupPermissions = new HashMap<>();
+            for (Map.Entry<Principal, Set<String>> e : permissionsMap.entrySet()) {
+                final Principal principal = e.getKey();
+                final Set<String> permissions = Collections.unmodifiableSet(new HashSet<>(e.getValue()));
+                if (principal.getType() == Principal.Type.GROUP) {
+                    groupPermissions.put(principal.getName(), permissions);
+                } else {
+                    userPermissions.put(principal.getName(), permissions);
+                }
+            }
+            resolved = new ConcurrentHashMap<>();
+        }
+
+        boolean isEmpty() {
+            return userPermissions.isEmpty() && groupPermissions.isEmpty();
+        }
+
+        /** Get permissions of user. Never returns {@code null}, empty set is returned if user doesn't have any permissions. */
+        Set<String> resolve(VirtualFileSystemUser user) {
+            Set<String> permissions = resolved.get(user);
+            if (permissions == null) {
+                permissions = doResolve(user);
+                if (resolved.size() >= MAX_CACHED_USERS) {
+                    resolved.clear();
+                }
+                resolved.put(user, permissions);
+            }
+            return permissions;
+        }
+
+        private Set<String> doResolve(VirtualFileSystemUser user) {
+            Set<String> permissions = userPermissions.get(user.getUserId());
+            if (permissions != null) {
+                return permissions;
+            }
+            for (String group : user.getGroups()) {
+                permissions = groupPermissions.get(group);
+                if (permissions != null) {
+                    return permissions;
+                }
+            }
+            permissions = userPermissions.get(VirtualFileSystemInfo.ANY_PRINCIPAL);
+            return permissions == null ? Collections.<String>emptySet() : permissions;
+        }
+    }
+
     private static class LockHolder {
         final String lockToken;
         final long   expired;
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.observation;
+
+import org.eclipse.che.api.core.notification.EventOrigin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes changes of many items in one subtree, e.g. after import of ZIP archive. Path of event is path of the root of changed subtree.
+ * Instead of publishing separate event for each item, all changes are collected in list of entries and delivered to subscribers at once.
+ */
+@EventOrigin("vfs")
+public class BulkChangeEvent extends VirtualFileEvent {
+    /** Single change in subtree. Type of change may be either {@code CREATED} or {@code CONTENT_UPDATED}. */
+    public static class Entry {
+        private String     path;
+        private ChangeType type;
+        private boolean    folder;
+
+        public Entry(String path, ChangeType type, boolean folder) {
+            this.path = path;
+            this.type = type;
+            this.folder = folder;
+        }
+
+        public Entry() {
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public ChangeType getType() {
+            return type;
+        }
+
+        public void setType(ChangeType type) {
+            this.type = type;
+        }
+
+        public boolean isFolder() {
+            return folder;
+        }
+
+        public void setFolder(boolean folder) {
+            this.folder = folder;
+        }
+    }
+
+    private List<Entry> entries;
+
+    public BulkChangeEvent(String workspaceId, String path, List<Entry> entries) {
+        super(workspaceId, path, ChangeType.BULK_CHANGED, true);
+        this.entries = entries;
+    }
+
+    public BulkChangeEvent() {
+    }
+
+    public List<Entry> getEntries() {
+        if (entries == null) {
+            entries = new ArrayList<>();
+        }
+        return entries;
+    }
+
+    public void setEntries(List<Entry> entries) {
+        this.entries = entries;
+    }
+}
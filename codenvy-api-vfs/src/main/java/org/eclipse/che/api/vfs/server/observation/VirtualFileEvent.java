@@ -16,6 +16,7 @@ package org.eclipse.che.api.vfs.server.observation;
 public abstract class VirtualFileEvent {
     public static enum ChangeType {
         ACL_UPDATED("acl_updated"),
+        BULK_CHANGED("bulk_changed"),
         CONTENT_UPDATED("content_updated"),
         CREATED("created"),
         DELETED("deleted"),
@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.server.LazyIterator;
+import org.eclipse.che.api.vfs.server.MountPoint;
+import org.eclipse.che.api.vfs.server.VirtualFile;
+import org.eclipse.che.api.vfs.server.VirtualFileFilter;
+import org.eclipse.che.api.vfs.server.util.MediaTypeFilter;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lucene searcher which keeps index on the file system. Each commit of index contains marker with id of workspace and version of index
+ * format. On start index is reused if marker matches to the virtual filesystem, otherwise whole index is re-created. Reused index is
+ * always re-validated against current state of virtual filesystem: each indexed document keeps modification date and length of file,
+ * files which are added since last commit or which date or length don't match to the document are re-indexed and documents of files
+ * which don't exist anymore are removed. So changes made while searcher was closed, e.g. while server was down, are picked up on start.
+ * Index which can't be read after crash is re-created too.
+ */
+public class FSLuceneSearcher extends LuceneSearcher {
+    private static final Logger LOG = LoggerFactory.getLogger(FSLuceneSearcher.class);
+
+    /** Version of index format. Must be changed if set of indexed fields is changed. */
+    static final String INDEX_FORMAT         = "2";
+    static final String WORKSPACE_COMMIT_KEY = "vfs.workspace";
+    static final String FORMAT_COMMIT_KEY    = "vfs.index.format";
+
+    private final File indexDirectory;
+
+    private volatile String workspaceId;
+
+    public FSLuceneSearcher(Set<String> indexedMediaTypes, File indexDirectory) {
+        this(new MediaTypeFilter(indexedMediaTypes), indexDirectory, DEFAULT_REFRESH_INTERVAL, DEFAULT_COMMIT_INTERVAL);
+    }
+
+    /**
+     * @param filter
+     *         filter of files which content must be indexed
+     * @param indexDirectory
+     *         directory where index is stored
+     * @param refreshInterval
+     *         interval in milliseconds between applying queued changes to the index and refreshing index readers
+     * @param commitInterval
+     *         interval in milliseconds between commits of index
+     */
+    public FSLuceneSearcher(VirtualFileFilter filter, File indexDirectory, long refreshInterval, long commitInterval) {
+        super(filter, refreshInterval, commitInterval);
+        this.indexDirectory = indexDirectory;
+    }
+
+    public File getIndexDirectory() {
+        return indexDirectory;
+    }
+
+    @Override
+    protected Directory makeDirectory() throws ServerException {
+        if (!(indexDirectory.exists() || indexDirectory.mkdirs())) {
+            throw new ServerException(String.format("Unable create index directory %s. ", indexDirectory));
+        }
+        try {
+            // Memory mapped directory is used on 64 bit JVM.
+            final Directory directory = FSDirectory.open(indexDirectory.toPath());
+            if (DirectoryReader.indexExists(directory)) {
+                try {
+                    SegmentInfos.readLatestCommit(directory);
+                } catch (IOException e) {
+                    LOG.warn("Index in {} is broken and will be re-created. {}", indexDirectory, e.getMessage());
+                    for (String file : directory.listAll()) {
+                        directory.deleteFile(file);
+                    }
+                }
+            }
+            return directory;
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected void initIndex(MountPoint mountPoint) throws ServerException {
+        workspaceId = mountPoint.getWorkspaceId();
+        final IndexWriter writer = getIndexWriter();
+        try {
+            final Map<String, String> lastCommitData = writer.getCommitData();
+            if (workspaceId.equals(lastCommitData.get(WORKSPACE_COMMIT_KEY))
+                && INDEX_FORMAT.equals(lastCommitData.get(FORMAT_COMMIT_KEY))) {
+                updateStaleFiles(mountPoint);
+            } else {
+                if (writer.numDocs() > 0) {
+                    LOG.info("Index in {} doesn't match to workspace {} and will be re-created. ", indexDirectory, workspaceId);
+                }
+                writer.deleteAll();
+                super.initIndex(mountPoint);
+            }
+            writer.setCommitData(getCommitData());
+            writer.commit();
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected Map<String, String> getCommitData() {
+        final Map<String, String> commitData = new HashMap<>(2);
+        commitData.put(WORKSPACE_COMMIT_KEY, workspaceId);
+        commitData.put(FORMAT_COMMIT_KEY, INDEX_FORMAT);
+        return commitData;
+    }
+
+    /** Re-index files which are added or updated since last commit and remove from index files which don't exist anymore. */
+    private void updateStaleFiles(MountPoint mountPoint) throws ServerException, IOException {
+        final long start = System.currentTimeMillis();
+        final Map<String, long[]> indexed = getIndexedFiles();
+        final int indexedFiles = indexed.size();
+        final LinkedList<VirtualFile> q = new LinkedList<>();
+        q.add(mountPoint.getRoot());
+        int updatedFiles = 0;
+        while (!q.isEmpty()) {
+            final VirtualFile folder = q.pop();
+            if (folder.exists()) {
+                LazyIterator<VirtualFile> children = folder.getChildren(VirtualFileFilter.ALL);
+                while (children.hasNext()) {
+                    final VirtualFile child = children.next();
+                    if (child.isFolder()) {
+                        q.push(child);
+                    } else {
+                        final long[] modifiedAndLength = indexed.remove(child.getPath());
+                        if (modifiedAndLength == null
+                            || modifiedAndLength[0] != child.getLastModificationDate()
+                            || modifiedAndLength[1] != child.getLength()) {
+                            addFile(child);
+                            updatedFiles++;
+                        }
+                    }
+                }
+            }
+        }
+        for (String path : indexed.keySet()) {
+            getIndexWriter().deleteDocuments(new Term("path", path));
+        }
+        LOG.debug("Reused index of {} files from {}, updated {} files, removed {} files, time: {} ms", indexedFiles, indexDirectory,
+                  updatedFiles, indexed.size(), (System.currentTimeMillis() - start));
+    }
+
+    /** Get paths of all indexed files mapped to array of modification date and length of file. */
+    private Map<String, long[]> getIndexedFiles() throws IOException {
+        final Map<String, long[]> indexed = new HashMap<>();
+        try (DirectoryReader reader = DirectoryReader.open(getIndexWriter(), true)) {
+            for (LeafReaderContext context : reader.leaves()) {
+                final LeafReader leafReader = context.reader();
+                final SortedDocValues paths = leafReader.getSortedDocValues("path");
+                final NumericDocValues modified = leafReader.getNumericDocValues("modified");
+                final NumericDocValues length = leafReader.getNumericDocValues("length");
+                if (paths == null) {
+                    continue;
+                }
+                final Bits liveDocs = leafReader.getLiveDocs();
+                for (int doc = 0, maxDoc = leafReader.maxDoc(); doc < maxDoc; doc++) {
+                    if (liveDocs == null || liveDocs.get(doc)) {
+                        indexed.put(paths.get(doc).utf8ToString(), new long[]{modified == null ? -1 : modified.get(doc),
+                                                                              length == null ? -1 : length.get(doc)});
+                    }
+                }
+            }
+        }
+        return indexed;
+    }
+}
@@ -0,0 +1,24 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+import com.google.inject.AbstractModule;
+
+/**
+ * Binds {@link FSLuceneSearcherProvider} as {@link SearcherProvider}. Indexes are stored in directory set with configuration property
+ * {@code vfs.index_dir}, all searchers are closed and their changes are committed on shutdown.
+ */
+public class FSLuceneSearcherModule extends AbstractModule {
+    @Override
+    protected void configure() {
+        bind(SearcherProvider.class).to(FSLuceneSearcherProvider.class);
+    }
+}
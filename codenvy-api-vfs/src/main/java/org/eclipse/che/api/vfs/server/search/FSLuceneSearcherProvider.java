@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.server.MountPoint;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SearcherProvider for {@link FSLuceneSearcher}s. Index of each workspace is stored in separate sub-directory of {@code indexRoot}.
+ * Searcher that isn't requested during {@code idleTimeout} is closed, it is opened again with next request and changes of virtual
+ * filesystem made while it was closed are picked up when index is re-validated on start, see {@link FSLuceneSearcher}.
+ */
+@Singleton
+public class FSLuceneSearcherProvider extends LuceneSearcherProvider {
+    /** Default time in milliseconds after which searcher that isn't used is closed. */
+    public static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+
+    private final File                        indexRoot;
+    private final long                        idleTimeout;
+    private final Map<String, SearcherHolder> searchers;
+
+    private long lastEviction;
+
+    @Inject
+    public FSLuceneSearcherProvider(@Named("vfs.index_dir") String indexRoot) {
+        this(new File(indexRoot), DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * @param indexRoot
+     *         parent directory for indexes of all workspaces
+     * @param idleTimeout
+     *         time in milliseconds after which searcher that isn't used is closed
+     */
+    public FSLuceneSearcherProvider(File indexRoot, long idleTimeout) {
+        this.indexRoot = indexRoot;
+        this.idleTimeout = idleTimeout;
+        searchers = new HashMap<>();
+    }
+
+    @Override
+    public synchronized Searcher getSearcher(MountPoint mountPoint, boolean create) throws ServerException {
+        final long now = System.currentTimeMillis();
+        evictIdle(now);
+        final String workspaceId = mountPoint.getWorkspaceId();
+        SearcherHolder holder = searchers.get(workspaceId);
+        if (holder == null) {
+            if (!create) {
+                return null;
+            }
+            final FSLuceneSearcher searcher = new FSLuceneSearcher(getIndexedMediaTypes(), new File(indexRoot, workspaceId));
+            searcher.init(mountPoint);
+            searchers.put(workspaceId, holder = new SearcherHolder(searcher));
+        }
+        holder.lastAccess = now;
+        return holder.searcher;
+    }
+
+    /** Close all searchers created by this provider. Changes are committed to the index before close. */
+    @PreDestroy
+    public synchronized void close() {
+        for (SearcherHolder holder : searchers.values()) {
+            holder.searcher.close();
+        }
+        searchers.clear();
+    }
+
+    private void evictIdle(long now) {
+        if (now - lastEviction < idleTimeout / 2) {
+            return;
+        }
+        lastEviction = now;
+        for (Iterator<SearcherHolder> i = searchers.values().iterator(); i.hasNext(); ) {
+            final SearcherHolder holder = i.next();
+            if (now - holder.lastAccess >= idleTimeout) {
+                i.remove();
+                holder.searcher.close();
+            }
+        }
+    }
+
+    private static class SearcherHolder {
+        final FSLuceneSearcher searcher;
+        long lastAccess;
+
+        SearcherHolder(FSLuceneSearcher searcher) {
+            this.searcher = searcher;
+        }
+    }
+}
@@ -11,17 +11,26 @@
 package org.eclipse.che.api.vfs.server.search;
 
 import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.vfs.server.LazyIterator;
 import org.eclipse.che.api.vfs.server.MountPoint;
 import org.eclipse.che.api.vfs.server.VirtualFile;
 import org.eclipse.che.api.vfs.server.VirtualFileFilter;
+import org.eclipse.che.api.vfs.server.observation.BulkChangeEvent;
 import org.eclipse.che.api.vfs.server.util.MediaTypeFilter;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
+import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.core.SimpleAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriter;
@@ -31,14 +40,20 @@ import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherFactory;
 import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.WildcardQuery;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,30 +62,99 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Lucene based searcher.
+ * <p/>
+ * Changes of index are not applied on the caller's thread. Each {@link #add(VirtualFile)}, {@link #update(VirtualFile)} or {@link
+ * #delete(String)} puts operation in queue keyed by path, repeated operations with the same path are coalesced and deletion of item drops
+ * queued operations with its descendants. Pool of indexer threads shared by all searchers applies queued operations to the index and
+ * refreshes index readers each {@code refreshInterval} milliseconds and commits changes each {@code commitInterval} milliseconds. Caller
+ * that needs to see own changes in search results may wait for them with {@link #waitForIndex(long)}, or get token with {@link
+ * #getVisibilityToken()} and then wait until changes become visible with {@link #waitForVisibility(long, long)}.
  *
  * @author andrew00x
  */
 public abstract class LuceneSearcher implements Searcher {
-    private static final Logger LOG          = LoggerFactory.getLogger(LuceneSearcher.class);
-    private static final int    RESULT_LIMIT = 1000;
+    private static final Logger       LOG                 = LoggerFactory.getLogger(LuceneSearcher.class);
+    private static final int          RESULT_LIMIT        = 1000;
+    private static final Sort         PATH_SORT           = new Sort(new SortField("path", SortField.Type.STRING));
+    private static final BaseEncoding PAGE_TOKEN_ENCODING = BaseEncoding.base64Url().omitPadding();
+
+    /** Default interval in milliseconds between applying queued changes to the index and refreshing index readers. */
+    public static final long DEFAULT_REFRESH_INTERVAL = 1000;
+    /** Default interval in milliseconds between commits of index. */
+    public static final long DEFAULT_COMMIT_INTERVAL  = 60000;
+
+    private static final int                      INDEXER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    private static final ScheduledExecutorService INDEXER         = createIndexer();
 
     private final VirtualFileFilter filter;
+    private final long              refreshInterval;
+    private final long              commitInterval;
+    private final Object            pendingLock;
+    private final Object            flushLock;
+    private final AtomicLong        queries;
+    private final AtomicLong        queryTime;
+    private final AtomicLong        maxQueryTime;
 
-    private IndexWriter     luceneIndexWriter;
-    private SearcherManager searcherManager;
-    private boolean         closed;
+    private volatile IndexWriter             luceneIndexWriter;
+    private volatile SearcherManager         searcherManager;
+    private volatile boolean                 closed;
+    private volatile Thread                  indexerThread;
+    private volatile long                    visibleGeneration;
+    private volatile long                    warmUpTime;
+    private MountPoint                       mountPoint;
+    private ScheduledFuture<?>               flushTask;
+    private EventSubscriber<BulkChangeEvent> bulkChangeSubscriber;
+    // guarded by pendingLock
+    private TreeMap<String, PendingOperation> pending;
+    private long                              enqueuedGeneration;
+    // guarded by flushLock
+    private boolean                          uncommitted;
+    private boolean                          released;
+    private long                             lastCommit;
 
     public LuceneSearcher(Set<String> indexedMediaTypes) {
         this(new MediaTypeFilter(indexedMediaTypes));
     }
 
     public LuceneSearcher(VirtualFileFilter filter) {
+        this(filter, DEFAULT_REFRESH_INTERVAL, DEFAULT_COMMIT_INTERVAL);
+    }
+
+    /**
+     * @param filter
+     *         filter of files which content must be indexed
+     * @param refreshInterval
+     *         interval in milliseconds between applying queued changes to the index and refreshing index readers
+     * @param commitInterval
+     *         interval in milliseconds between commits of index
+     */
+    public LuceneSearcher(VirtualFileFilter filter, long refreshInterval, long commitInterval) {
+        if (refreshInterval <= 0) {
+            throw new IllegalArgumentException("Refresh interval must be greater than zero. ");
+        }
         this.filter = filter;
+        this.refreshInterval = refreshInterval;
+        this.commitInterval = commitInterval;
+        pendingLock = new Object();
+        flushLock = new Object();
+        pending = new TreeMap<>();
+        queries = new AtomicLong();
+        queryTime = new AtomicLong();
+        maxQueryTime = new AtomicLong();
     }
 
     protected Analyzer makeAnalyzer() {
@@ -88,10 +172,68 @@ public abstract class LuceneSearcher implements Searcher {
      *         if any virtual filesystem error
      */
     public void init(MountPoint mountPoint) throws ServerException {
+        final long start = System.currentTimeMillis();
         doInit();
+        initIndex(mountPoint);
+        refresh();
+        warmUpTime = System.currentTimeMillis() - start;
+        LOG.debug("Index of workspace {} is ready, time: {} ms", mountPoint.getWorkspaceId(), warmUpTime);
+        subscribeBulkChanges(mountPoint);
+    }
+
+    /**
+     * Fill index with content of virtual filesystem. This method is called once in {@link #init(MountPoint)} when index writer is
+     * created. By default all files in virtual filesystem are added to the index.
+     *
+     * @param mountPoint
+     *         MountPoint
+     * @throws ServerException
+     *         if any virtual filesystem error
+     */
+    protected void initIndex(MountPoint mountPoint) throws ServerException {
         addTree(mountPoint.getRoot());
     }
 
+    /**
+     * Subscribe to the {@link BulkChangeEvent}s published by {@code mountPoint}. Files created or updated in scope of bulk change are put
+     * in queue of index operations one by one, index of whole subtree is not re-built.
+     *
+     * @param mountPoint
+     *         MountPoint
+     */
+    protected final synchronized void subscribeBulkChanges(final MountPoint mountPoint) {
+        final EventService eventService = mountPoint.getEventService();
+        if (eventService == null || bulkChangeSubscriber != null) {
+            return;
+        }
+        this.mountPoint = mountPoint;
+        bulkChangeSubscriber = new EventSubscriber<BulkChangeEvent>() {
+            @Override
+            public void onEvent(BulkChangeEvent event) {
+                if (mountPoint.getWorkspaceId().equals(event.getWorkspaceId())) {
+                    for (BulkChangeEvent.Entry entry : event.getEntries()) {
+                        if (!entry.isFolder()) {
+                            final String path = entry.getPath();
+                            enqueueAdd(path, new Runnable() {
+                                @Override
+                                public void run() {
+                                    try {
+                                        addFile(mountPoint.getVirtualFile(path));
+                                    } catch (NotFoundException e) {
+                                        // Item removed after bulk change, nothing to index.
+                                    } catch (ForbiddenException | ServerException e) {
+                                        LOG.error(e.getMessage(), e);
+                                    }
+                                }
+                            });
+                        }
+                    }
+                }
+            }
+        };
+        eventService.subscribe(bulkChangeSubscriber);
+    }
+
     protected final synchronized void doInit() throws ServerException {
         try {
             luceneIndexWriter = new IndexWriter(makeDirectory(), new IndexWriterConfig(makeAnalyzer()));
@@ -99,50 +241,241 @@ public abstract class LuceneSearcher implements Searcher {
         } catch (IOException e) {
             throw new ServerException(e);
         }
+        lastCommit = System.currentTimeMillis();
+        flushTask = INDEXER.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
     }
 
-    public synchronized void close() {
-        if (!closed) {
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (bulkChangeSubscriber != null) {
+            mountPoint.getEventService().unsubscribe(bulkChangeSubscriber);
+        }
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            if (Thread.currentThread() != indexerThread) {
+                // Apply changes which are still in queue. If indexer thread is applying changes right now, wait until it finishes.
+                flush();
+            }
+        }
+        synchronized (flushLock) {
+            released = true;
             try {
                 IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
             } catch (IOException e) {
                 LOG.error(e.getMessage(), e);
             }
-            closed = true;
+        }
+        synchronized (pendingLock) {
+            // release threads which are waiting for visibility of changes
+            pendingLock.notifyAll();
         }
     }
 
-    public synchronized IndexWriter getIndexWriter() {
+    protected final boolean isClosed() {
+        return closed;
+    }
+
+    public IndexWriter getIndexWriter() {
         return luceneIndexWriter;
     }
 
+    /**
+     * Get token which covers all changes passed to this searcher before this call. Token may be passed to the method {@link
+     * #waitForVisibility(long, long)} to wait until these changes become visible in search results.
+     */
+    public long getVisibilityToken() {
+        synchronized (pendingLock) {
+            return enqueuedGeneration;
+        }
+    }
+
     @Override
-    public String[] search(QueryExpression query) throws ServerException {
-        final BooleanQuery luceneQuery = new BooleanQuery();
-        final String name = query.getName();
-        final String path = query.getPath();
-        final String mediaType = query.getMediaType();
-        final String text = query.getText();
-        if (path != null) {
-            luceneQuery.add(new PrefixQuery(new Term("path", path)), BooleanClause.Occur.MUST);
+    public boolean waitForIndex(long timeout) throws InterruptedException {
+        return waitForVisibility(getVisibilityToken(), timeout);
+    }
+
+    /**
+     * Wait until changes covered by {@code token} become visible in search results. Queued changes are applied to the index immediately
+     * without waiting for next refresh.
+     *
+     * @param token
+     *         token received with method {@link #getVisibilityToken()}
+     * @param timeout
+     *         maximal time to wait in milliseconds
+     * @return {@code true} if changes are visible and {@code false} if timeout is reached or searcher is closed
+     * @throws InterruptedException
+     *         if current thread is interrupted while waiting
+     */
+    public boolean waitForVisibility(long token, long timeout) throws InterruptedException {
+        if (visibleGeneration >= token) {
+            return true;
         }
-        if (name != null) {
-            luceneQuery.add(new WildcardQuery(new Term("name", name)), BooleanClause.Occur.MUST);
+        if (!closed) {
+            try {
+                INDEXER.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        flush();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                return visibleGeneration >= token;
+            }
         }
-        if (mediaType != null) {
-            luceneQuery.add(new TermQuery(new Term("mediatype", mediaType)), BooleanClause.Occur.MUST);
+        final long end = System.currentTimeMillis() + timeout;
+        synchronized (pendingLock) {
+            long wait;
+            while (visibleGeneration < token && !closed && (wait = end - System.currentTimeMillis()) > 0) {
+                pendingLock.wait(wait);
+            }
         }
-        if (text != null) {
-            QueryParser qParser = new QueryParser("text", makeAnalyzer());
+        return visibleGeneration >= token;
+    }
+
+    private void enqueueAdd(String path, Runnable task) {
+        final Runnable contextTask = ThreadLocalPropagateContext.wrap(task);
+        synchronized (pendingLock) {
+            PendingOperation operation = pending.get(path);
+            if (operation == null) {
+                pending.put(path, operation = new PendingOperation());
+            }
+            operation.add = contextTask;
+            enqueuedGeneration++;
+        }
+    }
+
+    private void enqueueDelete(String path, Runnable task) {
+        final Runnable contextTask = ThreadLocalPropagateContext.wrap(task);
+        synchronized (pendingLock) {
+            // Deletion removes from index all items which paths start with deleted path, any queued operation with such items is not
+            // needed anymore.
+            pending.subMap(path, true, path + Character.MAX_VALUE, false).clear();
+            final PendingOperation operation = new PendingOperation();
+            operation.delete = contextTask;
+            pending.put(path, operation);
+            enqueuedGeneration++;
+        }
+    }
+
+    /**
+     * Apply all queued operations to the index and refresh index readers. Operations are applied in order of paths, so deletion of item
+     * is always applied before additions of items which paths start with its path.
+     */
+    private void flush() {
+        synchronized (flushLock) {
+            if (released) {
+                return;
+            }
+            indexerThread = Thread.currentThread();
             try {
-                luceneQuery.add(qParser.parse(text), BooleanClause.Occur.MUST);
-            } catch (ParseException e) {
-                throw new ServerException(e.getMessage());
+                final Map<String, PendingOperation> operations;
+                final long generation;
+                synchronized (pendingLock) {
+                    operations = pending;
+                    generation = enqueuedGeneration;
+                    pending = new TreeMap<>();
+                }
+                if (!operations.isEmpty()) {
+                    final long start = System.currentTimeMillis();
+                    for (PendingOperation operation : operations.values()) {
+                        try {
+                            operation.run();
+                        } catch (RuntimeException e) {
+                            LOG.error(e.getMessage(), e);
+                        }
+                    }
+                    uncommitted = true;
+                    refresh();
+                    LOG.debug("Applied {} index operations, time: {} ms", operations.size(), (System.currentTimeMillis() - start));
+                }
+                if (uncommitted && (closed || System.currentTimeMillis() - lastCommit >= commitInterval)) {
+                    try {
+                        final Map<String, String> commitData = getCommitData();
+                        if (commitData != null) {
+                            getIndexWriter().setCommitData(commitData);
+                        }
+                        getIndexWriter().commit();
+                        uncommitted = false;
+                    } catch (IOException e) {
+                        LOG.error(e.getMessage(), e);
+                    }
+                    lastCommit = System.currentTimeMillis();
+                }
+                synchronized (pendingLock) {
+                    visibleGeneration = generation;
+                    pendingLock.notifyAll();
+                }
+            } finally {
+                indexerThread = null;
+            }
+        }
+    }
+
+    /**
+     * Get user data which must be stored with each commit of index. Implementation that keeps index between restarts may use it to check
+     * whether index is valid. By default this method returns {@code null}, i.e. nothing is stored.
+     */
+    protected Map<String, String> getCommitData() {
+        return null;
+    }
+
+    /** Get statistic of index and queries. */
+    public SearcherStats getStats() {
+        int documents = 0;
+        long indexSize = 0;
+        final IndexWriter writer = getIndexWriter();
+        if (writer != null && !closed) {
+            documents = writer.numDocs();
+            try {
+                final Directory directory = writer.getDirectory();
+                for (String file : directory.listAll()) {
+                    try {
+                        indexSize += directory.fileLength(file);
+                    } catch (IOException ignored) {
+                        // File may be removed by merge while we are counting.
+                    }
+                }
+            } catch (IOException e) {
+                LOG.warn(e.getMessage(), e);
             }
         }
+        return new SearcherStats(documents, indexSize, warmUpTime, queries.get(), TimeUnit.NANOSECONDS.toMicros(queryTime.get()),
+                                 TimeUnit.NANOSECONDS.toMicros(maxQueryTime.get()));
+    }
+
+    private void queryDone(long startNanos) {
+        final long time = System.nanoTime() - startNanos;
+        queries.incrementAndGet();
+        queryTime.addAndGet(time);
+        long max;
+        while ((max = maxQueryTime.get()) < time && !maxQueryTime.compareAndSet(max, time)) {
+        }
+    }
+
+    protected final void refresh() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String[] search(QueryExpression query) throws ServerException {
+        final long start = System.nanoTime();
+        final Query luceneQuery = createQuery(query);
         IndexSearcher luceneSearcher = null;
         try {
-            searcherManager.maybeRefresh();
             luceneSearcher = searcherManager.acquire();
             final TopDocs topDocs = luceneSearcher.search(luceneQuery, RESULT_LIMIT);
             if (topDocs.totalHits > RESULT_LIMIT) {
@@ -161,12 +494,105 @@ public abstract class LuceneSearcher implements Searcher {
             } catch (IOException e) {
                 LOG.error(e.getMessage());
             }
+            queryDone(start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Matched items are sorted by path. Token of next page is encoded path of the last item in the current page, so paging is stable
+     * even if index is refreshed between requests. Size of page is limited with {@code RESULT_LIMIT}.
+     */
+    @Override
+    public SearchResult searchPage(QueryExpression query) throws ServerException {
+        final int skipCount = query.getSkipCount();
+        if (skipCount < 0) {
+            throw new ServerException(String.format("Invalid 'skipCount' parameter: %d. ", skipCount));
+        }
+        final int pageSize = query.getMaxItems() > 0 ? Math.min(query.getMaxItems(), RESULT_LIMIT) : RESULT_LIMIT;
+        // One more item to know whether next page is available.
+        final long numHits = (long)skipCount + pageSize + 1;
+        if (numHits > Integer.MAX_VALUE) {
+            throw new ServerException(String.format("Invalid 'skipCount' parameter: %d. ", skipCount));
+        }
+        final FieldDoc after = query.getPageToken() == null
+                               ? null : new FieldDoc(Integer.MAX_VALUE, Float.NaN, new Object[]{new BytesRef(decodePageToken(query))});
+        final long start = System.nanoTime();
+        final Query luceneQuery = createQuery(query);
+        IndexSearcher luceneSearcher = null;
+        try {
+            luceneSearcher = searcherManager.acquire();
+            final TopDocs topDocs = luceneSearcher.searchAfter(after, luceneQuery, (int)numHits, PATH_SORT);
+            final ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            final int end = Math.min(scoreDocs.length, skipCount + pageSize);
+            final String[] result = new String[Math.max(end - skipCount, 0)];
+            for (int i = skipCount; i < end; i++) {
+                // Path is taken from sort values, no need to load stored fields.
+                result[i - skipCount] = ((BytesRef)((FieldDoc)scoreDocs[i]).fields[0]).utf8ToString();
+            }
+            final String nextPageToken = scoreDocs.length > end && result.length > 0
+                                         ? PAGE_TOKEN_ENCODING.encode(result[result.length - 1].getBytes(StandardCharsets.UTF_8))
+                                         : null;
+            return new SearchResult(result, topDocs.totalHits, nextPageToken);
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        } finally {
+            try {
+                searcherManager.release(luceneSearcher);
+            } catch (IOException e) {
+                LOG.error(e.getMessage());
+            }
+            queryDone(start);
+        }
+    }
+
+    private String decodePageToken(QueryExpression query) throws ServerException {
+        try {
+            return new String(PAGE_TOKEN_ENCODING.decode(query.getPageToken()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ServerException(String.format("Invalid page token: %s. ", query.getPageToken()));
+        }
+    }
+
+    private Query createQuery(QueryExpression query) throws ServerException {
+        final BooleanQuery luceneQuery = new BooleanQuery();
+        final String name = query.getName();
+        final String path = query.getPath();
+        final String mediaType = query.getMediaType();
+        final String text = query.getText();
+        if (path != null) {
+            luceneQuery.add(new PrefixQuery(new Term("path", path)), BooleanClause.Occur.MUST);
+        }
+        if (name != null) {
+            luceneQuery.add(new WildcardQuery(new Term("name", name)), BooleanClause.Occur.MUST);
+        }
+        if (mediaType != null) {
+            luceneQuery.add(new TermQuery(new Term("mediatype", mediaType)), BooleanClause.Occur.MUST);
+        }
+        if (text != null) {
+            QueryParser qParser = new QueryParser("text", makeAnalyzer());
+            try {
+                luceneQuery.add(qParser.parse(text), BooleanClause.Occur.MUST);
+            } catch (ParseException e) {
+                throw new ServerException(e.getMessage());
+            }
         }
+        return luceneQuery;
     }
 
     @Override
-    public final void add(VirtualFile virtualFile) throws ServerException {
-        doAdd(virtualFile);
+    public final void add(final VirtualFile virtualFile) throws ServerException {
+        enqueueAdd(virtualFile.getPath(), new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    doAdd(virtualFile);
+                } catch (ServerException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+        });
     }
 
     protected void doAdd(VirtualFile virtualFile) throws ServerException {
@@ -218,8 +644,17 @@ public abstract class LuceneSearcher implements Searcher {
     }
 
     @Override
-    public final void delete(String path) throws ServerException {
-        doDelete(new Term("path", path));
+    public final void delete(final String path) throws ServerException {
+        enqueueDelete(path, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    doDelete(new Term("path", path));
+                } catch (ServerException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+        });
     }
 
     protected void doDelete(Term deleteTerm) throws ServerException {
@@ -234,8 +669,19 @@ public abstract class LuceneSearcher implements Searcher {
     }
 
     @Override
-    public final void update(VirtualFile virtualFile) throws ServerException {
-        doUpdate(new Term("path", virtualFile.getPath()), virtualFile);
+    public final void update(final VirtualFile virtualFile) throws ServerException {
+        enqueueAdd(virtualFile.getPath(), new Runnable() {
+            @Override
+            public void run() {
+                if (virtualFile.exists()) {
+                    try {
+                        doUpdate(new Term("path", virtualFile.getPath()), virtualFile);
+                    } catch (ServerException e) {
+                        LOG.error(e.getMessage(), e);
+                    }
+                }
+            }
+        });
     }
 
     protected void doUpdate(Term deleteTerm, VirtualFile virtualFile) throws ServerException {
@@ -255,6 +701,9 @@ public abstract class LuceneSearcher implements Searcher {
     protected Document createDocument(VirtualFile virtualFile, Reader inReader) throws ServerException {
         final Document doc = new Document();
         doc.add(new StringField("path", virtualFile.getPath(), Field.Store.YES));
+        doc.add(new SortedDocValuesField("path", new BytesRef(virtualFile.getPath())));
+        doc.add(new NumericDocValuesField("modified", virtualFile.getLastModificationDate()));
+        doc.add(new NumericDocValuesField("length", virtualFile.getLength()));
         doc.add(new StringField("name", virtualFile.getName(), Field.Store.YES));
         doc.add(new StringField("mediatype", getMediaType(virtualFile), Field.Store.YES));
         if (inReader != null) {
@@ -273,4 +722,26 @@ public abstract class LuceneSearcher implements Searcher {
         return mediaType;
     }
 
+    private static ScheduledExecutorService createIndexer() {
+        final ScheduledThreadPoolExecutor indexer = new ScheduledThreadPoolExecutor(
+                INDEXER_THREADS, new ThreadFactoryBuilder().setNameFormat("LuceneSearcherIndexer-%d").setDaemon(true).build());
+        indexer.setRemoveOnCancelPolicy(true);
+        return indexer;
+    }
+
+    /** Queued operations with single path. Deletion, if any, is applied before addition. */
+    private static class PendingOperation implements Runnable {
+        Runnable delete;
+        Runnable add;
+
+        @Override
+        public void run() {
+            if (delete != null) {
+                delete.run();
+            }
+            if (add != null) {
+                add.run();
+            }
+        }
+    }
 }
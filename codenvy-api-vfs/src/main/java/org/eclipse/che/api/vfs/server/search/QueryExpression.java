@@ -16,6 +16,9 @@ public class QueryExpression {
     private String path;
     private String mediaType;
     private String text;
+    private int    skipCount;
+    private int    maxItems;
+    private String pageToken;
 
     public String getPath() {
         return path;
@@ -53,6 +56,36 @@ public class QueryExpression {
         return this;
     }
 
+    public int getSkipCount() {
+        return skipCount;
+    }
+
+    /** Set number of matched items to skip. Items are skipped after position specified by page token, if any. */
+    public QueryExpression setSkipCount(int skipCount) {
+        this.skipCount = skipCount;
+        return this;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    /** Set max number of items in one page of result. Zero or negative value means default size of page. */
+    public QueryExpression setMaxItems(int maxItems) {
+        this.maxItems = maxItems;
+        return this;
+    }
+
+    public String getPageToken() {
+        return pageToken;
+    }
+
+    /** Set token of next page returned by previous search with {@link SearchResult#getNextPageToken()}. */
+    public QueryExpression setPageToken(String pageToken) {
+        this.pageToken = pageToken;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "QueryExpression{" +
@@ -60,6 +93,9 @@ public class QueryExpression {
                ", path='" + path + '\'' +
                ", mediaType='" + mediaType + '\'' +
                ", text='" + text + '\'' +
+               ", skipCount=" + skipCount +
+               ", maxItems=" + maxItems +
+               ", pageToken='" + pageToken + '\'' +
                '}';
     }
 }
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+/**
+ * One page of search result.
+ *
+ * @see Searcher#searchPage(QueryExpression)
+ */
+public class SearchResult {
+    private final String[] filePaths;
+    private final int      totalHits;
+    private final String   nextPageToken;
+
+    public SearchResult(String[] filePaths, int totalHits, String nextPageToken) {
+        this.filePaths = filePaths;
+        this.totalHits = totalHits;
+        this.nextPageToken = nextPageToken;
+    }
+
+    /** Get paths of matched items in current page. */
+    public String[] getFilePaths() {
+        return filePaths;
+    }
+
+    /** Get total number of matched items in all pages. */
+    public int getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * Get token of next page. Token may be passed to the method {@link QueryExpression#setPageToken(String)} to get next page of
+     * result. This method returns {@code null} if current page is the last one.
+     */
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+}
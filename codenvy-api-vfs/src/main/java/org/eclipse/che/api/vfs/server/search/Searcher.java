@@ -25,6 +25,20 @@ public interface Searcher {
      */
     String[] search(QueryExpression query) throws ServerException;
 
+    /**
+     * Return one page of paths of matched items on virtual filesystem. Size and position of page are specified with {@link
+     * QueryExpression#getMaxItems()}, {@link QueryExpression#getSkipCount()} and {@link QueryExpression#getPageToken()}. Unlike to
+     * {@link #search(QueryExpression)} this method is not limited with number of matched items, all of them may be fetched page by page
+     * using token of next page.
+     *
+     * @param query
+     *         query expression
+     * @return page of paths of matched items
+     * @throws ServerException
+     *         if an error occurs
+     */
+    SearchResult searchPage(QueryExpression query) throws ServerException;
+
     /**
      * Add VirtualFile to index.
      *
@@ -55,6 +69,18 @@ public interface Searcher {
      */
     void update(VirtualFile virtualFile) throws ServerException;
 
+    /**
+     * Wait until all changes passed to this Searcher before this call become visible in search results. Index is updated asynchronously,
+     * so items which are added or updated right before search may be not found without waiting.
+     *
+     * @param timeout
+     *         maximal time to wait in milliseconds
+     * @return {@code true} if changes are visible and {@code false} if timeout is reached or Searcher is closed
+     * @throws InterruptedException
+     *         if current thread is interrupted while waiting
+     */
+    boolean waitForIndex(long timeout) throws InterruptedException;
+
     /** Close Searcher. */
     void close();
 }
\ No newline at end of file
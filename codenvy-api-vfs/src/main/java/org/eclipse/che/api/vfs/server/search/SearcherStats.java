@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+/**
+ * Statistic of Lucene index and queries.
+ *
+ * @see LuceneSearcher#getStats()
+ */
+public class SearcherStats {
+    private final int  documents;
+    private final long indexSize;
+    private final long warmUpTime;
+    private final long queries;
+    private final long totalQueryTime;
+    private final long maxQueryTime;
+
+    public SearcherStats(int documents, long indexSize, long warmUpTime, long queries, long totalQueryTime, long maxQueryTime) {
+        this.documents = documents;
+        this.indexSize = indexSize;
+        this.warmUpTime = warmUpTime;
+        this.queries = queries;
+        this.totalQueryTime = totalQueryTime;
+        this.maxQueryTime = maxQueryTime;
+    }
+
+    /** Get number of documents in index. */
+    public int getDocuments() {
+        return documents;
+    }
+
+    /** Get size of index in bytes. */
+    public long getIndexSize() {
+        return indexSize;
+    }
+
+    /** Get time in milliseconds spent to make index ready for search after start. */
+    public long getWarmUpTime() {
+        return warmUpTime;
+    }
+
+    /** Get number of executed queries. */
+    public long getQueries() {
+        return queries;
+    }
+
+    /** Get total time in microseconds of all executed queries. */
+    public long getTotalQueryTime() {
+        return totalQueryTime;
+    }
+
+    /** Get average time in microseconds of query. */
+    public long getAverageQueryTime() {
+        return queries == 0 ? 0 : totalQueryTime / queries;
+    }
+
+    /** Get max time in microseconds of query. */
+    public long getMaxQueryTime() {
+        return maxQueryTime;
+    }
+
+    @Override
+    public String toString() {
+        return "SearcherStats{" +
+               "documents=" + documents +
+               ", indexSize=" + indexSize +
+               ", warmUpTime=" + warmUpTime +
+               ", queries=" + queries +
+               ", totalQueryTime=" + totalQueryTime +
+               ", maxQueryTime=" + maxQueryTime +
+               '}';
+    }
+}
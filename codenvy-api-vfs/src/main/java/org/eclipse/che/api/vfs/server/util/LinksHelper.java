@@ -181,6 +181,101 @@ public class LinksHelper {
                   createLink(createURI(baseUriBuilder.clone(), wsName, "uploadzip", id), Link.REL_UPLOAD_ZIP, MediaType.TEXT_HTML));
     }
 
+    /**
+     * Creates templates of links of files and folders. Templates are used instead of links of each item when client gets big list of
+     * items. Placeholders aren't URL-encoded, so client may find and replace them in href. See {@link
+     * org.eclipse.che.api.vfs.shared.dto.ItemList#getLinks()}.
+     */
+    public static Map<String, Link> createItemLinkTemplates(URI baseUri, String wsName) {
+        final Map<String, Link> templates = new HashMap<>(32, 1.0f);
+        final UriBuilder baseUriBuilder = UriBuilder.fromUri(baseUri).path(VirtualFileSystemFactory.class)
+                                                    .path(VirtualFileSystemFactory.class, "getFileSystem");
+        // common links
+        templates.put(Link.REL_SELF,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "item", "[id]"), Link.REL_SELF, MediaType.APPLICATION_JSON));
+
+        templates.put(Link.REL_ACL,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "acl", "[id]"), Link.REL_ACL, MediaType.APPLICATION_JSON));
+
+        templates.put(Link.REL_PARENT,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "item", "[parentId]"), Link.REL_PARENT,
+                                 MediaType.APPLICATION_JSON));
+
+        templates.put(Link.REL_DELETE,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "delete", "[id]"), Link.REL_DELETE, null));
+
+        templates.put(Link.REL_COPY,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "copy", "[id]", "parentId", "[parentId]"), Link.REL_COPY,
+                                 MediaType.APPLICATION_JSON));
+
+        templates.put(Link.REL_MOVE,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "move", "[id]", "parentId", "[parentId]"), Link.REL_MOVE,
+                                 MediaType.APPLICATION_JSON));
+
+        templates.put(Link.REL_RENAME,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "rename", "[id]", "newname", "[newname]", "mediaType",
+                                           "[mediaType]"), Link.REL_RENAME, MediaType.APPLICATION_JSON));
+        // file links
+        templates.put(Link.REL_CONTENT,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "content", "[id]"), Link.REL_CONTENT, null));
+
+        templates.put(Link.REL_DOWNLOAD_FILE,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "downloadfile", "[id]"), Link.REL_DOWNLOAD_FILE, null));
+
+        templates.put(Link.REL_CONTENT_BY_PATH,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "contentbypath", "[path]"), Link.REL_CONTENT_BY_PATH, null));
+
+        templates.put(Link.REL_VERSION_HISTORY,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "version-history", "[id]"), Link.REL_VERSION_HISTORY,
+                                 MediaType.APPLICATION_JSON));
+
+        templates.put(Link.REL_CURRENT_VERSION,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "item", "[id]"), Link.REL_CURRENT_VERSION,
+                                 MediaType.APPLICATION_JSON));
+
+        templates.put(Link.REL_LOCK,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "lock", "[id]", "timeout", "[timeout]"), Link.REL_LOCK,
+                                 MediaType.APPLICATION_JSON));
+
+        templates.put(Link.REL_UNLOCK,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "unlock", "[id]", "lockToken", "[lockToken]"),
+                                 Link.REL_UNLOCK, null));
+        // folder links
+        templates.put(Link.REL_CHILDREN,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "children", "[id]"), Link.REL_CHILDREN,
+                                 MediaType.APPLICATION_JSON));
+
+        templates.put(Link.REL_TREE,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "tree", "[id]"), Link.REL_TREE, MediaType.APPLICATION_JSON));
+
+        templates.put(Link.REL_CREATE_FOLDER,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "folder", "[id]", "name", "[name]"), Link.REL_CREATE_FOLDER,
+                                 MediaType.APPLICATION_JSON));
+
+        templates.put(Link.REL_CREATE_FILE,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "file", "[id]", "name", "[name]"), Link.REL_CREATE_FILE,
+                                 MediaType.APPLICATION_JSON));
+
+        templates.put(Link.REL_UPLOAD_FILE,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "uploadfile", "[id]"), Link.REL_UPLOAD_FILE,
+                                 MediaType.TEXT_HTML));
+
+        templates.put(Link.REL_EXPORT,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "export", "[id]"), Link.REL_EXPORT, "application/zip"));
+
+        templates.put(Link.REL_IMPORT,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "import", "[id]"), Link.REL_IMPORT, "application/zip"));
+
+        templates.put(Link.REL_DOWNLOAD_ZIP,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "downloadzip", "[id]"), Link.REL_DOWNLOAD_ZIP,
+                                 "application/zip"));
+
+        templates.put(Link.REL_UPLOAD_ZIP,
+                      createLink(createTemplateURI(baseUriBuilder.clone(), wsName, "uploadzip", "[id]"), Link.REL_UPLOAD_ZIP,
+                                 MediaType.TEXT_HTML));
+        return templates;
+    }
+
     public static Map<String, Link> createUrlTemplates(URI baseUri, String wsName) {
         final Map<String, Link> templates = new HashMap<>(16, 1.0f);
         final UriBuilder baseUriBuilder = UriBuilder.fromUri(baseUri).path(VirtualFileSystemFactory.class)
@@ -262,6 +357,16 @@ public class LinksHelper {
         return myUriBuilder.build(wsName).toString();
     }
 
+    /** Same as {@link #createURI(UriBuilder, String, String, String, String...)} but placeholders in templates are left unencoded. */
+    private static String createTemplateURI(UriBuilder baseUriBuilder, String wsName, String rel, String id, String... query) {
+        final StringBuilder uri = new StringBuilder(baseUriBuilder.path(rel).build(wsName).toString());
+        uri.append('/').append(id);
+        for (int i = 0; i + 1 < query.length; i += 2) {
+            uri.append(i == 0 ? '?' : '&').append(query[i]).append('=').append(query[i + 1]);
+        }
+        return uri.toString();
+    }
+
     private LinksHelper() {
     }
 }
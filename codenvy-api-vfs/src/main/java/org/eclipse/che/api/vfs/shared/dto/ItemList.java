@@ -13,6 +13,7 @@ package org.eclipse.che.api.vfs.shared.dto;
 import org.eclipse.che.dto.shared.DTO;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Set of abstract items for paging view.
@@ -45,4 +46,39 @@ public interface ItemList {
     ItemList withHasMoreItems(boolean hasMoreItems);
 
     void setHasMoreItems(boolean hasMoreItems);
+
+    /**
+     * @return token of next page. Token may be passed in next request to get next sub-set of items. It is {@code null} if this is
+     *         last sub-set of items in paging or if paging with tokens is not supported
+     */
+    String getNextPageToken();
+
+    ItemList withNextPageToken(String nextPageToken);
+
+    void setNextPageToken(String nextPageToken);
+
+    /**
+     * Get templates of links of items in this list. Templates are added instead of links of each item if client requests it. Template
+     * contains placeholders which should be replaced with properties of item:
+     * <ul>
+     * <li>[id] - id of item</li>
+     * <li>[path] - path of item without leading '/'</li>
+     * <li>[parentId] - id of parent of item, in templates of copy and move links it is id of destination folder</li>
+     * <li>[newname] - new name of item in template of rename link</li>
+     * <li>[mediaType] - new media type of item in template of rename link</li>
+     * <li>[timeout] - timeout of lock in milliseconds in template of lock link</li>
+     * <li>[lockToken] - lock token of file in template of unlock link</li>
+     * <li>[name] - name of new item in templates of create file and create folder links</li>
+     * </ul>
+     * Placeholders aren't URL-encoded in templates, values which replace them must be URL-encoded by client. Templates of links which
+     * are specific for folders or files must be applied to items of corresponding type only. Query parameter {@code lockToken} must be
+     * added to delete, move and rename links of locked files.
+     *
+     * @return templates of links, map key is relation of link. Empty map if items contain own links.
+     */
+    Map<String, Link> getLinks();
+
+    ItemList withLinks(Map<String, Link> links);
+
+    void setLinks(Map<String, Link> links);
 }
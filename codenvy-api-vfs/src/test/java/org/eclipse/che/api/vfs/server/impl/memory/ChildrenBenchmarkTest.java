@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.impl.memory;
+
+import org.eclipse.che.api.vfs.server.VirtualFile;
+import org.everrest.core.impl.ContainerResponse;
+import org.everrest.core.tools.ByteArrayContainerResponseWriter;
+
+import java.io.ByteArrayInputStream;
+
+/** Measures listing of big folder with own links of each item and with link templates. Runs only with profile 'benchmark'. */
+public class ChildrenBenchmarkTest extends MemoryFileSystemTest {
+    private static final int ITEMS = 2000;
+
+    private String bigFolderId;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        String name = getClass().getName();
+        VirtualFile bigFolder = mountPoint.getRoot().createFolder(name).createFolder("ChildrenTest_BIG_FOLDER");
+        for (int i = 0; i < ITEMS; i++) {
+            if (i % 10 == 0) {
+                bigFolder.createFolder("folder" + i);
+            } else {
+                bigFolder.createFile("file" + i, "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
+            }
+        }
+        bigFolderId = bigFolder.getId();
+    }
+
+    public void testGetChildrenLinkTemplatesPerformance() throws Exception {
+        final int iterations = 20;
+        for (String query : new String[]{"", "?linkTemplates=true"}) {
+            String path = SERVICE_URI + "children/" + bigFolderId + query;
+            // warm up
+            launcher.service("GET", path, BASE_URI, null, null, null);
+            long length = 0;
+            final long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+                ContainerResponse response = launcher.service("GET", path, BASE_URI, null, null, writer, null);
+                assertEquals(200, response.getStatus());
+                length = writer.getBody().length;
+            }
+            final long end = System.nanoTime();
+            log.info("{} listings of folder with {} items{}, average time: {} ms, response size: {} bytes",
+                     iterations, ITEMS, query.isEmpty() ? "" : " with link templates", (end - start) / iterations / 1000000, length);
+        }
+    }
+}
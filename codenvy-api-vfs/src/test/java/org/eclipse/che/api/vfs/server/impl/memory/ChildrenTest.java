@@ -14,6 +14,7 @@ import org.eclipse.che.api.vfs.server.VirtualFile;
 import org.eclipse.che.api.vfs.shared.ItemType;
 import org.eclipse.che.api.vfs.shared.dto.Item;
 import org.eclipse.che.api.vfs.shared.dto.ItemList;
+import org.eclipse.che.api.vfs.shared.dto.Link;
 import org.eclipse.che.api.vfs.shared.dto.Principal;
 import org.eclipse.che.api.vfs.shared.dto.Property;
 import org.eclipse.che.api.vfs.shared.dto.VirtualFileSystemInfo.BasicPermissions;
@@ -218,6 +219,32 @@ public class ChildrenTest extends MemoryFileSystemTest {
         }
     }
 
+    public void testGetChildrenLinkTemplates() throws Exception {
+        String path = SERVICE_URI + "children/" + folderId + "?" + "linkTemplates=true";
+        ContainerResponse response = launcher.service("GET", path, BASE_URI, null, null, null);
+        assertEquals(200, response.getStatus());
+        ItemList children = (ItemList)response.getEntity();
+        assertEquals(3, children.getItems().size());
+        for (Item i : children.getItems()) {
+            assertTrue(i.getLinks().isEmpty());
+        }
+        Map<String, Link> templates = children.getLinks();
+        assertEquals(SERVICE_URI + "item/[id]", templates.get(Link.REL_SELF).getHref());
+        assertEquals(SERVICE_URI + "children/[id]", templates.get(Link.REL_CHILDREN).getHref());
+        assertEquals(SERVICE_URI + "contentbypath/[path]", templates.get(Link.REL_CONTENT_BY_PATH).getHref());
+        assertEquals(SERVICE_URI + "rename/[id]?newname=[newname]&mediaType=[mediaType]", templates.get(Link.REL_RENAME).getHref());
+
+        // Each item has own links by default.
+        path = SERVICE_URI + "children/" + folderId;
+        response = launcher.service("GET", path, BASE_URI, null, null, null);
+        assertEquals(200, response.getStatus());
+        children = (ItemList)response.getEntity();
+        assertTrue(children.getLinks().isEmpty());
+        for (Item i : children.getItems()) {
+            validateLinks(i);
+        }
+    }
+
     @SuppressWarnings("rawtypes")
     private boolean hasProperty(Item i, String propertyName) {
         List<Property> properties = i.getProperties();
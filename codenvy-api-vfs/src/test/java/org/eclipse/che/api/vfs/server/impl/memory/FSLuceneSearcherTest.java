@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.impl.memory;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.vfs.server.VirtualFile;
+import org.eclipse.che.api.vfs.server.search.FSLuceneSearcher;
+import org.eclipse.che.api.vfs.server.search.FSLuceneSearcherProvider;
+import org.eclipse.che.api.vfs.server.search.QueryExpression;
+import org.eclipse.che.api.vfs.server.search.Searcher;
+import org.eclipse.che.api.vfs.server.search.SearcherStats;
+import org.eclipse.che.commons.lang.IoUtil;
+import com.google.common.collect.Sets;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+public class FSLuceneSearcherTest extends MemoryFileSystemTest {
+    private File             indexDirectory;
+    private FSLuceneSearcher searcher;
+    private VirtualFile      searchTestFolder;
+    private String           file1;
+    private String           file2;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        indexDirectory = Files.createTempDirectory("index").toFile();
+        searchTestFolder = mountPoint.getRoot().createFolder("FSLuceneSearcherTest");
+        file1 = searchTestFolder.createFile("file1", "text/plain", new ByteArrayInputStream("to be or not to be".getBytes())).getPath();
+        file2 = searchTestFolder.createFile("file2", "text/plain", new ByteArrayInputStream("to be or not to be".getBytes())).getPath();
+        searcher = newSearcher();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        searcher.close();
+        assertTrue("Unable remove index directory", IoUtil.deleteRecursive(indexDirectory));
+        super.tearDown();
+    }
+
+    public void testReuseIndexAfterRestart() throws Exception {
+        assertEquals(Arrays.asList(file1, file2), search("be"));
+        searcher.close();
+
+        // Be sure modification date is changed.
+        Thread.sleep(10);
+        searchTestFolder.getChild("file1").updateContent("text/plain", new ByteArrayInputStream("updated".getBytes()), null);
+        searchTestFolder.getChild("file2").delete(null);
+        final String file3 =
+                searchTestFolder.createFile("file3", "text/plain", new ByteArrayInputStream("to be or not to be".getBytes())).getPath();
+
+        searcher = newSearcher();
+        assertEquals(Arrays.asList(file1), search("updated"));
+        assertEquals(Arrays.asList(file3), search("be"));
+        final SearcherStats stats = searcher.getStats();
+        log.info("{}", stats);
+        assertEquals(2, stats.getDocuments());
+        assertTrue(stats.getIndexSize() > 0);
+        assertEquals(2, stats.getQueries());
+    }
+
+    public void testRecreateIndexOfAnotherWorkspace() throws Exception {
+        searcher.close();
+        final MemoryMountPoint otherMountPoint = new MemoryMountPoint("other-ws", new EventService(), null, mountPoint.getUserContext());
+        otherMountPoint.getRoot().createFile("other", "text/plain", new ByteArrayInputStream("to be or not to be".getBytes()));
+        searcher = new FSLuceneSearcher(Sets.newHashSet("text/plain"), indexDirectory);
+        searcher.init(otherMountPoint);
+        assertEquals(Arrays.asList("/other"), search("be"));
+    }
+
+    public void testCloseIdleSearcher() throws Exception {
+        searcher.close();
+        final FSLuceneSearcherProvider searcherProvider = new FSLuceneSearcherProvider(indexDirectory, 100);
+        try {
+            final Searcher first = searcherProvider.getSearcher(mountPoint, true);
+            assertSame(first, searcherProvider.getSearcher(mountPoint, true));
+            Thread.sleep(200);
+            final Searcher second = searcherProvider.getSearcher(mountPoint, true);
+            assertNotSame(first, second);
+            assertEquals(2, second.searchPage(new QueryExpression().setText("be")).getFilePaths().length);
+        } finally {
+            searcherProvider.close();
+        }
+    }
+
+    private FSLuceneSearcher newSearcher() throws Exception {
+        final FSLuceneSearcher searcher = new FSLuceneSearcher(Sets.newHashSet("text/plain"), indexDirectory);
+        searcher.init(mountPoint);
+        return searcher;
+    }
+
+    private List<String> search(String text) throws Exception {
+        return Arrays.asList(searcher.searchPage(new QueryExpression().setText(text)).getFilePaths());
+    }
+}
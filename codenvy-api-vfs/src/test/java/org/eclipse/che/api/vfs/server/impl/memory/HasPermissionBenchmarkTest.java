@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.impl.memory;
+
+import org.eclipse.che.api.vfs.server.VirtualFile;
+import org.eclipse.che.api.vfs.shared.dto.Principal;
+import org.eclipse.che.api.vfs.shared.dto.VirtualFileSystemInfo.BasicPermissions;
+import com.google.common.collect.Sets;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/** Measures permission checks of deep file with big inherited ACL. Runs only with profile 'benchmark'. */
+public class HasPermissionBenchmarkTest extends MemoryFileSystemTest {
+    private static final int DEPTH = 100;
+
+    private VirtualFile top;
+    private VirtualFile leaf;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        String name = getClass().getName();
+        top = mountPoint.getRoot().createFolder(name).createFolder("top");
+        VirtualFile current = top;
+        for (int i = 0; i < DEPTH; i++) {
+            current = current.createFolder("level" + i);
+        }
+        leaf = current.createFile("leaf", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
+    }
+
+    public void testHasPermissionPerformance() throws Exception {
+        Map<Principal, Set<String>> permissions = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            permissions.put(createPrincipal("user" + i, Principal.Type.USER), Sets.newHashSet(BasicPermissions.READ.value()));
+        }
+        for (int i = 0; i < 200; i++) {
+            permissions.put(createPrincipal("group" + i, Principal.Type.GROUP), Sets.newHashSet(BasicPermissions.READ.value()));
+        }
+        permissions.put(createPrincipal("workspace/developer", Principal.Type.GROUP), Sets.newHashSet(BasicPermissions.ALL.value()));
+        top.updateACL(createAcl(permissions), true, null);
+
+        final MemoryVirtualFile myLeaf = (MemoryVirtualFile)leaf;
+        final int iterations = 100000;
+        final long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            assertTrue(myLeaf.hasPermission(BasicPermissions.WRITE.value(), true));
+        }
+        final long end = System.nanoTime();
+        log.info("{} permission checks on depth {} with {} principals in ACL, time: {} ms",
+                 iterations, DEPTH, permissions.size(), (end - start) / 1000000);
+    }
+}
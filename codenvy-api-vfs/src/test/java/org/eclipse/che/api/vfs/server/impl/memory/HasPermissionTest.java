@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.impl.memory;
+
+import org.eclipse.che.api.vfs.server.VirtualFile;
+import org.eclipse.che.api.vfs.shared.dto.Principal;
+import org.eclipse.che.api.vfs.shared.dto.VirtualFileSystemInfo.BasicPermissions;
+import com.google.common.collect.Sets;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class HasPermissionTest extends MemoryFileSystemTest {
+    private static final int DEPTH = 100;
+
+    private VirtualFile hasPermissionTestFolder;
+    private VirtualFile top;
+    private VirtualFile leaf;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        String name = getClass().getName();
+        hasPermissionTestFolder = mountPoint.getRoot().createFolder(name);
+        top = hasPermissionTestFolder.createFolder("top");
+        VirtualFile current = top;
+        for (int i = 0; i < DEPTH; i++) {
+            current = current.createFolder("level" + i);
+        }
+        leaf = current.createFile("leaf", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
+    }
+
+    public void testPermissionsUpdatedAfterParentACLUpdate() throws Exception {
+        assertTrue(((MemoryVirtualFile)leaf).hasPermission(BasicPermissions.WRITE.value(), true));
+
+        Map<Principal, Set<String>> permissions = new HashMap<>(1);
+        permissions.put(createPrincipal("john", Principal.Type.USER),
+                        Sets.newHashSet(BasicPermissions.READ.value(), BasicPermissions.UPDATE_ACL.value()));
+        top.updateACL(createAcl(permissions), true, null);
+        assertTrue(((MemoryVirtualFile)leaf).hasPermission(BasicPermissions.READ.value(), true));
+        assertFalse(((MemoryVirtualFile)leaf).hasPermission(BasicPermissions.WRITE.value(), true));
+        // Own ACL of leaf is empty.
+        assertTrue(((MemoryVirtualFile)leaf).hasPermission(BasicPermissions.WRITE.value(), false));
+
+        permissions.put(createPrincipal("john", Principal.Type.USER), Sets.newHashSet(BasicPermissions.ALL.value()));
+        top.updateACL(createAcl(permissions), true, null);
+        assertTrue(((MemoryVirtualFile)leaf).hasPermission(BasicPermissions.WRITE.value(), true));
+    }
+
+    public void testPermissionsUpdatedAfterMove() throws Exception {
+        VirtualFile restricted = hasPermissionTestFolder.createFolder("restricted");
+        Map<Principal, Set<String>> permissions = new HashMap<>(1);
+        permissions.put(createPrincipal("workspace/developer", Principal.Type.GROUP),
+                        Sets.newHashSet(BasicPermissions.READ.value(), BasicPermissions.WRITE.value()));
+        restricted.updateACL(createAcl(permissions), true, null);
+
+        assertTrue(((MemoryVirtualFile)leaf).hasPermission(BasicPermissions.UPDATE_ACL.value(), true));
+        leaf.moveTo(restricted, null);
+        assertFalse(((MemoryVirtualFile)leaf).hasPermission(BasicPermissions.UPDATE_ACL.value(), true));
+        assertTrue(((MemoryVirtualFile)leaf).hasPermission(BasicPermissions.WRITE.value(), true));
+    }
+
+    public void testPermissionsUpdatedAfterOwnACLUpdate() throws Exception {
+        Map<Principal, Set<String>> permissions = new HashMap<>(1);
+        permissions.put(createPrincipal("john", Principal.Type.USER),
+                        Sets.newHashSet(BasicPermissions.READ.value(), BasicPermissions.UPDATE_ACL.value()));
+        leaf.updateACL(createAcl(permissions), true, null);
+        assertFalse(((MemoryVirtualFile)leaf).hasPermission(BasicPermissions.WRITE.value(), false));
+
+        permissions.put(createPrincipal("john", Principal.Type.USER), Sets.newHashSet(BasicPermissions.ALL.value()));
+        leaf.updateACL(createAcl(permissions), true, null);
+        assertTrue(((MemoryVirtualFile)leaf).hasPermission(BasicPermissions.WRITE.value(), false));
+    }
+}
@@ -12,15 +12,22 @@ package org.eclipse.che.api.vfs.server.impl.memory;
 
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.vfs.server.VirtualFile;
-import org.eclipse.che.api.vfs.server.observation.CreateEvent;
+import org.eclipse.che.api.vfs.server.observation.BulkChangeEvent;
 import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
+import org.eclipse.che.api.vfs.shared.dto.Principal;
+import org.eclipse.che.api.vfs.shared.dto.VirtualFileSystemInfo.BasicPermissions;
+import com.google.common.collect.Sets;
 
 import org.everrest.core.impl.ContainerResponse;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -31,9 +38,9 @@ public class ImportTest extends MemoryFileSystemTest {
 
     private List<VirtualFileEvent> events;
 
-    private EventSubscriber<CreateEvent> eventSubscriber = new EventSubscriber<CreateEvent>() {
+    private EventSubscriber<VirtualFileEvent> eventSubscriber = new EventSubscriber<VirtualFileEvent>() {
         @Override
-        public void onEvent(CreateEvent event) {
+        public void onEvent(VirtualFileEvent event) {
             events.add(event);
         }
     };
@@ -92,12 +99,16 @@ public class ImportTest extends MemoryFileSystemTest {
         checkFileContext(DEFAULT_CONTENT, "text/plain", file3);
 
 
-        assertEquals(6, events.size());
+        assertEquals(1, events.size());
+        assertEquals(VirtualFileEvent.ChangeType.BULK_CHANGED, events.get(0).getType());
+        assertEquals(parent.getPath(), events.get(0).getPath());
 
-        List<VirtualFileEvent> _events = new ArrayList<>(events);
+        List<BulkChangeEvent.Entry> _events = new ArrayList<>(((BulkChangeEvent)events.get(0)).getEntries());
+        assertEquals(6, _events.size());
 
-        for (Iterator<VirtualFileEvent> iterator = _events.iterator(); iterator.hasNext(); ) {
-            VirtualFileEvent event = iterator.next();
+        for (Iterator<BulkChangeEvent.Entry> iterator = _events.iterator(); iterator.hasNext(); ) {
+            BulkChangeEvent.Entry event = iterator.next();
+            assertEquals(VirtualFileEvent.ChangeType.CREATED, event.getType());
             if (event.getPath().equals(folder1.getPath())
                 || event.getPath().equals(folder2.getPath())
                 || event.getPath().equals(folder3.getPath())
@@ -112,4 +123,17 @@ public class ImportTest extends MemoryFileSystemTest {
 
         assertEquals(0, _events.size());
     }
+
+    public void testImportOverwriteFileWithoutWritePermission() throws Exception {
+        VirtualFile parent = mountPoint.getVirtualFileById(importTestRootId);
+        VirtualFile file1 = parent.createFolder("folder1").createFile("file1.txt", "text/plain", new ByteArrayInputStream("original".getBytes()));
+        Map<Principal, Set<String>> permissions = new HashMap<>(1);
+        permissions.put(createPrincipal("john", Principal.Type.USER), Sets.newHashSet(BasicPermissions.READ.value()));
+        file1.updateACL(createAcl(permissions), true, null);
+
+        String path = SERVICE_URI + "import/" + importTestRootId + "?overwrite=true";
+        ContainerResponse response = launcher.service("POST", path, BASE_URI, null, zipFolder, null);
+        assertEquals(403, response.getStatus());
+        checkFileContext("original", "text/plain", file1);
+    }
 }
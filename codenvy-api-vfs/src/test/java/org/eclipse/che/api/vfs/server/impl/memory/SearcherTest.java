@@ -87,6 +87,16 @@ public class SearcherTest extends MemoryFileSystemTest {
         // name + media type
         queryToResult[8] = new Pair<>(new String[]{file2, file3}, "name=SearcherTest*&mediaType=text/plain");
         queryToResult[9] = new Pair<>(new String[]{file1}, "name=SearcherTest*&mediaType=text/xml");
+        waitForIndex();
+    }
+
+    private void waitForIndex() throws Exception {
+        assertTrue("Changes are not visible in index. ", searcher.waitForIndex(10000));
+    }
+
+    private void refreshIndex() throws Exception {
+        waitForIndex();
+        searcherManager.maybeRefresh();
     }
 
     @SuppressWarnings({"rawtypes", "unchecked"})
@@ -115,15 +125,45 @@ public class SearcherTest extends MemoryFileSystemTest {
         }
     }
 
+    public void testSearchPaging() throws Exception {
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        Map<String, List<String>> h = new HashMap<>(1);
+        h.put("Content-Type", Arrays.asList("application/x-www-form-urlencoded"));
+        byte[] query = ("path=" + searchTestPath).getBytes();
+        ContainerResponse response =
+                launcher.service("POST", SERVICE_URI + "search?maxItems=2", BASE_URI, h, query, writer, null);
+        assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+        ItemList page = (ItemList)response.getEntity();
+        assertEquals(2, page.getItems().size());
+        assertEquals(3, page.getNumItems());
+        assertTrue(page.isHasMoreItems());
+        assertNotNull(page.getNextPageToken());
+        List<String> resultPaths = new ArrayList<>(3);
+        for (Item item : page.getItems()) {
+            resultPaths.add(item.getPath());
+        }
+
+        writer.reset();
+        response = launcher.service("POST", SERVICE_URI + "search?maxItems=2&pageToken=" + page.getNextPageToken(), BASE_URI, h, query,
+                                    writer, null);
+        assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+        page = (ItemList)response.getEntity();
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMoreItems());
+        assertNull(page.getNextPageToken());
+        resultPaths.add(page.getItems().get(0).getPath());
+        assertEquals(Arrays.asList(file1, file2, file3), resultPaths);
+    }
+
     public void testDelete() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshIndex();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new TermQuery(new Term("path", file1)), 10);
         assertEquals(1, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
 
         mountPoint.getVirtualFile(file1).delete(null);
-        searcherManager.maybeRefresh();
+        refreshIndex();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new TermQuery(new Term("path", file1)), 10);
         assertEquals(0, topDocs.totalHits);
@@ -131,29 +171,43 @@ public class SearcherTest extends MemoryFileSystemTest {
     }
 
     public void testDelete2() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshIndex();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
         assertEquals(3, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
 
         mountPoint.getVirtualFile(searchTestPath).delete(null);
-        searcherManager.maybeRefresh();
+        refreshIndex();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
         assertEquals(0, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
     }
 
+    public void testDeleteAndCreateAgain() throws Exception {
+        refreshIndex();
+        VirtualFile folder = mountPoint.getVirtualFile(searchTestPath);
+        VirtualFile parent = folder.getParent();
+        folder.delete(null);
+        parent.createFolder(folder.getName()).createFile("new_file", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
+
+        refreshIndex();
+        IndexSearcher luceneSearcher = searcherManager.acquire();
+        TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
+        assertEquals(1, topDocs.totalHits);
+        searcherManager.release(luceneSearcher);
+    }
+
     public void testAdd() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshIndex();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
         assertEquals(3, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(searchTestPath).createFile("new_file", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
 
-        searcherManager.maybeRefresh();
+        refreshIndex();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
         assertEquals(4, topDocs.totalHits);
@@ -161,7 +215,7 @@ public class SearcherTest extends MemoryFileSystemTest {
     }
 
     public void testUpdate() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshIndex();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(
                 new QueryParser("text", new SimpleAnalyzer()).parse("updated"), 10);
@@ -169,7 +223,7 @@ public class SearcherTest extends MemoryFileSystemTest {
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file2).updateContent("text/plain", new ByteArrayInputStream("updated content".getBytes()), null);
 
-        searcherManager.maybeRefresh();
+        refreshIndex();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new QueryParser("text", new SimpleAnalyzer()).parse("updated"), 10);
         assertEquals(1, topDocs.totalHits);
@@ -177,7 +231,7 @@ public class SearcherTest extends MemoryFileSystemTest {
     }
 
     public void testMove() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshIndex();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         String destination = searchTestFolder.createFolder("___destination").getPath();
         String expected = destination + '/' + "SearcherTest_File03";
@@ -186,7 +240,7 @@ public class SearcherTest extends MemoryFileSystemTest {
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file3).moveTo(mountPoint.getVirtualFile(destination), null);
 
-        searcherManager.maybeRefresh();
+        refreshIndex();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", expected)), 10);
         assertEquals(1, topDocs.totalHits);
@@ -196,7 +250,7 @@ public class SearcherTest extends MemoryFileSystemTest {
     }
 
     public void testCopy() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshIndex();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         String destination = searchTestFolder.createFolder("___destination").getPath();
         String expected = destination + '/' + "SearcherTest_File03";
@@ -205,7 +259,7 @@ public class SearcherTest extends MemoryFileSystemTest {
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file3).copyTo(mountPoint.getVirtualFile(destination));
 
-        searcherManager.maybeRefresh();
+        refreshIndex();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", expected)), 10);
         assertEquals(1, topDocs.totalHits);
@@ -216,14 +270,14 @@ public class SearcherTest extends MemoryFileSystemTest {
 
     public void testRename() throws Exception {
         String newName = "___renamed";
-        searcherManager.maybeRefresh();
+        refreshIndex();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", file3)), 10);
         assertEquals(1, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file2).rename(newName, null, null);
 
-        searcherManager.maybeRefresh();
+        refreshIndex();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath + '/' + newName)), 10);
         assertEquals(1, topDocs.totalHits);
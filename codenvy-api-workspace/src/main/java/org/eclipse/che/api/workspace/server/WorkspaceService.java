@@ -67,9 +67,11 @@ import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.UriBuilder;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static java.lang.Boolean.parseBoolean;
 import static java.util.Arrays.asList;
@@ -509,17 +511,8 @@ public class WorkspaceService extends Service {
     @Produces(APPLICATION_JSON)
     public List<MemberDescriptor> getMembershipsOfCurrentUser(@Context SecurityContext context) throws NotFoundException,
                                                                                                        ServerException {
-        final List<Member> members = memberDao.getUserRelationships(currentUser().getId());
-        final List<MemberDescriptor> memberships = new ArrayList<>(members.size());
-        for (Member member : members) {
-            try {
-                final Workspace workspace = workspaceDao.getById(member.getWorkspaceId());
-                memberships.add(toDescriptor(member, workspace, context));
-            } catch (NotFoundException nfEx) {
-                LOG.error("Workspace {} doesn't exist but user {} refers to it. ", member.getWorkspaceId(), currentUser().getId());
-            }
-        }
-        return memberships;
+        final String userId = currentUser().getId();
+        return toMembershipDescriptors(userId, memberDao.getUserRelationships(userId), context);
     }
 
     /**
@@ -559,17 +552,7 @@ public class WorkspaceService extends Service {
                                                                                                         ForbiddenException,
                                                                                                         ServerException {
         requiredNotNull(userId, "User ID");
-        final List<Member> members = memberDao.getUserRelationships(userId);
-        final List<MemberDescriptor> memberships = new ArrayList<>(members.size());
-        for (Member member : members) {
-            try {
-                final Workspace workspace = workspaceDao.getById(member.getWorkspaceId());
-                memberships.add(toDescriptor(member, workspace, context));
-            } catch (NotFoundException nfEx) {
-                LOG.error("Workspace {} doesn't exist but user {} refers to it. ", member.getWorkspaceId(), userId);
-            }
-        }
-        return memberships;
+        return toMembershipDescriptors(userId, memberDao.getUserRelationships(userId), context);
     }
 
     /**
@@ -861,6 +844,35 @@ public class WorkspaceService extends Service {
         return user;
     }
 
+    /**
+     * Converts memberships of user to descriptors. All workspaces are fetched with single request to {@link WorkspaceDao}. Memberships
+     * which refer to workspaces that don't exist are skipped.
+     */
+    private List<MemberDescriptor> toMembershipDescriptors(String userId, List<Member> members, SecurityContext context)
+            throws ServerException {
+        if (members.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        final Set<String> workspaceIds = new LinkedHashSet<>();
+        for (Member member : members) {
+            workspaceIds.add(member.getWorkspaceId());
+        }
+        final Map<String, Workspace> workspaces = new HashMap<>();
+        for (Workspace workspace : workspaceDao.getByIds(workspaceIds)) {
+            workspaces.put(workspace.getId(), workspace);
+        }
+        final List<MemberDescriptor> memberships = new ArrayList<>(members.size());
+        for (Member member : members) {
+            final Workspace workspace = workspaces.get(member.getWorkspaceId());
+            if (workspace == null) {
+                LOG.error("Workspace {} doesn't exist but user {} refers to it. ", member.getWorkspaceId(), userId);
+            } else {
+                memberships.add(toDescriptor(member, workspace, context));
+            }
+        }
+        return memberships;
+    }
+
     /**
      * Converts {@link Member} to {@link MemberDescriptor}
      */
@@ -1057,11 +1069,15 @@ public class WorkspaceService extends Service {
 
     private boolean isCurrentUserAccountOwnerOf(String wsId) throws ServerException, NotFoundException {
         final List<Account> accounts = accountDao.getByOwner(currentUser().getId());
-        final List<Workspace> workspaces = new LinkedList<>();
-        //fetch all workspaces related to accounts
+        if (accounts.isEmpty()) {
+            return false;
+        }
+        final List<String> accountIds = new ArrayList<>(accounts.size());
         for (Account account : accounts) {
-            workspaces.addAll(workspaceDao.getByAccount(account.getId()));
+            accountIds.add(account.getId());
         }
+        //fetch all workspaces related to accounts
+        final List<Workspace> workspaces = workspaceDao.getByAccounts(accountIds);
         for (Workspace workspace : workspaces) {
             if (workspace.getId().equals(wsId)) {
                 return true;
@@ -14,6 +14,7 @@ import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 
+import java.util.Collection;
 import java.util.List;
 
 
@@ -63,6 +64,15 @@ public interface WorkspaceDao {
      */
     Workspace getById(String id) throws NotFoundException, ServerException;
 
+    /**
+     * Gets workspaces from persistent layer with single request. Identifiers of workspaces that don't exist are skipped.
+     *
+     * @param ids
+     *         workspace identifiers
+     * @return List of workspaces
+     */
+    List<Workspace> getByIds(Collection<String> ids) throws ServerException;
+
     /**
      * Gets workspace from persistent layer.
      *
@@ -83,4 +93,13 @@ public interface WorkspaceDao {
      * @return List of workspaces
      */
     List<Workspace> getByAccount(String accountId) throws ServerException;
+
+    /**
+     * Gets workspaces from persistent layer related to any of specified accounts with single request.
+     *
+     * @param accountIds
+     *         account identifiers
+     * @return List of workspaces
+     */
+    List<Workspace> getByAccounts(Collection<String> accountIds) throws ServerException;
 }
@@ -61,6 +61,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -507,6 +508,27 @@ public class WorkspaceServiceTest {
         assertEquals(descriptor.getRoles(), testMember.getRoles());
     }
 
+    @Test
+    public void shouldBeAbleToGetMembershipsOfCurrentUser() throws Exception {
+        final Workspace testWorkspace = createWorkspace();
+        final Member testMember = new Member().withWorkspaceId(testWorkspace.getId())
+                                              .withUserId(testUser.getId())
+                                              .withRoles(singletonList("workspace/admin"));
+        final Member danglingMember = new Member().withWorkspaceId("removed_workspace_id")
+                                                  .withUserId(testUser.getId())
+                                                  .withRoles(singletonList("workspace/developer"));
+        when(memberDao.getUserRelationships(testUser.getId())).thenReturn(asList(testMember, danglingMember));
+        when(workspaceDao.getByIds(new LinkedHashSet<>(asList(testWorkspace.getId(), "removed_workspace_id"))))
+                .thenReturn(singletonList(testWorkspace));
+
+        final List<MemberDescriptor> descriptors = doGet(SERVICE_PATH + "/all");
+
+        assertEquals(descriptors.size(), 1);
+        assertEquals(descriptors.get(0).getWorkspaceReference().getId(), testWorkspace.getId());
+        assertEquals(descriptors.get(0).getRoles(), testMember.getRoles());
+        verify(workspaceDao, never()).getById(anyString());
+    }
+
     @Test
     public void shouldBeAbleToGetWorkspaceMember() throws Exception {
         final Workspace testWorkspace = createWorkspace();
@@ -555,7 +577,7 @@ public class WorkspaceServiceTest {
     public void shouldBeAbleToAddMemberToNotEmptyWorkspaceIfUserIsAccountOwner() throws Exception {
         final Workspace testWorkspace = createWorkspace();
         final Account account = createAccount();
-        when(workspaceDao.getByAccount(account.getId())).thenReturn(singletonList(testWorkspace));
+        when(workspaceDao.getByAccounts(singletonList(account.getId()))).thenReturn(singletonList(testWorkspace));
         when(memberDao.getWorkspaceMembers(testWorkspace.getId())).thenReturn(singletonList(new Member()));
 
         final NewMembership membership = newDTO(NewMembership.class).withRoles(singletonList("workspace/developer"))
@@ -13,17 +13,29 @@ package org.eclipse.che.api.local;
 import org.eclipse.che.api.core.ApiException;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.factory.FactoryImage;
-import org.eclipse.che.api.factory.FactoryStore;
+import org.eclipse.che.api.factory.PagingFactoryStore;
+import org.eclipse.che.api.factory.dto.Author;
 import org.eclipse.che.api.factory.dto.Factory;
+import org.eclipse.che.api.project.shared.dto.NewProject;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.dto.server.DtoFactory;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 
 import javax.inject.Singleton;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -32,13 +44,48 @@ import java.util.Set;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
+ * Keeps factories in memory. Factories are indexed by creator and project attributes which are used by clients of factory service, see
+ * {@link #findByAttribute(int, int, List)}.
+ * <p/>
+ * Content of images is stored once for all factories which have the same image, it is looked up by hash of content. Images are returned
+ * without copying of their content.
+ *
  * @author Vladyslav Zhukovskii
  */
 @Singleton
-public class InMemoryFactoryStore implements FactoryStore {
-    private final Map<String, Set<FactoryImage>> images    = new HashMap<>();
-    private final Map<String, Factory>           factories = new HashMap<>();
-    private final ReentrantReadWriteLock         lock      = new ReentrantReadWriteLock();
+public class InMemoryFactoryStore implements PagingFactoryStore {
+    /** Short names of attributes used by clients of factory service. */
+    private static final Map<String, String> ATTRIBUTE_ALIASES = new HashMap<>(2);
+
+    static {
+        ATTRIBUTE_ALIASES.put("orgid", "creator.accountId");
+        ATTRIBUTE_ALIASES.put("userid", "creator.userId");
+    }
+
+    /** Attributes which are looked up in index, other attributes are checked by content of factories. */
+    private static final Set<String> INDEXED_ATTRIBUTES = new HashSet<>(Arrays.asList("creator.userId", "creator.accountId",
+                                                                                      "creator.email", "project.type",
+                                                                                      "project.name"));
+
+    /** Max number of queries for which all matched factories are kept for reading of the next pages. */
+    private static final int MATCHES_CACHE_SIZE = 16;
+
+    private final Map<String, Set<FactoryImage>>          images     = new HashMap<>();
+    /** Content of images by its hash. */
+    private final Map<String, ImageContent>               contents   = new HashMap<>();
+    private final Map<String, Factory>                    factories  = new LinkedHashMap<>();
+    /** Ids of factories by attribute name and value. Sets keep order in which factories are indexed. */
+    private final Table<String, String, Set<String>>      index      = HashBasedTable.create();
+    /** Indexed attributes of each factory, used for cleanup of index when factory is updated or removed. */
+    private final Map<String, List<Pair<String, String>>> attributes = new HashMap<>();
+    /** Ids of factories matched by recent queries, cleared on any change of factories. */
+    private final Map<String, List<String>>               matches    = new LinkedHashMap<String, List<String>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+            return size() > MATCHES_CACHE_SIZE;
+        }
+    };
+    private final ReentrantReadWriteLock                  lock       = new ReentrantReadWriteLock();
 
     @Override
     public String saveFactory(Factory factoryUrl, Set<FactoryImage> images) throws ApiException {
@@ -48,12 +95,12 @@ public class InMemoryFactoryStore implements FactoryStore {
             newFactoryUrl.setId(NameGenerator.generate("", 16));
             final Set<FactoryImage> newImages = new LinkedHashSet<>(images.size());
             for (FactoryImage image : images) {
-                newImages.add(new FactoryImage(Arrays.copyOf(image.getImageData(), image.getImageData().length), image.getMediaType(),
-                                               image.getName()));
+                newImages.add(new FactoryImage(acquireContent(image), image.getMediaType(), image.getName()));
             }
 
             factories.put(newFactoryUrl.getId(), newFactoryUrl);
             this.images.put(newFactoryUrl.getId(), newImages);
+            addToIndex(newFactoryUrl.getId(), newFactoryUrl);
 
             return newFactoryUrl.getId();
         } catch (IOException e) {
@@ -67,7 +114,15 @@ public class InMemoryFactoryStore implements FactoryStore {
     public void removeFactory(String id) throws ApiException {
         lock.writeLock().lock();
         try {
-            factories.remove(id);
+            if (factories.remove(id) != null) {
+                removeFromIndex(id);
+            }
+            final Set<FactoryImage> myImages = images.remove(id);
+            if (myImages != null) {
+                for (FactoryImage image : myImages) {
+                    releaseContent(image);
+                }
+            }
         } finally {
             lock.writeLock().unlock();
         }
@@ -85,41 +140,122 @@ public class InMemoryFactoryStore implements FactoryStore {
 
     @Override
     public List<Factory> findByAttribute(Pair<String, String>... attributes) throws ApiException {
-        final List<Factory> result = new LinkedList<>();
+        return findByAttribute(-1, 0, Arrays.asList(attributes));
+    }
+
+    /**
+     * Finds factories which have all given attributes. Name of attribute is path to field of factory separated with dots, e.g.
+     * {@code creator.userId} or {@code project.type}, elements of arrays are matched with the same name as array. Name {@code orgid} is
+     * the same as {@code creator.accountId}. Pairs with {@code null} name or value are ignored.
+     * <p/>
+     * Attributes from {@link #INDEXED_ATTRIBUTES} are looked up in index, intersection of sets of factories is started from the smallest
+     * set, so query costs about the number of factories matched by the most selective attribute. Other attributes are checked for each
+     * factory matched by indexed attributes, or for each factory if query has no indexed attributes.
+     * <p/>
+     * All factories matched by query are remembered when page other than the first one is requested, so reading of query results page by
+     * page doesn't re-evaluate query and skip matched factories again for each page.
+     */
+    @Override
+    public List<Factory> findByAttribute(int maxItems, int skipCount, List<Pair<String, String>> attributes) throws ApiException {
         lock.readLock().lock();
         try {
+            final List<Pair<String, String>> query = new ArrayList<>(attributes.size());
             for (Pair<String, String> attribute : attributes) {
-                final String name = attribute.first;
-                final String value = attribute.second;
-                if (name == null || value == null) {
-                    continue;
+                if (attribute.first != null && attribute.second != null) {
+                    final String name = ATTRIBUTE_ALIASES.containsKey(attribute.first) ? ATTRIBUTE_ALIASES.get(attribute.first)
+                                                                                       : attribute.first;
+                    query.add(Pair.of(name, attribute.second));
                 }
             }
+            if (query.isEmpty()) {
+                return new LinkedList<>();
+            }
+            final List<Factory> result = new LinkedList<>();
+            if (skipCount == 0) {
+                // the first page is usually requested without reading of others, stop as soon as page is full
+                final Iterator<String> matched = match(query);
+                while (matched.hasNext() && (maxItems < 0 || result.size() < maxItems)) {
+                    result.add(DtoFactory.getInstance().clone(factories.get(matched.next())));
+                }
+                return result;
+            }
+            final StringBuilder key = new StringBuilder();
+            for (Pair<String, String> attribute : query) {
+                key.append(attribute.first).append('=').append(attribute.second).append('&');
+            }
+            List<String> ids;
+            synchronized (matches) {
+                ids = matches.get(key.toString());
+            }
+            if (ids == null) {
+                ids = new ArrayList<>();
+                for (Iterator<String> matched = match(query); matched.hasNext(); ) {
+                    ids.add(matched.next());
+                }
+                synchronized (matches) {
+                    matches.put(key.toString(), ids);
+                }
+            }
+            final int end = maxItems < 0 ? ids.size() : (int)Math.min(ids.size(), (long)skipCount + maxItems);
+            for (int i = skipCount; i < end; i++) {
+                result.add(DtoFactory.getInstance().clone(factories.get(ids.get(i))));
+            }
+            return result;
         } finally {
             lock.readLock().unlock();
         }
-        return result;
+    }
+
+    /** Iterates over ids of factories which have all attributes of query. Must be called under lock. */
+    private Iterator<String> match(List<Pair<String, String>> query) {
+        final List<Set<String>> indexed = new ArrayList<>(query.size());
+        final List<Pair<String, String>> notIndexed = new ArrayList<>();
+        for (Pair<String, String> attribute : query) {
+            if (INDEXED_ATTRIBUTES.contains(attribute.first)) {
+                final Set<String> ids = index.get(attribute.first, attribute.second);
+                if (ids == null) {
+                    return Collections.emptyIterator();
+                }
+                indexed.add(ids);
+            } else {
+                notIndexed.add(attribute);
+            }
+        }
+        Collections.sort(indexed, new Comparator<Set<String>>() {
+            @Override
+            public int compare(Set<String> o1, Set<String> o2) {
+                return Integer.compare(o1.size(), o2.size());
+            }
+        });
+        final Iterator<String> candidates = indexed.isEmpty() ? factories.keySet().iterator() : indexed.get(0).iterator();
+        return new AbstractIterator<String>() {
+            @Override
+            protected String computeNext() {
+                while (candidates.hasNext()) {
+                    final String id = candidates.next();
+                    if (containsInAll(indexed, id) && (notIndexed.isEmpty() || hasAttributes(factories.get(id), notIndexed))) {
+                        return id;
+                    }
+                }
+                return endOfData();
+            }
+        };
     }
 
     @Override
     public Set<FactoryImage> getFactoryImages(String factoryId, String imageId) throws ApiException {
         lock.readLock().lock();
         try {
+            final Set<FactoryImage> myImages = images.get(factoryId);
+            if (myImages == null) {
+                return null;
+            }
             if (imageId == null) {
-                return images.get(factoryId);
+                return Collections.unmodifiableSet(myImages);
             }
-            for (FactoryImage image : images.get(factoryId)) {
+            for (FactoryImage image : myImages) {
                 if (image.getName().equals(imageId)) {
-                    FactoryImage imageCopy;
-                    try {
-                        imageCopy = new FactoryImage(Arrays.copyOf(image.getImageData(), image.getImageData().length), image.getMediaType(),
-                                                     image.getName());
-                    } catch (IOException e) {
-                        // Seems that error may happen just if media type isn't supported but since we just create copy of existed FactoryImage
-                        // such error isn't excepted here.
-                        throw new ConflictException(e.getMessage());
-                    }
-                    return Collections.singleton(imageCopy);
+                    return Collections.singleton(image);
                 }
             }
             return Collections.emptySet();
@@ -143,10 +279,134 @@ public class InMemoryFactoryStore implements FactoryStore {
         lock.writeLock().lock();
         try {
             final Factory clonedFactory = DtoFactory.getInstance().clone(factory);
-            factories.put(factoryId, clonedFactory);
+            if (factories.put(factoryId, clonedFactory) != null) {
+                removeFromIndex(factoryId);
+            }
+            addToIndex(factoryId, clonedFactory);
             return clonedFactory.getId();
         } finally {
             lock.writeLock().unlock();
         }
     }
+
+    /** Get stored content of image, content is copied just if there is no image with the same content yet. */
+    private byte[] acquireContent(FactoryImage image) {
+        final String hash = image.getHash();
+        ImageContent content = contents.get(hash);
+        if (content == null) {
+            contents.put(hash, content = new ImageContent(Arrays.copyOf(image.getImageData(), image.getImageData().length)));
+        }
+        content.references++;
+        return content.data;
+    }
+
+    private void releaseContent(FactoryImage image) {
+        final String hash = image.getHash();
+        final ImageContent content = contents.get(hash);
+        if (content != null && --content.references == 0) {
+            contents.remove(hash);
+        }
+    }
+
+    private void addToIndex(String id, Factory factory) {
+        final List<Pair<String, String>> myAttributes = new ArrayList<>(INDEXED_ATTRIBUTES.size());
+        final Author creator = factory.getCreator();
+        if (creator != null) {
+            addAttribute("creator.userId", creator.getUserId(), myAttributes);
+            addAttribute("creator.accountId", creator.getAccountId(), myAttributes);
+            addAttribute("creator.email", creator.getEmail(), myAttributes);
+        }
+        final NewProject project = factory.getProject();
+        if (project != null) {
+            addAttribute("project.type", project.getType(), myAttributes);
+            addAttribute("project.name", project.getName(), myAttributes);
+        }
+        for (Pair<String, String> attribute : myAttributes) {
+            Set<String> ids = index.get(attribute.first, attribute.second);
+            if (ids == null) {
+                index.put(attribute.first, attribute.second, ids = new LinkedHashSet<>());
+            }
+            ids.add(id);
+        }
+        attributes.put(id, myAttributes);
+        clearMatches();
+    }
+
+    private static void addAttribute(String name, String value, List<Pair<String, String>> attributes) {
+        if (value != null) {
+            attributes.add(Pair.of(name, value));
+        }
+    }
+
+    private void removeFromIndex(String id) {
+        clearMatches();
+        final List<Pair<String, String>> myAttributes = attributes.remove(id);
+        if (myAttributes == null) {
+            return;
+        }
+        for (Pair<String, String> attribute : myAttributes) {
+            final Set<String> ids = index.get(attribute.first, attribute.second);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                index.remove(attribute.first, attribute.second);
+            }
+        }
+    }
+
+    private void clearMatches() {
+        synchronized (matches) {
+            matches.clear();
+        }
+    }
+
+    /** Checks attributes which aren't indexed by value of fields of factory. */
+    private static boolean hasAttributes(Factory factory, List<Pair<String, String>> query) {
+        final List<Pair<String, String>> all = new ArrayList<>();
+        collectAttributes(null, new JsonParser().parse(DtoFactory.getInstance().toJson(factory)), all);
+        for (Pair<String, String> attribute : query) {
+            boolean found = false;
+            for (Pair<String, String> candidate : all) {
+                if (attribute.first.equals(candidate.first) && attribute.second.equals(candidate.second)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void collectAttributes(String path, JsonElement element, List<Pair<String, String>> result) {
+        if (element.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                collectAttributes(path == null ? entry.getKey() : path + '.' + entry.getKey(), entry.getValue(), result);
+            }
+        } else if (element.isJsonArray()) {
+            for (JsonElement item : element.getAsJsonArray()) {
+                collectAttributes(path, item, result);
+            }
+        } else if (element.isJsonPrimitive() && path != null) {
+            result.add(Pair.of(path, element.getAsString()));
+        }
+    }
+
+    private static boolean containsInAll(List<Set<String>> sets, String id) {
+        // the first set is iterated by caller
+        for (int i = 1, size = sets.size(); i < size; i++) {
+            if (!sets.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class ImageContent {
+        final byte[] data;
+        int          references;
+
+        ImageContent(byte[] data) {
+            this.data = data;
+        }
+    }
 }
@@ -10,6 +10,11 @@
  *******************************************************************************/
 package org.eclipse.che.api.local;
 
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Table;
+
 import org.eclipse.che.api.account.server.dao.Account;
 import org.eclipse.che.api.account.server.dao.AccountDao;
 import org.eclipse.che.api.account.server.dao.Member;
@@ -25,10 +30,12 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -36,15 +43,27 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import static org.eclipse.che.api.account.shared.dto.SubscriptionState.ACTIVE;
 
 /**
+ * Keeps accounts, account members and subscriptions in memory. Accounts are indexed by id and name, members by account and by user,
+ * subscriptions by id and account. All indexes are updated under the same write lock. Changes are persisted in {@link LocalStorage}.
+ *
  * @author Eugene Voevodin
  */
 @Singleton
 public class LocalAccountDaoImpl implements AccountDao {
+    static final String ACCOUNTS        = "accounts";
+    static final String ACCOUNT_MEMBERS = "account_members";
+    static final String SUBSCRIPTIONS   = "subscriptions";
 
-    private final List<Account>      accounts;
-    private final List<Member>       members;
-    private final List<Subscription> subscriptions;
-    private final ReadWriteLock      lock;
+    private final Map<String, Account>          accounts;
+    private final Map<String, Account>          accountsByName;
+    /** account id, user id -> member */
+    private final Table<String, String, Member> membersByAccount;
+    /** user id, account id -> member */
+    private final Table<String, String, Member> membersByUser;
+    private final Map<String, Subscription>     subscriptions;
+    private final SetMultimap<String, String>   subscriptionsByAccount;
+    private final ReadWriteLock                 lock;
+    private final LocalStorage                  storage;
 
     private final WorkspaceDao workspaceDao;
 
@@ -52,56 +71,126 @@ public class LocalAccountDaoImpl implements AccountDao {
     public LocalAccountDaoImpl(@Named("codenvy.local.infrastructure.accounts") Set<Account> accounts,
                                @Named("codenvy.local.infrastructure.account.members") Set<Member> members,
                                @Named("codenvy.local.infrastructure.account.subscriptions") Set<Subscription> subscriptions,
-                               WorkspaceDao workspaceDao) {
+                               WorkspaceDao workspaceDao,
+                               LocalStorage storage) {
         this.workspaceDao = workspaceDao;
-        this.accounts = new LinkedList<>();
-        this.members = new LinkedList<>();
-        this.subscriptions = new LinkedList<>();
+        this.storage = storage;
+        this.accounts = new LinkedHashMap<>();
+        this.accountsByName = new HashMap<>();
+        this.membersByAccount = HashBasedTable.create();
+        this.membersByUser = HashBasedTable.create();
+        this.subscriptions = new LinkedHashMap<>();
+        this.subscriptionsByAccount = LinkedHashMultimap.create();
         lock = new ReentrantReadWriteLock();
+        final Map<String, Account> storedAccounts = storage.load(ACCOUNTS, Account.class);
+        final Map<String, Member> storedMembers = storage.load(ACCOUNT_MEMBERS, Member.class);
+        final Map<String, Subscription> storedSubscriptions = storage.load(SUBSCRIPTIONS, Subscription.class);
         try {
-            for (Account account : accounts) {
-                create(account);
+            if (storedAccounts == null) {
+                for (Account account : accounts) {
+                    create(account);
+                }
+            } else {
+                for (Account account : storedAccounts.values()) {
+                    index(account);
+                }
             }
-            for (Member member : members) {
-                addMember(member);
+            if (storedMembers == null) {
+                for (Member member : members) {
+                    addMember(member);
+                }
+            } else {
+                for (Member member : storedMembers.values()) {
+                    index(member);
+                }
             }
-            for (Subscription subscription : subscriptions) {
-                addSubscription(subscription);
+            if (storedSubscriptions == null) {
+                for (Subscription subscription : subscriptions) {
+                    addSubscription(subscription);
+                }
+            } else {
+                for (Subscription subscription : storedSubscriptions.values()) {
+                    index(subscription);
+                }
             }
         } catch (Exception e) {
             // fail if can't validate this instance properly
             throw new RuntimeException(e);
         }
+        storage.register(ACCOUNTS, new LocalStorage.Snapshotter() {
+            @Override
+            public Map<String, ?> snapshot() {
+                lock.readLock().lock();
+                try {
+                    final Map<String, Account> snapshot = new LinkedHashMap<>(LocalAccountDaoImpl.this.accounts.size());
+                    for (Account account : LocalAccountDaoImpl.this.accounts.values()) {
+                        snapshot.put(account.getId(), doClone(account));
+                    }
+                    return snapshot;
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        });
+        storage.register(ACCOUNT_MEMBERS, new LocalStorage.Snapshotter() {
+            @Override
+            public Map<String, ?> snapshot() {
+                lock.readLock().lock();
+                try {
+                    final Map<String, Member> snapshot = new LinkedHashMap<>(membersByAccount.size());
+                    for (Member member : cloneMembers(membersByAccount.values())) {
+                        snapshot.put(key(member), member);
+                    }
+                    return snapshot;
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        });
+        storage.register(SUBSCRIPTIONS, new LocalStorage.Snapshotter() {
+            @Override
+            public Map<String, ?> snapshot() {
+                lock.readLock().lock();
+                try {
+                    final Map<String, Subscription> snapshot = new LinkedHashMap<>(LocalAccountDaoImpl.this.subscriptions.size());
+                    for (Subscription subscription : LocalAccountDaoImpl.this.subscriptions.values()) {
+                        snapshot.put(subscription.getId(), new Subscription(subscription));
+                    }
+                    return snapshot;
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        });
     }
 
     @Override
-    public void create(Account account) throws ConflictException {
+    public void create(Account account) throws ConflictException, ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
-            for (Account a : accounts) {
-                if (a.getId().equals(account.getId())) {
-                    throw new ConflictException(String.format("Account with id %s already exists.", account.getId()));
-                }
-                if (a.getName().equals(account.getName())) {
-                    throw new ConflictException(String.format("Account with name %s already exists.", account.getName()));
-                }
+            if (accounts.containsKey(account.getId())) {
+                throw new ConflictException(String.format("Account with id %s already exists.", account.getId()));
+            }
+            if (accountsByName.containsKey(account.getName())) {
+                throw new ConflictException(String.format("Account with name %s already exists.", account.getName()));
             }
-            accounts.add(new Account().withId(account.getId()).withName(account.getName())
-                                      .withAttributes(new LinkedHashMap<>(account.getAttributes())));
+            final Account myAccount = doClone(account);
+            index(myAccount);
+            seq = storage.put(ACCOUNTS, myAccount.getId(), myAccount);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
     public Account getById(String id) throws NotFoundException {
         lock.readLock().lock();
         try {
-            for (Account account : accounts) {
-                if (account.getId().equals(id)) {
-                    return new Account().withId(account.getId()).withName(account.getName())
-                                        .withAttributes(new LinkedHashMap<>(account.getAttributes()));
-                }
+            final Account account = accounts.get(id);
+            if (account != null) {
+                return doClone(account);
             }
         } finally {
             lock.readLock().unlock();
@@ -113,11 +202,9 @@ public class LocalAccountDaoImpl implements AccountDao {
     public Account getByName(String name) throws NotFoundException {
         lock.readLock().lock();
         try {
-            for (Account account : accounts) {
-                if (account.getName().equals(name)) {
-                    return new Account().withId(account.getId()).withName(account.getName())
-                                        .withAttributes(new LinkedHashMap<>(account.getAttributes()));
-                }
+            final Account account = accountsByName.get(name);
+            if (account != null) {
+                return doClone(account);
             }
         } finally {
             lock.readLock().unlock();
@@ -130,14 +217,10 @@ public class LocalAccountDaoImpl implements AccountDao {
         final List<Account> result = new LinkedList<>();
         lock.readLock().lock();
         try {
-            for (Member member : members) {
-                if (member.getUserId().equals(owner)) {
-                    for (Account account : accounts) {
-                        if (account.getId().equals(member.getAccountId()) && member.getRoles().contains("account/owner")) {
-                            result.add(new Account().withId(account.getId()).withName(account.getName())
-                                                    .withAttributes(new LinkedHashMap<>(account.getAttributes())));
-                        }
-                    }
+            for (Member member : membersByUser.row(owner).values()) {
+                final Account account = accounts.get(member.getAccountId());
+                if (account != null && member.getRoles().contains("account/owner")) {
+                    result.add(doClone(account));
                 }
             }
         } finally {
@@ -148,194 +231,166 @@ public class LocalAccountDaoImpl implements AccountDao {
 
     @Override
     public List<Member> getByMember(String userId) {
-        final List<Member> result = new LinkedList<>();
         lock.readLock().lock();
         try {
-            for (Member member : members) {
-                if (userId.equals(member.getUserId())) {
-                    result.add(new Member().withUserId(member.getUserId()).withAccountId(member.getAccountId())
-                                           .withRoles(new ArrayList<>(member.getRoles())));
-                }
-            }
+            return cloneMembers(membersByUser.row(userId).values());
         } finally {
             lock.readLock().unlock();
         }
-        return result;
     }
 
     @Override
-    public void update(Account account) throws NotFoundException {
+    public void update(Account account) throws NotFoundException, ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
-            Account myAccount = null;
-            for (int i = 0, size = accounts.size(); i < size && myAccount == null; i++) {
-                if (accounts.get(i).getId().equals(account.getId())) {
-                    myAccount = accounts.get(i);
-                }
-            }
+            final Account myAccount = accounts.get(account.getId());
             if (myAccount == null) {
                 throw new NotFoundException(String.format("Not found account %s", account.getId()));
             }
+            if (accountsByName.get(myAccount.getName()) == myAccount) {
+                accountsByName.remove(myAccount.getName());
+            }
             myAccount.setName(account.getName());
             myAccount.getAttributes().clear();
             myAccount.getAttributes().putAll(account.getAttributes());
+            if (!accountsByName.containsKey(myAccount.getName())) {
+                accountsByName.put(myAccount.getName(), myAccount);
+            }
+            seq = storage.put(ACCOUNTS, myAccount.getId(), myAccount);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
     public void remove(String id) throws NotFoundException, ServerException, ConflictException {
+        long seq;
         lock.writeLock().lock();
         try {
-            Account myAccount = null;
-            for (int i = 0, size = accounts.size(); i < size && myAccount == null; i++) {
-                if (accounts.get(i).getId().equals(id)) {
-                    myAccount = accounts.get(i);
-                }
-            }
+            final Account myAccount = accounts.get(id);
             if (myAccount == null) {
                 throw new NotFoundException(String.format("Not found account %s", id));
             }
             if (!workspaceDao.getByAccount(id).isEmpty()) {
                 throw new ConflictException("It is not possible to remove account that has associated workspaces");
             }
-            for (Iterator<Member> itr = members.iterator(); itr.hasNext(); ) {
-                final Member member = itr.next();
-                if (member.getAccountId().equals(id)) {
-                    itr.remove();
-                }
+            for (Member member : new ArrayList<>(membersByAccount.row(id).values())) {
+                membersByUser.remove(member.getUserId(), id);
+                storage.remove(ACCOUNT_MEMBERS, key(member));
             }
-            accounts.remove(myAccount);
+            membersByAccount.row(id).clear();
+            accounts.remove(id);
+            if (accountsByName.get(myAccount.getName()) == myAccount) {
+                accountsByName.remove(myAccount.getName());
+            }
+            seq = storage.remove(ACCOUNTS, id);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
-    public void addMember(Member member) throws NotFoundException, ConflictException {
+    public void addMember(Member member) throws NotFoundException, ConflictException, ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
-            Account myAccount = null;
-            for (int i = 0, size = accounts.size(); i < size && myAccount == null; i++) {
-                if (accounts.get(i).getId().equals(member.getAccountId())) {
-                    myAccount = accounts.get(i);
-                }
-            }
-            if (myAccount == null) {
+            if (!accounts.containsKey(member.getAccountId())) {
                 throw new NotFoundException(String.format("Not found account %s", member.getAccountId()));
             }
-
-            for (Member m : members) {
-                if (m.getUserId().equals(member.getUserId()) && m.getAccountId().equals(member.getAccountId())) {
-                    throw new ConflictException(String.format("Membership of user %s in account %s already exists.",
-                                                              member.getUserId(), member.getAccountId())
-                    );
-                }
+            if (membersByAccount.contains(member.getAccountId(), member.getUserId())) {
+                throw new ConflictException(String.format("Membership of user %s in account %s already exists.",
+                                                          member.getUserId(), member.getAccountId())
+                );
             }
-
-            members.add(new Member().withUserId(member.getUserId()).withAccountId(member.getAccountId())
-                                    .withRoles(new ArrayList<>(member.getRoles())));
+            final Member myMember = new Member().withUserId(member.getUserId()).withAccountId(member.getAccountId())
+                                                .withRoles(new ArrayList<>(member.getRoles()));
+            index(myMember);
+            seq = storage.put(ACCOUNT_MEMBERS, key(myMember), myMember);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
     public List<Member> getMembers(String accountId) {
-        final List<Member> result = new LinkedList<>();
         lock.readLock().lock();
         try {
-            for (Member member : members) {
-                if (accountId.equals(member.getAccountId())) {
-                    result.add(new Member().withUserId(member.getUserId()).withAccountId(member.getAccountId())
-                                           .withRoles(new ArrayList<>(member.getRoles())));
-                }
-            }
+            return cloneMembers(membersByAccount.row(accountId).values());
         } finally {
             lock.readLock().unlock();
         }
-        return result;
     }
 
     @Override
-    public void removeMember(Member member) throws NotFoundException {
+    public void removeMember(Member member) throws NotFoundException, ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
-            Member myMember = null;
-            for (int i = 0, size = members.size(); i < size && myMember == null; i++) {
-                if (members.get(i).getUserId().equals(member.getUserId())) {
-                    myMember = members.get(i);
-                }
-            }
-            if (myMember == null) {
+            if (!membersByUser.containsRow(member.getUserId())) {
                 throw new NotFoundException(String.format("User with id %s hasn't any account membership", member.getUserId()));
             }
-
-            Account myAccount = null;
-            for (int i = 0, size = accounts.size(); i < size && myAccount == null; i++) {
-                if (accounts.get(i).getId().equals(member.getAccountId())) {
-                    myAccount = accounts.get(i);
-                }
-            }
-            if (myAccount == null) {
+            if (!accounts.containsKey(member.getAccountId())) {
                 throw new NotFoundException(String.format("Not found account %s", member.getAccountId()));
             }
-
-            members.remove(myMember);
+            if (membersByAccount.remove(member.getAccountId(), member.getUserId()) == null) {
+                throw new NotFoundException(String.format("User with id %s isn't member of account %s",
+                                                          member.getUserId(), member.getAccountId()));
+            }
+            membersByUser.remove(member.getUserId(), member.getAccountId());
+            seq = storage.remove(ACCOUNT_MEMBERS, key(member));
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
-    public void addSubscription(Subscription subscription) throws NotFoundException {
+    public void addSubscription(Subscription subscription) throws NotFoundException, ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
-            Account myAccount = null;
-            for (int i = 0, size = accounts.size(); i < size && myAccount == null; i++) {
-                if (accounts.get(i).getId().equals(subscription.getAccountId())) {
-                    myAccount = accounts.get(i);
-                }
-            }
-            if (myAccount == null) {
+            if (!accounts.containsKey(subscription.getAccountId())) {
                 throw new NotFoundException(String.format("Not found account %s", subscription.getAccountId()));
             }
-            subscriptions.add(new Subscription(subscription));
+            final Subscription previous = subscriptions.get(subscription.getId());
+            if (previous != null) {
+                subscriptionsByAccount.remove(previous.getAccountId(), previous.getId());
+            }
+            final Subscription mySubscription = new Subscription(subscription);
+            index(mySubscription);
+            seq = storage.put(SUBSCRIPTIONS, mySubscription.getId(), mySubscription);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
-    public void removeSubscription(String subscriptionId) throws NotFoundException {
+    public void removeSubscription(String subscriptionId) throws NotFoundException, ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
-            Subscription subscription = null;
-            for (int i = 0, size = subscriptions.size(); i < size && subscription == null; i++) {
-                if (subscriptions.get(i).getId().equals(subscriptionId)) {
-                    subscription = subscriptions.get(i);
-                }
-            }
+            final Subscription subscription = subscriptions.remove(subscriptionId);
             if (subscription == null) {
                 throw new NotFoundException(String.format("Not found subscription %s", subscriptionId));
             }
-            subscriptions.remove(subscription);
+            subscriptionsByAccount.remove(subscription.getAccountId(), subscriptionId);
+            seq = storage.remove(SUBSCRIPTIONS, subscriptionId);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
     public Subscription getSubscriptionById(String subscriptionId) throws NotFoundException {
         lock.readLock().lock();
         try {
-            Subscription subscription = null;
-            for (int i = 0, size = subscriptions.size(); i < size && subscription == null; i++) {
-                if (subscriptions.get(i).getId().equals(subscriptionId)) {
-                    subscription = subscriptions.get(i);
-                }
-            }
+            final Subscription subscription = subscriptions.get(subscriptionId);
             if (subscription == null) {
                 throw new NotFoundException(String.format("Not found subscription %s", subscriptionId));
             }
@@ -350,8 +405,9 @@ public class LocalAccountDaoImpl implements AccountDao {
         final List<Subscription> result = new LinkedList<>();
         lock.readLock().lock();
         try {
-            for (Subscription subscription : subscriptions) {
-                if (accountId.equals(subscription.getAccountId()) && ACTIVE.equals(subscription.getState())) {
+            for (String subscriptionId : subscriptionsByAccount.get(accountId)) {
+                final Subscription subscription = subscriptions.get(subscriptionId);
+                if (ACTIVE.equals(subscription.getState())) {
                     result.add(new Subscription(subscription));
                 }
             }
@@ -365,9 +421,9 @@ public class LocalAccountDaoImpl implements AccountDao {
     public Subscription getActiveSubscription(String accountId, String serviceId) {
         lock.readLock().lock();
         try {
-            for (Subscription subscription : subscriptions) {
-                if (accountId.equals(subscription.getAccountId()) && serviceId.equals(subscription.getServiceId())
-                    && ACTIVE.equals(subscription.getState())) {
+            for (String subscriptionId : subscriptionsByAccount.get(accountId)) {
+                final Subscription subscription = subscriptions.get(subscriptionId);
+                if (serviceId.equals(subscription.getServiceId()) && ACTIVE.equals(subscription.getState())) {
                     return new Subscription(subscription);
                 }
             }
@@ -379,23 +435,22 @@ public class LocalAccountDaoImpl implements AccountDao {
 
     @Override
     public void updateSubscription(Subscription subscription) throws NotFoundException, ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
-            int i = 0;
-            Subscription mySubscription = null;
-            for (int size = subscriptions.size(); i < size && mySubscription == null; i++) {
-                if (subscriptions.get(i).getId().equals(subscription.getId())) {
-                    mySubscription = subscriptions.get(i);
-                }
-            }
+            final Subscription mySubscription = subscriptions.get(subscription.getId());
             if (mySubscription == null) {
                 throw new NotFoundException(String.format("Not found subscription %s", subscription.getId()));
             }
-            subscriptions.remove(i);
-            subscriptions.add(i, new Subscription(subscription));
+            subscriptionsByAccount.remove(mySubscription.getAccountId(), subscription.getId());
+            // put to existed key keeps position of subscription
+            final Subscription newSubscription = new Subscription(subscription);
+            index(newSubscription);
+            seq = storage.put(SUBSCRIPTIONS, newSubscription.getId(), newSubscription);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
@@ -406,12 +461,51 @@ public class LocalAccountDaoImpl implements AccountDao {
     @Override
     public List<Account> getAccountsWithLockedResources() throws ServerException, ForbiddenException {
         List<Account> lockedAccounts = new LinkedList<>();
-        for (Account account : accounts) {
-            if (account.getAttributes().containsKey("codenvy:locked") &&
-                account.getAttributes().get("codenvy:locked").equals("true")) {
-                lockedAccounts.add(account);
+        lock.readLock().lock();
+        try {
+            for (Account account : accounts.values()) {
+                if (account.getAttributes().containsKey("codenvy:locked") &&
+                    account.getAttributes().get("codenvy:locked").equals("true")) {
+                    lockedAccounts.add(doClone(account));
+                }
             }
+        } finally {
+            lock.readLock().unlock();
         }
         return lockedAccounts;
     }
+
+    private void index(Account account) {
+        accounts.put(account.getId(), account);
+        accountsByName.put(account.getName(), account);
+    }
+
+    private void index(Member member) {
+        membersByAccount.put(member.getAccountId(), member.getUserId(), member);
+        membersByUser.put(member.getUserId(), member.getAccountId(), member);
+    }
+
+    private void index(Subscription subscription) {
+        subscriptions.put(subscription.getId(), subscription);
+        subscriptionsByAccount.put(subscription.getAccountId(), subscription.getId());
+    }
+
+    private static String key(Member member) {
+        return member.getAccountId() + ':' + member.getUserId();
+    }
+
+    private static Account doClone(Account account) {
+        return new Account().withId(account.getId())
+                            .withName(account.getName())
+                            .withAttributes(new LinkedHashMap<>(account.getAttributes()));
+    }
+
+    private static List<Member> cloneMembers(Collection<Member> members) {
+        final List<Member> result = new ArrayList<>(members.size());
+        for (Member member : members) {
+            result.add(new Member().withUserId(member.getUserId()).withAccountId(member.getAccountId())
+                                   .withRoles(new ArrayList<>(member.getRoles())));
+        }
+        return result;
+    }
 }
@@ -10,6 +10,9 @@
  *******************************************************************************/
 package org.eclipse.che.api.local;
 
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
@@ -22,16 +25,28 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * Keeps workspace members in memory. Members are indexed by workspace and by user, both indexes share the same {@code Member} instances
+ * and are updated under the same write lock. Changes are persisted in {@link LocalStorage}.
+ */
 @Singleton
 public class LocalMemberDaoImpl implements MemberDao {
-    private final List<Member>  members;
-    private final ReadWriteLock lock;
+    static final String WORKSPACE_MEMBERS = "workspace_members";
+
+    /** workspace id, user id -> member */
+    private final Table<String, String, Member> membersByWorkspace;
+    /** user id, workspace id -> member */
+    private final Table<String, String, Member> membersByUser;
+    private final ReadWriteLock                 lock;
+    private final LocalStorage                  storage;
 
     private final WorkspaceDao workspaceDao;
     private final UserDao      userDao;
@@ -39,112 +54,119 @@ public class LocalMemberDaoImpl implements MemberDao {
     @Inject
     public LocalMemberDaoImpl(@Named("codenvy.local.infrastructure.workspace.members") Set<Member> members,
                               WorkspaceDao workspaceDao,
-                              UserDao userDao) {
+                              UserDao userDao,
+                              LocalStorage storage) {
         this.workspaceDao = workspaceDao;
         this.userDao = userDao;
-        this.members = new LinkedList<>();
+        this.storage = storage;
+        membersByWorkspace = HashBasedTable.create();
+        membersByUser = HashBasedTable.create();
         lock = new ReentrantReadWriteLock();
-        try {
-            for (Member member : members) {
-                create(member);
+        final Map<String, Member> stored = storage.load(WORKSPACE_MEMBERS, Member.class);
+        if (stored == null) {
+            try {
+                for (Member member : members) {
+                    create(member);
+                }
+            } catch (Exception e) {
+                // fail if can't validate this instance properly
+                throw new RuntimeException(e);
+            }
+        } else {
+            for (Member member : stored.values()) {
+                index(member);
             }
-        } catch (Exception e) {
-            // fail if can't validate this instance properly
-            throw new RuntimeException(e);
         }
+        storage.register(WORKSPACE_MEMBERS, new LocalStorage.Snapshotter() {
+            @Override
+            public Map<String, ?> snapshot() {
+                lock.readLock().lock();
+                try {
+                    final Map<String, Member> snapshot = new LinkedHashMap<>(membersByWorkspace.size());
+                    for (Member member : membersByWorkspace.values()) {
+                        snapshot.put(key(member.getWorkspaceId(), member.getUserId()), doClone(member));
+                    }
+                    return snapshot;
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        });
     }
 
     @Override
     public void create(Member member) throws NotFoundException, ServerException, ConflictException {
+        final long seq;
         lock.writeLock().lock();
         try {
             // Check workspace existence
             workspaceDao.getById(member.getWorkspaceId());
             // Check user existence
             userDao.getById(member.getUserId());
-            for (Member m : members) {
-                if (m.getWorkspaceId().equals(member.getWorkspaceId()) && m.getUserId().equals(member.getUserId())) {
-                    throw new ConflictException(
-                            String.format("Membership of user %s in workspace %s already exists. Use update method instead.",
-                                          member.getUserId(), member.getWorkspaceId()));
-                }
+            if (membersByWorkspace.contains(member.getWorkspaceId(), member.getUserId())) {
+                throw new ConflictException(
+                        String.format("Membership of user %s in workspace %s already exists. Use update method instead.",
+                                      member.getUserId(), member.getWorkspaceId()));
             }
-            members.add(new Member().withUserId(member.getUserId()).withWorkspaceId(member.getWorkspaceId())
-                                    .withRoles(new ArrayList<>(member.getRoles())));
+            final Member myMember = doClone(member);
+            index(myMember);
+            seq = storage.put(WORKSPACE_MEMBERS, key(myMember.getWorkspaceId(), myMember.getUserId()), myMember);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
     public void update(Member member) throws NotFoundException, ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
             // Check workspace existence
             workspaceDao.getById(member.getWorkspaceId());
             // Check user existence
             userDao.getById(member.getUserId());
-            Member myMember = null;
-            for (int i = 0, size = members.size(); i < size && myMember == null; i++) {
-                Member m = members.get(i);
-                if (m.getWorkspaceId().equals(member.getWorkspaceId()) && m.getUserId().equals(member.getUserId())) {
-                    myMember = m;
-                }
-            }
+            final Member myMember = membersByWorkspace.get(member.getWorkspaceId(), member.getUserId());
             if (myMember == null) {
                 throw new NotFoundException(String.format("Unable to update membership: user %s has no memberships in workspace %s.",
                                                           member.getUserId(), member.getWorkspaceId()));
             }
             myMember.getRoles().clear();
             myMember.getRoles().addAll(member.getRoles());
+            seq = storage.put(WORKSPACE_MEMBERS, key(myMember.getWorkspaceId(), myMember.getUserId()), myMember);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
     public List<Member> getWorkspaceMembers(String wsId) {
-        final List<Member> result = new LinkedList<>();
         lock.readLock().lock();
         try {
-            for (Member member : members) {
-                if (member.getWorkspaceId().equals(wsId)) {
-                    result.add(new Member().withUserId(member.getUserId()).withWorkspaceId(member.getWorkspaceId())
-                                           .withRoles(new ArrayList<>(member.getRoles())));
-                }
-            }
+            return cloneAll(membersByWorkspace.row(wsId).values());
         } finally {
             lock.readLock().unlock();
         }
-        return result;
     }
 
     @Override
     public List<Member> getUserRelationships(String userId) {
-        final List<Member> result = new LinkedList<>();
         lock.readLock().lock();
         try {
-            for (Member member : members) {
-                if (member.getUserId().equals(userId)) {
-                    result.add(new Member().withUserId(member.getUserId()).withWorkspaceId(member.getWorkspaceId())
-                                           .withRoles(new ArrayList<>(member.getRoles())));
-                }
-            }
+            return cloneAll(membersByUser.row(userId).values());
         } finally {
             lock.readLock().unlock();
         }
-        return result;
     }
 
     @Override
     public Member getWorkspaceMember(String wsId, String userId) throws NotFoundException, ServerException {
         lock.readLock().lock();
         try {
-            for (Member member : members) {
-                if (member.getWorkspaceId().equals(member.getWorkspaceId()) && member.getUserId().equals(userId)) {
-                    return new Member().withUserId(member.getUserId()).withWorkspaceId(member.getWorkspaceId())
-                                       .withRoles(new ArrayList<>(member.getRoles()));
-                }
+            final Member member = membersByWorkspace.get(wsId, userId);
+            if (member != null) {
+                return doClone(member);
             }
         } finally {
             lock.readLock().unlock();
@@ -153,23 +175,42 @@ public class LocalMemberDaoImpl implements MemberDao {
     }
 
     @Override
-    public void remove(Member member) throws NotFoundException {
+    public void remove(Member member) throws NotFoundException, ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
-            Member myMember = null;
-            for (int i = 0, size = members.size(); i < size && myMember == null; i++) {
-                Member m = members.get(i);
-                if (m.getWorkspaceId().equals(member.getWorkspaceId()) && m.getUserId().equals(member.getUserId())) {
-                    myMember = m;
-                }
-            }
-            if (myMember == null) {
+            if (membersByWorkspace.remove(member.getWorkspaceId(), member.getUserId()) == null) {
                 throw new NotFoundException(String.format("Unable to update membership: user %s has no memberships in workspace %s.",
                                                           member.getUserId(), member.getWorkspaceId()));
             }
-            members.remove(myMember);
+            membersByUser.remove(member.getUserId(), member.getWorkspaceId());
+            seq = storage.remove(WORKSPACE_MEMBERS, key(member.getWorkspaceId(), member.getUserId()));
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
+    }
+
+    private void index(Member member) {
+        membersByWorkspace.put(member.getWorkspaceId(), member.getUserId(), member);
+        membersByUser.put(member.getUserId(), member.getWorkspaceId(), member);
+    }
+
+    private static String key(String wsId, String userId) {
+        return wsId + ':' + userId;
+    }
+
+    private static List<Member> cloneAll(Collection<Member> members) {
+        final List<Member> result = new ArrayList<>(members.size());
+        for (Member member : members) {
+            result.add(doClone(member));
+        }
+        return result;
+    }
+
+    private static Member doClone(Member member) {
+        return new Member().withUserId(member.getUserId())
+                           .withWorkspaceId(member.getWorkspaceId())
+                           .withRoles(new ArrayList<>(member.getRoles()));
     }
 }
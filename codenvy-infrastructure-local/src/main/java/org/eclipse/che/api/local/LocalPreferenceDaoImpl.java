@@ -22,14 +22,13 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.Writer;
+import java.lang.reflect.Type;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
@@ -38,19 +37,29 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Pattern;
 
 /**
+ * Keeps user preferences in memory, changes are persisted in {@link LocalStorage}. Preferences saved in {@code PreferencesStore.json} by
+ * previous versions are moved to {@link LocalStorage} on first start.
+ *
  * @author Eugene Voevodin
  */
 @Singleton
 public class LocalPreferenceDaoImpl implements PreferenceDao {
     private static final Logger LOG = LoggerFactory.getLogger(LocalPreferenceDaoImpl.class);
 
+    static final String PREFERENCES = "preferences";
+
+    private static final Type PREFERENCES_TYPE = new TypeToken<Map<String, String>>() {
+    }.getType();
+
     private final Gson                             gson;
     private final File                             storageFile;
     private final Map<String, Map<String, String>> storage;
     private final ReadWriteLock                    lock;
+    private final LocalStorage                     localStorage;
 
     @Inject
-    public LocalPreferenceDaoImpl(@Nullable @Named("preferences.store_location") String dirPath) {
+    public LocalPreferenceDaoImpl(@Nullable @Named("preferences.store_location") String dirPath, LocalStorage localStorage) {
+        this.localStorage = localStorage;
         if (dirPath == null || dirPath.isEmpty()) {
             storageFile = new File(System.getProperty("java.io.tmpdir"), "PreferencesStore.json");
         } else {
@@ -66,6 +75,11 @@ public class LocalPreferenceDaoImpl implements PreferenceDao {
         // use write lock since we are init storage at this stage
         lock.writeLock().lock();
         try {
+            final Map<String, Map<String, String>> stored = localStorage.load(PREFERENCES, PREFERENCES_TYPE);
+            if (stored != null) {
+                storage.putAll(stored);
+                return;
+            }
             if (storageFile.exists()) {
                 Reader reader = null;
                 try {
@@ -93,44 +107,45 @@ public class LocalPreferenceDaoImpl implements PreferenceDao {
                 newPreferences.put("preference2", "value");
                 storage.put("codenvy", newPreferences);
             }
+            long seq = 0;
+            for (Map.Entry<String, Map<String, String>> entry : storage.entrySet()) {
+                seq = localStorage.put(PREFERENCES, entry.getKey(), entry.getValue());
+            }
+            localStorage.sync(seq);
+        } catch (ServerException e) {
+            throw new IllegalStateException(e.getMessage(), e);
         } finally {
             lock.writeLock().unlock();
-        }
-    }
-
-    @PreDestroy
-    private void stop() {
-        lock.writeLock().lock();
-        try {
-            Writer writer = null;
-            try {
-                writer = Files.newWriter(storageFile, Charset.forName("UTF-8"));
-                gson.toJson(storage, new TypeToken<Map<String, Map<String, String>>>() {
-                }.getType(), writer);
-            } catch (Exception e) {
-                LOG.error(String.format("Failed setPreferences user profiles form %s", storageFile), e);
-            } finally {
-                if (writer != null) {
+            localStorage.register(PREFERENCES, new LocalStorage.Snapshotter() {
+                @Override
+                public Map<String, ?> snapshot() {
+                    lock.readLock().lock();
                     try {
-                        writer.close();
-                    } catch (IOException e) {
-                        LOG.error(String.format("Failed setPreferences user profiles form %s", storageFile), e);
+                        final Map<String, Map<String, String>> snapshot = new HashMap<>(storage.size());
+                        for (Map.Entry<String, Map<String, String>> entry : storage.entrySet()) {
+                            snapshot.put(entry.getKey(), new HashMap<>(entry.getValue()));
+                        }
+                        return snapshot;
+                    } finally {
+                        lock.readLock().unlock();
                     }
                 }
-            }
-        } finally {
-            lock.writeLock().unlock();
+            });
         }
     }
 
     @Override
     public void setPreferences(String userId, Map<String, String> preferences) throws ServerException, NotFoundException {
+        final long seq;
         lock.writeLock().lock();
         try {
-            storage.put(userId, new HashMap<>(preferences));
+            final Map<String, String> myPreferences = new HashMap<>(preferences);
+            storage.put(userId, myPreferences);
+            seq = localStorage.put(PREFERENCES, userId, myPreferences);
         } finally {
             lock.writeLock().unlock();
         }
+        localStorage.sync(seq);
     }
 
     @Override
@@ -170,11 +185,14 @@ public class LocalPreferenceDaoImpl implements PreferenceDao {
 
     @Override
     public void remove(String userId) throws ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
             storage.remove(userId);
+            seq = localStorage.remove(PREFERENCES, userId);
         } finally {
             lock.writeLock().unlock();
         }
+        localStorage.sync(seq);
     }
 }
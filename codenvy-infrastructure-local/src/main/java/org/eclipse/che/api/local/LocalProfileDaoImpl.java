@@ -11,6 +11,7 @@
 package org.eclipse.che.api.local;
 
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.user.server.dao.Profile;
 import org.eclipse.che.api.user.server.dao.UserProfileDao;
 import com.google.common.io.Files;
@@ -22,14 +23,12 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -37,17 +36,25 @@ import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * Keeps user profiles in memory, changes are persisted in {@link LocalStorage}. Profiles saved in {@code ProfileStorage.json} by
+ * previous versions are moved to {@link LocalStorage} on first start.
+ */
 @Singleton
 public class LocalProfileDaoImpl implements UserProfileDao {
     private static final Logger LOG = LoggerFactory.getLogger(LocalProfileDaoImpl.class);
 
+    static final String PROFILES = "profiles";
+
     private final File                 storageFile;
     private final Gson                 gson;
     private final Map<String, Profile> profiles;
     private final ReadWriteLock        lock;
+    private final LocalStorage         storage;
 
     @Inject
-    public LocalProfileDaoImpl(@Nullable @Named("profile.store_location") String dirPath) {
+    public LocalProfileDaoImpl(@Nullable @Named("profile.store_location") String dirPath, LocalStorage storage) {
+        this.storage = storage;
         if (dirPath == null || dirPath.isEmpty()) {
             storageFile = new File(System.getProperty("java.io.tmpdir"), "ProfileStorage.json");
         } else {
@@ -63,6 +70,11 @@ public class LocalProfileDaoImpl implements UserProfileDao {
         // use write lock since we are validate storage at this stage
         lock.writeLock().lock();
         try {
+            final Map<String, Profile> stored = storage.load(PROFILES, Profile.class);
+            if (stored != null) {
+                profiles.putAll(stored);
+                return;
+            }
             if (storageFile.exists()) {
                 Reader reader = null;
                 try {
@@ -93,51 +105,51 @@ public class LocalProfileDaoImpl implements UserProfileDao {
                                                .withAttributes(attributes);
                 profiles.put(profile.getId(), profile);
             }
+            long seq = 0;
+            for (Profile profile : profiles.values()) {
+                seq = storage.put(PROFILES, profile.getId(), profile);
+            }
+            storage.sync(seq);
+        } catch (ServerException e) {
+            throw new IllegalStateException(e.getMessage(), e);
         } finally {
             lock.writeLock().unlock();
-        }
-    }
-
-    @PreDestroy
-    private void stop() {
-        lock.writeLock().lock();
-        try {
-            Writer writer = null;
-            try {
-                writer = Files.newWriter(storageFile, Charset.forName("UTF-8"));
-                gson.toJson(profiles, new TypeToken<Map<String, Profile>>() {
-                }.getType(), writer);
-            } catch (Exception e) {
-                LOG.error(String.format("Failed setPreferences user profiles form %s", storageFile), e);
-            } finally {
-                if (writer != null) {
+            storage.register(PROFILES, new LocalStorage.Snapshotter() {
+                @Override
+                public Map<String, ?> snapshot() {
+                    lock.readLock().lock();
                     try {
-                        writer.close();
-                    } catch (IOException e) {
-                        LOG.error(String.format("Failed setPreferences user profiles form %s", storageFile), e);
+                        final Map<String, Profile> snapshot = new HashMap<>(profiles.size());
+                        for (Profile profile : profiles.values()) {
+                            snapshot.put(profile.getId(), doClone(profile));
+                        }
+                        return snapshot;
+                    } finally {
+                        lock.readLock().unlock();
                     }
                 }
-            }
-        } finally {
-            lock.writeLock().unlock();
+            });
         }
     }
 
     @Override
-    public void create(Profile profile) {
+    public void create(Profile profile) throws ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
             // just replace existed profile
-            final Profile copy = new Profile().withId(profile.getId()).withUserId(profile.getUserId())
-                                              .withAttributes(new LinkedHashMap<>(profile.getAttributes()));
+            final Profile copy = doClone(profile);
             profiles.put(copy.getId(), copy);
+            seq = storage.put(PROFILES, copy.getId(), copy);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
-    public void update(Profile profile) throws NotFoundException {
+    public void update(Profile profile) throws NotFoundException, ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
             final Profile myProfile = profiles.get(profile.getId());
@@ -146,22 +158,27 @@ public class LocalProfileDaoImpl implements UserProfileDao {
             }
             myProfile.getAttributes().clear();
             myProfile.getAttributes().putAll(profile.getAttributes());
+            seq = storage.put(PROFILES, myProfile.getId(), myProfile);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
-    public void remove(String id) throws NotFoundException {
+    public void remove(String id) throws NotFoundException, ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
             final Profile profile = profiles.remove(id);
             if (profile == null) {
                 throw new NotFoundException(String.format("Profile not found %s", id));
             }
+            seq = storage.remove(PROFILES, id);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
@@ -172,10 +189,14 @@ public class LocalProfileDaoImpl implements UserProfileDao {
             if (profile == null) {
                 throw new NotFoundException(String.format("Profile not found %s", id));
             }
-            return new Profile().withId(profile.getId()).withUserId(profile.getUserId())
-                                .withAttributes(new LinkedHashMap<>(profile.getAttributes()));
+            return doClone(profile);
         } finally {
             lock.readLock().unlock();
         }
     }
+
+    private static Profile doClone(Profile profile) {
+        return new Profile().withId(profile.getId()).withUserId(profile.getUserId())
+                            .withAttributes(new LinkedHashMap<>(profile.getAttributes()));
+    }
 }
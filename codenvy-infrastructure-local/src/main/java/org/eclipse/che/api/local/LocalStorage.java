@@ -0,0 +1,789 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.eclipse.che.api.core.ServerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded persistence for local DAOs. Each DAO keeps its records in memory and registers one or more named stores here. Every change
+ * of record is appended to write-ahead log, changes of concurrent writers are written and synced to disk together (group commit).
+ * Periodically all stores are dumped to compact snapshot, so on startup only the latest snapshot and short tail of the log are read.
+ * New snapshot is read back after it is written. The previous snapshot and log written after it are kept until the next snapshot, so
+ * storage starts from them if the latest snapshot can't be read. Storage doesn't start if there are snapshots but none of them can be
+ * read or log after snapshot is missing, otherwise it would be opened without most of data and the next snapshot would lose it forever.
+ * <p/>
+ * Segment of log that ends with damaged entry, e.g. after crash in the middle of write, is truncated to the last valid entry on startup.
+ * If log can't be written at runtime, changes of failed batch are reported as failed by {@link #sync(long)}, log is continued in new
+ * segment and snapshot is taken to put in memory state of DAOs, that already contains failed changes, on disk. Once snapshot is written
+ * storage is consistent again.
+ * <p/>
+ * Log entries contain full state of record or mark record as removed. Replay of such entries is idempotent, so snapshot doesn't need to
+ * be taken when DAOs don't accept changes: log is switched to new segment first and then stores are dumped, snapshot may already
+ * contain some changes from the new segment, they are applied once again on replay.
+ * <p/>
+ * Usage in DAO:
+ * <pre>
+ *     final long seq;
+ *     lock.writeLock().lock();
+ *     try {
+ *         // update in memory state
+ *         seq = storage.put("users", user.getId(), user);
+ *     } finally {
+ *         lock.writeLock().unlock();
+ *     }
+ *     storage.sync(seq); // wait until change is on disk
+ * </pre>
+ */
+@Singleton
+public class LocalStorage {
+    private static final Logger LOG = LoggerFactory.getLogger(LocalStorage.class);
+
+    public static final long DEFAULT_SNAPSHOT_PERIOD = TimeUnit.MINUTES.toMillis(10);
+    public static final int  DEFAULT_MAX_LOG_ENTRIES = 100000;
+    public static final int  MAX_BATCH_SIZE          = 1024;
+
+    private static final Charset UTF_8           = Charset.forName("UTF-8");
+    private static final String  LOG_PREFIX      = "wal-";
+    private static final String  LOG_SUFFIX      = ".log";
+    private static final String  SNAPSHOT_PREFIX = "snapshot-";
+    private static final String  SNAPSHOT_SUFFIX = ".dat";
+    /** Length and checksum of frame. */
+    private static final int     FRAME_HEADER_LENGTH = 8;
+
+    /** Provides current state of store for snapshot. */
+    public interface Snapshotter {
+        /**
+         * Get copies of all records of store. Records are serialized after this method returns so implementation must not return
+         * instances which may be modified concurrently.
+         */
+        Map<String, ?> snapshot();
+    }
+
+    private final File                                            dir;
+    private final boolean                                         sync;
+    private final long                                            snapshotPeriod;
+    private final int                                             maxLogEntries;
+    private final Gson                                            gson;
+    private final ConcurrentMap<String, Snapshotter>              snapshotters;
+    /** Recovered records of stores that aren't loaded by DAOs yet. */
+    private final ConcurrentMap<String, Map<String, JsonElement>> unloaded;
+    private final BlockingQueue<Object>                           queue;
+    private final Object                                          queueLock;
+    private final Object                                          durableLock;
+    private final AtomicLong                                      entriesSinceSnapshot;
+    private final AtomicBoolean                                   snapshotInProgress;
+    private final AtomicBoolean                                   started;
+
+    // guarded by queueLock
+    private long lastSeq;
+    // guarded by durableLock
+    private long        durableSeq;
+    /** Last failure of log writer, {@code null} if storage isn't failed or is recovered by snapshot. */
+    private IOException failure;
+    /** Changes with sequence numbers in range ({@code failedAfterSeq}, {@code failedSeq}] may be not written because of failure. */
+    private long        failedAfterSeq;
+    private long        failedSeq;
+
+    private Thread                   writer;
+    private ScheduledExecutorService snapshotScheduler;
+
+    @Inject
+    public LocalStorage(@Nullable @Named("local.storage.dir") String dirPath) {
+        this(dirPath == null || dirPath.isEmpty() ? defaultDir() : new File(dirPath),
+             true, DEFAULT_SNAPSHOT_PERIOD, DEFAULT_MAX_LOG_ENTRIES);
+    }
+
+    private static File defaultDir() {
+        final File dir = new File(System.getProperty("java.io.tmpdir"), "codenvy-local-storage");
+        LOG.warn("*********************************************************************************************");
+        LOG.warn("Property 'local.storage.dir' isn't set, data of local DAOs is stored in temporary directory {}.", dir);
+        LOG.warn("Content of this directory may be removed by system or new deployment, set 'local.storage.dir' to keep data.");
+        LOG.warn("*********************************************************************************************");
+        return dir;
+    }
+
+    /**
+     * @param dir
+     *         directory for log and snapshots
+     * @param sync
+     *         if {@code true} log is synced to disk after each batch of changes and {@link #sync(long)} waits for it, otherwise changes
+     *         are written in background and may be lost if process crashes
+     * @param snapshotPeriod
+     *         period in milliseconds between snapshots, snapshot isn't taken if there are no changes since previous one
+     * @param maxLogEntries
+     *         snapshot is taken once log has this number of entries even if {@code snapshotPeriod} isn't elapsed yet
+     */
+    public LocalStorage(File dir, boolean sync, long snapshotPeriod, int maxLogEntries) {
+        this.dir = dir;
+        this.sync = sync;
+        this.snapshotPeriod = snapshotPeriod;
+        this.maxLogEntries = maxLogEntries;
+        gson = new Gson();
+        snapshotters = new ConcurrentHashMap<>();
+        unloaded = new ConcurrentHashMap<>();
+        queue = new LinkedBlockingQueue<>();
+        queueLock = new Object();
+        durableLock = new Object();
+        entriesSinceSnapshot = new AtomicLong();
+        snapshotInProgress = new AtomicBoolean();
+        started = new AtomicBoolean();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Already started");
+        }
+        if (!(dir.isDirectory() || dir.mkdirs())) {
+            throw new IllegalStateException(String.format("Unable create directory %s", dir));
+        }
+        final long start = System.currentTimeMillis();
+        final long snapshotSeq = readSnapshot();
+        long seq = snapshotSeq;
+        final File[] segments = listFiles(LOG_PREFIX, LOG_SUFFIX);
+        // segment contains changes starting from sequence number in its name
+        if (segments.length > 0 && parseSeq(segments[0], LOG_PREFIX, LOG_SUFFIX) > snapshotSeq + 1) {
+            throw new IllegalStateException(String.format("Unable open local storage %s, log after snapshot %d is missing",
+                                                          dir, snapshotSeq));
+        }
+        for (File segment : segments) {
+            seq = Math.max(seq, replay(segment, snapshotSeq));
+        }
+        synchronized (queueLock) {
+            lastSeq = seq;
+        }
+        synchronized (durableLock) {
+            durableSeq = seq;
+        }
+        final LogWriter logWriter;
+        try {
+            logWriter = new LogWriter(seq + 1);
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        writer = new Thread(logWriter, "LocalStorageWriter");
+        writer.setDaemon(true);
+        writer.start();
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("LocalStorageSnapshot-%d").setDaemon(true).build());
+        snapshotScheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                if (entriesSinceSnapshot.get() > 0 || isFailed()) {
+                    snapshotQuietly();
+                }
+            }
+        }, snapshotPeriod, snapshotPeriod, TimeUnit.MILLISECONDS);
+        LOG.info("Local storage {} is opened in {} ms, last snapshot {}, last change {}",
+                 dir, System.currentTimeMillis() - start, snapshotSeq, seq);
+    }
+
+    /** Writes final snapshot and closes log. */
+    @PreDestroy
+    public void stop() {
+        if (started.compareAndSet(true, false)) {
+            snapshotScheduler.shutdownNow();
+            try {
+                if (!snapshotScheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                    LOG.warn("Unable terminate snapshot scheduler");
+                }
+                if (entriesSinceSnapshot.get() > 0 || isFailed()) {
+                    snapshotQuietly();
+                }
+                queue.add(Shutdown.INSTANCE);
+                writer.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Get records of store recovered on startup.
+     *
+     * @param store
+     *         name of store
+     * @param type
+     *         type of records
+     * @return records by their keys or {@code null} if there is no such store yet. Store that had records which are removed later isn't
+     * the same as store that never existed, in first case this method returns empty map.
+     */
+    public <T> Map<String, T> load(String store, Type type) {
+        checkStarted();
+        final Map<String, JsonElement> records = unloaded.remove(store);
+        if (records == null) {
+            return null;
+        }
+        final Map<String, T> result = new LinkedHashMap<>(records.size());
+        for (Map.Entry<String, JsonElement> e : records.entrySet()) {
+            result.put(e.getKey(), gson.<T>fromJson(e.getValue(), type));
+        }
+        return result;
+    }
+
+    /**
+     * Register source of records for snapshots. DAO should register store after its records are loaded with {@link #load(String, Type)}
+     * or created.
+     */
+    public void register(String store, Snapshotter snapshotter) {
+        snapshotters.put(store, snapshotter);
+    }
+
+    /**
+     * Append record to log. This method doesn't wait until record is written on disk, use {@link #sync(long)} after that. Record is
+     * serialized in current thread so caller must hold lock that protects record.
+     *
+     * @return sequence number of change
+     */
+    public long put(String store, String key, Object record) {
+        return append(store, key, gson.toJsonTree(record));
+    }
+
+    /**
+     * Append record about removal of record to log. This method doesn't wait until record is written on disk, use {@link #sync(long)}
+     * after that.
+     *
+     * @return sequence number of change
+     */
+    public long remove(String store, String key) {
+        return append(store, key, null);
+    }
+
+    /**
+     * Waits until change with specified sequence number and all preceding changes are written on disk. Does nothing if storage isn't
+     * configured to sync changes.
+     *
+     * @throws ServerException
+     *         if log can't be written. Change is kept in memory of DAO and is written on disk with the next snapshot.
+     */
+    public void sync(long seq) throws ServerException {
+        if (!sync) {
+            return;
+        }
+        synchronized (durableLock) {
+            for (; ; ) {
+                if (failure != null && seq > failedAfterSeq && seq <= failedSeq) {
+                    throw new ServerException(String.format("Unable write change to local storage %s. %s", dir, failure.getMessage()),
+                                              failure);
+                }
+                if (durableSeq >= seq) {
+                    return;
+                }
+                try {
+                    durableLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ServerException("Interrupted while waiting for write of change to disk");
+                }
+            }
+        }
+    }
+
+    /** Tells whether log failed to write some changes and storage isn't recovered by snapshot yet. */
+    public boolean isFailed() {
+        synchronized (durableLock) {
+            return failure != null;
+        }
+    }
+
+    /** Takes snapshot of all stores and removes log written before it. */
+    public void snapshot() throws ServerException {
+        checkStarted();
+        if (!snapshotInProgress.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            final long entries = entriesSinceSnapshot.get();
+            final SettableFuture<Long> rotated = SettableFuture.create();
+            synchronized (queueLock) {
+                queue.add(new Rotate(lastSeq, rotated));
+            }
+            final long seq;
+            try {
+                seq = rotated.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServerException("Interrupted while waiting for switch of log");
+            } catch (ExecutionException e) {
+                throw new ServerException(e.getCause().getMessage(), e.getCause());
+            }
+            final File snapshot = writeSnapshot(seq);
+            try {
+                readSnapshot(snapshot, new LinkedHashMap<String, Map<String, JsonElement>>());
+            } catch (IOException | RuntimeException e) {
+                throw new ServerException(String.format("Unable read back snapshot %s. %s", snapshot, e.getMessage()), e);
+            }
+            entriesSinceSnapshot.addAndGet(-entries);
+            synchronized (durableLock) {
+                if (failure != null && seq >= failedSeq) {
+                    // changes that failed to be written to log are in snapshot now
+                    failure = null;
+                    LOG.info("Local storage {} is recovered with snapshot {}", dir, seq);
+                }
+            }
+            // Keep the previous snapshot and log after it, storage starts from them if the new snapshot is damaged later.
+            final File[] snapshots = listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            long previousSeq = -1;
+            for (File file : snapshots) {
+                final long snapshotSeq = parseSeq(file, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+                if (snapshotSeq < seq) {
+                    previousSeq = Math.max(previousSeq, snapshotSeq);
+                }
+            }
+            if (previousSeq >= 0) {
+                for (File file : snapshots) {
+                    if (parseSeq(file, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < previousSeq && !file.delete()) {
+                        LOG.warn("Unable delete old snapshot {}", file);
+                    }
+                }
+                for (File file : listFiles(LOG_PREFIX, LOG_SUFFIX)) {
+                    // segment contains changes starting from sequence number in its name, segment after snapshot starts from its
+                    // sequence number + 1
+                    if (parseSeq(file, LOG_PREFIX, LOG_SUFFIX) <= previousSeq && !file.delete()) {
+                        LOG.warn("Unable delete old log segment {}", file);
+                    }
+                }
+            }
+        } finally {
+            snapshotInProgress.set(false);
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (ServerException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    private long append(String store, String key, JsonElement record) {
+        checkStarted();
+        final JsonObject entry = new JsonObject();
+        entry.addProperty("s", store);
+        entry.addProperty("k", key);
+        if (record != null) {
+            entry.add("v", record);
+        }
+        final long seq;
+        synchronized (queueLock) {
+            seq = ++lastSeq;
+            entry.addProperty("q", seq);
+            queue.add(new Change(seq, entry.toString().getBytes(UTF_8)));
+        }
+        if (entriesSinceSnapshot.incrementAndGet() == maxLogEntries) {
+            snapshotScheduler.execute(new Runnable() {
+                @Override
+                public void run() {
+                    snapshotQuietly();
+                }
+            });
+        }
+        return seq;
+    }
+
+    private void checkStarted() {
+        if (!started.get()) {
+            throw new IllegalStateException("Local storage is not started");
+        }
+    }
+
+    private File writeSnapshot(long seq) throws ServerException {
+        final File snapshot = new File(dir, fileName(SNAPSHOT_PREFIX, seq, SNAPSHOT_SUFFIX));
+        final File tmp = new File(dir, snapshot.getName() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 64 * 1024))) {
+            final List<String> stores = new ArrayList<>(snapshotters.keySet());
+            stores.addAll(unloaded.keySet());
+            final JsonObject header = new JsonObject();
+            header.addProperty("q", seq);
+            header.add("stores", gson.toJsonTree(stores));
+            writeFrame(out, header.toString().getBytes(UTF_8));
+            for (Map.Entry<String, Snapshotter> e : snapshotters.entrySet()) {
+                for (Map.Entry<String, ?> record : e.getValue().snapshot().entrySet()) {
+                    writeFrame(out, snapshotEntry(e.getKey(), record.getKey(), gson.toJsonTree(record.getValue())));
+                }
+            }
+            for (Map.Entry<String, Map<String, JsonElement>> e : unloaded.entrySet()) {
+                for (Map.Entry<String, JsonElement> record : e.getValue().entrySet()) {
+                    writeFrame(out, snapshotEntry(e.getKey(), record.getKey(), record.getValue()));
+                }
+            }
+            out.flush();
+            fileOut.getChannel().force(true);
+        } catch (IOException e) {
+            throw new ServerException(String.format("Unable write snapshot %s. %s", snapshot, e.getMessage()), e);
+        }
+        try {
+            Files.move(tmp.toPath(), snapshot.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ServerException(String.format("Unable write snapshot %s. %s", snapshot, e.getMessage()), e);
+        }
+        LOG.debug("Snapshot {} is written", snapshot);
+        return snapshot;
+    }
+
+    private byte[] snapshotEntry(String store, String key, JsonElement record) {
+        final JsonObject entry = new JsonObject();
+        entry.addProperty("s", store);
+        entry.addProperty("k", key);
+        entry.add("v", record);
+        return entry.toString().getBytes(UTF_8);
+    }
+
+    /**
+     * Reads the latest readable snapshot and returns sequence number of the last change included in it.
+     *
+     * @throws IllegalStateException
+     *         if there are snapshots but none of them can be read
+     */
+    private long readSnapshot() {
+        final File[] snapshots = listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        for (int i = snapshots.length - 1; i >= 0; i--) {
+            final Map<String, Map<String, JsonElement>> stores = new LinkedHashMap<>();
+            try {
+                final long seq = readSnapshot(snapshots[i], stores);
+                unloaded.putAll(stores);
+                return seq;
+            } catch (IOException | RuntimeException e) {
+                LOG.error(String.format("Unable read snapshot %s, try previous one. %s", snapshots[i], e.getMessage()), e);
+            }
+        }
+        if (snapshots.length > 0) {
+            throw new IllegalStateException(String.format("Unable open local storage %s, none of its snapshots can be read", dir));
+        }
+        return 0;
+    }
+
+    /** Reads records of snapshot to {@code stores} and returns sequence number of the last change included in snapshot. */
+    private long readSnapshot(File snapshot, Map<String, Map<String, JsonElement>> stores) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot), 64 * 1024))) {
+            final JsonObject header = parse(readFrame(in));
+            for (JsonElement store : header.getAsJsonArray("stores")) {
+                stores.put(store.getAsString(), new LinkedHashMap<String, JsonElement>());
+            }
+            byte[] frame;
+            while ((frame = readFrame(in)) != null) {
+                final JsonObject entry = parse(frame);
+                stores.get(entry.get("s").getAsString()).put(entry.get("k").getAsString(), entry.get("v"));
+            }
+            return header.get("q").getAsLong();
+        }
+    }
+
+    /**
+     * Applies changes from log segment which are newer than {@code afterSeq}, returns sequence number of the last change in segment.
+     * Damaged tail of segment is cut off, so new changes are never appended after it.
+     */
+    private long replay(File segment, long afterSeq) {
+        long seq = afterSeq;
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segment), 64 * 1024))) {
+            byte[] frame;
+            while ((frame = readFrame(in)) != null) {
+                final JsonObject entry = parse(frame);
+                final long entrySeq = entry.get("q").getAsLong();
+                if (entrySeq > afterSeq) {
+                    final String store = entry.get("s").getAsString();
+                    Map<String, JsonElement> records = unloaded.get(store);
+                    if (records == null) {
+                        unloaded.put(store, records = new LinkedHashMap<>());
+                    }
+                    final JsonElement record = entry.get("v");
+                    if (record == null) {
+                        records.remove(entry.get("k").getAsString());
+                    } else {
+                        records.put(entry.get("k").getAsString(), record);
+                    }
+                }
+                seq = Math.max(seq, entrySeq);
+                validLength += FRAME_HEADER_LENGTH + frame.length;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Typically the last entry isn't written completely because of crash.
+            LOG.warn(String.format("Log segment %s is damaged, changes after %d are ignored. %s", segment, seq, e.getMessage()));
+            truncate(segment, validLength);
+        }
+        return seq;
+    }
+
+    private void truncate(File segment, long length) {
+        try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new IllegalStateException(String.format("Unable truncate damaged log segment %s. %s", segment, e.getMessage()), e);
+        }
+    }
+
+    private JsonObject parse(byte[] frame) {
+        return new JsonParser().parse(new String(frame, UTF_8)).getAsJsonObject();
+    }
+
+    private File[] listFiles(final String prefix, final String suffix) {
+        final File[] files = dir.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(prefix) && name.endsWith(suffix);
+            }
+        });
+        if (files == null) {
+            return new File[0];
+        }
+        // names contain sequence numbers of the same length
+        Arrays.sort(files);
+        return files;
+    }
+
+    private static String fileName(String prefix, long seq, String suffix) {
+        return String.format("%s%020d%s", prefix, seq, suffix);
+    }
+
+    private static long parseSeq(File file, String prefix, String suffix) {
+        final String name = file.getName();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private static void writeFrame(DataOutputStream out, byte[] data) throws IOException {
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        out.writeInt(data.length);
+        out.writeInt((int)crc.getValue());
+        out.write(data);
+    }
+
+    /** Reads next frame or returns {@code null} at the end of stream. */
+    private static byte[] readFrame(DataInputStream in) throws IOException {
+        final int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        final int checksum = in.readInt();
+        if (length < 0) {
+            throw new IOException(String.format("Invalid length of entry %d", length));
+        }
+        final byte[] data = new byte[length];
+        in.readFully(data);
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        if ((int)crc.getValue() != checksum) {
+            throw new IOException("Checksum mismatch");
+        }
+        return data;
+    }
+
+    private static class Change {
+        final long   seq;
+        final byte[] data;
+
+        Change(long seq, byte[] data) {
+            this.seq = seq;
+            this.data = data;
+        }
+    }
+
+    /** Request to switch log to new segment. All changes up to {@code seq} are in previous segments once request is done. */
+    private static class Rotate {
+        final long                 seq;
+        final SettableFuture<Long> done;
+
+        Rotate(long seq, SettableFuture<Long> done) {
+            this.seq = seq;
+            this.done = done;
+        }
+    }
+
+    private enum Shutdown {
+        INSTANCE
+    }
+
+    /**
+     * Writes changes from queue to log. All changes that are in queue at the moment are written and synced together. If batch can't be
+     * written the current segment is abandoned, log is continued in new segment and snapshot is requested to recover failed changes.
+     */
+    private class LogWriter implements Runnable {
+        FileOutputStream fileOut;
+        DataOutputStream out;
+
+        LogWriter(long firstSeq) throws IOException {
+            open(firstSeq);
+        }
+
+        void open(long firstSeq) throws IOException {
+            fileOut = new FileOutputStream(new File(dir, fileName(LOG_PREFIX, firstSeq, LOG_SUFFIX)), true);
+            out = new DataOutputStream(new BufferedOutputStream(fileOut, 64 * 1024));
+        }
+
+        void close() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.close();
+            } catch (IOException e) {
+                LOG.error(e.getMessage(), e);
+            }
+            out = null;
+            fileOut = null;
+        }
+
+        void flush() throws IOException {
+            if (out != null) {
+                out.flush();
+                if (sync) {
+                    fileOut.getChannel().force(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            final List<Object> batch = new ArrayList<>(MAX_BATCH_SIZE);
+            for (; ; ) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    close();
+                    return;
+                }
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                long written = -1;
+                try {
+                    for (Object item : batch) {
+                        if (item instanceof Change) {
+                            final Change change = (Change)item;
+                            if (out == null) {
+                                // previous segment is abandoned after failure
+                                open(change.seq);
+                            }
+                            writeFrame(out, change.data);
+                            written = change.seq;
+                        } else {
+                            flush();
+                            if (written > 0) {
+                                durable(written);
+                                written = -1;
+                            }
+                            if (item instanceof Rotate) {
+                                final Rotate rotate = (Rotate)item;
+                                close();
+                                open(rotate.seq + 1);
+                                rotate.done.set(rotate.seq);
+                            } else {
+                                close();
+                                return;
+                            }
+                        }
+                    }
+                    flush();
+                    if (written > 0) {
+                        durable(written);
+                    }
+                } catch (IOException e) {
+                    LOG.error(String.format("Unable write log of local storage %s. %s", dir, e.getMessage()), e);
+                    failed(batch, e);
+                }
+                batch.clear();
+            }
+        }
+
+        void durable(long seq) {
+            synchronized (durableLock) {
+                durableSeq = seq;
+                durableLock.notifyAll();
+            }
+        }
+
+        void failed(List<Object> batch, IOException e) {
+            long lastSeq = -1;
+            for (Object item : batch) {
+                if (item instanceof Change) {
+                    lastSeq = ((Change)item).seq;
+                } else if (item instanceof Rotate) {
+                    ((Rotate)item).done.setException(e);
+                }
+            }
+            synchronized (durableLock) {
+                if (failure == null) {
+                    failedAfterSeq = durableSeq;
+                }
+                failure = e;
+                failedSeq = Math.max(failedSeq, lastSeq);
+                durableLock.notifyAll();
+            }
+            // Segment may end with partially written entry, don't append to it. New segment is opened with the next change.
+            close();
+            if (started.get()) {
+                try {
+                    snapshotScheduler.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            snapshotQuietly();
+                        }
+                    });
+                } catch (RejectedExecutionException ignored) {
+                    // storage is stopped, final snapshot is taken by stop()
+                }
+            }
+        }
+    }
+}
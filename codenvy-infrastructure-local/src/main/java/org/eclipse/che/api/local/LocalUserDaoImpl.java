@@ -12,6 +12,7 @@ package org.eclipse.che.api.local;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.user.server.dao.UserDao;
 import org.eclipse.che.api.user.server.dao.User;
 
@@ -19,42 +20,70 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * Keeps users in memory. Users are indexed by id and by each alias, all indexes are updated under the same write lock. Changes are
+ * persisted in {@link LocalStorage}.
+ */
 @Singleton
 public class LocalUserDaoImpl implements UserDao {
-    private final List<User>    users;
-    private final ReadWriteLock lock;
+    static final String USERS = "users";
+
+    private final Map<String, User> users;
+    private final Map<String, User> usersByAlias;
+    private final ReadWriteLock     lock;
+    private final LocalStorage      storage;
 
     @Inject
-    public LocalUserDaoImpl(@Named("codenvy.local.infrastructure.users") Set<User> users) {
-        this.users = new LinkedList<>();
+    public LocalUserDaoImpl(@Named("codenvy.local.infrastructure.users") Set<User> users, LocalStorage storage) {
+        this.storage = storage;
+        this.users = new LinkedHashMap<>();
+        usersByAlias = new HashMap<>();
         lock = new ReentrantReadWriteLock();
-        try {
-            for (User user : users) {
-                create(user);
+        final Map<String, User> stored = storage.load(USERS, User.class);
+        if (stored == null) {
+            try {
+                for (User user : users) {
+                    create(user);
+                }
+            } catch (Exception e) {
+                // fail if can't validate this instance properly
+                throw new RuntimeException(e);
+            }
+        } else {
+            for (User user : stored.values()) {
+                index(user);
             }
-        } catch (Exception e) {
-            // fail if can't validate this instance properly
-            throw new RuntimeException(e);
         }
+        storage.register(USERS, new LocalStorage.Snapshotter() {
+            @Override
+            public Map<String, ?> snapshot() {
+                lock.readLock().lock();
+                try {
+                    final Map<String, User> snapshot = new LinkedHashMap<>(LocalUserDaoImpl.this.users.size());
+                    for (User user : LocalUserDaoImpl.this.users.values()) {
+                        snapshot.put(user.getId(), doClone(user));
+                    }
+                    return snapshot;
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        });
     }
 
     @Override
     public boolean authenticate(String alias, String password) throws NotFoundException {
         lock.readLock().lock();
         try {
-            User myUser = null;
-            for (int i = 0, size = users.size(); i < size && myUser == null; i++) {
-                if (users.get(i).getAliases().contains(alias)) {
-                    myUser = users.get(i);
-                }
-            }
+            final User myUser = usersByAlias.get(alias);
             if (myUser == null) {
                 throw new NotFoundException(String.format("User not found %s", alias));
             }
@@ -65,80 +94,83 @@ public class LocalUserDaoImpl implements UserDao {
     }
 
     @Override
-    public void create(User user) throws ConflictException {
+    public void create(User user) throws ConflictException, ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
             final String userId = user.getId();
-            final Set<String> aliases = new HashSet<>(user.getAliases());
-            for (User u : users) {
-                if (u.getId().equals(userId)) {
+            if (users.containsKey(userId)) {
+                throw new ConflictException(
+                        String.format("Unable create new user '%s'. User id %s is already in use.", user.getEmail(), userId));
+            }
+            for (String alias : user.getAliases()) {
+                if (usersByAlias.containsKey(alias)) {
                     throw new ConflictException(
-                            String.format("Unable create new user '%s'. User id %s is already in use.", user.getEmail(), userId));
-                }
-                for (String alias : u.getAliases()) {
-                    if (aliases.contains(alias)) {
-                        throw new ConflictException(
-                                String.format("Unable create new user '%s'. User alias %s is already in use.", user.getEmail(), alias));
-                    }
+                            String.format("Unable create new user '%s'. User alias %s is already in use.", user.getEmail(), alias));
                 }
             }
-            users.add(doClone(user));
+            final User myUser = doClone(user);
+            index(myUser);
+            seq = storage.put(USERS, userId, myUser);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
-    public void update(User user) throws NotFoundException {
+    public void update(User user) throws NotFoundException, ServerException, ConflictException {
+        final long seq;
         lock.writeLock().lock();
         try {
-            User myUser = null;
-            for (int i = 0, size = users.size(); i < size && myUser == null; i++) {
-                if (users.get(i).getId().equals(user.getId())) {
-                    myUser = users.get(i);
-                }
-            }
+            final User myUser = users.get(user.getId());
             if (myUser == null) {
                 throw new NotFoundException(String.format("User not found %s", user.getId()));
             }
+            for (String alias : user.getAliases()) {
+                final User aliasOwner = usersByAlias.get(alias);
+                if (aliasOwner != null && aliasOwner != myUser) {
+                    throw new ConflictException(
+                            String.format("Unable update user '%s'. User alias %s is already in use.", user.getEmail(), alias));
+                }
+            }
+            removeAliases(myUser);
             myUser.getAliases().clear();
             myUser.getAliases().addAll(user.getAliases());
             myUser.setEmail(user.getEmail());
             myUser.setPassword(user.getPassword());
+            for (String alias : myUser.getAliases()) {
+                usersByAlias.put(alias, myUser);
+            }
+            seq = storage.put(USERS, myUser.getId(), myUser);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
-    public void remove(String id) throws NotFoundException {
+    public void remove(String id) throws NotFoundException, ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
-            User myUser = null;
-            for (int i = 0, size = users.size(); i < size && myUser == null; i++) {
-                if (users.get(i).getId().equals(id)) {
-                    myUser = users.get(i);
-                }
-            }
+            final User myUser = users.remove(id);
             if (myUser == null) {
                 throw new NotFoundException(String.format("User not found %s", id));
             }
-            users.remove(myUser);
+            removeAliases(myUser);
+            seq = storage.remove(USERS, id);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
     public User getByAlias(String alias) throws NotFoundException {
         lock.readLock().lock();
         try {
-            User user = null;
-            for (int i = 0, size = users.size(); i < size && user == null; i++) {
-                if (users.get(i).getAliases().contains(alias)) {
-                    user = users.get(i);
-                }
-            }
+            final User user = usersByAlias.get(alias);
             if (user == null) {
                 throw new NotFoundException(String.format("User not found %s", alias));
             }
@@ -152,12 +184,7 @@ public class LocalUserDaoImpl implements UserDao {
     public User getById(String id) throws NotFoundException {
         lock.readLock().lock();
         try {
-            User user = null;
-            for (int i = 0, size = users.size(); i < size && user == null; i++) {
-                if (users.get(i).getId().equals(id)) {
-                    user = users.get(i);
-                }
-            }
+            final User user = users.get(id);
             if (user == null) {
                 throw new NotFoundException(String.format("User not found %s", id));
             }
@@ -167,6 +194,22 @@ public class LocalUserDaoImpl implements UserDao {
         }
     }
 
+    private void index(User user) {
+        users.put(user.getId(), user);
+        for (String alias : user.getAliases()) {
+            usersByAlias.put(alias, user);
+        }
+    }
+
+    /** Removes aliases of user from index. Aliases which point to other users are kept. */
+    private void removeAliases(User user) {
+        for (String alias : user.getAliases()) {
+            if (usersByAlias.get(alias) == user) {
+                usersByAlias.remove(alias);
+            }
+        }
+    }
+
     private User doClone(User user) {
         return new User().withId(user.getId())
                          .withEmail(user.getEmail())
@@ -10,115 +10,158 @@
  *******************************************************************************/
 package org.eclipse.che.api.local;
 
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.workspace.server.dao.Workspace;
 import org.eclipse.che.api.workspace.server.dao.WorkspaceDao;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Pattern;
 
+/**
+ * Keeps workspaces in memory. Workspaces are indexed by id, name and account id, all indexes are updated under the same write lock.
+ * Changes are persisted in {@link LocalStorage}.
+ */
 @Singleton
 public class LocalWorkspaceDaoImpl implements WorkspaceDao {
     private static final Pattern WS_NAME = Pattern.compile("[\\w][\\w\\.\\-]{1,18}[\\w]");
 
-    private final List<Workspace> workspaces;
-    private final ReadWriteLock   lock;
+    static final String WORKSPACES = "workspaces";
+
+    private final Map<String, Workspace>      workspaces;
+    private final Map<String, Workspace>      workspacesByName;
+    private final SetMultimap<String, String> workspacesByAccount;
+    private final ReadWriteLock               lock;
+    private final LocalStorage                storage;
 
     @Inject
-    public LocalWorkspaceDaoImpl(@Named("codenvy.local.infrastructure.workspaces") Set<Workspace> workspaces) {
-        this.workspaces = new LinkedList<>();
+    public LocalWorkspaceDaoImpl(@Named("codenvy.local.infrastructure.workspaces") Set<Workspace> workspaces, LocalStorage storage) {
+        this.storage = storage;
+        this.workspaces = new LinkedHashMap<>();
+        workspacesByName = new HashMap<>();
+        workspacesByAccount = LinkedHashMultimap.create();
         lock = new ReentrantReadWriteLock();
-        try {
-            for (Workspace workspace : workspaces) {
-                create(workspace);
+        final Map<String, Workspace> stored = storage.load(WORKSPACES, Workspace.class);
+        if (stored == null) {
+            try {
+                for (Workspace workspace : workspaces) {
+                    create(workspace);
+                }
+            } catch (Exception e) {
+                // fail if can't validate this instance properly
+                throw new RuntimeException(e);
+            }
+        } else {
+            for (Workspace workspace : stored.values()) {
+                index(workspace);
             }
-        } catch (Exception e) {
-            // fail if can't validate this instance properly
-            throw new RuntimeException(e);
         }
+        storage.register(WORKSPACES, new LocalStorage.Snapshotter() {
+            @Override
+            public Map<String, ?> snapshot() {
+                lock.readLock().lock();
+                try {
+                    final Map<String, Workspace> snapshot = new LinkedHashMap<>(LocalWorkspaceDaoImpl.this.workspaces.size());
+                    for (Workspace workspace : LocalWorkspaceDaoImpl.this.workspaces.values()) {
+                        snapshot.put(workspace.getId(), doClone(workspace));
+                    }
+                    return snapshot;
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        });
     }
 
     @Override
-    public void create(Workspace workspace) throws ConflictException {
+    public void create(Workspace workspace) throws ConflictException, ServerException {
         validateWorkspaceName(workspace.getName());
+        final long seq;
         lock.writeLock().lock();
         try {
-            for (Workspace w : workspaces) {
-                if (w.getId().equals(workspace.getId())) {
-                    throw new ConflictException(String.format("Workspace with id %s already exists.", workspace.getId()));
-                }
-                if (w.getName().equals(workspace.getName())) {
-                    throw new ConflictException(String.format("Workspace with name %s already exists.", workspace.getName()));
-                }
+            if (workspaces.containsKey(workspace.getId())) {
+                throw new ConflictException(String.format("Workspace with id %s already exists.", workspace.getId()));
+            }
+            if (workspacesByName.containsKey(workspace.getName())) {
+                throw new ConflictException(String.format("Workspace with name %s already exists.", workspace.getName()));
             }
-            workspaces.add(new Workspace().withId(workspace.getId()).withName(workspace.getName()).withAccountId(workspace.getAccountId())
-                                          .withAttributes(new LinkedHashMap<>(workspace.getAttributes()))
-                                          .withTemporary(workspace.isTemporary()));
+            final Workspace myWorkspace = doClone(workspace);
+            index(myWorkspace);
+            seq = storage.put(WORKSPACES, myWorkspace.getId(), myWorkspace);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
-    public void update(Workspace workspace) throws NotFoundException, ConflictException {
+    public void update(Workspace workspace) throws NotFoundException, ConflictException, ServerException {
         validateWorkspaceName(workspace.getName());
+        final long seq;
         lock.writeLock().lock();
         try {
-            Workspace myWorkspace = null;
-            for (int i = 0, size = workspaces.size(); i < size && myWorkspace == null; i++) {
-                if (workspaces.get(i).getId().equals(workspace.getId())) {
-                    myWorkspace = workspaces.get(i);
-                }
-            }
+            final Workspace myWorkspace = workspaces.get(workspace.getId());
             if (myWorkspace == null) {
                 throw new NotFoundException(String.format("Workspace not found %s", workspace.getId()));
             }
+            if (!myWorkspace.getName().equals(workspace.getName())) {
+                if (workspacesByName.containsKey(workspace.getName())) {
+                    throw new ConflictException(String.format("Workspace with name %s already exists.", workspace.getName()));
+                }
+                workspacesByName.remove(myWorkspace.getName());
+                workspacesByName.put(workspace.getName(), myWorkspace);
+            }
             myWorkspace.setName(workspace.getName());
             myWorkspace.getAttributes().clear();
             myWorkspace.getAttributes().putAll(workspace.getAttributes());
+            seq = storage.put(WORKSPACES, myWorkspace.getId(), myWorkspace);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
-    public void remove(String id) throws NotFoundException {
+    public void remove(String id) throws NotFoundException, ServerException {
+        final long seq;
         lock.writeLock().lock();
         try {
-            Workspace myWorkspace = null;
-            for (int i = 0, size = workspaces.size(); i < size && myWorkspace == null; i++) {
-                if (workspaces.get(i).getId().equals(id)) {
-                    myWorkspace = workspaces.get(i);
-                }
-            }
+            final Workspace myWorkspace = workspaces.remove(id);
             if (myWorkspace == null) {
                 throw new NotFoundException(String.format("Workspace not found %s", id));
             }
-            workspaces.remove(myWorkspace);
+            workspacesByName.remove(myWorkspace.getName());
+            workspacesByAccount.remove(myWorkspace.getAccountId(), id);
+            seq = storage.remove(WORKSPACES, id);
         } finally {
             lock.writeLock().unlock();
         }
+        storage.sync(seq);
     }
 
     @Override
     public Workspace getById(String id) throws NotFoundException {
         lock.readLock().lock();
         try {
-            for (Workspace workspace : workspaces) {
-                if (workspace.getId().equals(id)) {
-                    return new Workspace().withId(workspace.getId()).withName(workspace.getName()).withAccountId(workspace.getAccountId())
-                                          .withAttributes(new LinkedHashMap<>(workspace.getAttributes()))
-                                          .withTemporary(workspace.isTemporary());
-                }
+            final Workspace workspace = workspaces.get(id);
+            if (workspace != null) {
+                return doClone(workspace);
             }
         } finally {
             lock.readLock().unlock();
@@ -127,33 +170,59 @@ public class LocalWorkspaceDaoImpl implements WorkspaceDao {
     }
 
     @Override
-    public Workspace getByName(String name) throws NotFoundException {
+    public List<Workspace> getByIds(Collection<String> ids) {
+        final List<Workspace> result = new ArrayList<>(ids.size());
         lock.readLock().lock();
         try {
-            for (Workspace workspace : workspaces) {
-                if (workspace.getName().equals(name)) {
-                    return new Workspace().withId(workspace.getId()).withName(workspace.getName()).withAccountId(workspace.getAccountId())
-                                          .withAttributes(new LinkedHashMap<>(workspace.getAttributes()))
-                                          .withTemporary(workspace.isTemporary());
+            for (String id : ids) {
+                final Workspace workspace = workspaces.get(id);
+                if (workspace != null) {
+                    result.add(doClone(workspace));
                 }
             }
         } finally {
             lock.readLock().unlock();
         }
+        return result;
+    }
+
+    @Override
+    public Workspace getByName(String name) throws NotFoundException {
+        lock.readLock().lock();
+        try {
+            final Workspace workspace = workspacesByName.get(name);
+            if (workspace != null) {
+                return doClone(workspace);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
         throw new NotFoundException(String.format("Workspace not found %s", name));
     }
 
     @Override
     public List<Workspace> getByAccount(String accountId) {
-        final List<Workspace> result = new LinkedList<>();
         lock.readLock().lock();
         try {
-            for (Workspace workspace : workspaces) {
-                if (workspace.getAccountId().equals(accountId)) {
-                    result.add(new Workspace().withId(workspace.getId()).withName(workspace.getName())
-                                              .withAccountId(workspace.getAccountId())
-                                              .withAttributes(new LinkedHashMap<>(workspace.getAttributes()))
-                                              .withTemporary(workspace.isTemporary()));
+            final Set<String> ids = workspacesByAccount.get(accountId);
+            final List<Workspace> result = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                result.add(doClone(workspaces.get(id)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Workspace> getByAccounts(Collection<String> accountIds) {
+        final List<Workspace> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String accountId : new LinkedHashSet<>(accountIds)) {
+                for (String id : workspacesByAccount.get(accountId)) {
+                    result.add(doClone(workspaces.get(id)));
                 }
             }
         } finally {
@@ -162,6 +231,20 @@ public class LocalWorkspaceDaoImpl implements WorkspaceDao {
         return result;
     }
 
+    private void index(Workspace workspace) {
+        workspaces.put(workspace.getId(), workspace);
+        workspacesByName.put(workspace.getName(), workspace);
+        workspacesByAccount.put(workspace.getAccountId(), workspace.getId());
+    }
+
+    private Workspace doClone(Workspace workspace) {
+        return new Workspace().withId(workspace.getId())
+                              .withName(workspace.getName())
+                              .withAccountId(workspace.getAccountId())
+                              .withAttributes(new LinkedHashMap<>(workspace.getAttributes()))
+                              .withTemporary(workspace.isTemporary());
+    }
+
     private void validateWorkspaceName(String workspaceName) throws ConflictException {
         if (workspaceName == null) {
             throw new ConflictException("Workspace name required");
@@ -170,4 +253,4 @@ public class LocalWorkspaceDaoImpl implements WorkspaceDao {
             throw new ConflictException("Incorrect workspace name");
         }
     }
-}
\ No newline at end of file
+}
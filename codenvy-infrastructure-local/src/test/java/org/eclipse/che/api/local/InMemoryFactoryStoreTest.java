@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import org.eclipse.che.api.factory.FactoryImage;
+import org.eclipse.che.api.factory.dto.Author;
+import org.eclipse.che.api.factory.dto.Factory;
+import org.eclipse.che.api.project.shared.dto.NewProject;
+import org.eclipse.che.commons.lang.Pair;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class InMemoryFactoryStoreTest {
+    private static final Logger LOG = LoggerFactory.getLogger(InMemoryFactoryStoreTest.class);
+
+    private InMemoryFactoryStore store;
+
+    @BeforeMethod(alwaysRun = true)
+    public void setUp() {
+        store = new InMemoryFactoryStore();
+    }
+
+    @Test
+    public void testFindByAttributes() throws Exception {
+        final String id1 = store.saveFactory(createFactory("user1", "account1", "maven"), Collections.<FactoryImage>emptySet());
+        final String id2 = store.saveFactory(createFactory("user1", "account1", "blank"), Collections.<FactoryImage>emptySet());
+        store.saveFactory(createFactory("user2", "account1", "maven"), Collections.<FactoryImage>emptySet());
+
+        assertEquals(ids(store.findByAttribute(Pair.of("creator.userId", "user1"))), Arrays.asList(id1, id2));
+        assertEquals(ids(store.findByAttribute(Pair.of("orgid", "account1"), Pair.of("creator.userId", "user1"),
+                                               Pair.of("project.type", "maven"))),
+                     Arrays.asList(id1));
+        assertEquals(store.findByAttribute(Pair.of("orgid", "account1")).size(), 3);
+        assertTrue(store.findByAttribute(Pair.of("creator.userId", "user1"), Pair.of("project.type", "java")).isEmpty());
+        assertTrue(store.findByAttribute(Pair.of("creator.userId", "user3")).isEmpty());
+    }
+
+    @Test
+    public void testFindByNotIndexedAttributes() throws Exception {
+        final String id1 = store.saveFactory(createFactory("user1", "account1", "maven"), Collections.<FactoryImage>emptySet());
+        final String id2 = store.saveFactory(createFactory("user2", "account1", "maven").withV("2.1"),
+                                             Collections.<FactoryImage>emptySet());
+
+        assertEquals(ids(store.findByAttribute(Pair.of("v", "2.0"))), Arrays.asList(id1));
+        assertEquals(ids(store.findByAttribute(Pair.of("orgid", "account1"), Pair.of("v", "2.1"))), Arrays.asList(id2));
+        assertTrue(store.findByAttribute(Pair.of("creator.userId", "user1"), Pair.of("v", "2.1")).isEmpty());
+    }
+
+    @Test
+    public void testNextPageReflectsChanges() throws Exception {
+        final List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(store.saveFactory(createFactory("user1", "account1", "maven"), Collections.<FactoryImage>emptySet()));
+        }
+        final List<Pair<String, String>> query = Collections.singletonList(Pair.of("creator.userId", "user1"));
+        assertEquals(ids(store.findByAttribute(2, 2, query)), ids.subList(2, 4));
+
+        store.removeFactory(ids.get(0));
+        assertEquals(ids(store.findByAttribute(2, 2, query)), ids.subList(3, 4));
+    }
+
+    @Test
+    public void testFindPage() throws Exception {
+        final List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(store.saveFactory(createFactory("user1", "account1", "maven"), Collections.<FactoryImage>emptySet()));
+        }
+        final List<Pair<String, String>> query = Collections.singletonList(Pair.of("creator.userId", "user1"));
+        assertEquals(ids(store.findByAttribute(3, 0, query)), ids.subList(0, 3));
+        assertEquals(ids(store.findByAttribute(3, 3, query)), ids.subList(3, 6));
+        assertEquals(ids(store.findByAttribute(-1, 8, query)), ids.subList(8, 10));
+        assertTrue(store.findByAttribute(3, 10, query).isEmpty());
+    }
+
+    @Test
+    public void testIndexUpdatedAfterUpdateAndRemove() throws Exception {
+        final String id = store.saveFactory(createFactory("user1", "account1", "maven"), Collections.<FactoryImage>emptySet());
+        store.updateFactory(id, store.getFactory(id).withProject(DtoFactory.getInstance().createDto(NewProject.class)
+                                                                           .withType("blank")));
+        assertTrue(store.findByAttribute(Pair.of("project.type", "maven")).isEmpty());
+        assertEquals(ids(store.findByAttribute(Pair.of("project.type", "blank"))), Arrays.asList(id));
+
+        store.removeFactory(id);
+        assertTrue(store.findByAttribute(Pair.of("project.type", "blank")).isEmpty());
+        assertTrue(store.findByAttribute(Pair.of("creator.userId", "user1")).isEmpty());
+    }
+
+    @Test
+    public void testImageContentIsSharedByFactories() throws Exception {
+        final byte[] data = {1, 2, 3, 4, 5};
+        final String id1 = store.saveFactory(createFactory("user1", "account1", "maven"),
+                                             Collections.singleton(new FactoryImage(data, "image/png", "image1")));
+        final String id2 = store.saveFactory(createFactory("user2", "account1", "maven"),
+                                             Collections.singleton(new FactoryImage(data.clone(), "image/png", "image2")));
+        final FactoryImage image1 = store.getFactoryImages(id1, "image1").iterator().next();
+        final FactoryImage image2 = store.getFactoryImages(id2, null).iterator().next();
+        assertEquals(image1.getImageData(), data);
+        assertNotSame(image1.getImageData(), data);
+        assertSame(image1.getImageData(), image2.getImageData());
+        assertEquals(image1.getHash(), image2.getHash());
+        assertEquals(image2.getName(), "image2");
+
+        store.removeFactory(id1);
+        assertNull(store.getFactoryImages(id1, null));
+        assertSame(store.getFactoryImages(id2, "image2").iterator().next().getImageData(), image2.getImageData());
+    }
+
+    /** Measures queries in store with 100k factories. Runs only with profile 'benchmark'. */
+    @Test(groups = "benchmark")
+    public void testFindInBigStore() throws Exception {
+        final int size = 100000;
+        long start = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            store.saveFactory(createFactory("user" + i, "account" + (i % 100), i % 2 == 0 ? "maven" : "blank"),
+                              Collections.<FactoryImage>emptySet());
+        }
+        LOG.info("Saved {} factories in {} ms", size, (System.nanoTime() - start) / 1000000);
+
+        final Random random = new Random(17);
+        final int queries = 10000;
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            final int n = random.nextInt(size);
+            assertEquals(store.findByAttribute(Pair.of("orgid", "account" + (n % 100)), Pair.of("creator.userId", "user" + n)).size(), 1);
+        }
+        LOG.info("{} factories, {} queries with two attributes in {} ms", size, queries, (System.nanoTime() - start) / 1000000);
+    }
+
+    private Factory createFactory(String userId, String accountId, String projectType) {
+        final DtoFactory dto = DtoFactory.getInstance();
+        return dto.createDto(Factory.class)
+                  .withV("2.0")
+                  .withCreator(dto.createDto(Author.class).withUserId(userId).withAccountId(accountId))
+                  .withProject(dto.createDto(NewProject.class).withType(projectType));
+    }
+
+    private List<String> ids(List<Factory> factories) {
+        final List<String> ids = new ArrayList<>(factories.size());
+        for (Factory factory : factories) {
+            ids.add(factory.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import org.eclipse.che.api.account.server.dao.Account;
+import org.eclipse.che.api.account.server.dao.Subscription;
+import org.eclipse.che.api.user.server.dao.User;
+import org.eclipse.che.api.workspace.server.dao.Member;
+import org.eclipse.che.api.workspace.server.dao.Workspace;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Measures lookups in local DAOs with big number of records. Tests of group 'benchmark' run only with profile 'benchmark'.
+ */
+public class LocalDaoBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(LocalDaoBenchmarkTest.class);
+
+    private static final int LOOKUPS = 100000;
+
+    private File         storageDir;
+    private LocalStorage storage;
+
+    @BeforeMethod(alwaysRun = true)
+    public void setUp() throws Exception {
+        storageDir = Files.createTempDirectory("local-storage").toFile();
+        // Don't wait for disk here, lookups are measured.
+        storage = new LocalStorage(storageDir, false, LocalStorage.DEFAULT_SNAPSHOT_PERIOD, LocalStorage.DEFAULT_MAX_LOG_ENTRIES);
+        storage.start();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        storage.stop();
+        IoUtil.deleteRecursive(storageDir);
+    }
+
+    @DataProvider(name = "sizes")
+    public Object[][] sizes() {
+        return new Object[][]{
+                {10000},
+                {100000},
+        };
+    }
+
+    @Test(groups = "benchmark", dataProvider = "sizes")
+    public void benchmarkLookups(int size) throws Exception {
+        final int accountsNum = size / 10;
+        long start = System.nanoTime();
+        final LocalUserDaoImpl userDao = new LocalUserDaoImpl(Collections.<User>emptySet(), storage);
+        final LocalWorkspaceDaoImpl workspaceDao = new LocalWorkspaceDaoImpl(Collections.<Workspace>emptySet(), storage);
+        final LocalAccountDaoImpl accountDao = new LocalAccountDaoImpl(Collections.<Account>emptySet(),
+                                                                       Collections.<org.eclipse.che.api.account.server.dao.Member>emptySet(),
+                                                                       Collections.<Subscription>emptySet(),
+                                                                       workspaceDao,
+                                                                       storage);
+        final LocalMemberDaoImpl memberDao = new LocalMemberDaoImpl(Collections.<Member>emptySet(), workspaceDao, userDao,
+                                                                    storage);
+        for (int i = 0; i < accountsNum; i++) {
+            accountDao.create(new Account().withId("account" + i).withName("account_name" + i)
+                                           .withAttributes(new HashMap<String, String>()));
+        }
+        for (int i = 0; i < size; i++) {
+            final String email = "user" + i + "@codenvy.com";
+            userDao.create(new User().withId("user" + i).withEmail(email).withPassword("secret").withAliases(asList(email)));
+            workspaceDao.create(new Workspace().withId("workspace" + i).withName("ws" + i).withAccountId("account" + (i % accountsNum))
+                                               .withAttributes(new HashMap<String, String>()));
+            memberDao.create(new Member().withUserId("user" + i).withWorkspaceId("workspace" + i)
+                                         .withRoles(singletonList("workspace/admin")));
+            if (i < accountsNum) {
+                accountDao.addMember(new org.eclipse.che.api.account.server.dao.Member().withUserId("user" + i)
+                                                                                         .withAccountId("account" + i)
+                                                                                         .withRoles(singletonList("account/owner")));
+            }
+        }
+        LOG.info("Created {} users, workspaces and members and {} accounts in {} ms", size, accountsNum, toMillis(start));
+
+        final Random random = new Random(17);
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            final int n = random.nextInt(size);
+            assertEquals(userDao.getById("user" + n).getEmail(), "user" + n + "@codenvy.com");
+            assertEquals(userDao.getByAlias("user" + n + "@codenvy.com").getId(), "user" + n);
+        }
+        LOG.info("{} users, {} lookups by id and alias in {} ms", size, LOOKUPS, toMillis(start));
+
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            final int n = random.nextInt(size);
+            assertEquals(workspaceDao.getById("workspace" + n).getName(), "ws" + n);
+            assertEquals(workspaceDao.getByName("ws" + n).getId(), "workspace" + n);
+        }
+        LOG.info("{} workspaces, {} lookups by id and name in {} ms", size, LOOKUPS, toMillis(start));
+
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            final int n = random.nextInt(accountsNum);
+            assertEquals(workspaceDao.getByAccount("account" + n).size(), size / accountsNum);
+            assertEquals(accountDao.getByOwner("user" + n).size(), 1);
+        }
+        LOG.info("{} accounts, {} lookups of workspaces and accounts by owner in {} ms", accountsNum, LOOKUPS, toMillis(start));
+
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            final int n = random.nextInt(size);
+            assertEquals(memberDao.getUserRelationships("user" + n).size(), 1);
+            assertEquals(memberDao.getWorkspaceMembers("workspace" + n).size(), 1);
+        }
+        LOG.info("{} members, {} lookups by user and workspace in {} ms", size, LOOKUPS, toMillis(start));
+    }
+
+    private static long toMillis(long start) {
+        return (System.nanoTime() - start) / 1000000;
+    }
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.user.server.dao.User;
+import org.eclipse.che.api.workspace.server.dao.Member;
+import org.eclipse.che.api.workspace.server.dao.Workspace;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Checks that secondary indexes of local DAOs are updated together with records.
+ */
+public class LocalDaoIndexTest {
+    private LocalUserDaoImpl      userDao;
+    private LocalWorkspaceDaoImpl workspaceDao;
+    private LocalMemberDaoImpl    memberDao;
+    private LocalStorage          storage;
+    private File                  storageDir;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        storageDir = Files.createTempDirectory("local-storage").toFile();
+        storage = new LocalStorage(storageDir, true, LocalStorage.DEFAULT_SNAPSHOT_PERIOD, LocalStorage.DEFAULT_MAX_LOG_ENTRIES);
+        storage.start();
+        userDao = new LocalUserDaoImpl(Collections.<User>emptySet(), storage);
+        workspaceDao = new LocalWorkspaceDaoImpl(Collections.<Workspace>emptySet(), storage);
+        memberDao = new LocalMemberDaoImpl(Collections.<Member>emptySet(), workspaceDao, userDao, storage);
+        userDao.create(new User().withId("user1").withEmail("user1@codenvy.com").withAliases(asList("user1@codenvy.com")));
+        workspaceDao.create(new Workspace().withId("ws_id").withName("ws_name").withAccountId("account1")
+                                           .withAttributes(new HashMap<String, String>()));
+        memberDao.create(new Member().withUserId("user1").withWorkspaceId("ws_id").withRoles(singletonList("workspace/admin")));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        storage.stop();
+        IoUtil.deleteRecursive(storageDir);
+    }
+
+    @Test(expectedExceptions = NotFoundException.class)
+    public void testWorkspaceNameIndexUpdatedAfterRename() throws Exception {
+        workspaceDao.update(workspaceDao.getById("ws_id").withName("new_ws_name"));
+        assertEquals(workspaceDao.getByName("new_ws_name").getId(), "ws_id");
+        workspaceDao.getByName("ws_name");
+    }
+
+    @Test
+    public void testWorkspaceIndexesUpdatedAfterRemove() throws Exception {
+        workspaceDao.remove("ws_id");
+        assertTrue(workspaceDao.getByAccount("account1").isEmpty());
+        // name may be reused
+        workspaceDao.create(new Workspace().withId("ws_id2").withName("ws_name").withAccountId("account1")
+                                           .withAttributes(new HashMap<String, String>()));
+        assertEquals(workspaceDao.getByAccount("account1").get(0).getId(), "ws_id2");
+    }
+
+    @Test(expectedExceptions = NotFoundException.class)
+    public void testUserAliasIndexUpdatedAfterUpdate() throws Exception {
+        userDao.update(userDao.getById("user1").withEmail("user@codenvy.com").withAliases(asList("user@codenvy.com")));
+        assertEquals(userDao.getByAlias("user@codenvy.com").getId(), "user1");
+        userDao.getByAlias("user1@codenvy.com");
+    }
+
+    @Test
+    public void testUserUpdateWithAliasOfOtherUserIsRejected() throws Exception {
+        userDao.create(new User().withId("user2").withEmail("user2@codenvy.com").withAliases(asList("user2@codenvy.com")));
+        try {
+            userDao.update(userDao.getById("user2").withAliases(asList("user2@codenvy.com", "user1@codenvy.com")));
+            fail("ConflictException expected");
+        } catch (ConflictException expected) {
+        }
+        assertEquals(userDao.getByAlias("user1@codenvy.com").getId(), "user1");
+        assertEquals(userDao.getById("user2").getAliases(), asList("user2@codenvy.com"));
+    }
+
+    @Test
+    public void testMemberIndexesUpdatedAfterRemove() throws Exception {
+        memberDao.remove(new Member().withUserId("user1").withWorkspaceId("ws_id"));
+        assertTrue(memberDao.getUserRelationships("user1").isEmpty());
+        assertTrue(memberDao.getWorkspaceMembers("ws_id").isEmpty());
+    }
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import org.eclipse.che.api.workspace.server.dao.Workspace;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class LocalStorageTest {
+    private File         storageDir;
+    private LocalStorage storage;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        storageDir = Files.createTempDirectory("local-storage").toFile();
+        storage = open();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        storage.stop();
+        IoUtil.deleteRecursive(storageDir);
+    }
+
+    @Test
+    public void testUnknownStore() throws Exception {
+        assertNull(storage.load("workspaces", Workspace.class));
+    }
+
+    @Test
+    public void testRecoverFromLog() throws Exception {
+        storage.put("workspaces", "ws1", new Workspace().withId("ws1").withName("ws_name1"));
+        storage.put("workspaces", "ws2", new Workspace().withId("ws2").withName("ws_name2"));
+        storage.sync(storage.remove("workspaces", "ws1"));
+        crash();
+
+        storage = open();
+        final Map<String, Workspace> workspaces = storage.load("workspaces", Workspace.class);
+        assertEquals(workspaces.keySet(), Collections.singleton("ws2"));
+        assertEquals(workspaces.get("ws2").getName(), "ws_name2");
+    }
+
+    @Test
+    public void testRecoverFromSnapshotAndLog() throws Exception {
+        final Map<String, Workspace> records = new HashMap<>();
+        records.put("ws1", new Workspace().withId("ws1").withName("ws_name1"));
+        storage.register("workspaces", new LocalStorage.Snapshotter() {
+            @Override
+            public Map<String, ?> snapshot() {
+                return new HashMap<>(records);
+            }
+        });
+        storage.sync(storage.put("workspaces", "ws1", records.get("ws1")));
+        storage.snapshot();
+        // log written before the first snapshot is kept until the next snapshot
+        assertEquals(list("wal-").length, 2);
+        assertEquals(list("snapshot-").length, 1);
+
+        storage.sync(storage.put("workspaces", "ws2", new Workspace().withId("ws2").withName("ws_name2")));
+        crash();
+
+        storage = open();
+        final Map<String, Workspace> workspaces = storage.load("workspaces", Workspace.class);
+        assertEquals(workspaces.size(), 2);
+        assertEquals(workspaces.get("ws1").getName(), "ws_name1");
+        assertEquals(workspaces.get("ws2").getName(), "ws_name2");
+    }
+
+    @Test
+    public void testRecoverFromPreviousSnapshotIfLatestIsDamaged() throws Exception {
+        final Map<String, Workspace> records = new HashMap<>();
+        storage.register("workspaces", new LocalStorage.Snapshotter() {
+            @Override
+            public Map<String, ?> snapshot() {
+                return new HashMap<>(records);
+            }
+        });
+        records.put("ws1", new Workspace().withId("ws1").withName("ws_name1"));
+        storage.sync(storage.put("workspaces", "ws1", records.get("ws1")));
+        storage.snapshot();
+        records.put("ws2", new Workspace().withId("ws2").withName("ws_name2"));
+        storage.sync(storage.put("workspaces", "ws2", records.get("ws2")));
+        storage.snapshot();
+        storage.sync(storage.put("workspaces", "ws3", new Workspace().withId("ws3").withName("ws_name3")));
+        crash();
+        final File[] snapshots = list("snapshot-");
+        assertEquals(snapshots.length, 2);
+        Arrays.sort(snapshots);
+        damage(snapshots[1]);
+
+        storage = open();
+        assertEquals(storage.load("workspaces", Workspace.class).keySet(), new HashSet<>(Arrays.asList("ws1", "ws2", "ws3")));
+    }
+
+    @Test
+    public void testStartFailsIfNoneOfSnapshotsCanBeRead() throws Exception {
+        storage.register("workspaces", new LocalStorage.Snapshotter() {
+            @Override
+            public Map<String, ?> snapshot() {
+                return Collections.singletonMap("ws1", new Workspace().withId("ws1").withName("ws_name1"));
+            }
+        });
+        storage.sync(storage.put("workspaces", "ws1", new Workspace().withId("ws1").withName("ws_name1")));
+        storage.snapshot();
+        crash();
+        damage(list("snapshot-")[0]);
+
+        try {
+            open();
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    @Test
+    public void testIgnoreDamagedTailOfLog() throws Exception {
+        storage.sync(storage.put("workspaces", "ws1", new Workspace().withId("ws1").withName("ws_name1")));
+        crash();
+        final File[] segments = list("wal-");
+        try (FileOutputStream out = new FileOutputStream(segments[segments.length - 1], true)) {
+            // length and part of checksum of entry which wasn't written completely
+            out.write(new byte[]{0, 0, 0, 100, 1, 2});
+        }
+
+        storage = open();
+        assertEquals(storage.load("workspaces", Workspace.class).keySet(), Collections.singleton("ws1"));
+        storage.sync(storage.put("workspaces", "ws2", new Workspace().withId("ws2").withName("ws_name2")));
+        crash();
+
+        storage = open();
+        assertEquals(storage.load("workspaces", Workspace.class).size(), 2);
+    }
+
+    @Test
+    public void testDamagedSegmentIsTruncatedBeforeAppend() throws Exception {
+        storage.sync(storage.put("workspaces", "ws1", new Workspace().withId("ws1").withName("ws_name1")));
+        crash();
+        // crash right after switch to new segment while its first entry is written, new writer continues the same segment
+        final File segment = new File(storageDir, String.format("wal-%020d.log", 2));
+        try (FileOutputStream out = new FileOutputStream(segment)) {
+            out.write(new byte[]{0, 0, 0, 100, 1, 2});
+        }
+
+        storage = open();
+        assertEquals(segment.length(), 0);
+        storage.sync(storage.put("workspaces", "ws2", new Workspace().withId("ws2").withName("ws_name2")));
+        crash();
+
+        storage = open();
+        assertEquals(storage.load("workspaces", Workspace.class).size(), 2);
+    }
+
+    @Test
+    public void testDaoRecoversRecords() throws Exception {
+        LocalWorkspaceDaoImpl workspaceDao = new LocalWorkspaceDaoImpl(Collections.<Workspace>emptySet(), storage);
+        workspaceDao.create(new Workspace().withId("ws1").withName("ws_name1").withAccountId("account1")
+                                           .withAttributes(new HashMap<String, String>()));
+        workspaceDao.update(workspaceDao.getById("ws1").withName("new_ws_name1"));
+        storage.stop();
+
+        storage = open();
+        workspaceDao = new LocalWorkspaceDaoImpl(Collections.singleton(new Workspace().withId("ws2").withName("ws_name2")
+                                                                                      .withAccountId("account1")
+                                                                                      .withAttributes(new HashMap<String, String>())),
+                                                 storage);
+        // records are recovered, default records aren't added again
+        assertEquals(workspaceDao.getByAccount("account1").size(), 1);
+        assertEquals(workspaceDao.getByName("new_ws_name1").getId(), "ws1");
+        assertTrue(list("snapshot-").length > 0);
+    }
+
+    private LocalStorage open() {
+        final LocalStorage storage = new LocalStorage(storageDir, true, LocalStorage.DEFAULT_SNAPSHOT_PERIOD,
+                                                      LocalStorage.DEFAULT_MAX_LOG_ENTRIES);
+        storage.start();
+        return storage;
+    }
+
+    /** Leaves files of storage in the state they have at the moment, like after crash of process. */
+    private void crash() throws Exception {
+        final File image = Files.createTempDirectory("local-storage").toFile();
+        for (File file : storageDir.listFiles()) {
+            Files.copy(file.toPath(), new File(image, file.getName()).toPath());
+        }
+        storage.stop();
+        IoUtil.deleteRecursive(storageDir);
+        storageDir = image;
+    }
+
+    /** Overwrites the first entry of file, so its checksum doesn't match any more. */
+    private void damage(File file) throws Exception {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(8);
+            raf.write(new byte[]{'#', '#', '#'});
+        }
+    }
+
+    private File[] list(final String prefix) {
+        return storageDir.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(prefix);
+            }
+        });
+    }
+}